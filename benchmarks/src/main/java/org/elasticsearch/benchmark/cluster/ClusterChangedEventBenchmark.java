@@ -0,0 +1,122 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.cluster;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the appliers on a node spend working out which indices a cluster state update touched, as a function of the number
+ * of indices in the cluster. The update changes the metadata of a single index, like a typical mapping or settings update, and is
+ * built the way that applying a diff builds it, keeping the instances of all the other indices. {@code perApplierScan} is what each
+ * applier did before the change sets were shared through the {@link ClusterChangedEvent}: compare every index itself.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class ClusterChangedEventBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int indexCount;
+
+    /**
+     * The number of appliers and listeners that want to know which indices changed.
+     */
+    @Param({ "1", "10" })
+    public int consumerCount;
+
+    private ClusterState previousState;
+    private ClusterState state;
+
+    @Setup
+    public void setUp() {
+        final Metadata.Builder metadata = Metadata.builder();
+        for (int i = 0; i < indexCount; i++) {
+            metadata.put(indexMetadata("index-" + i, 1), false);
+        }
+        final Metadata previousMetadata = metadata.build();
+        final RoutingTable.Builder routingTable = RoutingTable.builder();
+        for (IndexMetadata indexMetadata : previousMetadata.indices().values()) {
+            routingTable.addAsNew(indexMetadata);
+        }
+        previousState = ClusterState.builder(ClusterName.DEFAULT).metadata(previousMetadata).routingTable(routingTable).build();
+
+        final String updated = "index-" + (indexCount / 2);
+        final IndexMetadata updatedIndexMetadata = IndexMetadata.builder(previousMetadata.index(updated))
+            .settingsVersion(2)
+            .settings(Settings.builder().put(previousMetadata.index(updated).getSettings()).put("index.refresh_interval", "5s"))
+            .build();
+        state = ClusterState.builder(previousState)
+            .metadata(Metadata.builder(previousMetadata).put(updatedIndexMetadata, true))
+            .build();
+    }
+
+    private static IndexMetadata indexMetadata(String name, long version) {
+        return IndexMetadata.builder(name)
+            .settings(Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT))
+            .numberOfShards(1)
+            .numberOfReplicas(1)
+            .version(version)
+            .build();
+    }
+
+    @Benchmark
+    public void sharedChangeSet(Blackhole bh) {
+        final ClusterChangedEvent event = new ClusterChangedEvent("benchmark", state, previousState);
+        for (int i = 0; i < consumerCount; i++) {
+            for (Index index : event.indicesWithChangedMetadata()) {
+                bh.consume(index);
+            }
+            for (Index index : event.indicesWithChangedRouting()) {
+                bh.consume(index);
+            }
+        }
+    }
+
+    @Benchmark
+    public void perApplierScan(Blackhole bh) {
+        final ClusterChangedEvent event = new ClusterChangedEvent("benchmark", state, previousState);
+        for (int i = 0; i < consumerCount; i++) {
+            for (IndexMetadata indexMetadata : event.state().metadata().indices().values()) {
+                final IndexMetadata previous = event.previousState().metadata().index(indexMetadata.getIndex().getName());
+                if (previous == null || ClusterChangedEvent.indexMetadataChanged(indexMetadata, previous)) {
+                    bh.consume(indexMetadata.getIndex());
+                }
+                if (event.indexRoutingTableChanged(indexMetadata.getIndex().getName())) {
+                    bh.consume(indexMetadata.getIndex());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.cluster;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.MappingMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes the {@link Metadata} of a synthetic cluster with many indices, like a node does when it joins a cluster or receives a
+ * full cluster state. The indices look like the backing indices of data streams: a few distinct mappings shared by many indices, and
+ * ILM execution state in their custom metadata with one phase definition per mapping. Run it with {@code -prof gc} to see how much
+ * is allocated per deserialized state; the retained heap is what survives the deduplication of mappings and custom metadata values.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class MetadataDeserializationBenchmark {
+
+    @Param({ "10000", "50000" })
+    public int indexCount;
+
+    @Param({ "10", "100" })
+    public int distinctMappingCount;
+
+    private BytesReference serializedMetadata;
+
+    @Setup
+    public void setUp() throws IOException {
+        final MappingMetadata[] mappings = new MappingMetadata[distinctMappingCount];
+        for (int i = 0; i < distinctMappingCount; i++) {
+            mappings[i] = new MappingMetadata(new CompressedXContent(mapping(i)));
+        }
+        final Metadata.Builder builder = Metadata.builder();
+        for (int i = 0; i < indexCount; i++) {
+            final int mapping = i % distinctMappingCount;
+            builder.put(
+                IndexMetadata.builder(".ds-logs-" + mapping + "-" + i)
+                    .settings(
+                        Settings.builder()
+                            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                            .put("index.lifecycle.name", "policy-" + mapping)
+                            .put("index.hidden", true)
+                    )
+                    .numberOfShards(1)
+                    .numberOfReplicas(1)
+                    .putMapping(mappings[mapping])
+                    .putCustom(
+                        "ilm",
+                        Map.of(
+                            "phase",
+                            "hot",
+                            "action",
+                            "rollover",
+                            "step",
+                            "check-rollover-ready",
+                            "phase_time",
+                            Long.toString(1_600_000_000_000L + i),
+                            "phase_definition",
+                            phaseDefinition(mapping)
+                        )
+                    ),
+                false
+            );
+        }
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            builder.build().writeTo(out);
+            serializedMetadata = out.bytes();
+        }
+    }
+
+    private static String mapping(int mapping) {
+        final StringBuilder properties = new StringBuilder();
+        for (int field = 0; field < 50; field++) {
+            if (field > 0) {
+                properties.append(',');
+            }
+            properties.append("\"field_").append(mapping).append('_').append(field).append("\":{\"type\":\"keyword\"}");
+        }
+        return "{\"_doc\":{\"properties\":{" + properties + "}}}";
+    }
+
+    private static String phaseDefinition(int mapping) {
+        return "{\"policy\":\"policy-"
+            + mapping
+            + "\",\"phase_definition\":{\"min_age\":\"0ms\",\"actions\":{\"rollover\":{\"max_primary_shard_size\":\"50gb\","
+            + "\"max_age\":\"30d\"},\"set_priority\":{\"priority\":100}}},\"version\":1,\"modified_date_in_millis\":1600000000000}";
+    }
+
+    @Benchmark
+    public Metadata deserialize() throws IOException {
+        return Metadata.readFrom(serializedMetadata.streamInput());
+    }
+}
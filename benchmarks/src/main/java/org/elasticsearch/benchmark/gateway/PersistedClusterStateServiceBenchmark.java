@@ -0,0 +1,127 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.gateway;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.MappingMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.gateway.PersistedClusterStateService;
+import org.elasticsearch.xcontent.NamedXContentRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and commits the whole metadata of a synthetic cluster to the on-disk cluster state index, as a master-eligible node does at
+ * startup. Each index has a mapping with {@code fieldCount} fields, except for {@code largeIndexCount} indices with mappings large
+ * enough that their metadata documents are split into several pages. Run it with {@code -prof gc} to see how much is allocated per
+ * commit.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class PersistedClusterStateServiceBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int indexCount;
+
+    @Param({ "10", "100" })
+    public int fieldCount;
+
+    @Param({ "0", "10" })
+    public int largeIndexCount;
+
+    private Path dataPath;
+    private PersistedClusterStateService.Writer writer;
+    private ClusterState clusterState;
+    private long currentTerm;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataPath = Files.createTempDirectory("persisted-cluster-state");
+        final PersistedClusterStateService persistedClusterStateService = new PersistedClusterStateService(
+            new Path[] { dataPath },
+            UUIDs.randomBase64UUID(),
+            NamedXContentRegistry.EMPTY,
+            new BigArrays(new PageCacheRecycler(Settings.EMPTY), null, "REQUEST"),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            System::currentTimeMillis
+        );
+        writer = persistedClusterStateService.createWriter();
+
+        // mappings are stored compressed, so use random field names to make sure that the large ones really need several pages
+        final Metadata.Builder builder = Metadata.builder();
+        for (int i = 0; i < indexCount; i++) {
+            final int indexFieldCount = i < largeIndexCount ? 100_000 : fieldCount;
+            builder.put(
+                IndexMetadata.builder("index-" + i)
+                    .settings(
+                        Settings.builder()
+                            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                            .put(IndexMetadata.SETTING_INDEX_UUID, UUIDs.randomBase64UUID())
+                    )
+                    .numberOfShards(1)
+                    .numberOfReplicas(1)
+                    .putMapping(new MappingMetadata(new CompressedXContent(mapping(i, indexFieldCount)))),
+                false
+            );
+        }
+        clusterState = ClusterState.builder(ClusterName.DEFAULT).metadata(builder).build();
+    }
+
+    private static String mapping(int index, int fieldCount) {
+        final StringBuilder properties = new StringBuilder();
+        for (int field = 0; field < fieldCount; field++) {
+            if (field > 0) {
+                properties.append(',');
+            }
+            properties.append("\"field_").append(index).append('_').append(UUIDs.randomBase64UUID()).append("\":{\"type\":\"keyword\"}");
+        }
+        return "{\"_doc\":{\"properties\":{" + properties + "}}}";
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(writer);
+        IOUtils.rm(dataPath);
+    }
+
+    @Benchmark
+    public void writeFullStateAndCommit() throws IOException {
+        writer.writeFullStateAndCommit(++currentTerm, clusterState);
+    }
+}
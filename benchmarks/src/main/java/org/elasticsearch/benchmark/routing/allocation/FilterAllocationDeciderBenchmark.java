@@ -0,0 +1,130 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.routing.allocation;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.node.DiscoveryNodeFilters;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.cluster.routing.allocation.decider.FilterAllocationDecider;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.cluster.node.DiscoveryNodeFilters.OpType.OR;
+
+/**
+ * Measures how long the {@link FilterAllocationDecider} takes to check every index against every node, as it does on each reroute, with
+ * a cluster-wide IP exclusion and an attribute requirement on each index. The {@code uncached} baseline matches the same filters directly
+ * instead of going through the decider's cache of filter matches.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class FilterAllocationDeciderBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int numIndices;
+
+    @Param({ "50", "500" })
+    public int numNodes;
+
+    private static final int NUM_ZONES = 3;
+
+    private FilterAllocationDecider decider;
+    private AllocationDeciders deciders;
+    private ClusterState clusterState;
+    private IndexMetadata[] indices;
+    private RoutingNode[] nodes;
+    private DiscoveryNodeFilters clusterExcludeFilters;
+
+    @Setup
+    public void setUp() {
+        final Settings settings = Settings.builder().put("cluster.routing.allocation.exclude._ip", "10.0.0.1,10.0.0.2").build();
+        decider = new FilterAllocationDecider(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        deciders = new AllocationDeciders(List.of(decider));
+        clusterExcludeFilters = DiscoveryNodeFilters.buildFromKeyValues(OR, Map.of("_ip", List.of("10.0.0.1", "10.0.0.2")));
+
+        Metadata.Builder mb = Metadata.builder();
+        for (int i = 0; i < numIndices; i++) {
+            mb.put(
+                IndexMetadata.builder("test_" + i)
+                    .settings(
+                        Settings.builder()
+                            .put("index.version.created", Version.CURRENT)
+                            .put("index.routing.allocation.require.zone", "zone_" + (i % NUM_ZONES))
+                    )
+                    .numberOfShards(1)
+                    .numberOfReplicas(0)
+            );
+        }
+        DiscoveryNodes.Builder nb = DiscoveryNodes.builder();
+        for (int i = 0; i < numNodes; i++) {
+            nb.add(Allocators.newNode("node" + i, Map.of("zone", "zone_" + (i % NUM_ZONES))));
+        }
+        clusterState = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metadata(mb)
+            .nodes(nb)
+            .build();
+        indices = clusterState.metadata().indices().values().toArray(IndexMetadata[]::new);
+        nodes = new RoutingNode[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            nodes[i] = clusterState.getRoutingNodes().node("node" + i);
+        }
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        RoutingAllocation allocation = new RoutingAllocation(deciders, clusterState.getRoutingNodes(), clusterState, null, null, 0L);
+        for (IndexMetadata index : indices) {
+            for (RoutingNode node : nodes) {
+                blackhole.consume(decider.canAllocate(index, node, allocation));
+            }
+        }
+    }
+
+    @Benchmark
+    public void uncached(Blackhole blackhole) {
+        for (IndexMetadata index : indices) {
+            DiscoveryNodeFilters requireFilters = DiscoveryNodeFilters.trimTier(index.requireFilters());
+            for (RoutingNode node : nodes) {
+                if (clusterExcludeFilters.match(node.node()) || requireFilters.match(node.node()) == false) {
+                    blackhole.consume(Decision.NO);
+                } else {
+                    blackhole.consume(Decision.YES);
+                }
+            }
+        }
+    }
+}
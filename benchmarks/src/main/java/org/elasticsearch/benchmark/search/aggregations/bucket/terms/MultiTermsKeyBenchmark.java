@@ -0,0 +1,119 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.LongTupleHash;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.search.aggregations.CardinalityUpperBound;
+import org.elasticsearch.search.aggregations.bucket.terms.BytesKeyedBucketOrds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways that the {@code multi_terms} aggregation can key its
+ * buckets: serializing every tuple of terms into a {@link BytesRef} for
+ * {@link BytesKeyedBucketOrds} or packing each term into a long and hashing
+ * the fixed-width tuple with {@link LongTupleHash}. The tuples are made of a
+ * keyword global ordinal, a long and a double, like the keys of a typical
+ * {@code multi_terms} over {@code keyword}, {@code long} and {@code double}
+ * fields.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(1_000_000)
+@State(Scope.Benchmark)
+public class MultiTermsKeyBenchmark {
+    private static final int LIMIT = 1_000_000;
+
+    /**
+     * The number of distinct values for each of the terms. The number of
+     * distinct tuples is the cube of this.
+     */
+    @Param({ "5", "50" })
+    public long distinctValuesPerTerm;
+
+    private final PageCacheRecycler recycler = new PageCacheRecycler(Settings.EMPTY);
+    private final BigArrays bigArrays = new BigArrays(recycler, null, "REQUEST");
+
+    @Benchmark
+    public void bytes(Blackhole bh) throws IOException {
+        try (
+            BytesKeyedBucketOrds ords = BytesKeyedBucketOrds.build(bigArrays, CardinalityUpperBound.ONE);
+            BytesStreamOutput output = new BytesStreamOutput()
+        ) {
+            List<Object> terms = new ArrayList<>(3);
+            for (int i = 0; i < LIMIT; i++) {
+                terms.clear();
+                terms.add(new BytesRef(Long.toString(ordinal(i))));
+                terms.add(longValue(i));
+                terms.add(doubleValue(i));
+                output.reset();
+                output.writeCollection(terms, StreamOutput::writeGenericValue);
+                bh.consume(ords.add(0, output.bytes().toBytesRef()));
+            }
+            checkSize(ords.size());
+        }
+    }
+
+    @Benchmark
+    public void packed(Blackhole bh) {
+        try (LongTupleHash ords = new LongTupleHash(3, 1, bigArrays)) {
+            long[] key = new long[3];
+            for (int i = 0; i < LIMIT; i++) {
+                key[0] = ordinal(i);
+                key[1] = longValue(i);
+                key[2] = Double.doubleToLongBits(doubleValue(i));
+                bh.consume(ords.add(key));
+            }
+            checkSize(ords.size());
+        }
+    }
+
+    private long ordinal(int i) {
+        return i % distinctValuesPerTerm;
+    }
+
+    private long longValue(int i) {
+        return (i / distinctValuesPerTerm) % distinctValuesPerTerm * 1_000_000L;
+    }
+
+    private double doubleValue(int i) {
+        return (i / (distinctValuesPerTerm * distinctValuesPerTerm)) % distinctValuesPerTerm / 10.0;
+    }
+
+    private void checkSize(long size) {
+        long expected = distinctValuesPerTerm * distinctValuesPerTerm * distinctValuesPerTerm;
+        if (size != expected) {
+            throw new IllegalArgumentException("Expected [" + expected + "] but found [" + size + "]");
+        }
+    }
+}
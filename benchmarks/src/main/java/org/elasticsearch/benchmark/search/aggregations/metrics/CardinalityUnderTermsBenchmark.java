@@ -0,0 +1,97 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.search.aggregations.metrics;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.search.aggregations.metrics.HyperLogLogPlusPlus;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emulates a {@code cardinality} aggregation under a {@code terms} aggregation
+ * with many buckets by collecting hashes into many buckets of a single
+ * {@link HyperLogLogPlusPlus}. Reports the memory used by the counts as an
+ * auxiliary counter next to the time it took to collect them.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CardinalityUnderTermsBenchmark {
+    private final PageCacheRecycler recycler = new PageCacheRecycler(Settings.EMPTY);
+    private final BigArrays bigArrays = new BigArrays(recycler, null, "REQUEST");
+
+    @Param({ "1000", "100000" })
+    public int buckets;
+
+    @Param({ "1", "10", "1000" })
+    public int valuesPerBucket;
+
+    @Param({ "10", "14" })
+    public int precision;
+
+    private long[] hashes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        hashes = new long[valuesPerBucket];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = BitMixer.mix64(random.nextInt());
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Memory {
+        public long ramBytesUsed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ramBytesUsed = 0;
+        }
+    }
+
+    @Benchmark
+    public void collect(Memory memory, Blackhole bh) {
+        try (HyperLogLogPlusPlus counts = new HyperLogLogPlusPlus(precision, bigArrays, 1)) {
+            // collect the way a terms agg would, interleaving buckets
+            for (int v = 0; v < valuesPerBucket; v++) {
+                for (long bucket = 0; bucket < buckets; bucket++) {
+                    counts.collect(bucket, hashes[v] + bucket);
+                }
+            }
+            for (long bucket = 0; bucket < buckets; bucket++) {
+                bh.consume(counts.cardinality(bucket));
+            }
+            memory.ramBytesUsed = counts.ramBytesUsed();
+        }
+    }
+}
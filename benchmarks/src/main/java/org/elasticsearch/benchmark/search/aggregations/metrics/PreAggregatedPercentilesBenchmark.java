@@ -0,0 +1,168 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.search.aggregations.metrics;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.ByteArrayStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.aggregations.metrics.TDigestState;
+import org.elasticsearch.xpack.analytics.aggregations.metrics.LogBucketCounts;
+import org.elasticsearch.xpack.analytics.aggregations.support.LogHistogramValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building percentiles from pre-aggregated documents stored as a
+ * {@code histogram}, where every value of every document is added to the
+ * digest, with documents stored as a {@code log_histogram}, where documents
+ * are merged by summing bucket counts and the digest sees every bucket once.
+ * Both arms decode the doc values of every document, encoded the way the
+ * field mappers encode them.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PreAggregatedPercentilesBenchmark {
+
+    @Param({ "10000", "1000000" })
+    public int docs;
+
+    @Param({ "20", "100" })
+    public int valuesPerDoc;
+
+    private final double gamma = LogHistogramValues.gamma(0.01);
+
+    private BytesRef[] histogramDocValues;
+    private BytesRef[] logHistogramDocValues;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(0);
+        histogramDocValues = new BytesRef[docs];
+        logHistogramDocValues = new BytesRef[docs];
+        for (int d = 0; d < docs; d++) {
+            // latencies are roughly log normal, which is the typical input of pre-aggregated percentiles
+            TreeMap<Long, Integer> buckets = new TreeMap<>();
+            for (int i = 0; i < valuesPerDoc; i++) {
+                double value = Math.exp(random.nextGaussian() * 2 + 5);
+                buckets.merge(LogHistogramValues.index(value, gamma), 1 + random.nextInt(100), Integer::sum);
+            }
+            // both fields hold the same values, the histogram field only keeps each of them with its count
+            BytesStreamOutput histogram = new BytesStreamOutput();
+            BytesStreamOutput logHistogram = new BytesStreamOutput();
+            // no negative buckets and no zero count
+            logHistogram.writeVInt(0);
+            logHistogram.writeVInt(0);
+            logHistogram.writeVInt(buckets.size());
+            long previousIndex = 0;
+            for (Map.Entry<Long, Integer> bucket : buckets.entrySet()) {
+                histogram.writeVInt(bucket.getValue());
+                histogram.writeLong(Double.doubleToRawLongBits(LogHistogramValues.value(bucket.getKey(), gamma)));
+                logHistogram.writeZLong(bucket.getKey() - previousIndex);
+                logHistogram.writeVInt(bucket.getValue());
+                previousIndex = bucket.getKey();
+            }
+            histogramDocValues[d] = histogram.bytes().toBytesRef();
+            logHistogramDocValues[d] = logHistogram.bytes().toBytesRef();
+        }
+    }
+
+    @Benchmark
+    public double histogram() throws IOException {
+        TDigestState state = new TDigestState(100);
+        ByteArrayStreamInput in = new ByteArrayStreamInput();
+        for (int d = 0; d < docs; d++) {
+            BytesRef docValue = histogramDocValues[d];
+            in.reset(docValue.bytes, docValue.offset, docValue.length);
+            while (in.available() > 0) {
+                int count = in.readVInt();
+                state.add(Double.longBitsToDouble(in.readLong()), count);
+            }
+        }
+        return state.quantile(0.99);
+    }
+
+    @Benchmark
+    public double logHistogram() throws IOException {
+        try (LogBucketCounts logBucketCounts = new LogBucketCounts(gamma, BigArrays.NON_RECYCLING_INSTANCE)) {
+            DocValue value = new DocValue();
+            for (int d = 0; d < docs; d++) {
+                value.reset(logHistogramDocValues[d]);
+                logBucketCounts.add(value);
+            }
+            TDigestState state = new TDigestState(100);
+            logBucketCounts.addTo(state);
+            return state.quantile(0.99);
+        }
+    }
+
+    /**
+     * Decodes the positive buckets of a {@code log_histogram} doc value, which are the only ones this benchmark writes.
+     */
+    private class DocValue extends LogHistogramValues.LogHistogramValue {
+        private final ByteArrayStreamInput in = new ByteArrayStreamInput();
+        private int remaining;
+        private long index;
+        private int count;
+
+        void reset(BytesRef docValue) throws IOException {
+            in.reset(docValue.bytes, docValue.offset, docValue.length);
+            // skip the empty negative buckets and zero count
+            in.readVInt();
+            in.readVInt();
+            remaining = in.readVInt();
+            index = 0;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            index += in.readZLong();
+            count = in.readVInt();
+            return true;
+        }
+
+        @Override
+        public long index() {
+            return index;
+        }
+
+        @Override
+        public double value() {
+            return LogHistogramValues.value(index, gamma);
+        }
+
+        @Override
+        public int count() {
+            return count;
+        }
+    }
+}
@@ -79,7 +79,9 @@ public class FetchSourcePhaseBenchmark {
     }
 
     private BytesReference read300BytesExample() throws IOException {
-        return Streams.readFully(FetchSourcePhaseBenchmark.class.getResourceAsStream("300b_example.json"));
+        BytesReference bytes = Streams.readFully(FetchSourcePhaseBenchmark.class.getResourceAsStream("300b_example.json"));
+        // a single array, as a source loaded from stored fields is
+        return new BytesArray(BytesReference.toBytes(bytes));
     }
 
     private BytesReference buildBigExample(String extraText) throws IOException {
@@ -96,6 +98,13 @@ public class FetchSourcePhaseBenchmark {
         return FetchSourcePhase.objectToBytes(value, XContentType.JSON, Math.min(1024, lookup.internalSourceRef().length()));
     }
 
+    @Benchmark
+    public BytesReference filterBytes() {
+        SourceLookup lookup = new SourceLookup();
+        lookup.setSource(sourceBytes);
+        return lookup.filterUnparsedJson(fetchContext);
+    }
+
     @Benchmark
     public BytesReference filterXContentOnParser() throws IOException {
         BytesStreamOutput streamOutput = new BytesStreamOutput(Math.min(1024, sourceBytes.length()));
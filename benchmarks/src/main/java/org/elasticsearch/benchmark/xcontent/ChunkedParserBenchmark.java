@@ -0,0 +1,115 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.xcontent;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xcontent.XContentParserConfiguration;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a document which is split across pages, as the content of a REST request or the source of a document on a transport message
+ * usually is, either by first copying it into a single array, through a stream, or by parsing the pages in place.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ChunkedParserBenchmark {
+
+    @Param({ "JSON", "SMILE" })
+    private String format;
+
+    @Param({ "1024", "16384" })
+    private int pageSize;
+
+    private XContentType xContentType;
+    private BytesReference source;
+
+    @Setup
+    public void setup() throws IOException {
+        xContentType = XContentType.valueOf(format);
+        final BytesReference json = Streams.readFully(ChunkedParserBenchmark.class.getResourceAsStream("monitor_node_stats.json"));
+        final BytesReference bytes;
+        try (
+            XContentParser parser = XContentHelper.createParser(XContentParserConfiguration.EMPTY, json, XContentType.JSON);
+            XContentBuilder builder = XContentBuilder.builder(xContentType.xContent())
+        ) {
+            parser.nextToken();
+            builder.copyCurrentStructure(parser);
+            bytes = BytesReference.bytes(builder);
+        }
+        final List<BytesReference> pages = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length(); offset += pageSize) {
+            pages.add(new BytesArray(BytesReference.toBytes(bytes.slice(offset, Math.min(pageSize, bytes.length() - offset)))));
+        }
+        source = CompositeBytesReference.of(pages.toArray(new BytesReference[0]));
+    }
+
+    @Benchmark
+    public void parseFlattened(Blackhole blackhole) throws IOException {
+        final BytesRef bytesRef = source.toBytesRef();
+        try (
+            XContentParser parser = xContentType.xContent()
+                .createParser(XContentParserConfiguration.EMPTY, bytesRef.bytes, bytesRef.offset, bytesRef.length)
+        ) {
+            consume(parser, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void parseStream(Blackhole blackhole) throws IOException {
+        try (XContentParser parser = xContentType.xContent().createParser(XContentParserConfiguration.EMPTY, source.streamInput())) {
+            consume(parser, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void parseChunked(Blackhole blackhole) throws IOException {
+        try (XContentParser parser = XContentHelper.createParserNotCompressed(XContentParserConfiguration.EMPTY, source, xContentType)) {
+            consume(parser, blackhole);
+        }
+    }
+
+    private static void consume(XContentParser parser, Blackhole blackhole) throws IOException {
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                blackhole.consume(parser.currentName());
+            } else if (token.isValue()) {
+                blackhole.consume(parser.objectText());
+            }
+        }
+    }
+}
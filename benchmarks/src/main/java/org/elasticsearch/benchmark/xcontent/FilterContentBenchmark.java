@@ -9,11 +9,13 @@
 package org.elasticsearch.benchmark.xcontent;
 
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.util.Maps;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.support.JsonSourceFilter;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.search.fetch.subphase.FetchSourcePhase;
 import org.elasticsearch.xcontent.XContentBuilder;
@@ -61,6 +63,7 @@ public class FilterContentBenchmark {
     private BytesReference source;
     private XContentParserConfiguration parserConfig;
     private Set<String> filters;
+    private JsonSourceFilter jsonSourceFilter;
 
     @Setup
     public void setup() throws IOException {
@@ -81,6 +84,7 @@ public class FilterContentBenchmark {
         source = readSource(sourceFile);
         filters = buildFilters();
         parserConfig = buildParseConfig();
+        jsonSourceFilter = buildJsonSourceFilter();
     }
 
     private Set<String> buildFilters() {
@@ -141,6 +145,11 @@ public class FilterContentBenchmark {
         return FetchSourcePhase.objectToBytes(filterMap, XContentType.JSON, Math.min(1024, source.length()));
     }
 
+    @Benchmark
+    public BytesReference filterWithJsonSourceFilter() {
+        return jsonSourceFilter.filter(source);
+    }
+
     @Benchmark
     public BytesReference filterWithBuilder() throws IOException {
         BytesStreamOutput streamOutput = new BytesStreamOutput(Math.min(1024, source.length()));
@@ -179,6 +188,11 @@ public class FilterContentBenchmark {
         return XContentParserConfiguration.EMPTY.withFiltering(includes, excludes);
     }
 
+    private JsonSourceFilter buildJsonSourceFilter() {
+        String[] array = filters.toArray(Strings.EMPTY_ARRAY);
+        return inclusive ? new JsonSourceFilter(array, null) : new JsonSourceFilter(null, array);
+    }
+
     private BytesReference filter(XContentParserConfiguration contentParserConfiguration) throws IOException {
         try (BytesStreamOutput os = new BytesStreamOutput()) {
             XContentBuilder builder = new XContentBuilder(XContentType.JSON.xContent(), os);
@@ -192,6 +206,7 @@ public class FilterContentBenchmark {
     }
 
     private BytesReference readSource(String fileName) throws IOException {
-        return Streams.readFully(FilterContentBenchmark.class.getResourceAsStream(fileName));
+        // a single array, as a source loaded from stored fields is
+        return new BytesArray(BytesReference.toBytes(Streams.readFully(FilterContentBenchmark.class.getResourceAsStream(fileName))));
     }
 }
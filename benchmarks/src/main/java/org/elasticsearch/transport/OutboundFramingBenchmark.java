@@ -0,0 +1,280 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.transport;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.network.HandlingTimeTracker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the time it takes to write a small request to a channel which is also carrying a stream of large requests, with and without
+ * splitting the large requests into frames. The channel simulates a link of a fixed bandwidth, so the reported latencies (including the
+ * p0.99 percentile) reflect how long the small request waits behind the large ones. A {@code frameSizeBytes} of zero disables framing.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class OutboundFramingBenchmark {
+
+    private static final String SMALL_ACTION = "small";
+    private static final String BULK_ACTION = "bulk";
+
+    @Param({ "0", "65536" })
+    private int frameSizeBytes;
+
+    @Param({ "4194304" })
+    private int bulkRequestBytes;
+
+    // the number of large requests which are queued on the channel at any time
+    @Param({ "2" })
+    private int concurrentBulkRequests;
+
+    // the simulated bandwidth of the link, in megabytes per second (i.e. bytes per microsecond)
+    @Param({ "1000" })
+    private int linkMegabytesPerSecond;
+
+    private final AtomicLong requestIds = new AtomicLong();
+    private final Map<Long, PlainActionFuture<Void>> pendingSmallRequests = ConcurrentCollections.newConcurrentMap();
+    private ThreadPool threadPool;
+    private OutboundHandler outboundHandler;
+    private SimulatedLinkChannel channel;
+    private DiscoveryNode node;
+    private Semaphore bulkPermits;
+    private Thread bulkSender;
+    private volatile boolean running;
+
+    @Setup
+    public void setUp() {
+        threadPool = new ThreadPool(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "benchmark").build());
+        outboundHandler = new OutboundHandler(
+            "benchmark",
+            Version.CURRENT,
+            new StatsTracker(),
+            threadPool,
+            new BytesRefRecycler(PageCacheRecycler.NON_RECYCLING_INSTANCE),
+            new HandlingTimeTracker()
+        );
+        outboundHandler.setFrameSize(ByteSizeValue.ofBytes(frameSizeBytes));
+        outboundHandler.setMessageListener(new TransportMessageListener() {
+            @Override
+            public void onRequestSent(
+                DiscoveryNode node,
+                long requestId,
+                String action,
+                TransportRequest request,
+                TransportRequestOptions options
+            ) {
+                if (BULK_ACTION.equals(action)) {
+                    bulkPermits.release();
+                } else {
+                    final PlainActionFuture<Void> future = pendingSmallRequests.remove(requestId);
+                    if (future != null) {
+                        future.onResponse(null);
+                    }
+                }
+            }
+        });
+        node = new DiscoveryNode("remote", new TransportAddress(TransportAddress.META_ADDRESS, 9300), Version.CURRENT);
+        channel = new SimulatedLinkChannel(linkMegabytesPerSecond);
+        channel.start();
+
+        running = true;
+        bulkPermits = new Semaphore(concurrentBulkRequests);
+        final BytesReference bulkPayload = new BytesArray(new byte[bulkRequestBytes]);
+        bulkSender = new Thread(() -> {
+            try {
+                while (running) {
+                    bulkPermits.acquire();
+                    send(BULK_ACTION, bulkPayload);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }, "bulk-sender");
+        bulkSender.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        bulkSender.interrupt();
+        bulkSender.join();
+        channel.close();
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void sendSmallRequest() throws Exception {
+        final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+        send(SMALL_ACTION, BytesArray.EMPTY, future);
+        future.get();
+    }
+
+    private void send(String action, BytesReference payload) throws IOException {
+        send(action, payload, null);
+    }
+
+    private void send(String action, BytesReference payload, PlainActionFuture<Void> future) throws IOException {
+        final long requestId = requestIds.incrementAndGet();
+        if (future != null) {
+            pendingSmallRequests.put(requestId, future);
+        }
+        outboundHandler.sendRequest(
+            node,
+            channel,
+            requestId,
+            action,
+            new PayloadRequest(payload),
+            TransportRequestOptions.EMPTY,
+            Version.CURRENT,
+            null,
+            false
+        );
+    }
+
+    private static class PayloadRequest extends TransportRequest {
+
+        private final BytesReference payload;
+
+        PayloadRequest(BytesReference payload) {
+            this.payload = payload;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeBytesReference(payload);
+        }
+    }
+
+    /**
+     * A channel which writes the messages sent to it one at a time, taking as long as a link of the given bandwidth would take.
+     */
+    private static class SimulatedLinkChannel implements TcpChannel {
+
+        private final BlockingQueue<PendingWrite> pendingWrites = new LinkedBlockingQueue<>();
+        private final ChannelStats channelStats = new ChannelStats();
+        private final int megabytesPerSecond;
+        private final Thread writer;
+        private volatile boolean isOpen = true;
+
+        SimulatedLinkChannel(int megabytesPerSecond) {
+            this.megabytesPerSecond = megabytesPerSecond;
+            this.writer = new Thread(this::writeMessages, "simulated-link");
+        }
+
+        void start() {
+            writer.start();
+        }
+
+        private void writeMessages() {
+            try {
+                while (isOpen) {
+                    final PendingWrite pendingWrite = pendingWrites.take();
+                    final long writeNanos = pendingWrite.bytes().length() * 1000L / megabytesPerSecond;
+                    final long deadline = System.nanoTime() + writeNanos;
+                    while (System.nanoTime() - deadline < 0) {
+                        Thread.onSpinWait();
+                    }
+                    pendingWrite.listener().onResponse(null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void sendMessage(BytesReference reference, ActionListener<Void> listener) {
+            pendingWrites.add(new PendingWrite(reference, listener));
+        }
+
+        @Override
+        public boolean isServerChannel() {
+            return false;
+        }
+
+        @Override
+        public String getProfile() {
+            return TransportSettings.DEFAULT_PROFILE;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public void addConnectListener(ActionListener<Void> listener) {
+            listener.onResponse(null);
+        }
+
+        @Override
+        public ChannelStats getChannelStats() {
+            return channelStats;
+        }
+
+        @Override
+        public void close() {
+            isOpen = false;
+            writer.interrupt();
+        }
+
+        @Override
+        public void addCloseListener(ActionListener<Void> listener) {}
+
+        @Override
+        public boolean isOpen() {
+            return isOpen;
+        }
+
+        private record PendingWrite(BytesReference bytes, ActionListener<Void> listener) {}
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.transport;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.indices.recovery.PeerRecoveryTargetService;
+import org.elasticsearch.indices.recovery.RecoveryFileChunkRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of serializing the file chunks sent during a peer recovery, either to a node which receives the chunk content in the
+ * middle of the message so that the transport layer must copy it, or to a node which receives it at the end of the message so that the
+ * transport layer sends it without copying it.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class RecoveryFileChunkSerializationBenchmark {
+
+    private final BytesRefRecycler recycler = new BytesRefRecycler(new PageCacheRecycler(Settings.EMPTY));
+    private final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+
+    @Param({ "7.17.0", "8.1.0" })
+    public String targetVersion;
+
+    @Param({ "524288" })
+    public int chunkSizeBytes;
+
+    private Version version;
+    private RecoveryFileChunkRequest request;
+
+    @Setup
+    public void setup() {
+        version = Version.fromString(targetVersion);
+        final byte[] chunk = new byte[chunkSizeBytes];
+        new Random(0).nextBytes(chunk);
+        request = new RecoveryFileChunkRequest(
+            1L,
+            1L,
+            new ShardId("index", "_na_", 0),
+            new StoreFileMetadata("_0.cfs", chunkSizeBytes * 10L, "checksum", org.apache.lucene.util.Version.LATEST.toString()),
+            0L,
+            ReleasableBytesReference.wrap(new BytesArray(chunk)),
+            false,
+            0,
+            0L
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        request.decRef();
+    }
+
+    @Benchmark
+    public void serialize(Blackhole bh) throws IOException {
+        final OutboundMessage.Request message = new OutboundMessage.Request(
+            threadContext,
+            request,
+            version,
+            PeerRecoveryTargetService.Actions.FILE_CHUNK,
+            1L,
+            false,
+            null
+        );
+        try (RecyclerBytesStreamOutput bytesStream = new RecyclerBytesStreamOutput(recycler)) {
+            final BytesReference bytes = message.serialize(bytesStream);
+            bh.consume(bytes.length());
+        }
+    }
+}
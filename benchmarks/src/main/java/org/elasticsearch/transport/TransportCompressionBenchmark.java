@@ -0,0 +1,122 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.transport;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a request carrying a number of log documents with each transport compression scheme. Reports the size of the message on the
+ * wire as an auxiliary counter next to the time it took to serialize it, so that the compression ratio of the schemes can be compared on
+ * small messages (a handful of documents) as well as large ones.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TransportCompressionBenchmark {
+
+    private final BytesRefRecycler recycler = new BytesRefRecycler(new PageCacheRecycler(Settings.EMPTY));
+    private final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+
+    @Param({ "LZ4", "DEFLATE", "DEFLATE_DICTIONARY" })
+    public Compression.Scheme scheme;
+
+    @Param({ "1", "10", "1000" })
+    public int documents;
+
+    private DocumentsRequest request;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        final StringBuilder source = new StringBuilder();
+        for (int i = 0; i < documents; i++) {
+            source.append("{\"index\":{\"_index\":\"logs-generic-default\"}}\n")
+                .append("{\"@timestamp\":\"2022-01-")
+                .append(10 + random.nextInt(20))
+                .append("T")
+                .append(10 + random.nextInt(14))
+                .append(":")
+                .append(10 + random.nextInt(50))
+                .append(":00.000Z\",\"message\":\"GET /products/")
+                .append(random.nextInt(100000))
+                .append(" 200\",\"host\":{\"name\":\"host-")
+                .append(random.nextInt(10))
+                .append("\"},\"source\":{\"ip\":\"10.0.")
+                .append(random.nextInt(256))
+                .append(".")
+                .append(random.nextInt(256))
+                .append("\"},\"log\":{\"level\":\"info\"},\"ecs\":{\"version\":\"8.0.0\"},")
+                .append("\"data_stream\":{\"type\":\"logs\",\"dataset\":\"generic\",\"namespace\":\"default\"}}\n");
+        }
+        request = new DocumentsRequest(new BytesArray(source.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public void serialize(WireSize wireSize) throws IOException {
+        final OutboundMessage.Request message = new OutboundMessage.Request(
+            threadContext,
+            request,
+            Version.CURRENT,
+            "indices:data/write/bulk[s]",
+            1L,
+            false,
+            scheme
+        );
+        try (RecyclerBytesStreamOutput bytesStream = new RecyclerBytesStreamOutput(recycler)) {
+            wireSize.bytesOnWire = message.serialize(bytesStream).length();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class WireSize {
+        public long bytesOnWire;
+    }
+
+    private static class DocumentsRequest extends TransportRequest {
+
+        private final BytesReference source;
+
+        DocumentsRequest(BytesReference source) {
+            this.source = source;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeBytesReference(source);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.transport.nio;
+
+import org.apache.logging.log4j.LogManager;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.action.support.GroupedActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.network.NetworkService;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.BytesTransportRequest;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.transport.TransportSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends requests between two nodes over loopback with the NIO transport, reading and writing either through heap buffers or through
+ * pooled direct buffers. Each invocation sends a number of requests concurrently and waits for all of them to be acknowledged, so the
+ * score is the throughput of the transport. Run with {@code -prof gc} to compare the allocation rate and GC activity of the two modes.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class NioTransportBenchmark {
+
+    private static final String ACTION = "internal:benchmark/nio";
+
+    @Param({ "false", "true" })
+    public boolean directBuffers;
+
+    @Param({ "1024", "1048576" })
+    public int requestBytes;
+
+    @Param({ "16" })
+    public int concurrentRequests;
+
+    private ThreadPool threadPool;
+    private TransportService sender;
+    private TransportService receiver;
+    private Releasable connection;
+    private BytesArray payload;
+
+    @Setup
+    public void setup() {
+        threadPool = new ThreadPool(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "benchmark").build());
+        sender = startTransportService("sender");
+        receiver = startTransportService("receiver");
+        receiver.registerRequestHandler(
+            ACTION,
+            ThreadPool.Names.SAME,
+            BytesTransportRequest::new,
+            (request, channel, task) -> channel.sendResponse(TransportResponse.Empty.INSTANCE)
+        );
+        final PlainActionFuture<Releasable> future = PlainActionFuture.newFuture();
+        sender.connectToNode(receiver.getLocalNode(), future);
+        connection = future.actionGet();
+
+        final byte[] bytes = new byte[requestBytes];
+        new Random(0).nextBytes(bytes);
+        payload = new BytesArray(bytes);
+    }
+
+    private TransportService startTransportService(String nodeName) {
+        final Settings settings = Settings.builder()
+            .put(Node.NODE_NAME_SETTING.getKey(), nodeName)
+            .put(TransportSettings.PORT.getKey(), "0")
+            .put(NioTransportPlugin.NIO_WORKER_COUNT.getKey(), 2)
+            .put(NioTransportPlugin.NIO_DIRECT_BUFFERS.getKey(), directBuffers)
+            .build();
+        final NioTransport transport = new NioTransport(
+            settings,
+            Version.CURRENT,
+            threadPool,
+            new NetworkService(Collections.emptyList()),
+            new PageCacheRecycler(settings),
+            new NamedWriteableRegistry(Collections.emptyList()),
+            new NoneCircuitBreakerService(),
+            new NioGroupFactory(settings, LogManager.getLogger(NioTransportBenchmark.class))
+        );
+        final TransportService transportService = new TransportService(
+            settings,
+            transport,
+            threadPool,
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            boundAddress -> DiscoveryNode.createLocal(settings, boundAddress.publishAddress(), nodeName),
+            null,
+            Collections.emptySet()
+        );
+        transportService.start();
+        transportService.acceptIncomingRequests();
+        return transportService;
+    }
+
+    @TearDown
+    public void tearDown() {
+        connection.close();
+        sender.close();
+        receiver.close();
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Collection<TransportResponse.Empty> sendRequests() {
+        final PlainActionFuture<Collection<TransportResponse.Empty>> future = PlainActionFuture.newFuture();
+        final GroupedActionListener<TransportResponse.Empty> listener = new GroupedActionListener<>(future, concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            final BytesTransportRequest request = new BytesTransportRequest(ReleasableBytesReference.wrap(payload), Version.CURRENT);
+            sender.sendRequest(
+                receiver.getLocalNode(),
+                ACTION,
+                request,
+                TransportRequestOptions.EMPTY,
+                new ActionListenerResponseHandler<>(listener, in -> TransportResponse.Empty.INSTANCE)
+            );
+        }
+        return future.actionGet();
+    }
+}
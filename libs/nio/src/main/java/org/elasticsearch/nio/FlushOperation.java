@@ -20,6 +20,7 @@ public class FlushOperation {
     private final ByteBuffer[] buffers;
     private final int[] offsets;
     private final int length;
+    private final boolean direct;
     private int internalIndex;
 
     public FlushOperation(ByteBuffer[] buffers, BiConsumer<Void, Exception> listener) {
@@ -27,18 +28,29 @@ public class FlushOperation {
         this.buffers = buffers;
         this.offsets = new int[buffers.length];
         int offset = 0;
+        boolean direct = buffers.length > 0;
         for (int i = 0; i < buffers.length; i++) {
             ByteBuffer buffer = buffers[i];
             offsets[i] = offset;
             offset += buffer.remaining();
+            direct &= buffer.isDirect();
         }
         length = offset;
+        this.direct = direct;
     }
 
     public BiConsumer<Void, Exception> getListener() {
         return listener;
     }
 
+    /**
+     * @return whether all the buffers of this operation are direct, in which case they can be written to the channel without first copying
+     *         them to the selector's IO buffer.
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
     public boolean isFullyFlushed() {
         assert length >= internalIndex
             : "Should never have an index that is greater than the length [length=" + length + ", index=" + internalIndex + "]";
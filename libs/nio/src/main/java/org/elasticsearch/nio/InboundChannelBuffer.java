@@ -33,6 +33,7 @@ public final class InboundChannelBuffer implements AutoCloseable {
     private static final Page[] EMPTY_BYTE_PAGE_ARRAY = new Page[0];
 
     private final IntFunction<Page> pageAllocator;
+    private final boolean direct;
     private final ArrayDeque<Page> pages = new ArrayDeque<>();
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
 
@@ -42,7 +43,16 @@ public final class InboundChannelBuffer implements AutoCloseable {
     private int offset = 0;
 
     public InboundChannelBuffer(IntFunction<Page> pageAllocator) {
+        this(pageAllocator, false);
+    }
+
+    /**
+     * @param direct whether the pages supplied by the allocator are direct, in which case bytes are read from the channel straight into
+     *               the pages of this buffer instead of being copied from the selector's IO buffer.
+     */
+    public InboundChannelBuffer(IntFunction<Page> pageAllocator, boolean direct) {
         this.pageAllocator = pageAllocator;
+        this.direct = direct;
     }
 
     public static InboundChannelBuffer allocatingInstance() {
@@ -65,6 +75,10 @@ public final class InboundChannelBuffer implements AutoCloseable {
         }
     }
 
+    public boolean isDirect() {
+        return direct;
+    }
+
     public void ensureCapacity(long requiredCapacity) {
         if (isClosed.get()) {
             throw new IllegalStateException("Cannot allocate new pages if the buffer is closed.");
@@ -74,6 +88,7 @@ public final class InboundChannelBuffer implements AutoCloseable {
             int pagesToAdd = numPages - pages.size();
             for (int i = 0; i < pagesToAdd; i++) {
                 Page page = pageAllocator.apply(PAGE_SIZE);
+                assert direct == false || page.byteBuffer().isDirect() : "expected a direct page";
                 pages.addLast(page);
             }
             capacity += pagesToAdd * PAGE_SIZE;
@@ -256,8 +256,14 @@ public abstract class SocketChannelContext extends ChannelContext<SocketChannel>
     // The choice of 64KB is rather arbitrary. We can explore different sizes in the future. However, any
     // data that is copied to the buffer for a write, but not successfully flushed immediately, must be
     // copied again on the next call.
+    //
+    // Channel buffers and flush operations that are made of direct buffers skip the IO buffer altogether, since
+    // the JVM can read into them and write from them as they are.
 
     protected int readFromChannel(InboundChannelBuffer inboundChannelBuffer) throws IOException {
+        if (inboundChannelBuffer.isDirect()) {
+            return readFromChannelDirectly(inboundChannelBuffer);
+        }
         ByteBuffer ioBuffer = getSelector().getIoBuffer();
         int bytesRead;
         try {
@@ -283,11 +289,36 @@ public abstract class SocketChannelContext extends ChannelContext<SocketChannel>
         }
     }
 
+    // The number of bytes we make room for in a direct channel buffer before each read.
+    private static final int DIRECT_READ_LIMIT = 1 << 16;
+
+    private int readFromChannelDirectly(InboundChannelBuffer inboundChannelBuffer) throws IOException {
+        inboundChannelBuffer.ensureCapacity(inboundChannelBuffer.getIndex() + DIRECT_READ_LIMIT);
+        ByteBuffer[] buffers = inboundChannelBuffer.sliceBuffersFrom(inboundChannelBuffer.getIndex());
+        long bytesRead;
+        try {
+            bytesRead = rawChannel.read(buffers);
+        } catch (IOException e) {
+            closeNow = true;
+            throw e;
+        }
+        if (bytesRead < 0) {
+            closeNow = true;
+            return 0;
+        } else {
+            inboundChannelBuffer.incrementIndex(bytesRead);
+            return Math.toIntExact(bytesRead);
+        }
+    }
+
     // Currently we limit to 64KB. This is a trade-off which means more syscalls, in exchange for less
     // copying.
     private static final int WRITE_LIMIT = 1 << 16;
 
     protected int flushToChannel(FlushOperation flushOperation) throws IOException {
+        if (flushOperation.isDirect()) {
+            return flushToChannelDirectly(flushOperation);
+        }
         ByteBuffer ioBuffer = getSelector().getIoBuffer();
 
         boolean continueFlush = flushOperation.isFullyFlushed() == false;
@@ -312,6 +343,25 @@ public abstract class SocketChannelContext extends ChannelContext<SocketChannel>
         return totalBytesFlushed;
     }
 
+    private int flushToChannelDirectly(FlushOperation flushOperation) throws IOException {
+        boolean continueFlush = flushOperation.isFullyFlushed() == false;
+        int totalBytesFlushed = 0;
+        while (continueFlush) {
+            ByteBuffer[] buffers = flushOperation.getBuffersToWrite(WRITE_LIMIT);
+            int bytesFlushed;
+            try {
+                bytesFlushed = Math.toIntExact(rawChannel.write(buffers));
+            } catch (IOException e) {
+                closeNow = true;
+                throw e;
+            }
+            flushOperation.incrementIndex(bytesFlushed);
+            totalBytesFlushed += bytesFlushed;
+            continueFlush = buffers[buffers.length - 1].hasRemaining() == false && flushOperation.isFullyFlushed() == false;
+        }
+        return totalBytesFlushed;
+    }
+
     private void configureSocket(Socket socket, boolean isConnectComplete) throws IOException {
         if (socketOptionsSet) {
             return;
@@ -36,6 +36,7 @@ import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -463,6 +464,61 @@ public class SocketChannelContextTests extends ESTestCase {
         assertEquals(1, flushOperation.getBuffersToWrite()[0].position());
     }
 
+    public void testReadToDirectChannelBufferReadsIntoPages() throws IOException {
+        final int bytesToRead = randomIntBetween(1, InboundChannelBuffer.PAGE_SIZE * 3);
+        when(rawChannel.read(any(ByteBuffer[].class), anyInt(), anyInt())).thenAnswer(invocationOnMock -> {
+            ByteBuffer[] buffers = (ByteBuffer[]) invocationOnMock.getArguments()[0];
+            int remaining = bytesToRead;
+            for (ByteBuffer buffer : buffers) {
+                assertTrue(buffer.isDirect());
+                while (buffer.hasRemaining() && remaining > 0) {
+                    buffer.put((byte) 1);
+                    remaining--;
+                }
+            }
+            return (long) bytesToRead;
+        });
+
+        InboundChannelBuffer channelBuffer = new InboundChannelBuffer(n -> new Page(ByteBuffer.allocateDirect(n), () -> {}), true);
+        int bytesRead = context.readFromChannel(channelBuffer);
+        assertEquals(bytesToRead, bytesRead);
+        assertEquals(bytesToRead, channelBuffer.getIndex());
+        for (ByteBuffer buffer : channelBuffer.sliceBuffersTo(bytesToRead)) {
+            while (buffer.hasRemaining()) {
+                assertEquals(1, buffer.get());
+            }
+        }
+        verify(selector, never()).getIoBuffer();
+    }
+
+    public void testFlushDirectBuffersWritesThemWithoutCopying() throws IOException {
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(rawChannel.write(any(ByteBuffer[].class), anyInt(), anyInt())).thenAnswer(invocationOnMock -> {
+            ByteBuffer[] buffers = (ByteBuffer[]) invocationOnMock.getArguments()[0];
+            // the first write is partial, and the second one flushes the rest
+            long bytesToConsume = first.compareAndSet(true, false) ? 1030 : Long.MAX_VALUE;
+            long bytesConsumed = 0;
+            for (ByteBuffer buffer : buffers) {
+                assertTrue(buffer.isDirect());
+                int consumed = (int) Math.min(buffer.remaining(), bytesToConsume - bytesConsumed);
+                buffer.position(buffer.position() + consumed);
+                bytesConsumed += consumed;
+            }
+            return bytesConsumed;
+        });
+
+        ByteBuffer[] buffers = { ByteBuffer.allocateDirect(1023), ByteBuffer.allocateDirect(1023) };
+        FlushOperation flushOperation = new FlushOperation(buffers, listener);
+        assertTrue(flushOperation.isDirect());
+        assertEquals(1030, context.flushToChannel(flushOperation));
+        assertEquals(1, flushOperation.getBuffersToWrite().length);
+        assertEquals(7, flushOperation.getBuffersToWrite()[0].position());
+
+        assertEquals(1016, context.flushToChannel(flushOperation));
+        assertTrue(flushOperation.isFullyFlushed());
+        verify(selector, never()).getIoBuffer();
+    }
+
     private static Config.Socket getSocketConfig() {
         return new Config.Socket(
             randomBoolean(),
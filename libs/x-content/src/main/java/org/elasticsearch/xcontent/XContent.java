@@ -8,11 +8,16 @@
 
 package org.elasticsearch.xcontent;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -96,6 +101,24 @@ public interface XContent {
      */
     XContentParser createParser(XContentParserConfiguration config, byte[] data, int offset, int length) throws IOException;
 
+    /**
+     * Creates a parser over content that is split across the given buffers, which are read in order from their position to their limit
+     * without first being copied into a single array. Formats that cannot be parsed incrementally read the buffers through a stream.
+     */
+    default XContentParser createParser(XContentParserConfiguration config, ByteBuffer[] chunks) throws IOException {
+        final List<InputStream> streams = new ArrayList<>(chunks.length);
+        for (ByteBuffer chunk : chunks) {
+            if (chunk.hasArray()) {
+                streams.add(new ByteArrayInputStream(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining()));
+            } else {
+                final byte[] bytes = new byte[chunk.remaining()];
+                chunk.duplicate().get(bytes);
+                streams.add(new ByteArrayInputStream(bytes));
+            }
+        }
+        return createParser(config, new SequenceInputStream(Collections.enumeration(streams)));
+    }
+
     /**
      * Creates a parser over the provided reader.
      */
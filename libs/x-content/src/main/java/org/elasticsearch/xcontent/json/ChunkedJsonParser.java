@@ -0,0 +1,96 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.xcontent.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads content that is split across several buffers with one of Jackson's non-blocking parsers, which parse each buffer in place and
+ * carry the state of a token that spans two buffers over to the next one. The next buffer is fed to the parser whenever it runs out of
+ * input, so the content is never copied into a single array nor through the intermediate buffer of a stream based parser. Buffers which
+ * are not backed by an array are copied one at a time.
+ */
+public final class ChunkedJsonParser extends JsonParserDelegate {
+
+    private final ByteArrayFeeder feeder;
+    private final ByteBuffer[] chunks;
+    private int nextChunk;
+
+    /**
+     * @param nonBlockingParser a parser created by {@code createNonBlockingByteArrayParser()} which has not been fed any input yet
+     * @param chunks the buffers to read, in order, from their position to their limit
+     */
+    public ChunkedJsonParser(JsonParser nonBlockingParser, ByteBuffer[] chunks) {
+        super(nonBlockingParser);
+        this.feeder = (ByteArrayFeeder) nonBlockingParser.getNonBlockingInputFeeder();
+        this.chunks = chunks;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        JsonToken token;
+        while ((token = delegate.nextToken()) == JsonToken.NOT_AVAILABLE) {
+            feedNextChunk();
+        }
+        return token;
+    }
+
+    private void feedNextChunk() throws IOException {
+        if (nextChunk == chunks.length) {
+            feeder.endOfInput();
+            return;
+        }
+        final ByteBuffer chunk = chunks[nextChunk++];
+        if (chunk.hasArray()) {
+            final int offset = chunk.arrayOffset();
+            feeder.feedInput(chunk.array(), offset + chunk.position(), offset + chunk.limit());
+        } else {
+            final byte[] bytes = new byte[chunk.remaining()];
+            chunk.duplicate().get(bytes);
+            feeder.feedInput(bytes, 0, bytes.length);
+        }
+    }
+
+    // the delegate would advance the non-blocking parser directly, which returns NOT_AVAILABLE rather than reading the next chunk
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        JsonToken token = nextToken();
+        if (token == JsonToken.FIELD_NAME) {
+            token = nextToken();
+        }
+        return token;
+    }
+
+    @Override
+    public JsonParser skipChildren() throws IOException {
+        final JsonToken current = currentToken();
+        if (current != JsonToken.START_OBJECT && current != JsonToken.START_ARRAY) {
+            return this;
+        }
+        int open = 1;
+        while (true) {
+            final JsonToken token = nextToken();
+            if (token == null) {
+                return this;
+            }
+            if (token.isStructStart()) {
+                open++;
+            } else if (token.isStructEnd() && --open == 0) {
+                return this;
+            }
+        }
+    }
+}
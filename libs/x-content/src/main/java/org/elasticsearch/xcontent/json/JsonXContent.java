@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.Set;
 
 /**
@@ -82,6 +83,11 @@ public class JsonXContent implements XContent {
         return new JsonXContentParser(config, jsonFactory.createParser(data, offset, length));
     }
 
+    @Override
+    public XContentParser createParser(XContentParserConfiguration config, ByteBuffer[] chunks) throws IOException {
+        return new JsonXContentParser(config, new ChunkedJsonParser(jsonFactory.createNonBlockingByteArrayParser(), chunks));
+    }
+
     @Override
     public XContentParser createParser(XContentParserConfiguration config, Reader reader) throws IOException {
         return new JsonXContentParser(config, jsonFactory.createParser(reader));
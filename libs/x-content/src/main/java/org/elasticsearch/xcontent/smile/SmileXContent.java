@@ -20,11 +20,13 @@ import org.elasticsearch.xcontent.XContentGenerator;
 import org.elasticsearch.xcontent.XContentParser;
 import org.elasticsearch.xcontent.XContentParserConfiguration;
 import org.elasticsearch.xcontent.XContentType;
+import org.elasticsearch.xcontent.json.ChunkedJsonParser;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.Set;
 
 /**
@@ -82,6 +84,11 @@ public class SmileXContent implements XContent {
         return new SmileXContentParser(config, smileFactory.createParser(data, offset, length));
     }
 
+    @Override
+    public XContentParser createParser(XContentParserConfiguration config, ByteBuffer[] chunks) throws IOException {
+        return new SmileXContentParser(config, new ChunkedJsonParser(smileFactory.createNonBlockingByteArrayParser(), chunks));
+    }
+
     @Override
     public XContentParser createParser(XContentParserConfiguration config, Reader reader) throws IOException {
         return new SmileXContentParser(config, smileFactory.createParser(reader));
@@ -0,0 +1,133 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.xcontent;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ChunkedXContentParserTests extends ESTestCase {
+
+    public void testSameTokensAsArrayParser() throws IOException {
+        final XContentType xContentType = randomFrom(XContentType.values());
+        final byte[] bytes = randomDocument(xContentType);
+        try (
+            XContentParser expected = xContentType.xContent().createParser(XContentParserConfiguration.EMPTY, bytes);
+            XContentParser actual = xContentType.xContent().createParser(XContentParserConfiguration.EMPTY, randomChunks(bytes))
+        ) {
+            XContentParser.Token token;
+            do {
+                token = expected.nextToken();
+                assertThat(actual.nextToken(), equalTo(token));
+                if (token == XContentParser.Token.FIELD_NAME) {
+                    assertThat(actual.currentName(), equalTo(expected.currentName()));
+                } else if (token != null && token.isValue()) {
+                    assertThat(actual.objectText(), equalTo(expected.objectText()));
+                }
+            } while (token != null);
+        }
+    }
+
+    public void testSkipChildren() throws IOException {
+        final XContentType xContentType = randomFrom(XContentType.JSON, XContentType.SMILE);
+        final XContentBuilder builder = XContentBuilder.builder(xContentType.xContent())
+            .startObject()
+            .startObject("skipped");
+        addRandomFields(builder, 3);
+        final byte[] bytes = BytesReference.toBytes(BytesReference.bytes(builder.endObject().field("last", "value").endObject()));
+        try (XContentParser parser = xContentType.xContent().createParser(XContentParserConfiguration.EMPTY, randomChunks(bytes))) {
+            assertThat(parser.nextToken(), equalTo(XContentParser.Token.START_OBJECT));
+            assertThat(parser.nextToken(), equalTo(XContentParser.Token.FIELD_NAME));
+            assertThat(parser.nextToken(), equalTo(XContentParser.Token.START_OBJECT));
+            parser.skipChildren();
+            assertThat(parser.currentToken(), equalTo(XContentParser.Token.END_OBJECT));
+            assertThat(parser.nextToken(), equalTo(XContentParser.Token.FIELD_NAME));
+            assertThat(parser.currentName(), equalTo("last"));
+            assertThat(parser.nextToken(), equalTo(XContentParser.Token.VALUE_STRING));
+            assertThat(parser.text(), equalTo("value"));
+            assertThat(parser.nextToken(), equalTo(XContentParser.Token.END_OBJECT));
+            assertThat(parser.nextToken(), nullValue());
+        }
+    }
+
+    public void testMalformedJson() throws IOException {
+        final byte[] bytes = "{\"field\": \"value\", \"other\": }".getBytes(StandardCharsets.UTF_8);
+        try (XContentParser parser = XContentType.JSON.xContent().createParser(XContentParserConfiguration.EMPTY, randomChunks(bytes))) {
+            expectThrows(JsonParseException.class, parser::map);
+        }
+    }
+
+    private static byte[] randomDocument(XContentType xContentType) throws IOException {
+        final XContentBuilder builder = XContentBuilder.builder(xContentType.xContent()).startObject();
+        addRandomFields(builder, 3);
+        return BytesReference.toBytes(BytesReference.bytes(builder.endObject()));
+    }
+
+    private static void addRandomFields(XContentBuilder builder, int depth) throws IOException {
+        final int numFields = between(0, 10);
+        for (int i = 0; i < numFields; i++) {
+            builder.field("field_" + i + "_" + randomUnicodeOfLengthBetween(0, 10));
+            addRandomValue(builder, depth);
+        }
+    }
+
+    private static void addRandomValue(XContentBuilder builder, int depth) throws IOException {
+        switch (between(0, depth > 0 ? 7 : 5)) {
+            case 0 -> builder.value(randomUnicodeOfLengthBetween(0, 300));
+            case 1 -> builder.value(randomLong());
+            case 2 -> builder.value(randomDouble());
+            case 3 -> builder.value(randomBoolean());
+            case 4 -> builder.nullValue();
+            case 5 -> builder.value(randomInt());
+            case 6 -> {
+                builder.startObject();
+                addRandomFields(builder, depth - 1);
+                builder.endObject();
+            }
+            default -> {
+                builder.startArray();
+                final int numValues = between(0, 5);
+                for (int i = 0; i < numValues; i++) {
+                    addRandomValue(builder, depth - 1);
+                }
+                builder.endArray();
+            }
+        }
+    }
+
+    private static ByteBuffer[] randomChunks(byte[] bytes) {
+        final List<ByteBuffer> chunks = new ArrayList<>();
+        int offset = 0;
+        while (offset < bytes.length || randomBoolean()) {
+            final int length = between(0, Math.min(bytes.length - offset, 64));
+            final ByteBuffer chunk;
+            if (randomBoolean()) {
+                chunk = ByteBuffer.allocateDirect(length).put(bytes, offset, length).flip();
+            } else {
+                // surround the chunk with garbage to check that only the bytes between position and limit are read
+                final byte[] array = randomByteArrayOfLength(length + 10);
+                System.arraycopy(bytes, offset, array, 5, length);
+                chunk = randomBoolean() ? ByteBuffer.wrap(array, 5, length) : ByteBuffer.wrap(array, 5, length).slice();
+            }
+            chunks.add(chunk);
+            offset += length;
+        }
+        return chunks.toArray(new ByteBuffer[0]);
+    }
+}
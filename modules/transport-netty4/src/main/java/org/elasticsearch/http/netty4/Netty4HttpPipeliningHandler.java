@@ -8,26 +8,54 @@
 
 package org.elasticsearch.http.netty4;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
 
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.http.HttpPipelinedRequest;
 import org.elasticsearch.http.HttpPipelinedResponse;
 import org.elasticsearch.http.HttpPipeliningAggregator;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+import org.elasticsearch.transport.netty4.NettyAllocator;
 
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 
 /**
  * Implements HTTP pipelining ordering, ensuring that responses are completely served in the same order as their corresponding requests.
+ * Responses with a {@link Netty4ChunkedHttpResponse chunked body} are serialized one chunk at a time, and only while the channel is
+ * writable, so that no more than a few chunks of a large response are held in memory at once. Responses that become ready while a chunked
+ * response is being written are queued behind it.
  */
 public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
 
+    // Netty will add some header bytes if it compresses a chunk, so we stay slightly below the largest allocation it suggests
+    private static final int CHUNK_SIZE_HINT = (int) (NettyAllocator.suggestedMaxAllocationSize() * 0.99);
+
     private final Logger logger;
     private final HttpPipeliningAggregator<ChannelPromise> aggregator;
+    private final BigArrays bigArrays;
+
+    /**
+     * Responses that are ready to be written, in order, but that are waiting for the chunked response in progress to complete.
+     */
+    private final Queue<Tuple<HttpPipelinedResponse, ChannelPromise>> queuedWrites = new ArrayDeque<>();
+
+    @Nullable
+    private ChunkedWrite currentChunkedWrite;
 
     /**
      * Construct a new pipelining handler; this handler should be used downstream of HTTP decoding/aggregation.
@@ -35,10 +63,12 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
      * @param logger        for logging unexpected errors
      * @param maxEventsHeld the maximum number of channel events that will be retained prior to aborting the channel connection; this is
      *                      required as events cannot queue up indefinitely
+     * @param bigArrays     for allocating the buffers chunked responses are serialized into
      */
-    public Netty4HttpPipeliningHandler(Logger logger, final int maxEventsHeld) {
+    public Netty4HttpPipeliningHandler(Logger logger, final int maxEventsHeld, BigArrays bigArrays) {
         this.logger = logger;
         this.aggregator = new HttpPipeliningAggregator<>(maxEventsHeld);
+        this.bigArrays = bigArrays;
     }
 
     @Override
@@ -54,10 +84,7 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         HttpPipelinedResponse response = (HttpPipelinedResponse) msg;
         boolean success = false;
         try {
-            List<Tuple<HttpPipelinedResponse, ChannelPromise>> readyResponses = aggregator.write(response, promise);
-            for (Tuple<HttpPipelinedResponse, ChannelPromise> readyResponse : readyResponses) {
-                ctx.write(readyResponse.v1().getDelegateRequest(), readyResponse.v2());
-            }
+            queuedWrites.addAll(aggregator.write(response, promise));
             success = true;
         } catch (IllegalStateException e) {
             ctx.channel().close();
@@ -66,22 +93,121 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
                 promise.setFailure(new ClosedChannelException());
             }
         }
+        if (success) {
+            doWrite(ctx);
+        }
     }
 
     @Override
-    public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
-        List<Tuple<HttpPipelinedResponse, ChannelPromise>> inflightResponses = aggregator.removeAllInflightResponses();
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (ctx.channel().isWritable()) {
+            doWrite(ctx);
+            ctx.flush();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        failQueuedWrites();
+        ctx.fireChannelInactive();
+    }
+
+    /**
+     * Writes queued responses in order until they are all written or a chunked response has to wait for the channel to become writable.
+     */
+    private void doWrite(ChannelHandlerContext ctx) {
+        while (writeChunks(ctx)) {
+            final Tuple<HttpPipelinedResponse, ChannelPromise> queuedWrite = queuedWrites.poll();
+            if (queuedWrite == null) {
+                return;
+            }
+            final Object response = queuedWrite.v1().getDelegateRequest();
+            if (response instanceof Netty4ChunkedHttpResponse chunkedResponse) {
+                // writes the status line and headers, the body follows as a sequence of http contents
+                ctx.write(new DefaultHttpResponse(chunkedResponse.protocolVersion(), chunkedResponse.status(), chunkedResponse.headers()));
+                currentChunkedWrite = new ChunkedWrite(chunkedResponse.body(), queuedWrite.v2());
+            } else {
+                ctx.write(response, queuedWrite.v2());
+            }
+        }
+    }
 
-        if (inflightResponses.isEmpty() == false) {
+    /**
+     * Writes chunks of the current chunked response for as long as the channel is writable.
+     *
+     * @return true if there is no chunked response in progress any more, false if it has to wait for the channel to become writable
+     */
+    private boolean writeChunks(ChannelHandlerContext ctx) {
+        while (currentChunkedWrite != null) {
+            if (ctx.channel().isWritable() == false) {
+                ctx.flush();
+                return false;
+            }
+            final ChunkedWrite chunkedWrite = currentChunkedWrite;
+            final ReleasableBytesReference chunk;
+            try {
+                chunk = chunkedWrite.body.encodeChunk(CHUNK_SIZE_HINT, bigArrays);
+            } catch (Exception e) {
+                // the status line has already been sent so all we can do is to drop the connection
+                logger.debug("failed to serialize chunked http response", e);
+                currentChunkedWrite = null;
+                chunkedWrite.promise.tryFailure(e);
+                ctx.channel().close();
+                return false;
+            }
+            final boolean done = chunkedWrite.body.isDone();
+            final ChannelPromise chunkPromise = done ? chunkedWrite.promise : ctx.newPromise();
+            chunkPromise.addListener(f -> chunk.close());
+            final ByteBuf content = Netty4Utils.toByteBuf(chunk);
+            if (done) {
+                currentChunkedWrite = null;
+                ctx.write(new DefaultLastHttpContent(content), chunkPromise);
+            } else {
+                ctx.write(new DefaultHttpContent(content), chunkPromise);
+            }
+        }
+        return true;
+    }
+
+    private void failQueuedWrites() {
+        final List<ChannelPromise> promises = new ArrayList<>(queuedWrites.size() + 1);
+        if (currentChunkedWrite != null) {
+            promises.add(currentChunkedWrite.promise);
+            currentChunkedWrite = null;
+        }
+        Tuple<HttpPipelinedResponse, ChannelPromise> queuedWrite;
+        while ((queuedWrite = queuedWrites.poll()) != null) {
+            promises.add(queuedWrite.v2());
+        }
+        for (Tuple<HttpPipelinedResponse, ChannelPromise> inflightResponse : aggregator.removeAllInflightResponses()) {
+            promises.add(inflightResponse.v2());
+        }
+        if (promises.isEmpty() == false) {
             ClosedChannelException closedChannelException = new ClosedChannelException();
-            for (Tuple<HttpPipelinedResponse, ChannelPromise> inflightResponse : inflightResponses) {
+            for (ChannelPromise promise : promises) {
                 try {
-                    inflightResponse.v2().setFailure(closedChannelException);
+                    promise.tryFailure(closedChannelException);
                 } catch (RuntimeException e) {
                     logger.error("unexpected error while releasing pipelined http responses", e);
                 }
             }
         }
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+        failQueuedWrites();
         ctx.close(promise);
     }
+
+    private static final class ChunkedWrite {
+        private final ChunkedRestResponseBody body;
+        private final ChannelPromise promise;
+
+        ChunkedWrite(ChunkedRestResponseBody body, ChannelPromise promise) {
+            this.body = body;
+            this.promise = promise;
+        }
+    }
 }
@@ -22,6 +22,7 @@ import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
 
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.http.HttpRequest;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.transport.netty4.Netty4Utils;
@@ -222,6 +223,15 @@ public class Netty4HttpRequest implements HttpRequest {
         return new Netty4HttpResponse(request.protocolVersion(), status, contentRef);
     }
 
+    @Override
+    public Netty4ChunkedHttpResponse createChunkedResponse(RestStatus status, ChunkedRestResponseBody content) {
+        if (request.protocolVersion().equals(io.netty.handler.codec.http.HttpVersion.HTTP_1_0)) {
+            // chunked transfer encoding was only introduced in HTTP/1.1
+            return null;
+        }
+        return new Netty4ChunkedHttpResponse(request.protocolVersion(), status, content);
+    }
+
     @Override
     public Exception getInboundException() {
         return inboundException;
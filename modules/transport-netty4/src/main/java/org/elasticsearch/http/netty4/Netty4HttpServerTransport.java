@@ -322,7 +322,8 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
             }
             ch.pipeline().addLast("request_creator", Netty4HttpRequestCreator.INSTANCE);
             ch.pipeline().addLast("response_creator", Netty4HttpResponseCreator.INSTANCE);
-            ch.pipeline().addLast("pipelining", new Netty4HttpPipeliningHandler(logger, transport.pipeliningMaxEvents));
+            ch.pipeline()
+                .addLast("pipelining", new Netty4HttpPipeliningHandler(logger, transport.pipeliningMaxEvents, transport.bigArrays));
             ch.pipeline().addLast("handler", requestHandler);
             transport.serverAcceptedChannel(nettyHttpChannel);
         }
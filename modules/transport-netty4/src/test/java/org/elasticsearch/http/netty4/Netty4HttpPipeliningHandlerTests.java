@@ -15,19 +15,26 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.QueryStringDecoder;
 
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.http.HttpPipelinedRequest;
 import org.elasticsearch.http.HttpPipelinedResponse;
 import org.elasticsearch.http.HttpResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.After;
 
+import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -38,11 +45,14 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.Is.is;
 
 public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
@@ -78,7 +88,7 @@ public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
     public void testThatPipeliningWorksWithFastSerializedRequests() throws InterruptedException {
         final int numberOfRequests = randomIntBetween(2, 128);
         final EmbeddedChannel embeddedChannel = new EmbeddedChannel(
-            new Netty4HttpPipeliningHandler(logger, numberOfRequests),
+            new Netty4HttpPipeliningHandler(logger, numberOfRequests, BigArrays.NON_RECYCLING_INSTANCE),
             new WorkEmulatorHandler()
         );
 
@@ -107,7 +117,7 @@ public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
     public void testThatPipeliningWorksWhenSlowRequestsInDifferentOrder() throws InterruptedException {
         final int numberOfRequests = randomIntBetween(2, 128);
         final EmbeddedChannel embeddedChannel = new EmbeddedChannel(
-            new Netty4HttpPipeliningHandler(logger, numberOfRequests),
+            new Netty4HttpPipeliningHandler(logger, numberOfRequests, BigArrays.NON_RECYCLING_INSTANCE),
             new WorkEmulatorHandler()
         );
 
@@ -139,7 +149,7 @@ public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
     public void testThatPipeliningClosesConnectionWithTooManyEvents() throws InterruptedException {
         final int numberOfRequests = randomIntBetween(2, 128);
         final EmbeddedChannel embeddedChannel = new EmbeddedChannel(
-            new Netty4HttpPipeliningHandler(logger, numberOfRequests),
+            new Netty4HttpPipeliningHandler(logger, numberOfRequests, BigArrays.NON_RECYCLING_INSTANCE),
             new WorkEmulatorHandler()
         );
 
@@ -168,7 +178,9 @@ public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
 
     public void testPipeliningRequestsAreReleased() throws InterruptedException {
         final int numberOfRequests = 10;
-        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(new Netty4HttpPipeliningHandler(logger, numberOfRequests + 1));
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(
+            new Netty4HttpPipeliningHandler(logger, numberOfRequests + 1, BigArrays.NON_RECYCLING_INSTANCE)
+        );
 
         for (int i = 0; i < numberOfRequests; i++) {
             embeddedChannel.writeInbound(createHttpRequest("/" + i));
@@ -199,6 +211,114 @@ public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
         }
     }
 
+    public void testChunkedResponsesAreWrittenInOrder() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(
+            new Netty4HttpPipeliningHandler(logger, 4, BigArrays.NON_RECYCLING_INSTANCE)
+        );
+        for (int i = 0; i < 3; i++) {
+            embeddedChannel.writeInbound(createHttpRequest("/" + i));
+        }
+        final List<HttpPipelinedRequest> requests = new ArrayList<>();
+        HttpPipelinedRequest inbound;
+        while ((inbound = embeddedChannel.readInbound()) != null) {
+            requests.add(inbound);
+        }
+        assertThat(requests.size(), is(3));
+
+        final AtomicInteger released = new AtomicInteger();
+        final List<String> firstChunks = randomList(1, 10, () -> randomAlphaOfLengthBetween(1, 100));
+        final List<String> lastChunks = randomList(1, 10, () -> randomAlphaOfLengthBetween(1, 100));
+        final ChannelPromise firstPromise = embeddedChannel.newPromise();
+        final ChannelPromise secondPromise = embeddedChannel.newPromise();
+        final ChannelPromise lastPromise = embeddedChannel.newPromise();
+
+        // responses complete out of order, the chunked one for the first request last
+        embeddedChannel.writeAndFlush(
+            requests.get(2).createChunkedResponse(RestStatus.OK, chunkedBody(lastChunks, released)),
+            lastPromise
+        );
+        embeddedChannel.writeAndFlush(requests.get(1).createResponse(RestStatus.OK, new BytesArray("1")), secondPromise);
+        assertThat(embeddedChannel.outboundMessages().size(), is(0));
+        embeddedChannel.writeAndFlush(
+            requests.get(0).createChunkedResponse(RestStatus.OK, chunkedBody(firstChunks, released)),
+            firstPromise
+        );
+
+        assertReadChunkedResponse(embeddedChannel, firstChunks);
+        assertReadHttpMessageHasContent(embeddedChannel, "1");
+        assertReadChunkedResponse(embeddedChannel, lastChunks);
+        assertThat(embeddedChannel.outboundMessages().size(), is(0));
+
+        assertTrue(firstPromise.isSuccess());
+        assertTrue(secondPromise.isSuccess());
+        assertTrue(lastPromise.isSuccess());
+        assertThat(released.get(), is(firstChunks.size() + lastChunks.size()));
+        assertTrue(embeddedChannel.isOpen());
+    }
+
+    public void testChunkedResponseSerializationFailureClosesChannel() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(
+            new Netty4HttpPipeliningHandler(logger, 1, BigArrays.NON_RECYCLING_INSTANCE)
+        );
+        embeddedChannel.writeInbound(createHttpRequest("/0"));
+        final HttpPipelinedRequest request = embeddedChannel.readInbound();
+        final ChannelPromise promise = embeddedChannel.newPromise();
+        embeddedChannel.writeAndFlush(request.createChunkedResponse(RestStatus.OK, new ChunkedRestResponseBody() {
+            @Override
+            public boolean isDone() {
+                return false;
+            }
+
+            @Override
+            public ReleasableBytesReference encodeChunk(int sizeHint, BigArrays bigArrays) throws IOException {
+                throw new IOException("simulated");
+            }
+
+            @Override
+            public String getResponseContentTypeString() {
+                return "application/json";
+            }
+        }), promise);
+
+        assertTrue(promise.isDone());
+        assertThat(promise.cause().getMessage(), is("simulated"));
+        assertFalse(embeddedChannel.isOpen());
+    }
+
+    private static ChunkedRestResponseBody chunkedBody(List<String> chunks, AtomicInteger released) {
+        return new ChunkedRestResponseBody() {
+            private int index;
+
+            @Override
+            public boolean isDone() {
+                return index == chunks.size();
+            }
+
+            @Override
+            public ReleasableBytesReference encodeChunk(int sizeHint, BigArrays bigArrays) {
+                return new ReleasableBytesReference(new BytesArray(chunks.get(index++)), released::incrementAndGet);
+            }
+
+            @Override
+            public String getResponseContentTypeString() {
+                return "text/plain";
+            }
+        };
+    }
+
+    private void assertReadChunkedResponse(EmbeddedChannel embeddedChannel, List<String> expectedChunks) {
+        Object message = embeddedChannel.outboundMessages().poll();
+        assertThat(message, instanceOf(io.netty.handler.codec.http.HttpResponse.class));
+        assertThat(message, not(instanceOf(FullHttpResponse.class)));
+        assertTrue(HttpUtil.isTransferEncodingChunked((io.netty.handler.codec.http.HttpResponse) message));
+        for (int i = 0; i < expectedChunks.size(); i++) {
+            message = embeddedChannel.outboundMessages().poll();
+            assertThat(message, instanceOf(i == expectedChunks.size() - 1 ? LastHttpContent.class : HttpContent.class));
+            final String data = ((HttpContent) message).content().toString(StandardCharsets.UTF_8);
+            assertThat(data, is(expectedChunks.get(i)));
+        }
+    }
+
     private void assertReadHttpMessageHasContent(EmbeddedChannel embeddedChannel, String expectedContent) {
         FullHttpResponse response = (FullHttpResponse) embeddedChannel.outboundMessages().poll();
         assertNotNull("Expected response to exist, maybe you did not wait long enough?", response);
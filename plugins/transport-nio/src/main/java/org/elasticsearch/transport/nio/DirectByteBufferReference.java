@@ -0,0 +1,68 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport.nio;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.AbstractBytesReference;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.ByteBufferStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A {@link BytesReference} over the remaining bytes of a direct {@link ByteBuffer}, which lets the inbound pipeline consume the pages
+ * that the bytes were read into without first copying them to the heap. Bytes are only copied to the heap when they are converted to a
+ * {@link BytesRef}.
+ */
+final class DirectByteBufferReference extends AbstractBytesReference {
+
+    private final ByteBuffer buffer;
+
+    DirectByteBufferReference(ByteBuffer buffer) {
+        assert buffer.isDirect();
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public byte get(int index) {
+        return buffer.get(index);
+    }
+
+    @Override
+    public int length() {
+        return buffer.limit();
+    }
+
+    @Override
+    public BytesReference slice(int from, int length) {
+        Objects.checkFromIndexSize(from, length, length());
+        return new DirectByteBufferReference(buffer.slice(from, length));
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        // the bytes are off-heap
+        return 0L;
+    }
+
+    @Override
+    public BytesRef toBytesRef() {
+        final byte[] bytes = new byte[length()];
+        buffer.get(0, bytes);
+        return new BytesRef(bytes);
+    }
+
+    @Override
+    public StreamInput streamInput() {
+        // marks the start of the buffer, so that resetting the stream without marking it first starts over
+        return new ByteBufferStreamInput(buffer.duplicate().mark());
+    }
+}
@@ -10,9 +10,14 @@ package org.elasticsearch.transport.nio;
 
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.nio.NioSocketChannel;
+import org.elasticsearch.nio.Page;
 import org.elasticsearch.transport.TcpChannel;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 
 public class NioTcpChannel extends NioSocketChannel implements TcpChannel {
@@ -20,15 +25,45 @@ public class NioTcpChannel extends NioSocketChannel implements TcpChannel {
     private final boolean isServer;
     private final String profile;
     private final ChannelStats stats = new ChannelStats();
+    @Nullable
+    private final PageAllocator directPageAllocator;
 
     public NioTcpChannel(boolean isServer, String profile, SocketChannel socketChannel) {
+        this(isServer, profile, socketChannel, null);
+    }
+
+    /**
+     * @param directPageAllocator if not null, outbound messages are copied to its direct pages by the sending thread so that the selector
+     *                            can write them to the socket as they are
+     */
+    public NioTcpChannel(boolean isServer, String profile, SocketChannel socketChannel, @Nullable PageAllocator directPageAllocator) {
         super(socketChannel);
+        assert directPageAllocator == null || directPageAllocator.isDirect();
         this.isServer = isServer;
         this.profile = profile;
+        this.directPageAllocator = directPageAllocator;
     }
 
     public void sendMessage(BytesReference reference, ActionListener<Void> listener) {
-        getContext().sendMessage(BytesReference.toByteBuffers(reference), ActionListener.toBiConsumer(listener));
+        if (directPageAllocator == null) {
+            getContext().sendMessage(BytesReference.toByteBuffers(reference), ActionListener.toBiConsumer(listener));
+            return;
+        }
+        final Page[] pages;
+        try {
+            pages = directPageAllocator.copyToPages(reference);
+        } catch (IOException e) {
+            listener.onFailure(e);
+            return;
+        }
+        final ByteBuffer[] buffers = new ByteBuffer[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            buffers[i] = pages[i].byteBuffer();
+        }
+        getContext().sendMessage(
+            buffers,
+            ActionListener.toBiConsumer(ActionListener.runBefore(listener, () -> Releasables.closeExpectNoException(pages)))
+        );
     }
 
     @Override
@@ -63,7 +63,7 @@ public class NioTransport extends TcpTransport {
         NioGroupFactory groupFactory
     ) {
         super(settings, version, threadPool, pageCacheRecycler, circuitBreakerService, namedWriteableRegistry, networkService);
-        this.pageAllocator = new PageAllocator(pageCacheRecycler);
+        this.pageAllocator = new PageAllocator(pageCacheRecycler, NioTransportPlugin.NIO_DIRECT_BUFFERS.get(settings));
         this.groupFactory = groupFactory;
     }
 
@@ -163,7 +163,12 @@ public class NioTransport extends TcpTransport {
 
         @Override
         public NioTcpChannel createChannel(NioSelector selector, SocketChannel channel, Config.Socket socketConfig) {
-            NioTcpChannel nioChannel = new NioTcpChannel(isClient == false, profileName, channel);
+            NioTcpChannel nioChannel = new NioTcpChannel(
+                isClient == false,
+                profileName,
+                channel,
+                pageAllocator.isDirect() ? pageAllocator : null
+            );
             Consumer<Exception> exceptionHandler = (e) -> onException(nioChannel, e);
             TcpReadWriteHandler handler = new TcpReadWriteHandler(nioChannel, recycler, NioTransport.this);
             BytesChannelContext context = new BytesChannelContext(
@@ -172,7 +177,7 @@ public class NioTransport extends TcpTransport {
                 socketConfig,
                 exceptionHandler,
                 handler,
-                new InboundChannelBuffer(pageAllocator)
+                new InboundChannelBuffer(pageAllocator, pageAllocator.isDirect())
             );
             nioChannel.setContext(context);
             return nioChannel;
@@ -51,12 +51,18 @@ public class NioTransportPlugin extends Plugin implements NetworkPlugin {
         Setting.Property.NodeScope
     );
     public static final Setting<Integer> NIO_HTTP_WORKER_COUNT = intSetting("http.nio.worker_count", 0, 0, Setting.Property.NodeScope);
+    // whether the transport reads into and writes from pooled direct buffers rather than heap buffers
+    public static final Setting<Boolean> NIO_DIRECT_BUFFERS = Setting.boolSetting(
+        "transport.nio.direct_buffers",
+        false,
+        Setting.Property.NodeScope
+    );
 
     private final SetOnce<NioGroupFactory> groupFactory = new SetOnce<>();
 
     @Override
     public List<Setting<?>> getSettings() {
-        return Arrays.asList(NIO_HTTP_WORKER_COUNT, NIO_WORKER_COUNT);
+        return Arrays.asList(NIO_HTTP_WORKER_COUNT, NIO_WORKER_COUNT, NIO_DIRECT_BUFFERS);
     }
 
     @Override
@@ -8,30 +8,114 @@
 
 package org.elasticsearch.transport.nio;
 
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.recycler.Recyclers;
 import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.nio.Page;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.IntFunction;
 
 public class PageAllocator implements IntFunction<Page> {
 
     private static final int RECYCLE_LOWER_THRESHOLD = PageCacheRecycler.BYTE_PAGE_SIZE / 2;
 
+    // bounds the direct memory that is held on to by the pool when the pages are not in use, 16MB with the default page size
+    static final int MAX_POOLED_DIRECT_PAGES = 1024;
+
     private final PageCacheRecycler recycler;
+    private final Recycler<ByteBuffer> directPages;
 
     public PageAllocator(PageCacheRecycler recycler) {
+        this(recycler, false);
+    }
+
+    /**
+     * @param direct whether to allocate direct pages, which come from a pool of direct buffers rather than from the given recycler
+     */
+    public PageAllocator(PageCacheRecycler recycler, boolean direct) {
         this.recycler = recycler;
+        this.directPages = direct ? Recyclers.concurrentDeque(new DirectPageC(), MAX_POOLED_DIRECT_PAGES) : null;
+    }
+
+    public boolean isDirect() {
+        return directPages != null;
     }
 
     @Override
     public Page apply(int length) {
-        if (length >= RECYCLE_LOWER_THRESHOLD && length <= PageCacheRecycler.BYTE_PAGE_SIZE) {
+        if (directPages != null && length <= PageCacheRecycler.BYTE_PAGE_SIZE) {
+            Recycler.V<ByteBuffer> directPage = directPages.obtain();
+            return new Page(directPage.v().clear().limit(length), directPage);
+        } else if (directPages != null) {
+            return new Page(ByteBuffer.allocateDirect(length), () -> {});
+        } else if (length >= RECYCLE_LOWER_THRESHOLD && length <= PageCacheRecycler.BYTE_PAGE_SIZE) {
             Recycler.V<byte[]> bytePage = recycler.bytePage(false);
             return new Page(ByteBuffer.wrap(bytePage.v(), 0, length), bytePage);
         } else {
             return new Page(ByteBuffer.allocate(length), () -> {});
         }
     }
+
+    /**
+     * Copies the given bytes to pages obtained from this allocator, so that they can be written to a channel without further copying.
+     * The returned pages must be closed once written.
+     */
+    public Page[] copyToPages(BytesReference reference) throws IOException {
+        final List<Page> pages = new ArrayList<>();
+        boolean success = false;
+        try {
+            Page page = null;
+            final BytesRefIterator iterator = reference.iterator();
+            BytesRef bytesRef;
+            while ((bytesRef = iterator.next()) != null) {
+                int offset = bytesRef.offset;
+                int remaining = bytesRef.length;
+                while (remaining > 0) {
+                    if (page == null || page.byteBuffer().hasRemaining() == false) {
+                        page = apply(PageCacheRecycler.BYTE_PAGE_SIZE);
+                        pages.add(page);
+                    }
+                    final int length = Math.min(remaining, page.byteBuffer().remaining());
+                    page.byteBuffer().put(bytesRef.bytes, offset, length);
+                    offset += length;
+                    remaining -= length;
+                }
+            }
+            for (Page p : pages) {
+                p.byteBuffer().flip();
+            }
+            success = true;
+            return pages.toArray(new Page[0]);
+        } finally {
+            if (success == false) {
+                Releasables.closeExpectNoException(pages.toArray(new Page[0]));
+            }
+        }
+    }
+
+    private static class DirectPageC implements Recycler.C<ByteBuffer> {
+
+        @Override
+        public ByteBuffer newInstance() {
+            return ByteBuffer.allocateDirect(PageCacheRecycler.BYTE_PAGE_SIZE);
+        }
+
+        @Override
+        public void recycle(ByteBuffer value) {
+            value.clear();
+        }
+
+        @Override
+        public void destroy(ByteBuffer value) {
+            // direct buffers are freed once they are garbage collected
+        }
+    }
 }
@@ -25,6 +25,7 @@ import org.elasticsearch.transport.TcpTransport;
 import org.elasticsearch.transport.Transport;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.function.Supplier;
 
 public class TcpReadWriteHandler extends BytesWriteHandler {
@@ -54,7 +55,8 @@ public class TcpReadWriteHandler extends BytesWriteHandler {
         Page[] pages = channelBuffer.sliceAndRetainPagesTo(channelBuffer.getIndex());
         BytesReference[] references = new BytesReference[pages.length];
         for (int i = 0; i < pages.length; ++i) {
-            references[i] = BytesReference.fromByteBuffer(pages[i].byteBuffer());
+            final ByteBuffer byteBuffer = pages[i].byteBuffer();
+            references[i] = byteBuffer.isDirect() ? new DirectByteBufferReference(byteBuffer) : BytesReference.fromByteBuffer(byteBuffer);
         }
         Releasable releasable = pages.length == 1 ? pages[0] : () -> Releasables.closeExpectNoException(pages);
         try (ReleasableBytesReference reference = new ReleasableBytesReference(CompositeBytesReference.of(references), releasable)) {
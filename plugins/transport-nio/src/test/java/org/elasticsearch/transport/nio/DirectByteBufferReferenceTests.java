@@ -0,0 +1,75 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport.nio;
+
+import org.elasticsearch.common.bytes.AbstractBytesReferenceTestCase;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.nio.Page;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class DirectByteBufferReferenceTests extends AbstractBytesReferenceTestCase {
+
+    @Override
+    protected BytesReference newBytesReference(int length) throws IOException {
+        return newBytesReference(length, randomInt(length));
+    }
+
+    @Override
+    protected BytesReference newBytesReferenceWithOffsetOfZero(int length) throws IOException {
+        return newBytesReference(length, 0);
+    }
+
+    private BytesReference newBytesReference(int length, int offset) {
+        final byte[] bytes = randomByteArrayOfLength(length + offset);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(length + offset);
+        buffer.put(bytes).position(offset);
+        final BytesReference reference = new DirectByteBufferReference(buffer);
+        assertEquals(length, reference.length());
+        return reference;
+    }
+
+    @Override
+    public void testToBytesRefSharedPage() throws IOException {
+        int length = randomIntBetween(10, PAGE_SIZE);
+        BytesReference pbr = newBytesReference(length);
+        BytesArray ba = new BytesArray(pbr.toBytesRef());
+        BytesArray ba2 = new BytesArray(pbr.toBytesRef());
+        assertEquals(pbr.length(), ba.length());
+        assertEquals(ba, ba2);
+        // the bytes are off-heap, so each conversion copies them
+        assertNotSame(ba.array(), ba2.array());
+    }
+
+    public void testCopyToDirectPages() throws IOException {
+        final PageAllocator pageAllocator = new PageAllocator(new MockPageCacheRecycler(Settings.EMPTY), true);
+        final BytesReference original = CompositeBytesReference.of(
+            new BytesArray(randomByteArrayOfLength(between(0, PAGE_SIZE * 2))),
+            new BytesArray(randomByteArrayOfLength(between(0, PAGE_SIZE * 2)))
+        );
+        final Page[] pages = pageAllocator.copyToPages(original);
+        try {
+            assertEquals((original.length() + PAGE_SIZE - 1) / PAGE_SIZE, pages.length);
+            final BytesReference[] references = new BytesReference[pages.length];
+            for (int i = 0; i < pages.length; i++) {
+                assertTrue(pages[i].byteBuffer().isDirect());
+                references[i] = new DirectByteBufferReference(pages[i].byteBuffer());
+            }
+            assertEquals(original, CompositeBytesReference.of(references));
+        } finally {
+            Releasables.closeExpectNoException(pages);
+        }
+    }
+}
@@ -50,15 +50,19 @@ public class SimpleNioTransportTests extends AbstractSimpleTransportTestCase {
     protected Transport build(Settings settings, final Version version, ClusterSettings clusterSettings, boolean doHandshake) {
         NamedWriteableRegistry namedWriteableRegistry = new NamedWriteableRegistry(Collections.emptyList());
         NetworkService networkService = new NetworkService(Collections.emptyList());
+        // exercises both the heap and the direct buffers, which nodes may also mix
+        final Settings transportSettings = NioTransportPlugin.NIO_DIRECT_BUFFERS.exists(settings)
+            ? settings
+            : Settings.builder().put(settings).put(NioTransportPlugin.NIO_DIRECT_BUFFERS.getKey(), randomBoolean()).build();
         return new NioTransport(
-            settings,
+            transportSettings,
             version,
             threadPool,
             networkService,
-            new MockPageCacheRecycler(settings),
+            new MockPageCacheRecycler(transportSettings),
             namedWriteableRegistry,
             new NoneCircuitBreakerService(),
-            new NioGroupFactory(settings, logger)
+            new NioGroupFactory(transportSettings, logger)
         ) {
 
             @Override
@@ -11,9 +11,11 @@ package org.elasticsearch.search.ccs;
 import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.admin.cluster.node.tasks.cancel.CancelTasksRequest;
 import org.elasticsearch.action.admin.cluster.node.tasks.cancel.CancelTasksResponse;
+import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.elasticsearch.action.search.SearchAction;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.TransportSearchAction;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.client.internal.Client;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
@@ -27,6 +29,7 @@ import org.elasticsearch.index.query.MatchAllQueryBuilder;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.LegacyReaderContext;
 import org.elasticsearch.search.internal.ReaderContext;
@@ -43,6 +46,7 @@ import org.junit.Before;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -155,6 +159,39 @@ public class CrossClusterSearchIT extends AbstractMultiClustersTestCase {
         }
     }
 
+    public void testFetchMergedHits() throws Exception {
+        assertAcked(
+            client(LOCAL_CLUSTER).admin()
+                .cluster()
+                .prepareUpdateSettings()
+                .setPersistentSettings(Settings.builder().put(TransportSearchAction.CCS_FETCH_MERGED_HITS_SETTING.getKey(), true))
+        );
+        assertAcked(client(LOCAL_CLUSTER).admin().indices().prepareCreate("demo"));
+        final int demoDocs = indexDocs(client(LOCAL_CLUSTER), "demo");
+        assertAcked(client("cluster_a").admin().indices().prepareCreate("prod").addAlias(new Alias("prod-alias")));
+        final int prodDocs = indexDocs(client("cluster_a"), "prod");
+
+        // the remote index is targeted through an alias, which the fetch has to target as well
+        final String remoteIndex = randomFrom("cluster_a:prod", "cluster_a:prod-alias");
+        final SearchRequest searchRequest = new SearchRequest("demo", remoteIndex);
+        searchRequest.setCcsMinimizeRoundtrips(true);
+        searchRequest.source(new SearchSourceBuilder().query(new MatchAllQueryBuilder()).size(1000));
+        final SearchResponse resp = client(LOCAL_CLUSTER).search(searchRequest).actionGet();
+        assertHitCount(resp, demoDocs + prodDocs);
+        assertThat(resp.getHits().getHits().length, Matchers.equalTo(demoDocs + prodDocs));
+        int remoteHits = 0;
+        for (SearchHit hit : resp.getHits().getHits()) {
+            if ("cluster_a".equals(hit.getClusterAlias())) {
+                assertThat(hit.getIndex(), Matchers.equalTo("prod"));
+                remoteHits++;
+            } else {
+                assertThat(hit.getIndex(), Matchers.equalTo("demo"));
+            }
+            assertThat(hit.getSourceAsMap(), Matchers.equalTo(Map.of("f", "v")));
+        }
+        assertThat(remoteHits, Matchers.equalTo(prodDocs));
+    }
+
     public void testCancel() throws Exception {
         assertAcked(client(LOCAL_CLUSTER).admin().indices().prepareCreate("demo"));
         indexDocs(client(LOCAL_CLUSTER), "demo");
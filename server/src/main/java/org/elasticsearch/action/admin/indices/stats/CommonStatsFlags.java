@@ -15,8 +15,10 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Objects;
 
 public class CommonStatsFlags implements Writeable, Cloneable {
 
@@ -184,6 +186,28 @@ public class CommonStatsFlags implements Writeable, Cloneable {
         return this;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CommonStatsFlags that = (CommonStatsFlags) o;
+        return includeSegmentFileSizes == that.includeSegmentFileSizes
+            && includeUnloadedSegments == that.includeUnloadedSegments
+            && flags.equals(that.flags)
+            && Arrays.equals(groups, that.groups)
+            && Arrays.equals(fieldDataFields, that.fieldDataFields)
+            && Arrays.equals(completionDataFields, that.completionDataFields);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(flags, includeSegmentFileSizes, includeUnloadedSegments);
+        result = 31 * result + Arrays.hashCode(groups);
+        result = 31 * result + Arrays.hashCode(fieldDataFields);
+        result = 31 * result + Arrays.hashCode(completionDataFields);
+        return result;
+    }
+
     @Override
     public CommonStatsFlags clone() {
         try {
@@ -8,7 +8,6 @@
 
 package org.elasticsearch.action.admin.indices.stats;
 
-import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.DefaultShardOperationFailedException;
@@ -23,9 +22,6 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.index.IndexService;
-import org.elasticsearch.index.engine.CommitStats;
-import org.elasticsearch.index.seqno.RetentionLeaseStats;
-import org.elasticsearch.index.seqno.SeqNoStats;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardNotFoundException;
 import org.elasticsearch.indices.IndicesService;
@@ -119,28 +115,7 @@ public class TransportIndicesStatsAction extends TransportBroadcastByNodeAction<
                 throw new ShardNotFoundException(indexShard.shardId());
             }
 
-            CommonStats commonStats = new CommonStats(indicesService.getIndicesQueryCache(), indexShard, request.flags());
-            CommitStats commitStats;
-            SeqNoStats seqNoStats;
-            RetentionLeaseStats retentionLeaseStats;
-            try {
-                commitStats = indexShard.commitStats();
-                seqNoStats = indexShard.seqNoStats();
-                retentionLeaseStats = indexShard.getRetentionLeaseStats();
-            } catch (final AlreadyClosedException e) {
-                // shard is closed - no stats is fine
-                commitStats = null;
-                seqNoStats = null;
-                retentionLeaseStats = null;
-            }
-            return new ShardStats(
-                indexShard.routingEntry(),
-                indexShard.shardPath(),
-                commonStats,
-                commitStats,
-                seqNoStats,
-                retentionLeaseStats
-            );
+            return indicesService.shardStats(indexShard, request.flags());
         });
     }
 }
@@ -453,12 +453,12 @@ public final class BulkRequestParser {
         if (data.hasArray()) {
             return parseBytesArray(xContent, data, 0, data.length());
         } else {
-            return xContent.createParser(config, data.streamInput());
+            return xContent.createParser(config, BytesReference.toByteBuffers(data));
         }
     }
 
-    // Create an efficient parser of the given bytes, trying to directly parse a byte array if possible and falling back to stream wrapping
-    // otherwise.
+    // Create an efficient parser of the given bytes, trying to directly parse a byte array if possible and falling back to parsing the
+    // pages of the bytes in place otherwise.
     private XContentParser createParser(XContent xContent, BytesReference data, int from, int nextMarker) throws IOException {
         if (data.hasArray()) {
             return parseBytesArray(xContent, data, from, nextMarker);
@@ -468,7 +468,7 @@ public final class BulkRequestParser {
             if (slice.hasArray()) {
                 return parseBytesArray(xContent, slice, 0, length);
             } else {
-                return xContent.createParser(config, slice.streamInput());
+                return xContent.createParser(config, BytesReference.toByteBuffers(slice));
             }
         }
     }
@@ -0,0 +1,305 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RestApiVersion;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.xcontent.XContentType;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Executes the items of a bulk request as a sequence of smaller bulk requests, the first of which is dispatched as soon as enough items
+ * have been parsed for it, rather than once the whole body has been parsed. Each chunk goes through the {@link TransportBulkAction} on its
+ * own, so that the shard-level requests for the first items are sent while the remaining items are still being parsed, and the indexing
+ * pressure of a chunk is released as soon as the chunk completes. The responses to the chunks are combined into a single
+ * {@link BulkResponse} with the items in the order of the original request.
+ *
+ * A chunk is only dispatched once the previous one has completed. Within a single bulk request the items for the same shard are executed
+ * in order, and executing chunks one after the other keeps it that way, for instance an update of a document never overtakes the index
+ * operation that creates it in an earlier chunk.
+ *
+ * Unlike a single bulk request, items of earlier chunks may already have been executed when the parsing of a later item fails. The
+ * response then holds the results of the chunks that were dispatched, and failures for the items that were parsed but not dispatched and
+ * for the rest of the body.
+ */
+public final class ChunkedBulkDispatcher {
+
+    private final Supplier<BulkRequest> chunkFactory;
+    private final long chunkSizeInBytes;
+    private final BiConsumer<BulkRequest, ActionListener<BulkResponse>> bulkAction;
+    private final ActionListener<BulkResponse> listener;
+    private final LongSupplier relativeTimeNanosSupplier;
+    private final long startTimeNanos;
+
+    // guarded by this
+    private final List<BulkItemResponse[]> chunkResponses = new ArrayList<>();
+    // guarded by this, the chunks which were parsed but wait for the chunk in flight to complete
+    private final Deque<Chunk> queuedChunks = new ArrayDeque<>();
+    // guarded by this
+    private boolean chunkInFlight;
+    // guarded by this
+    private boolean parsingDone;
+    // guarded by this
+    private long ingestTookInMillis = BulkResponse.NO_INGEST_TOOK;
+    // guarded by this
+    private Exception firstChunkFailure;
+
+    private BulkRequest currentChunk;
+    private int parsedItems;
+
+    private record Chunk(int index, int firstItemId, BulkRequest request) {}
+
+    /**
+     * @param chunkFactory creates an empty bulk request which carries the request-level parameters that apply to every chunk
+     * @param chunkSizeInBytes the estimated size of the items of a chunk above which it is dispatched
+     * @param bulkAction executes a chunk
+     * @param listener notified with the combined response once every chunk has completed
+     */
+    public ChunkedBulkDispatcher(
+        Supplier<BulkRequest> chunkFactory,
+        long chunkSizeInBytes,
+        BiConsumer<BulkRequest, ActionListener<BulkResponse>> bulkAction,
+        ActionListener<BulkResponse> listener,
+        LongSupplier relativeTimeNanosSupplier
+    ) {
+        this.chunkFactory = chunkFactory;
+        this.chunkSizeInBytes = chunkSizeInBytes;
+        this.bulkAction = bulkAction;
+        this.listener = listener;
+        this.relativeTimeNanosSupplier = relativeTimeNanosSupplier;
+        this.startTimeNanos = relativeTimeNanosSupplier.getAsLong();
+        this.currentChunk = chunkFactory.get();
+    }
+
+    /**
+     * Parses the given bulk body, dispatching chunks as they fill up, and then dispatches the last chunk. See
+     * {@link BulkRequest#add(BytesReference, String, String, FetchSourceContext, String, Boolean, boolean, XContentType, RestApiVersion)}
+     * for the parameters. If the body is malformed before the first chunk was dispatched then the parse exception is thrown and the
+     * listener is not notified, just like for a single bulk request. Otherwise, the listener is notified with the results of the chunks
+     * that were dispatched and with failures for the rest of the body.
+     */
+    public void parseAndDispatch(
+        BytesReference data,
+        @Nullable String defaultIndex,
+        @Nullable String defaultRouting,
+        @Nullable FetchSourceContext defaultFetchSourceContext,
+        @Nullable String defaultPipeline,
+        @Nullable Boolean defaultRequireAlias,
+        boolean allowExplicitIndex,
+        XContentType xContentType,
+        RestApiVersion restApiVersion
+    ) throws IOException {
+        try {
+            new BulkRequestParser(true, restApiVersion).parse(
+                data,
+                defaultIndex,
+                defaultRouting,
+                defaultFetchSourceContext,
+                defaultPipeline,
+                defaultRequireAlias,
+                allowExplicitIndex,
+                xContentType,
+                (indexRequest, type) -> add(indexRequest),
+                this::add,
+                this::add
+            );
+        } catch (IOException | RuntimeException e) {
+            if (onParseFailure(e, defaultIndex) == false) {
+                throw e;
+            }
+            return;
+        }
+        finish();
+    }
+
+    private void add(DocWriteRequest<?> request) {
+        if (request instanceof IndexRequest indexRequest) {
+            currentChunk.internalAdd(indexRequest);
+        } else if (request instanceof UpdateRequest updateRequest) {
+            currentChunk.internalAdd(updateRequest);
+        } else {
+            currentChunk.add((DeleteRequest) request);
+        }
+        if (currentChunk.estimatedSizeInBytes() >= chunkSizeInBytes) {
+            queueCurrentChunk();
+        }
+    }
+
+    private void finish() {
+        // an empty request is still dispatched if there are no items at all, so that it fails validation as a single bulk request would
+        if (currentChunk.numberOfActions() > 0 || parsedItems == 0) {
+            queueCurrentChunk();
+        }
+        final boolean done;
+        synchronized (this) {
+            parsingDone = true;
+            done = chunkInFlight == false;
+        }
+        if (done) {
+            respond();
+        }
+    }
+
+    /**
+     * Fails the items that were parsed but not dispatched yet and the rest of the body, unless no chunk was dispatched yet.
+     *
+     * @return whether the listener is notified of the failure, otherwise it must be thrown
+     */
+    private boolean onParseFailure(Exception e, @Nullable String defaultIndex) {
+        final boolean done;
+        synchronized (this) {
+            if (chunkResponses.isEmpty()) {
+                // nothing was executed yet
+                return false;
+            }
+            // the chunks that were parsed but not dispatched yet are failed along with the rest of the body
+            for (Chunk chunk = queuedChunks.poll(); chunk != null; chunk = queuedChunks.poll()) {
+                chunkResponses.set(chunk.index(), failures(chunk.request(), chunk.firstItemId(), e));
+            }
+            final BulkItemResponse[] failures = failures(currentChunk, parsedItems, e);
+            final BulkItemResponse[] withRest = Arrays.copyOf(failures, failures.length + 1);
+            // the index of the item that could not be parsed is unknown
+            withRest[failures.length] = BulkItemResponse.failure(
+                parsedItems + failures.length,
+                DocWriteRequest.OpType.INDEX,
+                new BulkItemResponse.Failure(defaultIndex == null ? "" : defaultIndex, null, e)
+            );
+            chunkResponses.add(withRest);
+            parsingDone = true;
+            done = chunkInFlight == false;
+        }
+        if (done) {
+            respond();
+        }
+        return true;
+    }
+
+    private void queueCurrentChunk() {
+        final Chunk toDispatch;
+        synchronized (this) {
+            final Chunk chunk = new Chunk(chunkResponses.size(), parsedItems, currentChunk);
+            chunkResponses.add(null);
+            if (chunkInFlight) {
+                queuedChunks.add(chunk);
+                toDispatch = null;
+            } else {
+                chunkInFlight = true;
+                toDispatch = chunk;
+            }
+        }
+        parsedItems += currentChunk.numberOfActions();
+        currentChunk = chunkFactory.get();
+        if (toDispatch != null) {
+            dispatch(toDispatch);
+        }
+    }
+
+    private void dispatch(Chunk chunk) {
+        bulkAction.accept(chunk.request(), new ActionListener<>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                final BulkItemResponse[] items = response.getItems();
+                final BulkItemResponse[] renumbered = new BulkItemResponse[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    renumbered[i] = withItemId(items[i], chunk.firstItemId() + items[i].getItemId());
+                }
+                synchronized (ChunkedBulkDispatcher.this) {
+                    chunkResponses.set(chunk.index(), renumbered);
+                    ingestTookInMillis = Math.max(ingestTookInMillis, response.getIngestTookInMillis());
+                }
+                onChunkCompleted();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                final BulkItemResponse[] failures = failures(chunk.request(), chunk.firstItemId(), e);
+                synchronized (ChunkedBulkDispatcher.this) {
+                    chunkResponses.set(chunk.index(), failures);
+                    if (chunk.index() == 0) {
+                        firstChunkFailure = e;
+                    }
+                }
+                onChunkCompleted();
+            }
+        });
+    }
+
+    private void onChunkCompleted() {
+        final Chunk next;
+        final boolean done;
+        synchronized (this) {
+            next = queuedChunks.poll();
+            chunkInFlight = next != null;
+            done = next == null && parsingDone;
+        }
+        if (next != null) {
+            dispatch(next);
+        } else if (done) {
+            respond();
+        }
+    }
+
+    private void respond() {
+        final BulkItemResponse[] items;
+        final long ingestTook;
+        final Exception failure;
+        synchronized (this) {
+            assert parsingDone && chunkInFlight == false && queuedChunks.isEmpty();
+            // if the request was not split then it fails as a whole, just like a single bulk request would
+            failure = chunkResponses.size() == 1 ? firstChunkFailure : null;
+            items = chunkResponses.stream().flatMap(Arrays::stream).toArray(BulkItemResponse[]::new);
+            ingestTook = ingestTookInMillis;
+        }
+        if (failure != null) {
+            listener.onFailure(failure);
+            return;
+        }
+        final long tookInMillis = TimeUnit.NANOSECONDS.toMillis(relativeTimeNanosSupplier.getAsLong() - startTimeNanos);
+        listener.onResponse(new BulkResponse(items, tookInMillis, ingestTook));
+    }
+
+    private static BulkItemResponse[] failures(BulkRequest chunk, int firstItemId, Exception e) {
+        final BulkItemResponse[] failures = new BulkItemResponse[chunk.numberOfActions()];
+        for (int i = 0; i < failures.length; i++) {
+            final DocWriteRequest<?> request = chunk.requests().get(i);
+            failures[i] = BulkItemResponse.failure(
+                firstItemId + i,
+                request.opType(),
+                new BulkItemResponse.Failure(request.index(), request.id(), e)
+            );
+        }
+        return failures;
+    }
+
+    private static BulkItemResponse withItemId(BulkItemResponse item, int itemId) {
+        if (item.getItemId() == itemId) {
+            return item;
+        }
+        return item.isFailed()
+            ? BulkItemResponse.failure(itemId, item.getOpType(), item.getFailure())
+            : BulkItemResponse.success(itemId, item.getOpType(), item.getResponse());
+    }
+}
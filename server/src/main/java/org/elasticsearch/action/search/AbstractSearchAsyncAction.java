@@ -248,16 +248,34 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
                     );
                 }
             }
-            for (int i = 0; i < shardsIts.size(); i++) {
-                final SearchShardIterator shardRoutings = shardsIts.get(i);
-                assert shardRoutings.skip() == false;
-                assert shardIndexMap.containsKey(shardRoutings);
-                int shardIndex = shardIndexMap.get(shardRoutings);
-                performPhaseOnShard(shardIndex, shardRoutings, shardRoutings.nextOrNull());
+            beforeInitialShardRequests();
+            try {
+                for (int i = 0; i < shardsIts.size(); i++) {
+                    final SearchShardIterator shardRoutings = shardsIts.get(i);
+                    assert shardRoutings.skip() == false;
+                    assert shardIndexMap.containsKey(shardRoutings);
+                    int shardIndex = shardIndexMap.get(shardRoutings);
+                    performPhaseOnShard(shardIndex, shardRoutings, shardRoutings.nextOrNull());
+                }
+            } finally {
+                afterInitialShardRequests();
             }
         }
     }
 
+    /**
+     * Called on the thread that runs this phase before it starts to execute the phase on the first copy of each shard. Until the
+     * subsequent call to {@link #afterInitialShardRequests()}, all calls to {@link #executePhaseOnShard} on this thread are part of this
+     * initial fan-out, which lets subclasses batch the requests to each node.
+     */
+    protected void beforeInitialShardRequests() {}
+
+    /**
+     * Called on the thread that runs this phase once it has started to execute the phase on the first copy of each shard (subject to
+     * {@link SearchRequest#getMaxConcurrentShardRequests()}), see {@link #beforeInitialShardRequests()}.
+     */
+    protected void afterInitialShardRequests() {}
+
     void skipShard(SearchShardIterator iterator) {
         successfulOps.incrementAndGet();
         skippedOps.incrementAndGet();
@@ -0,0 +1,245 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.search.SearchResponse.Clusters;
+import org.elasticsearch.action.search.TransportSearchAction.SearchTimeProvider;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.index.mapper.IndexFieldMapper;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.StoredFieldsContext;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.profile.SearchProfileResults;
+import org.elasticsearch.search.profile.SearchProfileShardResult;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.RemoteClusterAware;
+import org.elasticsearch.transport.RemoteClusterService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Fetches the hits of a cross-cluster search that minimizes roundtrips once the responses of all the clusters have been merged, rather
+ * than having each cluster fetch its own top hits, most of which don't make it to the merged response. Each cluster is first sent a
+ * {@link SearchSourceBuilder#queryPhaseCopy()} of the search, whose hits only carry what is needed to merge them, and the clusters that
+ * hold some of the merged hits are then sent a {@link SearchSourceBuilder#fetchPhaseCopy} of the search which selects these hits by
+ * their index and id. The fetch targets the same index expressions as the query, so that it is authorized the same way.
+ */
+final class CrossClusterFetch {
+
+    private final TaskId parentTaskId;
+    private final SearchRequest searchRequest;
+    private final OriginalIndices localIndices;
+    private final Map<String, OriginalIndices> remoteIndices;
+    private final SearchTimeProvider timeProvider;
+    private final RemoteClusterService remoteClusterService;
+    private final ThreadPool threadPool;
+    private final BiConsumer<SearchRequest, ActionListener<SearchResponse>> localSearchConsumer;
+
+    CrossClusterFetch(
+        TaskId parentTaskId,
+        SearchRequest searchRequest,
+        OriginalIndices localIndices,
+        Map<String, OriginalIndices> remoteIndices,
+        SearchTimeProvider timeProvider,
+        RemoteClusterService remoteClusterService,
+        ThreadPool threadPool,
+        BiConsumer<SearchRequest, ActionListener<SearchResponse>> localSearchConsumer
+    ) {
+        this.parentTaskId = parentTaskId;
+        this.searchRequest = searchRequest;
+        this.localIndices = localIndices;
+        this.remoteIndices = remoteIndices;
+        this.timeProvider = timeProvider;
+        this.remoteClusterService = remoteClusterService;
+        this.threadPool = threadPool;
+        this.localSearchConsumer = localSearchConsumer;
+    }
+
+    /**
+     * Whether the hits of the given search can be fetched after merging the responses of the clusters. Collapsed hits and suggestions
+     * are merged along with what the clusters fetched for them, so they have to be fetched by each cluster.
+     */
+    static boolean canFetchMergedHits(SearchRequest searchRequest) {
+        SearchSourceBuilder source = searchRequest.source();
+        if (source == null || source.size() == 0 || source.collapse() != null || source.suggest() != null) {
+            return false;
+        }
+        StoredFieldsContext storedFields = source.storedFields();
+        // hits without an id can't be fetched afterwards
+        return storedFields == null || storedFields.fetchFields();
+    }
+
+    /**
+     * Fetches the hits of the given merged response from the clusters that they come from, and notifies the listener with a copy of the
+     * merged response that holds the fetched hits.
+     */
+    void fetch(SearchResponse mergedResponse, ActionListener<SearchResponse> listener) {
+        final Map<String, Map<String, List<String>>> idsByCluster = new HashMap<>();
+        for (SearchHit hit : mergedResponse.getHits().getHits()) {
+            idsByCluster.computeIfAbsent(clusterAlias(hit), k -> new HashMap<>())
+                .computeIfAbsent(hit.getIndex(), k -> new ArrayList<>())
+                .add(hit.getId());
+        }
+        if (idsByCluster.isEmpty()) {
+            listener.onResponse(mergedResponse);
+            return;
+        }
+        final Map<String, SearchResponse> fetchResponses = new ConcurrentHashMap<>();
+        final AtomicInteger skippedClusters = new AtomicInteger(0);
+        final AtomicReference<Exception> exceptions = new AtomicReference<>();
+        final CountDown countDown = new CountDown(idsByCluster.size());
+        for (Map.Entry<String, Map<String, List<String>>> entry : idsByCluster.entrySet()) {
+            final String clusterAlias = entry.getKey();
+            final Map<String, List<String>> idsByIndex = entry.getValue();
+            final boolean local = RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY.equals(clusterAlias);
+            final int numHits = idsByIndex.values().stream().mapToInt(List::size).sum();
+            // the hits may come from concrete indices that the user is only allowed to access through the original expressions
+            final OriginalIndices indices = local ? localIndices : remoteIndices.get(clusterAlias);
+            SearchRequest fetchRequest = SearchRequest.subSearchRequest(
+                parentTaskId,
+                searchRequest,
+                indices.indices(),
+                clusterAlias,
+                timeProvider.getAbsoluteStartMillis(),
+                true
+            );
+            fetchRequest.source(searchRequest.source().fetchPhaseCopy(hitsFilter(clusterAlias, idsByIndex), numHits));
+            ActionListener<SearchResponse> fetchListener = new TransportSearchAction.CCSActionListener<SearchResponse, SearchResponse>(
+                clusterAlias,
+                local == false && remoteClusterService.isSkipUnavailable(clusterAlias),
+                countDown,
+                skippedClusters,
+                exceptions,
+                listener
+            ) {
+                @Override
+                void innerOnResponse(SearchResponse searchResponse) {
+                    fetchResponses.put(clusterAlias, searchResponse);
+                }
+
+                @Override
+                SearchResponse createFinalResponse() {
+                    return mergeFetchedHits(mergedResponse, fetchResponses, skippedClusters.get(), timeProvider.buildTookInMillis());
+                }
+            };
+            if (local) {
+                localSearchConsumer.accept(fetchRequest, fetchListener);
+            } else {
+                Client remoteClusterClient = remoteClusterService.getRemoteClusterClient(threadPool, clusterAlias);
+                remoteClusterClient.search(fetchRequest, fetchListener);
+            }
+        }
+    }
+
+    /**
+     * Selects the hits with the given ids in each index. The index is always part of the filter, as the fetch targets the index
+     * expressions of the original request rather than the indices of the hits. Shards of a remote cluster only match {@code _index}
+     * values that are prefixed with their cluster alias.
+     */
+    static QueryBuilder hitsFilter(String clusterAlias, Map<String, List<String>> idsByIndex) {
+        final String indexPrefix = RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY.equals(clusterAlias)
+            ? ""
+            : clusterAlias + RemoteClusterAware.REMOTE_CLUSTER_INDEX_SEPARATOR;
+        BoolQueryBuilder filter = QueryBuilders.boolQuery();
+        for (Map.Entry<String, List<String>> entry : idsByIndex.entrySet()) {
+            filter.should(
+                QueryBuilders.boolQuery()
+                    .filter(QueryBuilders.termQuery(IndexFieldMapper.NAME, indexPrefix + entry.getKey()))
+                    .filter(QueryBuilders.idsQuery().addIds(entry.getValue().toArray(new String[0])))
+            );
+        }
+        return filter;
+    }
+
+    /**
+     * Replaces the hits of the merged response with the fetched hits, in the same order. Hits that could not be fetched, because they
+     * were deleted in the meantime or because their cluster was skipped as unavailable, are left out.
+     */
+    static SearchResponse mergeFetchedHits(
+        SearchResponse mergedResponse,
+        Map<String, SearchResponse> fetchResponses,
+        int skippedClusters,
+        long tookInMillis
+    ) {
+        final Map<String, Map<String, Map<String, SearchHit>>> fetchedHits = new HashMap<>();
+        final List<ShardSearchFailure> shardFailures = new ArrayList<>();
+        Collections.addAll(shardFailures, mergedResponse.getShardFailures());
+        for (Map.Entry<String, SearchResponse> entry : fetchResponses.entrySet()) {
+            Map<String, Map<String, SearchHit>> hitsByIndex = fetchedHits.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+            for (SearchHit hit : entry.getValue().getHits().getHits()) {
+                hitsByIndex.computeIfAbsent(hit.getIndex(), k -> new HashMap<>()).put(hit.getId(), hit);
+            }
+            Collections.addAll(shardFailures, entry.getValue().getShardFailures());
+        }
+        final SearchHits mergedHits = mergedResponse.getHits();
+        final List<SearchHit> hits = new ArrayList<>(mergedHits.getHits().length);
+        for (SearchHit mergedHit : mergedHits.getHits()) {
+            Map<String, Map<String, SearchHit>> hitsByIndex = fetchedHits.getOrDefault(clusterAlias(mergedHit), Collections.emptyMap());
+            SearchHit hit = hitsByIndex.getOrDefault(mergedHit.getIndex(), Collections.emptyMap()).get(mergedHit.getId());
+            if (hit != null) {
+                // keep the score that the hit was merged with, the fetch query wraps the original one
+                hit.score(mergedHit.getScore());
+                hits.add(hit);
+            }
+        }
+        SearchHits searchHits = new SearchHits(
+            hits.toArray(new SearchHit[0]),
+            mergedHits.getTotalHits(),
+            mergedHits.getMaxScore(),
+            mergedHits.getSortFields(),
+            mergedHits.getCollapseField(),
+            mergedHits.getCollapseValues()
+        );
+        Map<String, SearchProfileShardResult> profileResults = mergedResponse.getProfileResults();
+        SearchProfileResults profile = profileResults == null || profileResults.isEmpty() ? null : new SearchProfileResults(profileResults);
+        InternalSearchResponse internalSearchResponse = new InternalSearchResponse(
+            searchHits,
+            (InternalAggregations) mergedResponse.getAggregations(),
+            mergedResponse.getSuggest(),
+            profile,
+            mergedResponse.isTimedOut(),
+            mergedResponse.isTerminatedEarly(),
+            mergedResponse.getNumReducePhases()
+        );
+        Clusters clusters = mergedResponse.getClusters();
+        return new SearchResponse(
+            internalSearchResponse,
+            mergedResponse.getScrollId(),
+            mergedResponse.getTotalShards(),
+            mergedResponse.getSuccessfulShards(),
+            mergedResponse.getSkippedShards(),
+            tookInMillis,
+            shardFailures.toArray(ShardSearchFailure.EMPTY_ARRAY),
+            new Clusters(clusters.getTotal(), clusters.getSuccessful() - skippedClusters, clusters.getSkipped() + skippedClusters),
+            mergedResponse.pointInTimeId()
+        );
+    }
+
+    private static String clusterAlias(SearchHit hit) {
+        return hit.getClusterAlias() == null ? RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY : hit.getClusterAlias();
+    }
+}
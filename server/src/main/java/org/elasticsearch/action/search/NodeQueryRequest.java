@@ -0,0 +1,182 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.IndicesRequest;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Node-level request used during the query phase, which carries the shard-level requests for several shards on the same node. The shards
+ * share a single round-trip, and the search source that they have in common is only serialized once. Each shard still gets its own copy
+ * of the source when the request is deserialized, as the shards execute concurrently and may modify it. The results of the
+ * shards are sent back to the coordinating node as they complete, see {@link NodeQueryResultsSender}.
+ */
+public class NodeQueryRequest extends TransportRequest implements IndicesRequest {
+
+    private final SearchSourceBuilder source;
+    private final List<ShardSearchRequest> shardSearchRequests;
+    private final String[] indices;
+    private final IndicesOptions indicesOptions;
+    @Nullable
+    private DiscoveryNode coordinatingNode;
+    private long nodeQueryId;
+
+    public NodeQueryRequest(List<ShardSearchRequest> shardSearchRequests) {
+        assert shardSearchRequests.isEmpty() == false;
+        final ShardSearchRequest first = shardSearchRequests.get(0);
+        assert shardSearchRequests.stream().allMatch(r -> canBatch(first, r)) : "cannot batch " + shardSearchRequests;
+        this.source = first.source();
+        this.shardSearchRequests = List.copyOf(shardSearchRequests);
+        this.indicesOptions = first.indicesOptions();
+        this.indices = indices(shardSearchRequests);
+    }
+
+    public NodeQueryRequest(StreamInput in) throws IOException {
+        super(in);
+        final BytesReference sourceBytes = in.readBoolean() ? in.readBytesReference() : null;
+        shardSearchRequests = in.readList(ShardSearchRequest::new);
+        for (ShardSearchRequest shardSearchRequest : shardSearchRequests) {
+            shardSearchRequest.source(sourceBytes == null ? null : readSource(sourceBytes, in.getVersion(), in.namedWriteableRegistry()));
+        }
+        source = shardSearchRequests.get(0).source();
+        coordinatingNode = in.readOptionalWriteable(DiscoveryNode::new);
+        nodeQueryId = in.readLong();
+        indicesOptions = shardSearchRequests.get(0).indicesOptions();
+        indices = indices(shardSearchRequests);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        if (source == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            // written as a blob so that the receiving node can read a copy of the source for each shard
+            try (BytesStreamOutput sourceOut = new BytesStreamOutput()) {
+                sourceOut.setVersion(out.getVersion());
+                source.writeTo(sourceOut);
+                out.writeBytesReference(sourceOut.bytes());
+            }
+        }
+        out.writeCollection(shardSearchRequests, (o, shardSearchRequest) -> {
+            // the source is shared by all shards, so we only write it once above
+            final ShardSearchRequest withoutSource = new ShardSearchRequest(shardSearchRequest);
+            withoutSource.source(null);
+            withoutSource.writeTo(o);
+        });
+        out.writeOptionalWriteable(coordinatingNode);
+        out.writeLong(nodeQueryId);
+    }
+
+    private static SearchSourceBuilder readSource(BytesReference sourceBytes, Version version, NamedWriteableRegistry registry)
+        throws IOException {
+        try (
+            StreamInput in = registry == null
+                ? sourceBytes.streamInput()
+                : new NamedWriteableAwareStreamInput(sourceBytes.streamInput(), registry)
+        ) {
+            in.setVersion(version);
+            return new SearchSourceBuilder(in);
+        }
+    }
+
+    private static String[] indices(List<ShardSearchRequest> shardSearchRequests) {
+        return shardSearchRequests.stream().map(ShardSearchRequest::indices).flatMap(Arrays::stream).distinct().toArray(String[]::new);
+    }
+
+    /**
+     * @return whether the given shard-level requests have enough in common to be sent to their node in the same {@link NodeQueryRequest}.
+     */
+    static boolean canBatch(ShardSearchRequest first, ShardSearchRequest other) {
+        return first.numberOfShards() > 1
+            // the bottom sort values are only set once shard results start to come in, and then only apply to the individual request
+            && first.getBottomSortValues() == null
+            && other.getBottomSortValues() == null
+            && Objects.equals(first.getClusterAlias(), other.getClusterAlias())
+            && Objects.equals(first.indicesOptions(), other.indicesOptions())
+            && (first.source() == other.source() || Objects.equals(first.source(), other.source()));
+    }
+
+    /**
+     * @return the shard-level requests carried by this request, which belong to the task of this request.
+     */
+    public List<ShardSearchRequest> getShardSearchRequests() {
+        for (ShardSearchRequest shardSearchRequest : shardSearchRequests) {
+            shardSearchRequest.setParentTask(getParentTask());
+        }
+        return shardSearchRequests;
+    }
+
+    /**
+     * Asks the node that executes this request to send the results of the shards to the given coordinating node as they complete, along
+     * with the given id, rather than only in the response once all shards have completed.
+     */
+    void streamResultsTo(DiscoveryNode coordinatingNode, long nodeQueryId) {
+        this.coordinatingNode = coordinatingNode;
+        this.nodeQueryId = nodeQueryId;
+    }
+
+    /**
+     * @return the node to send the results of the shards to as they complete, or {@code null} if they are only sent in the response.
+     */
+    @Nullable
+    public DiscoveryNode getCoordinatingNode() {
+        return coordinatingNode;
+    }
+
+    /**
+     * @return the id under which the coordinating node tracks the listeners of the shards of this request, see {@link #streamResultsTo}.
+     */
+    public long getNodeQueryId() {
+        return nodeQueryId;
+    }
+
+    @Override
+    public String[] indices() {
+        return indices;
+    }
+
+    @Override
+    public IndicesOptions indicesOptions() {
+        return indicesOptions;
+    }
+
+    @Override
+    public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
+        return new SearchShardTask(id, type, action, getDescription(), parentTaskId, headers);
+    }
+
+    @Override
+    public String getDescription() {
+        // Shard id is enough here, the request itself can be found by looking at the parent task description
+        return "shardIds[" + shardSearchRequests.stream().map(ShardSearchRequest::shardId).collect(Collectors.toList()) + "]";
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.transport.TransportResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The response to a {@link NodeQueryRequest}, which holds the result or failure of each of its shard-level requests that was not already
+ * sent to the coordinating node in a {@link NodeQueryResultsRequest}.
+ */
+public class NodeQueryResponse extends TransportResponse {
+
+    private final List<ResponseOrFailure> responses;
+
+    public NodeQueryResponse(StreamInput in) throws IOException {
+        super(in);
+        responses = in.readList(ResponseOrFailure::new);
+    }
+
+    public NodeQueryResponse(List<ResponseOrFailure> responses) {
+        this.responses = responses;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeList(responses);
+    }
+
+    public List<ResponseOrFailure> getResponses() {
+        return responses;
+    }
+
+    /**
+     * The result or failure of one of the shard-level requests of a {@link NodeQueryRequest}, along with the position of that request.
+     */
+    public static class ResponseOrFailure implements Writeable {
+
+        public ResponseOrFailure(int position, SearchPhaseResult response) {
+            this.position = position;
+            this.response = response;
+            this.exception = null;
+        }
+
+        public ResponseOrFailure(int position, Exception exception) {
+            this.position = position;
+            this.exception = exception;
+            this.response = null;
+        }
+
+        /**
+         * @return the position of the shard-level request in {@link NodeQueryRequest#getShardSearchRequests()}.
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        @Nullable
+        public SearchPhaseResult getResponse() {
+            return response;
+        }
+
+        @Nullable
+        public Exception getException() {
+            return exception;
+        }
+
+        private final int position;
+        private final SearchPhaseResult response;
+        private final Exception exception;
+
+        public ResponseOrFailure(StreamInput in) throws IOException {
+            position = in.readVInt();
+            if (in.readBoolean()) {
+                // node-level requests are only used for searches across several shards, which never fetch in the query phase
+                response = new QuerySearchResult(in, true);
+                exception = null;
+            } else {
+                exception = in.readException();
+                response = null;
+            }
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVInt(position);
+            final boolean hasResponse = response != null;
+            out.writeBoolean(hasResponse);
+            if (hasResponse) {
+                response.writeTo(out);
+            } else {
+                out.writeException(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Sent by the node that executes a {@link NodeQueryRequest} back to the coordinating node, with the results of some of its shards that
+ * completed before the others.
+ */
+public class NodeQueryResultsRequest extends TransportRequest {
+
+    private final long nodeQueryId;
+    private final List<NodeQueryResponse.ResponseOrFailure> results;
+
+    NodeQueryResultsRequest(long nodeQueryId, List<NodeQueryResponse.ResponseOrFailure> results) {
+        this.nodeQueryId = nodeQueryId;
+        this.results = results;
+    }
+
+    public NodeQueryResultsRequest(StreamInput in) throws IOException {
+        super(in);
+        nodeQueryId = in.readLong();
+        results = in.readList(NodeQueryResponse.ResponseOrFailure::new);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(nodeQueryId);
+        out.writeList(results);
+    }
+
+    /**
+     * @return the id of the {@link NodeQueryRequest} that the results belong to, see {@link NodeQueryRequest#getNodeQueryId()}.
+     */
+    public long getNodeQueryId() {
+        return nodeQueryId;
+    }
+
+    public List<NodeQueryResponse.ResponseOrFailure> getResults() {
+        return results;
+    }
+}
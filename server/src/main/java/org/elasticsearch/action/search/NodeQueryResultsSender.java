@@ -0,0 +1,133 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.action.support.ContextPreservingActionListener;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends the results of the shards of a {@link NodeQueryRequest} back to the coordinating node as they complete, rather than all at once
+ * when the slowest shard completes, so that the coordinating node can already reduce them, and use their bottom sort values and early
+ * termination for the shards that it still has to query. At most one {@link NodeQueryResultsRequest} is in flight at a time, and the
+ * results of the shards that complete in the meantime are sent together in the next one. The results that are left once all shards have
+ * completed are sent in the {@link NodeQueryResponse}, which is only sent once the last {@link NodeQueryResultsRequest} was acknowledged
+ * so that the coordinating node knows that it has received all results when it gets the response.
+ */
+final class NodeQueryResultsSender {
+
+    private static final Logger logger = LogManager.getLogger(NodeQueryResultsSender.class);
+
+    private final TransportService transportService;
+    private final NodeQueryRequest request;
+    private final ActionListener<NodeQueryResponse> listener;
+
+    private final List<NodeQueryResponse.ResponseOrFailure> pendingResults = new ArrayList<>();
+    private int remainingShards;
+    private boolean streaming;
+    private boolean sending;
+    private boolean responded;
+
+    NodeQueryResultsSender(TransportService transportService, NodeQueryRequest request, ActionListener<NodeQueryResponse> listener) {
+        this.transportService = transportService;
+        this.request = request;
+        this.listener = listener;
+        this.remainingShards = request.getShardSearchRequests().size();
+        this.streaming = request.getCoordinatingNode() != null;
+    }
+
+    /**
+     * Called with the result or failure of each shard as soon as it completes.
+     */
+    void onShardResult(NodeQueryResponse.ResponseOrFailure result) {
+        synchronized (this) {
+            assert remainingShards > 0 : "more results than shards for " + request;
+            pendingResults.add(result);
+            remainingShards--;
+        }
+        maybeSend();
+    }
+
+    private void maybeSend() {
+        final List<NodeQueryResponse.ResponseOrFailure> results;
+        final boolean respond;
+        synchronized (this) {
+            if (responded || sending) {
+                return;
+            }
+            respond = remainingShards == 0;
+            if (respond == false && (streaming == false || pendingResults.isEmpty())) {
+                return;
+            }
+            results = new ArrayList<>(pendingResults);
+            pendingResults.clear();
+            sending = respond == false;
+            responded = respond;
+        }
+        if (respond) {
+            listener.onResponse(new NodeQueryResponse(results));
+        } else {
+            sendResults(results);
+        }
+    }
+
+    private void sendResults(List<NodeQueryResponse.ResponseOrFailure> results) {
+        final ThreadContext threadContext = transportService.getThreadPool().getThreadContext();
+        final ActionListener<TransportResponse.Empty> ackListener = ContextPreservingActionListener.wrapPreservingContext(
+            new ActionListener<>() {
+                @Override
+                public void onResponse(TransportResponse.Empty empty) {
+                    synchronized (NodeQueryResultsSender.this) {
+                        sending = false;
+                    }
+                    maybeSend();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    logger.debug(
+                        () -> new ParameterizedMessage(
+                            "failed to send query results to [{}], sending them in the response instead",
+                            request.getCoordinatingNode()
+                        ),
+                        e
+                    );
+                    synchronized (NodeQueryResultsSender.this) {
+                        // the coordinating node ignores the results that it already received, so it's safe to send them again
+                        pendingResults.addAll(0, results);
+                        streaming = false;
+                        sending = false;
+                    }
+                    maybeSend();
+                }
+            },
+            threadContext
+        );
+        try (ThreadContext.StoredContext ignore = threadContext.stashContext()) {
+            threadContext.markAsSystemContext();
+            transportService.sendRequest(
+                request.getCoordinatingNode(),
+                SearchTransportService.QUERY_NODE_RESULTS_ACTION_NAME,
+                new NodeQueryResultsRequest(request.getNodeQueryId(), results),
+                TransportRequestOptions.EMPTY,
+                new ActionListenerResponseHandler<>(ackListener, in -> TransportResponse.Empty.INSTANCE)
+            );
+        }
+    }
+}
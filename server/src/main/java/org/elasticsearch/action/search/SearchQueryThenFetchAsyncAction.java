@@ -21,9 +21,13 @@ import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.transport.Transport;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 import static org.elasticsearch.action.search.SearchPhaseController.getTopDocsSize;
 
@@ -37,6 +41,13 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
     private final int trackTotalHitsUpTo;
     private volatile BottomSortValuesCollector bottomSortCollector;
 
+    // whether to send the shard-level requests of the initial fan-out to each node in a single node-level request
+    private final boolean batchQueryPhaseByNode;
+    // the thread which runs the initial fan-out, while it is running, and the requests it is batching by node ID; only that thread
+    // accesses the pending requests
+    private volatile Thread batchingThread;
+    private Map<String, List<PendingShardQuery>> pendingShardQueries;
+
     SearchQueryThenFetchAsyncAction(
         final Logger logger,
         final SearchTransportService searchTransportService,
@@ -52,7 +63,8 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
         final TransportSearchAction.SearchTimeProvider timeProvider,
         ClusterState clusterState,
         SearchTask task,
-        SearchResponse.Clusters clusters
+        SearchResponse.Clusters clusters,
+        boolean batchQueryPhaseByNode
     ) {
         super(
             "query",
@@ -76,6 +88,7 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
         this.trackTotalHitsUpTo = request.resolveTrackTotalHitsUpTo();
         this.searchPhaseController = searchPhaseController;
         this.progressListener = task.getProgressListener();
+        this.batchQueryPhaseByNode = batchQueryPhaseByNode;
 
         // register the release of the query consumer to free up the circuit breaker memory
         // at the end of the search
@@ -96,9 +109,81 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPh
         final SearchActionListener<SearchPhaseResult> listener
     ) {
         ShardSearchRequest request = rewriteShardSearchRequest(super.buildShardSearchRequest(shardIt, listener.requestIndex));
-        getSearchTransport().sendExecuteQuery(getConnection(shard.getClusterAlias(), shard.getNodeId()), request, getTask(), listener);
+        Transport.Connection connection = getConnection(shard.getClusterAlias(), shard.getNodeId());
+        // remote shards are not batched since their connections may be proxied through a node which does not support batching
+        if (batchingThread == Thread.currentThread() && shard.getClusterAlias() == null) {
+            pendingShardQueries.computeIfAbsent(shard.getNodeId(), n -> new ArrayList<>())
+                .add(new PendingShardQuery(connection, request, listener));
+        } else {
+            getSearchTransport().sendExecuteQuery(connection, request, getTask(), listener);
+        }
+    }
+
+    @Override
+    protected void beforeInitialShardRequests() {
+        if (batchQueryPhaseByNode && getNumShards() > 1) {
+            pendingShardQueries = new HashMap<>();
+            batchingThread = Thread.currentThread();
+        }
+    }
+
+    @Override
+    protected void afterInitialShardRequests() {
+        if (batchingThread == null) {
+            return;
+        }
+        batchingThread = null;
+        final Map<String, List<PendingShardQuery>> pendingShardQueries = this.pendingShardQueries;
+        this.pendingShardQueries = null;
+        for (List<PendingShardQuery> nodeQueries : pendingShardQueries.values()) {
+            // requests usually all share the same source, but for instance the bottom sort values may be set part way through
+            final List<List<PendingShardQuery>> batches = new ArrayList<>();
+            for (PendingShardQuery pendingShardQuery : nodeQueries) {
+                List<PendingShardQuery> batch = null;
+                for (List<PendingShardQuery> candidate : batches) {
+                    if (NodeQueryRequest.canBatch(candidate.get(0).request(), pendingShardQuery.request())) {
+                        batch = candidate;
+                        break;
+                    }
+                }
+                if (batch == null) {
+                    batch = new ArrayList<>();
+                    batches.add(batch);
+                }
+                batch.add(pendingShardQuery);
+            }
+            for (List<PendingShardQuery> batch : batches) {
+                sendBatch(batch);
+            }
+        }
     }
 
+    private void sendBatch(List<PendingShardQuery> batch) {
+        final Transport.Connection connection = batch.get(0).connection();
+        try {
+            if (batch.size() == 1) {
+                getSearchTransport().sendExecuteQuery(connection, batch.get(0).request(), getTask(), batch.get(0).listener());
+            } else {
+                getSearchTransport().sendExecuteQuery(
+                    connection,
+                    new NodeQueryRequest(batch.stream().map(PendingShardQuery::request).collect(Collectors.toList())),
+                    getTask(),
+                    batch.stream().map(PendingShardQuery::listener).collect(Collectors.toList())
+                );
+            }
+        } catch (Exception e) {
+            for (PendingShardQuery pendingShardQuery : batch) {
+                pendingShardQuery.listener().onFailure(e);
+            }
+        }
+    }
+
+    private record PendingShardQuery(
+        Transport.Connection connection,
+        ShardSearchRequest request,
+        SearchActionListener<SearchPhaseResult> listener
+    ) {}
+
     @Override
     protected void onShardGroupFailure(int shardIndex, SearchShardTarget shardTarget, Exception exc) {
         progressListener.notifyQueryFailure(shardIndex, shardTarget, exc);
@@ -8,17 +8,20 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.profile.SearchProfileResults;
 import org.elasticsearch.search.profile.SearchProfileShardResult;
 import org.elasticsearch.search.suggest.Suggest;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -112,6 +115,25 @@ public class SearchResponseSections implements ToXContentFragment {
         return builder;
     }
 
+    /**
+     * Renders the same output as {@link #toXContent} as a sequence of chunks, with the aggregations chunked per bucket where supported.
+     */
+    public final Iterator<ToXContent> toXContentChunked(Params params) {
+        return Iterators.concat(
+            Iterators.single(hits),
+            aggregations == null ? Collections.emptyIterator() : aggregations.toXContentChunked(params),
+            Iterators.single((builder, p) -> {
+                if (suggest != null) {
+                    suggest.toXContent(builder, p);
+                }
+                if (profileResults != null) {
+                    profileResults.toXContent(builder, p);
+                }
+                return builder;
+            })
+        );
+    }
+
     protected void writeTo(StreamOutput out) throws IOException {
         throw new UnsupportedOperationException();
     }
@@ -54,11 +54,13 @@ import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiFunction;
 
@@ -73,6 +75,8 @@ public class SearchTransportService {
     public static final String CLEAR_SCROLL_CONTEXTS_ACTION_NAME = "indices:data/read/search[clear_scroll_contexts]";
     public static final String DFS_ACTION_NAME = "indices:data/read/search[phase/dfs]";
     public static final String QUERY_ACTION_NAME = "indices:data/read/search[phase/query]";
+    public static final String QUERY_NODE_ACTION_NAME = "indices:data/read/search[phase/query][n]";
+    public static final String QUERY_NODE_RESULTS_ACTION_NAME = "internal:data/read/search[phase/query][n]/results";
     public static final String QUERY_ID_ACTION_NAME = "indices:data/read/search[phase/query/id]";
     public static final String QUERY_SCROLL_ACTION_NAME = "indices:data/read/search[phase/query/scroll]";
     public static final String QUERY_FETCH_SCROLL_ACTION_NAME = "indices:data/read/search[phase/query+fetch/scroll]";
@@ -88,6 +92,9 @@ public class SearchTransportService {
         SearchActionListener<? super SearchPhaseResult>,
         ActionListener<? super SearchPhaseResult>> responseWrapper;
     private final Map<String, Long> clientConnections = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+    // the node-level query requests whose shard results can still come in, by the id that their results are sent back with
+    private final Map<Long, PendingNodeQuery> pendingNodeQueries = ConcurrentCollections.newConcurrentMap();
+    private final AtomicLong nodeQueryIdGenerator = new AtomicLong();
 
     public SearchTransportService(
         TransportService transportService,
@@ -256,6 +263,109 @@ public class SearchTransportService {
         );
     }
 
+    /**
+     * Sends the query phase of several shards on the same node in a single request, and notifies the listener of each shard of its result.
+     *
+     * @param listeners the listeners of the shards, in the same order as the shard-level requests of {@code request}
+     */
+    public void sendExecuteQuery(
+        Transport.Connection connection,
+        final NodeQueryRequest request,
+        SearchTask task,
+        final List<? extends SearchActionListener<? super SearchPhaseResult>> listeners
+    ) {
+        final List<ShardSearchRequest> shardSearchRequests = request.getShardSearchRequests();
+        assert shardSearchRequests.size() == listeners.size();
+        if (connection.getVersion().onOrAfter(Version.V_8_1_0) && connection.getNode().getVersion().onOrAfter(Version.V_8_1_0)) {
+            final List<ActionListener<? super SearchPhaseResult>> handlers = new ArrayList<>(listeners.size());
+            for (SearchActionListener<? super SearchPhaseResult> listener : listeners) {
+                handlers.add(responseWrapper.apply(connection, listener));
+            }
+            final long nodeQueryId = nodeQueryIdGenerator.incrementAndGet();
+            final PendingNodeQuery pendingNodeQuery = new PendingNodeQuery(handlers);
+            pendingNodeQueries.put(nodeQueryId, pendingNodeQuery);
+            request.streamResultsTo(transportService.getLocalNode(), nodeQueryId);
+            transportService.sendChildRequest(
+                connection,
+                QUERY_NODE_ACTION_NAME,
+                request,
+                task,
+                new ConnectionCountingHandler<>(new ActionListener<NodeQueryResponse>() {
+                    @Override
+                    public void onResponse(NodeQueryResponse response) {
+                        pendingNodeQueries.remove(nodeQueryId);
+                        pendingNodeQuery.onResults(response.getResponses());
+                        pendingNodeQuery.onFailure(
+                            new IllegalStateException("no query result for shard in response of [" + connection.getNode() + "]")
+                        );
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        pendingNodeQueries.remove(nodeQueryId);
+                        pendingNodeQuery.onFailure(e);
+                    }
+                }, NodeQueryResponse::new, clientConnections, connection.getNode().getId())
+            );
+        } else {
+            // BWC layer: send shard-level requests
+            for (int i = 0; i < shardSearchRequests.size(); i++) {
+                sendExecuteQuery(connection, shardSearchRequests.get(i), task, listeners.get(i));
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of the shards of a node-level query request of the results that the node sent before it responded.
+     */
+    private void onNodeQueryResults(NodeQueryResultsRequest request) {
+        final PendingNodeQuery pendingNodeQuery = pendingNodeQueries.get(request.getNodeQueryId());
+        if (pendingNodeQuery != null) {
+            pendingNodeQuery.onResults(request.getResults());
+        }
+    }
+
+    /**
+     * The listeners of the shards of a node-level query request, each of which is notified at most once, as the node may send a result
+     * again if it could not tell whether it was received.
+     */
+    private static final class PendingNodeQuery {
+        private final AtomicReferenceArray<ActionListener<? super SearchPhaseResult>> handlers;
+
+        PendingNodeQuery(List<ActionListener<? super SearchPhaseResult>> handlers) {
+            this.handlers = new AtomicReferenceArray<>(handlers.size());
+            for (int i = 0; i < handlers.size(); i++) {
+                this.handlers.set(i, handlers.get(i));
+            }
+        }
+
+        void onResults(List<NodeQueryResponse.ResponseOrFailure> results) {
+            for (NodeQueryResponse.ResponseOrFailure result : results) {
+                final ActionListener<? super SearchPhaseResult> handler = handlers.getAndSet(result.getPosition(), null);
+                if (handler == null) {
+                    continue;
+                }
+                if (result.getException() == null) {
+                    handler.onResponse(result.getResponse());
+                } else {
+                    handler.onFailure(result.getException());
+                }
+            }
+        }
+
+        /**
+         * Fails the listeners that have not been notified yet.
+         */
+        void onFailure(Exception e) {
+            for (int i = 0; i < handlers.length(); i++) {
+                final ActionListener<? super SearchPhaseResult> handler = handlers.getAndSet(i, null);
+                if (handler != null) {
+                    handler.onFailure(e);
+                }
+            }
+        }
+    }
+
     public void sendExecuteQuery(
         Transport.Connection connection,
         final QuerySearchRequest request,
@@ -444,7 +554,11 @@ public class SearchTransportService {
         }
     }
 
-    public static void registerRequestHandler(TransportService transportService, SearchService searchService) {
+    public static void registerRequestHandler(
+        TransportService transportService,
+        SearchService searchService,
+        SearchTransportService searchTransportService
+    ) {
         transportService.registerRequestHandler(
             FREE_CONTEXT_SCROLL_ACTION_NAME,
             ThreadPool.Names.SAME,
@@ -511,6 +625,29 @@ public class SearchTransportService {
             (request) -> ((ShardSearchRequest) request).numberOfShards() == 1 ? QueryFetchSearchResult::new : QuerySearchResult::new
         );
 
+        transportService.registerRequestHandler(
+            QUERY_NODE_ACTION_NAME,
+            ThreadPool.Names.SAME,
+            NodeQueryRequest::new,
+            (request, channel, task) -> {
+                final NodeQueryResultsSender resultsSender = new NodeQueryResultsSender(
+                    transportService,
+                    request,
+                    new ChannelActionListener<>(channel, QUERY_NODE_ACTION_NAME, request)
+                );
+                searchService.executeQueryPhase(request, (SearchShardTask) task, resultsSender::onShardResult);
+            }
+        );
+        transportService.registerRequestHandler(
+            QUERY_NODE_RESULTS_ACTION_NAME,
+            ThreadPool.Names.SAME,
+            NodeQueryResultsRequest::new,
+            (request, channel, task) -> {
+                searchTransportService.onNodeQueryResults(request);
+                channel.sendResponse(TransportResponse.Empty.INSTANCE);
+            }
+        );
+
         transportService.registerRequestHandler(
             QUERY_ID_ACTION_NAME,
             ThreadPool.Names.SAME,
@@ -113,6 +113,29 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         Property.NodeScope
     );
 
+    /**
+     * Whether the query phase sends the requests for all the shards of a search on the same node to that node in a single request. Off by
+     * default for now, until node-level requests have had the same exposure as shard-level ones.
+     */
+    public static final Setting<Boolean> BATCH_QUERY_PHASE_BY_NODE_SETTING = Setting.boolSetting(
+        "action.search.query_phase.batch_by_node",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * Whether a cross-cluster search that minimizes roundtrips fetches its hits once the responses of all the clusters have been merged,
+     * so that only the hits that make it to the merged response are fetched, at the cost of a second roundtrip to the clusters that hold
+     * them.
+     */
+    public static final Setting<Boolean> CCS_FETCH_MERGED_HITS_SETTING = Setting.boolSetting(
+        "action.search.ccs_minimize_roundtrips.fetch_merged_hits",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     public static final Setting<Integer> DEFAULT_PRE_FILTER_SHARD_SIZE = Setting.intSetting(
         "action.search.pre_filter_shard_size.default",
         SearchRequest.DEFAULT_PRE_FILTER_SHARD_SIZE,
@@ -152,7 +175,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         this.searchPhaseController = searchPhaseController;
         this.searchTransportService = searchTransportService;
         this.remoteClusterService = searchTransportService.getRemoteClusterService();
-        SearchTransportService.registerRequestHandler(transportService, searchService);
+        SearchTransportService.registerRequestHandler(transportService, searchService, searchTransportService);
         this.clusterService = clusterService;
         this.searchService = searchService;
         this.indexNameExpressionResolver = indexNameExpressionResolver;
@@ -414,6 +437,8 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                         searchService.aggReduceContextBuilder(task::isCancelled, rewritten),
                         remoteClusterService,
                         threadPool,
+                        clusterService.getClusterSettings().get(CCS_FETCH_MERGED_HITS_SETTING)
+                            && CrossClusterFetch.canFetchMergedHits(rewritten),
                         listener,
                         (r, l) -> executeLocalSearch(
                             task,
@@ -515,6 +540,34 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         ActionListener<SearchResponse> listener,
         BiConsumer<SearchRequest, ActionListener<SearchResponse>> localSearchConsumer
     ) {
+        ccsRemoteReduce(
+            parentTaskId,
+            searchRequest,
+            localIndices,
+            remoteIndices,
+            timeProvider,
+            aggReduceContextBuilder,
+            remoteClusterService,
+            threadPool,
+            false,
+            listener,
+            localSearchConsumer
+        );
+    }
+
+    static void ccsRemoteReduce(
+        TaskId parentTaskId,
+        SearchRequest searchRequest,
+        OriginalIndices localIndices,
+        Map<String, OriginalIndices> remoteIndices,
+        SearchTimeProvider timeProvider,
+        AggregationReduceContext.Builder aggReduceContextBuilder,
+        RemoteClusterService remoteClusterService,
+        ThreadPool threadPool,
+        boolean fetchMergedHits,
+        ActionListener<SearchResponse> listener,
+        BiConsumer<SearchRequest, ActionListener<SearchResponse>> localSearchConsumer
+    ) {
 
         if (localIndices == null && remoteIndices.size() == 1) {
             // if we are searching against a single remote cluster, we simply forward the original search request to such cluster
@@ -578,6 +631,26 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 timeProvider,
                 aggReduceContextBuilder
             );
+            final SearchSourceBuilder querySource;
+            final ActionListener<SearchResponse> mergedListener;
+            if (fetchMergedHits) {
+                // the clusters only send what is needed to merge their hits, which are then fetched from the merged response
+                CrossClusterFetch fetch = new CrossClusterFetch(
+                    parentTaskId,
+                    searchRequest,
+                    localIndices,
+                    remoteIndices,
+                    timeProvider,
+                    remoteClusterService,
+                    threadPool,
+                    localSearchConsumer
+                );
+                querySource = searchRequest.source().queryPhaseCopy();
+                mergedListener = ActionListener.wrap(mergedResponse -> fetch.fetch(mergedResponse, listener), listener::onFailure);
+            } else {
+                querySource = null;
+                mergedListener = listener;
+            }
             AtomicInteger skippedClusters = new AtomicInteger(0);
             final AtomicReference<Exception> exceptions = new AtomicReference<>();
             int totalClusters = remoteIndices.size() + (localIndices == null ? 0 : 1);
@@ -594,6 +667,9 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                     timeProvider.getAbsoluteStartMillis(),
                     false
                 );
+                if (querySource != null) {
+                    ccsSearchRequest.source(querySource);
+                }
                 ActionListener<SearchResponse> ccsListener = createCCSListener(
                     clusterAlias,
                     skipUnavailable,
@@ -602,7 +678,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                     exceptions,
                     searchResponseMerger,
                     totalClusters,
-                    listener
+                    mergedListener
                 );
                 Client remoteClusterClient = remoteClusterService.getRemoteClusterClient(threadPool, clusterAlias);
                 remoteClusterClient.search(ccsSearchRequest, ccsListener);
@@ -616,7 +692,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                     exceptions,
                     searchResponseMerger,
                     totalClusters,
-                    listener
+                    mergedListener
                 );
                 SearchRequest ccsLocalSearchRequest = SearchRequest.subSearchRequest(
                     parentTaskId,
@@ -626,6 +702,9 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                     timeProvider.getAbsoluteStartMillis(),
                     false
                 );
+                if (querySource != null) {
+                    ccsLocalSearchRequest.source(querySource);
+                }
                 localSearchConsumer.accept(ccsLocalSearchRequest, ccsListener);
             }
         }
@@ -1229,7 +1308,8 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                         timeProvider,
                         clusterState,
                         task,
-                        clusters
+                        clusters,
+                        clusterService.getClusterSettings().get(BATCH_QUERY_PHASE_BY_NODE_SETTING)
                     );
                     break;
                 default:
@@ -11,8 +11,11 @@ package org.elasticsearch.cluster;
 import org.elasticsearch.cluster.metadata.IndexGraveyard;
 import org.elasticsearch.cluster.metadata.IndexGraveyard.IndexGraveyardDiff;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.IndexTemplateMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.gateway.GatewayService;
 import org.elasticsearch.index.Index;
@@ -39,6 +42,13 @@ public class ClusterChangedEvent {
 
     private final DiscoveryNodes.Delta nodesDelta;
 
+    // The change sets below are computed lazily and then shared by all the appliers and listeners that see this event. They are immutable,
+    // so a listener that reads them from another thread at worst computes them again.
+    private Set<Index> indicesWithChangedMetadata;
+    private Set<Index> indicesWithChangedRouting;
+    private Set<String> changedTemplates;
+    private Set<String> changedCustomMetadata;
+
     public ClusterChangedEvent(String source, ClusterState state, ClusterState previousState) {
         Objects.requireNonNull(source, "source must not be null");
         Objects.requireNonNull(state, "state must not be null");
@@ -98,22 +108,94 @@ public class ClusterChangedEvent {
      * Returns the indices created in this event
      */
     public List<String> indicesCreated() {
-        if (metadataChanged() == false) {
-            return Collections.emptyList();
-        }
         List<String> created = null;
-        for (Map.Entry<String, IndexMetadata> cursor : state.metadata().indices().entrySet()) {
-            String index = cursor.getKey();
-            if (previousState.metadata().hasIndex(index) == false) {
+        for (Index index : indicesWithChangedMetadata()) {
+            if (previousState.metadata().hasIndex(index.getName()) == false) {
                 if (created == null) {
                     created = new ArrayList<>();
                 }
-                created.add(index);
+                created.add(index.getName());
             }
         }
         return created == null ? Collections.<String>emptyList() : created;
     }
 
+    /**
+     * Returns the indices whose {@link IndexMetadata} was added or updated in this event, i.e. those for which
+     * {@link #indexMetadataChanged} holds. Deleted indices are reported by {@link #indicesDeleted()}. Since applying a
+     * cluster state diff keeps the previous instance of every index that the diff does not touch, this is exactly the set
+     * of indices that the diff changed, and appliers that only care about a few indices can use it instead of comparing
+     * every index in the cluster.
+     */
+    public Set<Index> indicesWithChangedMetadata() {
+        if (indicesWithChangedMetadata == null) {
+            if (metadataChanged() == false) {
+                indicesWithChangedMetadata = Set.of();
+            } else {
+                final Set<Index> changed = new HashSet<>();
+                final Metadata previousMetadata = previousState.metadata();
+                for (IndexMetadata current : state.metadata().indices().values()) {
+                    final IndexMetadata previous = previousMetadata.index(current.getIndex().getName());
+                    if (previous == null || indexMetadataChanged(current, previous)) {
+                        changed.add(current.getIndex());
+                    }
+                }
+                indicesWithChangedMetadata = Collections.unmodifiableSet(changed);
+            }
+        }
+        return indicesWithChangedMetadata;
+    }
+
+    /**
+     * Returns the indices whose {@link IndexRoutingTable} was added or updated in this event, i.e. those for which
+     * {@link #indexRoutingTableChanged} holds. Note that this is an object reference equality test, not an equals test.
+     */
+    public Set<Index> indicesWithChangedRouting() {
+        if (indicesWithChangedRouting == null) {
+            if (routingTableChanged() == false) {
+                indicesWithChangedRouting = Set.of();
+            } else {
+                final Set<Index> changed = new HashSet<>();
+                final RoutingTable previousRoutingTable = previousState.routingTable();
+                for (IndexRoutingTable current : state.routingTable()) {
+                    if (current != previousRoutingTable.index(current.getIndex().getName())) {
+                        changed.add(current.getIndex());
+                    }
+                }
+                indicesWithChangedRouting = Collections.unmodifiableSet(changed);
+            }
+        }
+        return indicesWithChangedRouting;
+    }
+
+    /**
+     * Returns the names of the legacy index templates that have been added, updated or removed in this event. Note that this is an
+     * object reference equality test, not an equals test.
+     */
+    public Set<String> changedTemplates() {
+        if (changedTemplates == null) {
+            final ImmutableOpenMap<String, IndexTemplateMetadata> currentTemplates = state.metadata().templates();
+            final ImmutableOpenMap<String, IndexTemplateMetadata> previousTemplates = previousState.metadata().templates();
+            if (currentTemplates == previousTemplates) {
+                changedTemplates = Set.of();
+            } else {
+                final Set<String> changed = new HashSet<>();
+                for (Map.Entry<String, IndexTemplateMetadata> current : currentTemplates.entrySet()) {
+                    if (current.getValue() != previousTemplates.get(current.getKey())) {
+                        changed.add(current.getKey());
+                    }
+                }
+                for (String previous : previousTemplates.keySet()) {
+                    if (currentTemplates.containsKey(previous) == false) {
+                        changed.add(previous);
+                    }
+                }
+                changedTemplates = Collections.unmodifiableSet(changed);
+            }
+        }
+        return changedTemplates;
+    }
+
     /**
      * Returns the indices deleted in this event
      */
@@ -142,6 +224,13 @@ public class ClusterChangedEvent {
      * returned iff they have been added, updated or removed between the previous and the current state
      */
     public Set<String> changedCustomMetadataSet() {
+        if (changedCustomMetadata == null) {
+            changedCustomMetadata = Collections.unmodifiableSet(computeChangedCustomMetadataSet());
+        }
+        return changedCustomMetadata;
+    }
+
+    private Set<String> computeChangedCustomMetadataSet() {
         Set<String> result = new HashSet<>();
         ImmutableOpenMap<String, Metadata.Custom> currentCustoms = state.metadata().customs();
         ImmutableOpenMap<String, Metadata.Custom> previousCustoms = previousState.metadata().customs();
@@ -358,6 +358,7 @@ public class Coordinator extends AbstractLifecycleComponent implements ClusterSt
     private void handleApplyCommit(ApplyCommitRequest applyCommitRequest, ActionListener<Void> applyListener) {
         synchronized (mutex) {
             logger.trace("handleApplyCommit: applying commit {}", applyCommitRequest);
+            leaderChecker.onRequestReceived(applyCommitRequest.getSourceNode());
 
             coordinationState.get().handleCommit(applyCommitRequest);
             final ClusterState committedState = hideStateIfNotRecovered(coordinationState.get().getLastAcceptedState());
@@ -895,7 +896,8 @@ public class Coordinator extends AbstractLifecycleComponent implements ClusterSt
             new PendingClusterStateStats(0, 0, 0),
             publicationHandler.stats(),
             getLocalNode().isMasterNode() ? masterService.getClusterStateUpdateStats() : null,
-            clusterApplier.getStats()
+            clusterApplier.getStats(),
+            new FaultDetectionStats(followersChecker.getStats(), leaderChecker.getStats())
         );
     }
 
@@ -1802,7 +1804,10 @@ public class Coordinator extends AbstractLifecycleComponent implements ClusterSt
             ApplyCommitRequest applyCommit,
             ActionListener<Empty> responseActionListener
         ) {
-            publicationContext.sendApplyCommit(destination, applyCommit, wrapWithMutex(responseActionListener));
+            publicationContext.sendApplyCommit(destination, applyCommit, wrapWithMutex(responseActionListener.<Empty>map(response -> {
+                followersChecker.onResponseReceived(destination);
+                return response;
+            })));
         }
     }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.coordination;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Stats about the checks that the {@link FollowersChecker} and {@link LeaderChecker} on this node have performed.
+ */
+public class FaultDetectionStats implements Writeable, ToXContentFragment {
+
+    private final CheckStats followerChecks;
+    private final CheckStats leaderChecks;
+
+    public FaultDetectionStats(CheckStats followerChecks, CheckStats leaderChecks) {
+        this.followerChecks = followerChecks;
+        this.leaderChecks = leaderChecks;
+    }
+
+    public FaultDetectionStats(StreamInput in) throws IOException {
+        followerChecks = new CheckStats(in);
+        leaderChecks = new CheckStats(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        followerChecks.writeTo(out);
+        leaderChecks.writeTo(out);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("fault_detection");
+        builder.startObject("follower_checks");
+        followerChecks.toXContent(builder, params);
+        builder.endObject();
+        builder.startObject("leader_checks");
+        leaderChecks.toXContent(builder, params);
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    public CheckStats getFollowerChecks() {
+        return followerChecks;
+    }
+
+    public CheckStats getLeaderChecks() {
+        return leaderChecks;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FaultDetectionStats that = (FaultDetectionStats) o;
+        return followerChecks.equals(that.followerChecks) && leaderChecks.equals(that.leaderChecks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(followerChecks, leaderChecks);
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toString(this);
+    }
+
+    /**
+     * Stats about the checks sent by one of the checkers on this node.
+     */
+    public static class CheckStats implements Writeable, ToXContentFragment {
+
+        public static final CheckStats EMPTY = new CheckStats(0L, 0L, 0L, 0L, 0L, 0.0);
+
+        private final long successful;
+        private final long skipped;
+        private final long failed;
+        private final long timedOut;
+        private final long successfulTimeMillis;
+        private final double maxSuspicion;
+
+        /**
+         * @param successful           the number of checks that succeeded
+         * @param skipped              the number of checks that were not sent because the target was recently seen alive by other means
+         * @param failed               the number of checks that failed other than by timing out
+         * @param timedOut             the number of checks that timed out
+         * @param successfulTimeMillis the total round-trip time of the checks that succeeded
+         * @param maxSuspicion         the highest current suspicion level among the checked nodes, see {@link HeartbeatHistory}
+         */
+        public CheckStats(long successful, long skipped, long failed, long timedOut, long successfulTimeMillis, double maxSuspicion) {
+            this.successful = successful;
+            this.skipped = skipped;
+            this.failed = failed;
+            this.timedOut = timedOut;
+            this.successfulTimeMillis = successfulTimeMillis;
+            this.maxSuspicion = maxSuspicion;
+        }
+
+        public CheckStats(StreamInput in) throws IOException {
+            successful = in.readVLong();
+            skipped = in.readVLong();
+            failed = in.readVLong();
+            timedOut = in.readVLong();
+            successfulTimeMillis = in.readVLong();
+            maxSuspicion = in.readDouble();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(successful);
+            out.writeVLong(skipped);
+            out.writeVLong(failed);
+            out.writeVLong(timedOut);
+            out.writeVLong(successfulTimeMillis);
+            out.writeDouble(maxSuspicion);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("successful", successful);
+            builder.field("skipped", skipped);
+            builder.field("failed", failed);
+            builder.field("timed_out", timedOut);
+            builder.humanReadableField("successful_time_millis", "successful_time", TimeValue.timeValueMillis(successfulTimeMillis));
+            builder.field("max_suspicion", maxSuspicion);
+            return builder;
+        }
+
+        public long getSuccessful() {
+            return successful;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getTimedOut() {
+            return timedOut;
+        }
+
+        public long getSuccessfulTimeMillis() {
+            return successfulTimeMillis;
+        }
+
+        public double getMaxSuspicion() {
+            return maxSuspicion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CheckStats that = (CheckStats) o;
+            return successful == that.successful
+                && skipped == that.skipped
+                && failed == that.failed
+                && timedOut == that.timedOut
+                && successfulTimeMillis == that.successfulTimeMillis
+                && Double.compare(maxSuspicion, that.maxSuspicion) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(successful, skipped, failed, timedOut, successfulTimeMillis, maxSuspicion);
+        }
+
+        @Override
+        public String toString() {
+            return Strings.toString(this);
+        }
+    }
+
+    /**
+     * Accumulates the outcomes of the checks sent by one of the checkers on this node.
+     */
+    static class CheckStatsTracker {
+
+        private final CounterMetric successful = new CounterMetric();
+        private final CounterMetric skipped = new CounterMetric();
+        private final CounterMetric failed = new CounterMetric();
+        private final CounterMetric timedOut = new CounterMetric();
+        private final CounterMetric successfulTimeMillis = new CounterMetric();
+
+        void onSuccess(long tookMillis) {
+            successful.inc();
+            successfulTimeMillis.inc(Math.max(0L, tookMillis));
+        }
+
+        void onSkipped() {
+            skipped.inc();
+        }
+
+        void onFailure() {
+            failed.inc();
+        }
+
+        void onTimeout() {
+            timedOut.inc();
+        }
+
+        CheckStats getStats(double maxSuspicion) {
+            return new CheckStats(
+                successful.count(),
+                skipped.count(),
+                failed.count(),
+                timedOut.count(),
+                successfulTimeMillis.count(),
+                maxSuspicion
+            );
+        }
+    }
+}
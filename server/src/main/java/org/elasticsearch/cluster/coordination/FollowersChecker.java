@@ -85,9 +85,17 @@ public class FollowersChecker {
         Setting.Property.NodeScope
     );
 
+    // whether to skip a check if the node has responded to some other request since the previous check, e.g. during a publication
+    public static final Setting<Boolean> FOLLOWER_CHECK_PIGGYBACK_SETTING = Setting.boolSetting(
+        "cluster.fault_detection.follower_check.piggyback",
+        false,
+        Setting.Property.NodeScope
+    );
+
     private final TimeValue followerCheckInterval;
     private final TimeValue followerCheckTimeout;
     private final int followerCheckRetryCount;
+    private final boolean followerCheckPiggyback;
     private final BiConsumer<DiscoveryNode, String> onNodeFailure;
     private final Consumer<FollowerCheckRequest> handleRequestAndUpdateState;
 
@@ -98,6 +106,7 @@ public class FollowersChecker {
     private final TransportService transportService;
     private final NodeHealthService nodeHealthService;
     private volatile FastResponseState fastResponseState;
+    private final FaultDetectionStats.CheckStatsTracker checkStatsTracker = new FaultDetectionStats.CheckStatsTracker();
 
     public FollowersChecker(
         Settings settings,
@@ -114,6 +123,7 @@ public class FollowersChecker {
         followerCheckInterval = FOLLOWER_CHECK_INTERVAL_SETTING.get(settings);
         followerCheckTimeout = FOLLOWER_CHECK_TIMEOUT_SETTING.get(settings);
         followerCheckRetryCount = FOLLOWER_CHECK_RETRY_COUNT_SETTING.get(settings);
+        followerCheckPiggyback = FOLLOWER_CHECK_PIGGYBACK_SETTING.get(settings);
 
         updateFastResponseState(0, Mode.CANDIDATE);
         transportService.registerRequestHandler(
@@ -218,6 +228,29 @@ public class FollowersChecker {
         });
     }
 
+    /**
+     * Record that the given node has successfully responded to some other request from this node, which shows that it is still alive and
+     * may allow its next check to be skipped.
+     */
+    public void onResponseReceived(DiscoveryNode discoveryNode) {
+        final FollowerChecker followerChecker = followerCheckers.get(discoveryNode);
+        if (followerChecker != null) {
+            followerChecker.onResponseReceived();
+        }
+    }
+
+    /**
+     * @return stats about the checks sent to followers, including the highest suspicion level among the current followers.
+     */
+    public FaultDetectionStats.CheckStats getStats() {
+        final long nowMillis = transportService.getThreadPool().relativeTimeInMillis();
+        double maxSuspicion = 0.0;
+        for (FollowerChecker followerChecker : followerCheckers.values()) {
+            maxSuspicion = Math.max(maxSuspicion, followerChecker.heartbeatHistory.suspicion(nowMillis));
+        }
+        return checkStatsTracker.getStats(maxSuspicion);
+    }
+
     /**
      * @return nodes in the current cluster state which have failed their follower checks.
      */
@@ -288,6 +321,10 @@ public class FollowersChecker {
         private final DiscoveryNode discoveryNode;
         private int failureCountSinceLastSuccess;
         private int timeoutCountSinceLastSuccess;
+        private final HeartbeatHistory heartbeatHistory = new HeartbeatHistory();
+        private volatile long lastResponseReceivedMillis = -1L;
+        private long lastCheckStartMillis = -1L;
+        private boolean skippedLastCheck;
 
         FollowerChecker(DiscoveryNode discoveryNode) {
             this.discoveryNode = discoveryNode;
@@ -302,12 +339,34 @@ public class FollowersChecker {
             handleWakeUp();
         }
 
+        void onResponseReceived() {
+            final long nowMillis = transportService.getThreadPool().relativeTimeInMillis();
+            lastResponseReceivedMillis = nowMillis;
+            heartbeatHistory.onHeartbeat(nowMillis);
+        }
+
         private void handleWakeUp() {
             if (running() == false) {
                 logger.trace("handleWakeUp: not running");
                 return;
             }
 
+            // Skip this check if the node responded to something else since the previous check was sent, but never skip two checks in a
+            // row since only a check verifies that the node is healthy and still following this leader.
+            if (followerCheckPiggyback
+                && skippedLastCheck == false
+                && failureCountSinceLastSuccess + timeoutCountSinceLastSuccess == 0
+                && lastResponseReceivedMillis > lastCheckStartMillis) {
+                logger.trace("handleWakeUp: skipping check of {} which responded recently", discoveryNode);
+                skippedLastCheck = true;
+                checkStatsTracker.onSkipped();
+                scheduleNextWakeUp();
+                return;
+            }
+            skippedLastCheck = false;
+            final long checkStartMillis = transportService.getThreadPool().relativeTimeInMillis();
+            lastCheckStartMillis = checkStartMillis;
+
             final FollowerCheckRequest request = new FollowerCheckRequest(fastResponseState.term, transportService.getLocalNode());
             logger.trace("handleWakeUp: checking {} with {}", discoveryNode, request);
 
@@ -325,6 +384,9 @@ public class FollowersChecker {
                             return;
                         }
 
+                        final long nowMillis = transportService.getThreadPool().relativeTimeInMillis();
+                        checkStatsTracker.onSuccess(nowMillis - checkStartMillis);
+                        heartbeatHistory.onHeartbeat(nowMillis);
                         failureCountSinceLastSuccess = 0;
                         timeoutCountSinceLastSuccess = 0;
                         logger.trace("{} check successful", FollowerChecker.this);
@@ -339,8 +401,10 @@ public class FollowersChecker {
                         }
 
                         if (exp instanceof ReceiveTimeoutTransportException) {
+                            checkStatsTracker.onTimeout();
                             timeoutCountSinceLastSuccess++;
                         } else {
+                            checkStatsTracker.onFailure();
                             failureCountSinceLastSuccess++;
                         }
 
@@ -352,7 +416,14 @@ public class FollowersChecker {
                             logger.debug(() -> new ParameterizedMessage("{} health check failed", FollowerChecker.this), exp);
                             reason = "health check failed";
                         } else if (failureCountSinceLastSuccess + timeoutCountSinceLastSuccess >= followerCheckRetryCount) {
-                            logger.debug(() -> new ParameterizedMessage("{} failed too many times", FollowerChecker.this), exp);
+                            logger.debug(
+                                () -> new ParameterizedMessage(
+                                    "{} failed too many times, suspicion level [{}]",
+                                    FollowerChecker.this,
+                                    heartbeatHistory.suspicion(transportService.getThreadPool().relativeTimeInMillis())
+                                ),
+                                exp
+                            );
                             reason = "followers check retry count exceeded [timeouts="
                                 + timeoutCountSinceLastSuccess
                                 + ", failures="
@@ -0,0 +1,96 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.coordination;
+
+/**
+ * Records the times at which a remote node was last seen to be alive, and the distribution of the intervals between these observations, in
+ * order to compute how suspicious it is that the node has not been seen since. This is the suspicion level {@code phi} of the phi accrual
+ * failure detector: if the node is still alive then the probability that it stays silent for at least as long as it has been silent is
+ * roughly {@code 10^-phi}, assuming that the intervals are normally distributed. It adapts to the observed behaviour of the node, so a
+ * node which always responds promptly becomes suspicious sooner than one whose responses are often delayed, e.g. by GC.
+ */
+class HeartbeatHistory {
+
+    // the number of most recent intervals from which the distribution is estimated
+    static final int MAX_SAMPLES = 100;
+
+    // a lower bound on the standard deviation of the intervals, to avoid excessive suspicion of nodes which have been perfectly regular
+    static final double MIN_STANDARD_DEVIATION_MILLIS = 100.0;
+
+    private final long[] intervals = new long[MAX_SAMPLES];
+    private int sampleCount;
+    private int nextSample;
+    private double sum;
+    private double sumOfSquares;
+    private long lastHeartbeatMillis = -1L;
+
+    /**
+     * Record that the node was seen to be alive at the given time.
+     */
+    synchronized void onHeartbeat(long nowMillis) {
+        if (lastHeartbeatMillis >= 0L) {
+            final long interval = Math.max(0L, nowMillis - lastHeartbeatMillis);
+            if (sampleCount == MAX_SAMPLES) {
+                final long evicted = intervals[nextSample];
+                sum -= evicted;
+                sumOfSquares -= (double) evicted * evicted;
+            } else {
+                sampleCount += 1;
+            }
+            intervals[nextSample] = interval;
+            nextSample = (nextSample + 1) % MAX_SAMPLES;
+            sum += interval;
+            sumOfSquares += (double) interval * interval;
+        }
+        lastHeartbeatMillis = Math.max(lastHeartbeatMillis, nowMillis);
+    }
+
+    /**
+     * @return the time at which the node was last seen to be alive, or {@code -1} if it has never been seen.
+     */
+    synchronized long getLastHeartbeatMillis() {
+        return lastHeartbeatMillis;
+    }
+
+    /**
+     * @return the suspicion level of the node at the given time, which is {@code 0} until at least one interval has been observed.
+     */
+    synchronized double suspicion(long nowMillis) {
+        if (sampleCount == 0) {
+            return 0.0;
+        }
+        final double mean = sum / sampleCount;
+        final double variance = Math.max(0.0, sumOfSquares / sampleCount - mean * mean);
+        final double standardDeviation = Math.max(MIN_STANDARD_DEVIATION_MILLIS, Math.sqrt(variance));
+        return phi(nowMillis - lastHeartbeatMillis, mean, standardDeviation);
+    }
+
+    /**
+     * @return {@code -log10} of the probability that a normally-distributed interval with the given mean and standard deviation exceeds
+     * {@code elapsedMillis}, using a logistic approximation to the normal distribution's CDF which is accurate enough for this purpose.
+     */
+    static double phi(long elapsedMillis, double mean, double standardDeviation) {
+        final double y = (elapsedMillis - mean) / standardDeviation;
+        final double exponent = y * (1.5976 + 0.070566 * y * y);
+        final double e = Math.exp(-exponent);
+        final double phi;
+        if (elapsedMillis > mean) {
+            // -log10(e / (1 + e)), rearranged so that it remains finite even if e underflows to zero
+            phi = exponent / Math.log(10.0) + Math.log10(1.0 + e);
+        } else {
+            phi = -Math.log10(1.0 - 1.0 / (1.0 + e));
+        }
+        return Math.max(0.0, phi);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "HeartbeatHistory{samples=" + sampleCount + ", lastHeartbeatMillis=" + lastHeartbeatMillis + '}';
+    }
+}
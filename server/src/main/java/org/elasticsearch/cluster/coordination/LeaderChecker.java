@@ -82,9 +82,17 @@ public class LeaderChecker {
         Setting.Property.NodeScope
     );
 
+    // whether to skip a check if the leader has sent this node a request since the previous check, e.g. during a publication
+    public static final Setting<Boolean> LEADER_CHECK_PIGGYBACK_SETTING = Setting.boolSetting(
+        "cluster.fault_detection.leader_check.piggyback",
+        false,
+        Setting.Property.NodeScope
+    );
+
     private final TimeValue leaderCheckInterval;
     private final TimeValue leaderCheckTimeout;
     private final int leaderCheckRetryCount;
+    private final boolean leaderCheckPiggyback;
     private final TransportService transportService;
     private final LeaderFailureListener leaderFailureListener;
     private final NodeHealthService nodeHealthService;
@@ -93,6 +101,8 @@ public class LeaderChecker {
 
     private volatile DiscoveryNodes discoveryNodes;
 
+    private final FaultDetectionStats.CheckStatsTracker checkStatsTracker = new FaultDetectionStats.CheckStatsTracker();
+
     LeaderChecker(
         final Settings settings,
         final TransportService transportService,
@@ -102,6 +112,7 @@ public class LeaderChecker {
         leaderCheckInterval = LEADER_CHECK_INTERVAL_SETTING.get(settings);
         leaderCheckTimeout = LEADER_CHECK_TIMEOUT_SETTING.get(settings);
         leaderCheckRetryCount = LEADER_CHECK_RETRY_COUNT_SETTING.get(settings);
+        leaderCheckPiggyback = LEADER_CHECK_PIGGYBACK_SETTING.get(settings);
         this.transportService = transportService;
         this.leaderFailureListener = leaderFailureListener;
         this.nodeHealthService = nodeHealthService;
@@ -162,6 +173,28 @@ public class LeaderChecker {
         this.discoveryNodes = discoveryNodes;
     }
 
+    /**
+     * Record that this node has received a request from the given node, which shows that it is still alive if it is the current leader and
+     * may allow the next check of the leader to be skipped.
+     */
+    void onRequestReceived(DiscoveryNode sender) {
+        final CheckScheduler checkScheduler = currentChecker.get();
+        if (checkScheduler != null && checkScheduler.leader.equals(sender)) {
+            checkScheduler.onRequestReceived();
+        }
+    }
+
+    /**
+     * @return stats about the checks sent to the leader, including its current suspicion level.
+     */
+    FaultDetectionStats.CheckStats getStats() {
+        final CheckScheduler checkScheduler = currentChecker.get();
+        final double suspicion = checkScheduler == null
+            ? 0.0
+            : checkScheduler.heartbeatHistory.suspicion(transportService.getThreadPool().relativeTimeInMillis());
+        return checkStatsTracker.getStats(suspicion);
+    }
+
     // For assertions
     boolean currentNodeIsMaster() {
         return discoveryNodes.isLocalNodeElectedMaster();
@@ -204,6 +237,10 @@ public class LeaderChecker {
         private final AtomicBoolean isClosed = new AtomicBoolean();
         private int rejectedCountSinceLastSuccess;
         private int timeoutCountSinceLastSuccess;
+        private final HeartbeatHistory heartbeatHistory = new HeartbeatHistory();
+        private volatile long lastRequestReceivedMillis = -1L;
+        private long lastCheckStartMillis = -1L;
+        private boolean skippedLastCheck;
 
         CheckScheduler(final DiscoveryNode leader) {
             this.leader = leader;
@@ -218,12 +255,34 @@ public class LeaderChecker {
             }
         }
 
+        void onRequestReceived() {
+            final long nowMillis = transportService.getThreadPool().relativeTimeInMillis();
+            lastRequestReceivedMillis = nowMillis;
+            heartbeatHistory.onHeartbeat(nowMillis);
+        }
+
         void handleWakeUp() {
             if (isClosed.get()) {
                 logger.trace("closed check scheduler woken up, doing nothing");
                 return;
             }
 
+            // Skip this check if the leader sent us a request since the previous check was sent, but never skip two checks in a row since
+            // only a check verifies that the leader is healthy and still has this node in its cluster.
+            if (leaderCheckPiggyback
+                && skippedLastCheck == false
+                && rejectedCountSinceLastSuccess + timeoutCountSinceLastSuccess == 0
+                && lastRequestReceivedMillis > lastCheckStartMillis) {
+                logger.trace("skipping check of {} which sent a request recently", leader);
+                skippedLastCheck = true;
+                checkStatsTracker.onSkipped();
+                scheduleNextWakeUp();
+                return;
+            }
+            skippedLastCheck = false;
+            final long checkStartMillis = transportService.getThreadPool().relativeTimeInMillis();
+            lastCheckStartMillis = checkStartMillis;
+
             logger.trace("checking {} with [{}] = {}", leader, LEADER_CHECK_TIMEOUT_SETTING.getKey(), leaderCheckTimeout);
 
             transportService.sendRequest(
@@ -240,6 +299,9 @@ public class LeaderChecker {
                             return;
                         }
 
+                        final long nowMillis = transportService.getThreadPool().relativeTimeInMillis();
+                        checkStatsTracker.onSuccess(nowMillis - checkStartMillis);
+                        heartbeatHistory.onHeartbeat(nowMillis);
                         rejectedCountSinceLastSuccess = 0;
                         timeoutCountSinceLastSuccess = 0;
                         scheduleNextWakeUp(); // logs trace message indicating success
@@ -252,6 +314,12 @@ public class LeaderChecker {
                             return;
                         }
 
+                        if (exp instanceof ReceiveTimeoutTransportException) {
+                            checkStatsTracker.onTimeout();
+                        } else {
+                            checkStatsTracker.onFailure();
+                        }
+
                         if (exp instanceof ConnectTransportException || exp.getCause() instanceof ConnectTransportException) {
                             logger.debug(new ParameterizedMessage("leader [{}] disconnected during check", leader), exp);
                             leaderFailed(
@@ -287,13 +355,15 @@ public class LeaderChecker {
                         if (failureCount >= leaderCheckRetryCount) {
                             logger.debug(
                                 new ParameterizedMessage(
-                                    "leader [{}] failed {} consecutive checks (rejected [{}], timed out [{}], limit [{}] is {})",
+                                    "leader [{}] failed {} consecutive checks (rejected [{}], timed out [{}], limit [{}] is {}, "
+                                        + "suspicion level [{}])",
                                     leader,
                                     failureCount,
                                     rejectedCountSinceLastSuccess,
                                     timeoutCountSinceLastSuccess,
                                     LEADER_CHECK_RETRY_COUNT_SETTING.getKey(),
-                                    leaderCheckRetryCount
+                                    leaderCheckRetryCount,
+                                    heartbeatHistory.suspicion(transportService.getThreadPool().relativeTimeInMillis())
                                 ),
                                 exp
                             );
@@ -222,6 +222,7 @@ public class PublicationTransportHandler {
 
     private ReleasableBytesReference serializeFullClusterState(ClusterState clusterState, DiscoveryNode node) {
         final Version nodeVersion = node.getVersion();
+        final long startTimeMillis = transportService.getThreadPool().rawRelativeTimeInMillis();
         final RecyclerBytesStreamOutput bytesStream = transportService.newNetworkBytesStream();
         boolean success = false;
         try {
@@ -239,7 +240,11 @@ public class PublicationTransportHandler {
                 throw new ElasticsearchException("failed to serialize cluster state for publishing to node {}", e, node);
             }
             final ReleasableBytesReference result = new ReleasableBytesReference(bytesStream.bytes(), bytesStream);
-            serializationStatsTracker.serializedFullState(uncompressedBytes, result.length());
+            serializationStatsTracker.serializedFullState(
+                uncompressedBytes,
+                result.length(),
+                transportService.getThreadPool().rawRelativeTimeInMillis() - startTimeMillis
+            );
             logger.trace(
                 "serialized full cluster state version [{}] for node version [{}] with size [{}]",
                 clusterState.version(),
@@ -257,6 +262,7 @@ public class PublicationTransportHandler {
 
     private ReleasableBytesReference serializeDiffClusterState(long clusterStateVersion, Diff<ClusterState> diff, DiscoveryNode node) {
         final Version nodeVersion = node.getVersion();
+        final long startTimeMillis = transportService.getThreadPool().rawRelativeTimeInMillis();
         final RecyclerBytesStreamOutput bytesStream = transportService.newNetworkBytesStream();
         boolean success = false;
         try {
@@ -274,7 +280,11 @@ public class PublicationTransportHandler {
                 throw new ElasticsearchException("failed to serialize cluster state diff for publishing to node {}", e, node);
             }
             final ReleasableBytesReference result = new ReleasableBytesReference(bytesStream.bytes(), bytesStream);
-            serializationStatsTracker.serializedDiff(uncompressedBytes, result.length());
+            serializationStatsTracker.serializedDiff(
+                uncompressedBytes,
+                result.length(),
+                transportService.getThreadPool().rawRelativeTimeInMillis() - startTimeMillis
+            );
             logger.trace(
                 "serialized cluster state diff for version [{}] for node version [{}] with size [{}]",
                 clusterStateVersion,
@@ -317,9 +327,12 @@ public class PublicationTransportHandler {
 
         void buildDiffAndSerializeStates() {
             assert refCount() > 0;
-            final LazyInitializable<Diff<ClusterState>, RuntimeException> diffSupplier = new LazyInitializable<>(
-                () -> newState.diff(previousState)
-            );
+            final LazyInitializable<Diff<ClusterState>, RuntimeException> diffSupplier = new LazyInitializable<>(() -> {
+                final long startTimeMillis = transportService.getThreadPool().rawRelativeTimeInMillis();
+                final Diff<ClusterState> diff = newState.diff(previousState);
+                serializationStatsTracker.computedDiff(transportService.getThreadPool().rawRelativeTimeInMillis() - startTimeMillis);
+                return diff;
+            });
             for (DiscoveryNode node : discoveryNodes) {
                 if (sendFullVersion || previousState.nodes().nodeExists(node) == false) {
                     serializedStates.computeIfAbsent(node.getVersion(), v -> serializeFullClusterState(newState, node));
@@ -482,21 +495,30 @@ public class PublicationTransportHandler {
         private long fullStateCount;
         private long totalUncompressedFullStateBytes;
         private long totalCompressedFullStateBytes;
+        private long totalFullStateSerializationTimeMillis;
 
         private long diffCount;
         private long totalUncompressedDiffBytes;
         private long totalCompressedDiffBytes;
+        private long totalDiffComputationTimeMillis;
+        private long totalDiffSerializationTimeMillis;
 
-        public synchronized void serializedFullState(long uncompressedBytes, int compressedBytes) {
+        public synchronized void serializedFullState(long uncompressedBytes, int compressedBytes, long elapsedMillis) {
             fullStateCount += 1;
             totalUncompressedFullStateBytes += uncompressedBytes;
             totalCompressedFullStateBytes += compressedBytes;
+            totalFullStateSerializationTimeMillis += elapsedMillis;
+        }
+
+        public synchronized void computedDiff(long elapsedMillis) {
+            totalDiffComputationTimeMillis += elapsedMillis;
         }
 
-        public synchronized void serializedDiff(long uncompressedBytes, int compressedBytes) {
+        public synchronized void serializedDiff(long uncompressedBytes, int compressedBytes, long elapsedMillis) {
             diffCount += 1;
             totalUncompressedDiffBytes += uncompressedBytes;
             totalCompressedDiffBytes += compressedBytes;
+            totalDiffSerializationTimeMillis += elapsedMillis;
         }
 
         public synchronized ClusterStateSerializationStats getSerializationStats() {
@@ -504,9 +526,12 @@ public class PublicationTransportHandler {
                 fullStateCount,
                 totalUncompressedFullStateBytes,
                 totalCompressedFullStateBytes,
+                totalFullStateSerializationTimeMillis,
                 diffCount,
                 totalUncompressedDiffBytes,
-                totalCompressedDiffBytes
+                totalCompressedDiffBytes,
+                totalDiffComputationTimeMillis,
+                totalDiffSerializationTimeMillis
             );
         }
     }
@@ -12,6 +12,7 @@ import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.cluster.Diffable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.StringLiteralDeduplicator;
 
 import java.io.IOException;
 import java.util.AbstractMap;
@@ -21,6 +22,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
  * This is a {@code Map<String, String>} that implements AbstractDiffable so it
@@ -30,12 +32,31 @@ public class DiffableStringMap extends AbstractMap<String, String> implements Di
 
     public static final DiffableStringMap EMPTY = new DiffableStringMap(Collections.emptyMap());
 
+    // the keys of these maps are constants defined by the code that stores its data in them, e.g. ILM's execution state
+    private static final StringLiteralDeduplicator keyDeduplicator = new StringLiteralDeduplicator();
+
     private final Map<String, String> innerMap;
 
-    @SuppressWarnings("unchecked")
     public static DiffableStringMap readFrom(StreamInput in) throws IOException {
-        final Map<String, String> map = (Map) in.readMap();
-        return map.isEmpty() ? EMPTY : new DiffableStringMap(map);
+        return readFrom(in, UnaryOperator.identity());
+    }
+
+    /**
+     * Reads a map from the stream, passing each value through {@code valueDeduplicator}. Many indices carry identical values in their
+     * custom metadata, such as the definition of the ILM phase they are in, so a deduplicator that is shared while reading all the indices
+     * of a cluster state lets them share a single copy of each value.
+     */
+    static DiffableStringMap readFrom(StreamInput in, UnaryOperator<String> valueDeduplicator) throws IOException {
+        final Map<String, Object> map = in.readMap();
+        if (map.isEmpty()) {
+            return EMPTY;
+        }
+        final Map<String, String> deduplicated = new HashMap<>(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            final String value = (String) entry.getValue();
+            deduplicated.put(keyDeduplicator.deduplicate(entry.getKey()), value == null ? null : valueDeduplicator.apply(value));
+        }
+        return new DiffableStringMap(deduplicated);
     }
 
     DiffableStringMap(final Map<String, String> map) {
@@ -64,6 +64,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import static org.elasticsearch.cluster.metadata.Metadata.CONTEXT_MODE_PARAM;
 import static org.elasticsearch.cluster.node.DiscoveryNodeFilters.OpType.AND;
@@ -1020,6 +1021,14 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
     }
 
     public static IndexMetadata readFrom(StreamInput in) throws IOException {
+        return readFrom(in, UnaryOperator.identity());
+    }
+
+    /**
+     * Reads an {@link IndexMetadata} from the stream, passing the values of its custom metadata through {@code customValueDeduplicator}.
+     * See {@link DiffableStringMap#readFrom(StreamInput, UnaryOperator)}.
+     */
+    static IndexMetadata readFrom(StreamInput in, UnaryOperator<String> customValueDeduplicator) throws IOException {
         Builder builder = new Builder(in.readString());
         builder.version(in.readLong());
         builder.mappingVersion(in.readVLong());
@@ -1044,7 +1053,7 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
         int customSize = in.readVInt();
         for (int i = 0; i < customSize; i++) {
             String key = in.readString();
-            DiffableStringMap custom = DiffableStringMap.readFrom(in);
+            DiffableStringMap custom = DiffableStringMap.readFrom(in, customValueDeduplicator);
             builder.putCustom(key, custom);
         }
         int inSyncAllocationIdsSize = in.readVInt();
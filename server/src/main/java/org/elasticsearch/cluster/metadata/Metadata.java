@@ -71,6 +71,7 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.common.settings.Settings.readSettingsFromStream;
@@ -1028,8 +1029,14 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
             builder.hashesOfConsistentSettings(DiffableStringMap.readFrom(in));
         }
         int size = in.readVInt();
+        // indices often carry identical custom metadata values, share a single copy of each of them across the indices we read here
+        final Map<String, String> customValues = new HashMap<>();
+        final UnaryOperator<String> customValueDeduplicator = value -> {
+            final String existing = customValues.putIfAbsent(value, value);
+            return existing == null ? value : existing;
+        };
         for (int i = 0; i < size; i++) {
-            builder.put(IndexMetadata.readFrom(in), false);
+            builder.put(IndexMetadata.readFrom(in, customValueDeduplicator), false);
         }
         size = in.readVInt();
         for (int i = 0; i < size; i++) {
@@ -15,6 +15,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.core.Nullable;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,10 +68,17 @@ public class DiscoveryNodeFilters {
     @Nullable
     private final DiscoveryNodeFilters withoutTierPreferences;
 
+    private final int hashCode;
+
     private DiscoveryNodeFilters(OpType opType, Map<String, String[]> filters) {
         this.opType = opType;
         this.filters = Map.copyOf(filters);
         this.withoutTierPreferences = doTrimTier(this);
+        int hash = opType.hashCode();
+        for (Map.Entry<String, String[]> entry : this.filters.entrySet()) {
+            hash += entry.getKey().hashCode() ^ Arrays.hashCode(entry.getValue());
+        }
+        this.hashCode = hash;
     }
 
     private boolean matchByIP(String[] values, @Nullable String hostIp, @Nullable String publishIp) {
@@ -234,6 +242,31 @@ public class DiscoveryNodeFilters {
         return filters.keySet().stream().anyMatch(NON_ATTRIBUTE_NAMES::contains) == false;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DiscoveryNodeFilters that = (DiscoveryNodeFilters) o;
+        if (hashCode != that.hashCode || opType != that.opType || filters.size() != that.filters.size()) {
+            return false;
+        }
+        for (Map.Entry<String, String[]> entry : filters.entrySet()) {
+            if (Arrays.equals(entry.getValue(), that.filters.get(entry.getKey())) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
     /**
      * Generates a human-readable string for the DiscoverNodeFilters.
      * Example: {@code _id:"id1 OR blah",name:"blah OR name2"}
@@ -489,6 +489,12 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             final ModelNode[] modelNodes = sorter.modelNodes;
             final float[] weights = sorter.weights;
             for (String index : buildWeightOrderedIndices()) {
+                // If the index is balanced across all nodes then it is also balanced across every subset of them, so none of its shards
+                // will be moved and there is no need to ask the deciders which nodes are relevant. The deltas that ordered the indices
+                // may be stale by now since earlier relocations changed the nodes' weights, so check again with the current weights.
+                if (lessThan(sorter.delta(index), threshold)) {
+                    continue;
+                }
                 IndexMetadata indexMetadata = metadata.index(index);
 
                 // find nodes that have a shard of this index or where shards of this index are allowed to be allocated to,
@@ -622,8 +628,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
             final float[] deltas = new float[indices.length];
             for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
+                deltas[i] = sorter.delta(indices[i]);
             }
             new IntroSorter() {
 
@@ -1285,8 +1290,20 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return Float.compare(pivotWeight, weights[j]);
         }
 
-        public float delta() {
-            return weights[weights.length - 1] - weights[0];
+        /**
+         * Returns the difference between the highest and the lowest weight of all nodes with respect to the given index. Unlike
+         * {@link #reset(String)} this does not sort the nodes, so it takes linear time.
+         */
+        public float delta(String index) {
+            this.index = index;
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (ModelNode modelNode : modelNodes) {
+                final float weight = weight(modelNode);
+                min = Math.min(min, weight);
+                max = Math.max(max, weight);
+            }
+            return max - min;
         }
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches the outcome of an expensive and deterministic part of the computation of an {@link AllocationDecider} so that it survives from
+ * one reroute to the next. Each cached value may depend on its key and on a single piece of cluster state, such as the
+ * {@link org.elasticsearch.cluster.node.DiscoveryNodes}, which the decider declares with every lookup. That state is compared by
+ * identity, since the cluster state reuses unchanged parts from one version to the next, and all the cached values are dropped as soon
+ * as it changes. They are also all dropped once the cache is full, rather than keeping values that may no longer be looked up, such as
+ * those of indices that were deleted since the state changed last. Only the parts of a decision that do not depend on the rest of the
+ * {@link org.elasticsearch.cluster.routing.allocation.RoutingAllocation} may be cached, which means that the {@link Decision} itself,
+ * whose explanation depends on the debug mode, must still be built on every call.
+ */
+public final class AllocationDecisionCache<K, V> {
+
+    private final int maxSize;
+
+    private volatile Generation<K, V> generation = new Generation<>(null);
+
+    /**
+     * @param maxSize the number of values above which all the cached values are dropped
+     */
+    public AllocationDecisionCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the value cached for the given key, computing it if needed.
+     *
+     * @param dependency      the state on which the value depends, compared by identity with the state of the previous lookups
+     * @param key             the key of the value, which must implement {@link Object#equals} and {@link Object#hashCode}
+     * @param computeFunction computes the value of a key that is not cached, must not return {@code null}
+     */
+    public V computeIfAbsent(Object dependency, K key, Function<K, V> computeFunction) {
+        Generation<K, V> current = generation;
+        if (current.dependency != dependency) {
+            current = new Generation<>(dependency);
+            generation = current;
+        }
+        V value = current.values.get(key);
+        if (value == null) {
+            value = computeFunction.apply(key);
+            assert value != null : "cannot cache null value for " + key;
+            if (current.values.size() >= maxSize) {
+                current = new Generation<>(dependency);
+                generation = current;
+            }
+            current.values.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * @return the number of values that are currently cached
+     */
+    public int size() {
+        return generation.values.size();
+    }
+
+    private static final class Generation<K, V> {
+        final Object dependency;
+        final Map<K, V> values = new ConcurrentHashMap<>();
+
+        Generation(Object dependency) {
+            this.dependency = dependency;
+        }
+    }
+}
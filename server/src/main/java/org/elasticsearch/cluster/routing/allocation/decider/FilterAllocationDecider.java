@@ -79,6 +79,17 @@ public class FilterAllocationDecider extends AllocationDecider {
     private volatile DiscoveryNodeFilters clusterIncludeFilters;
     private volatile DiscoveryNodeFilters clusterExcludeFilters;
 
+    // enough for a few hundred distinct filters in a cluster of a hundred nodes
+    static final int MATCH_CACHE_MAX_SIZE = 50_000;
+
+    /**
+     * Whether each node matches each of the filters that have been checked against it. Matching a filter can be expensive, especially
+     * for IP filters, and every reroute checks the same few filters against the same nodes again and again. A node's attributes and
+     * addresses never change for as long as it is part of the cluster, so the cache only has to be dropped when the nodes change. The
+     * filters of deleted indices and the previous filters of updated indices are left behind though, hence the bound on its size.
+     */
+    private final AllocationDecisionCache<FilterMatchKey, Boolean> matchCache = new AllocationDecisionCache<>(MATCH_CACHE_MAX_SIZE);
+
     public FilterAllocationDecider(Settings settings, ClusterSettings clusterSettings) {
         setClusterRequireFilters(CLUSTER_ROUTING_REQUIRE_GROUP_SETTING.getAsMap(settings));
         setClusterExcludeFilters(CLUSTER_ROUTING_EXCLUDE_GROUP_SETTING.getAsMap(settings));
@@ -98,7 +109,7 @@ public class FilterAllocationDecider extends AllocationDecider {
             DiscoveryNodeFilters initialRecoveryFilters = DiscoveryNodeFilters.trimTier(indexMd.getInitialRecoveryFilters());
             if (initialRecoveryFilters != null
                 && shardRouting.recoverySource().getType() == RecoverySource.Type.LOCAL_SHARDS
-                && initialRecoveryFilters.match(node.node()) == false) {
+                && matches(initialRecoveryFilters, node.node(), allocation) == false) {
                 String explanation =
                     "initial allocation of the shrunken index is only allowed on nodes [%s] that hold a copy of every shard in the index";
                 return allocation.decision(Decision.NO, NAME, explanation, initialRecoveryFilters);
@@ -154,7 +165,7 @@ public class FilterAllocationDecider extends AllocationDecider {
         DiscoveryNodeFilters indexExcludeFilters = DiscoveryNodeFilters.trimTier(indexMd.excludeFilters());
 
         if (indexRequireFilters != null) {
-            if (indexRequireFilters.match(node) == false) {
+            if (matches(indexRequireFilters, node, allocation) == false) {
                 return allocation.decision(
                     Decision.NO,
                     NAME,
@@ -165,7 +176,7 @@ public class FilterAllocationDecider extends AllocationDecider {
             }
         }
         if (indexIncludeFilters != null) {
-            if (indexIncludeFilters.match(node) == false) {
+            if (matches(indexIncludeFilters, node, allocation) == false) {
                 return allocation.decision(
                     Decision.NO,
                     NAME,
@@ -176,7 +187,7 @@ public class FilterAllocationDecider extends AllocationDecider {
             }
         }
         if (indexExcludeFilters != null) {
-            if (indexExcludeFilters.match(node)) {
+            if (matches(indexExcludeFilters, node, allocation)) {
                 return allocation.decision(
                     Decision.NO,
                     NAME,
@@ -191,7 +202,7 @@ public class FilterAllocationDecider extends AllocationDecider {
 
     private Decision shouldClusterFilter(DiscoveryNode node, RoutingAllocation allocation) {
         if (clusterRequireFilters != null) {
-            if (clusterRequireFilters.match(node) == false) {
+            if (matches(clusterRequireFilters, node, allocation) == false) {
                 return allocation.decision(
                     Decision.NO,
                     NAME,
@@ -202,7 +213,7 @@ public class FilterAllocationDecider extends AllocationDecider {
             }
         }
         if (clusterIncludeFilters != null) {
-            if (clusterIncludeFilters.match(node) == false) {
+            if (matches(clusterIncludeFilters, node, allocation) == false) {
                 return allocation.decision(
                     Decision.NO,
                     NAME,
@@ -213,7 +224,7 @@ public class FilterAllocationDecider extends AllocationDecider {
             }
         }
         if (clusterExcludeFilters != null) {
-            if (clusterExcludeFilters.match(node)) {
+            if (matches(clusterExcludeFilters, node, allocation)) {
                 return allocation.decision(
                     Decision.NO,
                     NAME,
@@ -226,6 +237,15 @@ public class FilterAllocationDecider extends AllocationDecider {
         return null;
     }
 
+    private boolean matches(DiscoveryNodeFilters filters, DiscoveryNode node, RoutingAllocation allocation) {
+        return matchCache.computeIfAbsent(allocation.nodes(), new FilterMatchKey(filters, node), key -> key.filters().match(key.node()));
+    }
+
+    // visible for testing
+    AllocationDecisionCache<FilterMatchKey, Boolean> getMatchCache() {
+        return matchCache;
+    }
+
     private void setClusterRequireFilters(Map<String, List<String>> filters) {
         clusterRequireFilters = DiscoveryNodeFilters.trimTier(DiscoveryNodeFilters.buildFromKeyValues(AND, filters));
     }
@@ -237,4 +257,6 @@ public class FilterAllocationDecider extends AllocationDecider {
     private void setClusterExcludeFilters(Map<String, List<String>> filters) {
         clusterExcludeFilters = DiscoveryNodeFilters.trimTier(DiscoveryNodeFilters.buildFromKeyValues(OR, filters));
     }
+
+    record FilterMatchKey(DiscoveryNodeFilters filters, DiscoveryNode node) {}
 }
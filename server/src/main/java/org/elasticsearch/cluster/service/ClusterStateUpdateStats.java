@@ -14,10 +14,13 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.ToXContentObject;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 
 /**
  * Various statistics (timing information etc) about cluster state updates coordinated by this node.
@@ -46,6 +49,8 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
     private final long failedMasterApplyElapsedMillis;
     private final long failedNotificationElapsedMillis;
 
+    private final Map<String, ExecutorStats> executorStats;
+
     public ClusterStateUpdateStats(
         long unchangedTaskCount,
         long publicationSuccessCount,
@@ -65,7 +70,8 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
         long failedCommitElapsedMillis,
         long failedCompletionElapsedMillis,
         long failedMasterApplyElapsedMillis,
-        long failedNotificationElapsedMillis
+        long failedNotificationElapsedMillis,
+        Map<String, ExecutorStats> executorStats
     ) {
         this.unchangedTaskCount = nonNegative(unchangedTaskCount);
         this.publicationSuccessCount = nonNegative(publicationSuccessCount);
@@ -86,6 +92,7 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
         this.failedCompletionElapsedMillis = nonNegative(failedCompletionElapsedMillis);
         this.failedMasterApplyElapsedMillis = nonNegative(failedMasterApplyElapsedMillis);
         this.failedNotificationElapsedMillis = nonNegative(failedNotificationElapsedMillis);
+        this.executorStats = Map.copyOf(executorStats);
     }
 
     private static long nonNegative(long v) {
@@ -113,6 +120,11 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
         this.failedCompletionElapsedMillis = in.readVLong();
         this.failedMasterApplyElapsedMillis = in.readVLong();
         this.failedNotificationElapsedMillis = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_1_0)) {
+            this.executorStats = Map.copyOf(in.readMap(StreamInput::readString, ExecutorStats::new));
+        } else {
+            this.executorStats = Map.of();
+        }
     }
 
     @Override
@@ -137,6 +149,9 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
         out.writeVLong(failedCompletionElapsedMillis);
         out.writeVLong(failedMasterApplyElapsedMillis);
         out.writeVLong(failedNotificationElapsedMillis);
+        if (out.getVersion().onOrAfter(Version.V_8_1_0)) {
+            out.writeMap(executorStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+        }
     }
 
     public static ClusterStateUpdateStats EMPTY = new ClusterStateUpdateStats(
@@ -158,7 +173,8 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
         0L,
         0L,
         0L,
-        0L
+        0L,
+        Map.of()
     );
 
     public long getUnchangedTaskCount() {
@@ -237,6 +253,14 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
         return failedNotificationElapsedMillis;
     }
 
+    /**
+     * @return statistics about the tasks of each kind of {@link org.elasticsearch.cluster.ClusterStateTaskExecutor}, keyed by the name of
+     *         its class
+     */
+    public Map<String, ExecutorStats> getExecutorStats() {
+        return executorStats;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("cluster_state_update");
@@ -269,6 +293,14 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
         msField(builder, "notification", failedNotificationElapsedMillis);
         builder.endObject();
 
+        if (executorStats.isEmpty() == false) {
+            builder.startObject("executors");
+            for (Map.Entry<String, ExecutorStats> entry : new TreeMap<>(executorStats).entrySet()) {
+                builder.field(entry.getKey(), entry.getValue());
+            }
+            builder.endObject();
+        }
+
         builder.endObject();
         return builder;
     }
@@ -300,7 +332,8 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
             && failedCommitElapsedMillis == that.failedCommitElapsedMillis
             && failedCompletionElapsedMillis == that.failedCompletionElapsedMillis
             && failedMasterApplyElapsedMillis == that.failedMasterApplyElapsedMillis
-            && failedNotificationElapsedMillis == that.failedNotificationElapsedMillis;
+            && failedNotificationElapsedMillis == that.failedNotificationElapsedMillis
+            && executorStats.equals(that.executorStats);
     }
 
     @Override
@@ -324,7 +357,109 @@ public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
             failedCommitElapsedMillis,
             failedCompletionElapsedMillis,
             failedMasterApplyElapsedMillis,
-            failedNotificationElapsedMillis
+            failedNotificationElapsedMillis,
+            executorStats
         );
     }
+
+    /**
+     * Statistics about the tasks of one kind of {@link org.elasticsearch.cluster.ClusterStateTaskExecutor}. Batches which are executed
+     * together with batches of other executors are charged for the whole of their shared publication.
+     */
+    public static class ExecutorStats implements Writeable, ToXContentObject {
+
+        private final long pendingTaskCount;
+        private final long batchCount;
+        private final long taskCount;
+        private final long computationElapsedMillis;
+        private final long publicationElapsedMillis;
+
+        public ExecutorStats(
+            long pendingTaskCount,
+            long batchCount,
+            long taskCount,
+            long computationElapsedMillis,
+            long publicationElapsedMillis
+        ) {
+            this.pendingTaskCount = nonNegative(pendingTaskCount);
+            this.batchCount = nonNegative(batchCount);
+            this.taskCount = nonNegative(taskCount);
+            this.computationElapsedMillis = nonNegative(computationElapsedMillis);
+            this.publicationElapsedMillis = nonNegative(publicationElapsedMillis);
+        }
+
+        public ExecutorStats(StreamInput in) throws IOException {
+            this.pendingTaskCount = in.readVLong();
+            this.batchCount = in.readVLong();
+            this.taskCount = in.readVLong();
+            this.computationElapsedMillis = in.readVLong();
+            this.publicationElapsedMillis = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(pendingTaskCount);
+            out.writeVLong(batchCount);
+            out.writeVLong(taskCount);
+            out.writeVLong(computationElapsedMillis);
+            out.writeVLong(publicationElapsedMillis);
+        }
+
+        /**
+         * @return the number of tasks waiting to be executed at the time these statistics were taken
+         */
+        public long getPendingTaskCount() {
+            return pendingTaskCount;
+        }
+
+        /**
+         * @return the number of batches that have been executed
+         */
+        public long getBatchCount() {
+            return batchCount;
+        }
+
+        /**
+         * @return the total number of tasks in all of the executed batches
+         */
+        public long getTaskCount() {
+            return taskCount;
+        }
+
+        public long getComputationElapsedMillis() {
+            return computationElapsedMillis;
+        }
+
+        public long getPublicationElapsedMillis() {
+            return publicationElapsedMillis;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("pending_tasks", pendingTaskCount);
+            builder.field("batches", batchCount);
+            builder.field("tasks", taskCount);
+            msField(builder, "computation", computationElapsedMillis);
+            msField(builder, "publication", publicationElapsedMillis);
+            return builder.endObject();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ExecutorStats that = (ExecutorStats) o;
+            return pendingTaskCount == that.pendingTaskCount
+                && batchCount == that.batchCount
+                && taskCount == that.taskCount
+                && computationElapsedMillis == that.computationElapsedMillis
+                && publicationElapsedMillis == that.publicationElapsedMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pendingTaskCount, batchCount, taskCount, computationElapsedMillis, publicationElapsedMillis);
+        }
+    }
 }
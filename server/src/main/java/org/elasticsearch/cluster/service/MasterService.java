@@ -44,12 +44,16 @@ import org.elasticsearch.node.Node;
 import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
@@ -73,6 +77,18 @@ public class MasterService extends AbstractLifecycleComponent {
         Setting.Property.NodeScope
     );
 
+    /**
+     * The time for which the master keeps executing further pending batches of tasks of the same priority on top of the state computed by
+     * earlier batches, before it publishes the resulting state. Batches of different executors are thereby published together rather
+     * than each needing a publication of its own. Setting this to zero publishes every batch separately.
+     */
+    public static final Setting<TimeValue> MASTER_SERVICE_COALESCING_TIME_SLICE_SETTING = Setting.positiveTimeSetting(
+        "cluster.service.master_task_coalescing_time_slice",
+        TimeValue.timeValueMillis(100),
+        Setting.Property.Dynamic,
+        Setting.Property.NodeScope
+    );
+
     static final String MASTER_UPDATE_THREAD_NAME = "masterService#updateTask";
 
     ClusterStatePublisher clusterStatePublisher;
@@ -83,6 +99,7 @@ public class MasterService extends AbstractLifecycleComponent {
 
     private volatile TimeValue slowTaskLoggingThreshold;
     private final TimeValue starvationLoggingThreshold;
+    private volatile TimeValue coalescingTimeSlice;
 
     protected final ThreadPool threadPool;
 
@@ -99,6 +116,9 @@ public class MasterService extends AbstractLifecycleComponent {
 
         this.starvationLoggingThreshold = MASTER_SERVICE_STARVATION_LOGGING_THRESHOLD_SETTING.get(settings);
 
+        this.coalescingTimeSlice = MASTER_SERVICE_COALESCING_TIME_SLICE_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(MASTER_SERVICE_COALESCING_TIME_SLICE_SETTING, this::setCoalescingTimeSlice);
+
         this.threadPool = threadPool;
     }
 
@@ -106,6 +126,10 @@ public class MasterService extends AbstractLifecycleComponent {
         this.slowTaskLoggingThreshold = slowTaskLoggingThreshold;
     }
 
+    private void setCoalescingTimeSlice(TimeValue coalescingTimeSlice) {
+        this.coalescingTimeSlice = coalescingTimeSlice;
+    }
+
     public synchronized void setClusterStatePublisher(ClusterStatePublisher publisher) {
         clusterStatePublisher = publisher;
     }
@@ -137,7 +161,26 @@ public class MasterService extends AbstractLifecycleComponent {
     }
 
     public ClusterStateUpdateStats getClusterStateUpdateStats() {
-        return clusterStateUpdateStatsTracker.getStatistics();
+        final Batcher batcher = taskBatcher;
+        final Map<String, Integer> pendingTaskCounts = new HashMap<>();
+        if (batcher != null) {
+            for (Map.Entry<Object, Integer> entry : batcher.getPendingTaskCounts().entrySet()) {
+                pendingTaskCounts.merge(executorName(entry.getKey()), entry.getValue(), Integer::sum);
+            }
+        }
+        return clusterStateUpdateStatsTracker.getStatistics(pendingTaskCounts);
+    }
+
+    /**
+     * The name under which the statistics of the given executor are reported. Lambdas and anonymous classes have generated names, which
+     * change between releases and, for lambdas, between restarts, so they are reported under the name of the class that defines them.
+     */
+    static String executorName(Object executor) {
+        final Class<?> executorClass = executor.getClass();
+        if (executorClass.isHidden() || executorClass.isAnonymousClass() || executorClass.isSynthetic()) {
+            return executorClass.getNestHost().getName();
+        }
+        return executorClass.getName();
     }
 
     @SuppressWarnings("unchecked")
@@ -167,6 +210,19 @@ public class MasterService extends AbstractLifecycleComponent {
             runTasks(new TaskInputs(taskExecutor, updateTasks, tasksSummary));
         }
 
+        @Nullable
+        TaskInputs pollTaskInputs(Priority priority, Set<Object> excludedExecutors) {
+            final Batch batch = pollBatch(priority, excludedExecutors);
+            if (batch == null) {
+                return null;
+            }
+            return new TaskInputs(
+                (ClusterStateTaskExecutor<Object>) batch.batchingKey(),
+                (List<UpdateTask>) batch.tasks(),
+                batch.tasksSummary()
+            );
+        }
+
         class UpdateTask extends BatchedTask {
             final ClusterStateTaskListener listener;
 
@@ -216,24 +272,23 @@ public class MasterService extends AbstractLifecycleComponent {
     }
 
     private void runTasks(TaskInputs taskInputs) {
-        final String summary = taskInputs.summary;
         if (lifecycle.started() == false) {
-            logger.debug("processing [{}]: ignoring, master service not started", summary);
+            logger.debug("processing [{}]: ignoring, master service not started", taskInputs.summary);
             return;
         }
 
-        logger.debug("executing cluster state update for [{}]", summary);
+        logger.debug("executing cluster state update for [{}]", taskInputs.summary);
         final ClusterState previousClusterState = state();
 
         if (previousClusterState.nodes().isLocalNodeElectedMaster() == false && taskInputs.runOnlyWhenMaster()) {
-            logger.debug("failing [{}]: local node is no longer master", summary);
+            logger.debug("failing [{}]: local node is no longer master", taskInputs.summary);
             taskInputs.onNoLongerMaster();
             return;
         }
 
         final long computationStartTime = threadPool.rawRelativeTimeInMillis();
-        final TaskOutputs taskOutputs = calculateTaskOutputs(taskInputs, previousClusterState);
-        taskOutputs.notifyFailedTasks();
+        final TaskOutputs taskOutputs = calculateTaskOutputs(taskInputs, previousClusterState, computationStartTime);
+        final String summary = taskOutputs.summary();
         final TimeValue computationTime = getTimeSince(computationStartTime);
         logExecutionTime(computationTime, "compute cluster state update", summary);
 
@@ -243,6 +298,7 @@ public class MasterService extends AbstractLifecycleComponent {
             final TimeValue executionTime = getTimeSince(notificationStartTime);
             logExecutionTime(executionTime, "notify listeners on unchanged cluster state", summary);
             clusterStateUpdateStatsTracker.onUnchangedClusterState(computationTime.millis(), executionTime.millis());
+            clusterStateUpdateStatsTracker.onBatchesExecuted(taskOutputs.executedBatches, 0L);
         } else {
             final ClusterState newClusterState = taskOutputs.newClusterState;
             if (logger.isTraceEnabled()) {
@@ -278,6 +334,7 @@ public class MasterService extends AbstractLifecycleComponent {
                 logger.debug("publishing cluster state version [{}]", newClusterState.version());
                 publish(clusterStatePublicationEvent, taskOutputs);
             } catch (Exception e) {
+                clusterStateUpdateStatsTracker.onBatchesExecuted(taskOutputs.executedBatches, getTimeSince(publicationStartTime).millis());
                 handleException(summary, publicationStartTime, newClusterState, e);
             }
         }
@@ -334,10 +391,11 @@ public class MasterService extends AbstractLifecycleComponent {
                 + ')',
             clusterStatePublicationEvent.getSummary()
         );
-        clusterStateUpdateStatsTracker.onPublicationSuccess(
-            threadPool.rawRelativeTimeInMillis(),
-            clusterStatePublicationEvent,
-            executionTime.millis()
+        final long currentTimeMillis = threadPool.rawRelativeTimeInMillis();
+        clusterStateUpdateStatsTracker.onPublicationSuccess(currentTimeMillis, clusterStatePublicationEvent, executionTime.millis());
+        clusterStateUpdateStatsTracker.onBatchesExecuted(
+            taskOutputs.executedBatches,
+            currentTimeMillis - clusterStatePublicationEvent.getPublicationStartTimeMillis()
         );
     }
 
@@ -360,9 +418,17 @@ public class MasterService extends AbstractLifecycleComponent {
                 clusterStatePublicationEvent,
                 notificationMillis
             );
+            clusterStateUpdateStatsTracker.onBatchesExecuted(
+                taskOutputs.executedBatches,
+                threadPool.rawRelativeTimeInMillis() - clusterStatePublicationEvent.getPublicationStartTimeMillis()
+            );
         } else {
             assert false : exception;
             clusterStateUpdateStatsTracker.onPublicationFailure(threadPool.rawRelativeTimeInMillis(), clusterStatePublicationEvent, 0L);
+            clusterStateUpdateStatsTracker.onBatchesExecuted(
+                taskOutputs.executedBatches,
+                threadPool.rawRelativeTimeInMillis() - clusterStatePublicationEvent.getPublicationStartTimeMillis()
+            );
             handleException(
                 clusterStatePublicationEvent.getSummary(),
                 clusterStatePublicationEvent.getPublicationStartTimeMillis(),
@@ -391,20 +457,64 @@ public class MasterService extends AbstractLifecycleComponent {
         // TODO: do we want to call updateTask.onFailure here?
     }
 
-    private TaskOutputs calculateTaskOutputs(TaskInputs taskInputs, ClusterState previousClusterState) {
-        ClusterTasksResult<Object> clusterTasksResult = executeTasks(taskInputs, previousClusterState);
-        ClusterState newClusterState = patchVersions(previousClusterState, clusterTasksResult);
+    /**
+     * Executes the given batch of tasks and then, for as long as the coalescing time slice allows, further pending batches of the same
+     * priority, each on top of the state computed by the previous one, so that they can all be published together.
+     */
+    private TaskOutputs calculateTaskOutputs(TaskInputs taskInputs, ClusterState previousClusterState, long computationStartTime) {
+        final Priority priority = taskInputs.updateTasks.stream().map(Batcher.UpdateTask::priority).min(Priority::compareTo).get();
+        final Set<Object> executedExecutors = new HashSet<>();
+        final List<ExecutedBatch> executedBatches = new ArrayList<>();
+        final List<Batcher.UpdateTask> nonFailedTasks = new ArrayList<>();
+        ClusterState resultingState = previousClusterState;
+        TaskInputs nextTaskInputs = taskInputs;
+        do {
+            final long batchStartTime = threadPool.rawRelativeTimeInMillis();
+            final ClusterTasksResult<Object> clusterTasksResult = executeTasks(nextTaskInputs, resultingState);
+            notifyFailedTasks(nextTaskInputs, clusterTasksResult);
+            nonFailedTasks.addAll(getNonFailedTasks(nextTaskInputs, clusterTasksResult));
+            executedBatches.add(
+                new ExecutedBatch(
+                    nextTaskInputs,
+                    clusterTasksResult.resultingState != resultingState,
+                    getTimeSince(batchStartTime).millis()
+                )
+            );
+            executedExecutors.add(nextTaskInputs.executor);
+            resultingState = clusterTasksResult.resultingState;
+            nextTaskInputs = pollCoalescedTaskInputs(previousClusterState, priority, executedExecutors, computationStartTime);
+        } while (nextTaskInputs != null);
+
         return new TaskOutputs(
-            taskInputs,
+            executedBatches,
             previousClusterState,
-            newClusterState,
-            getNonFailedTasks(taskInputs, clusterTasksResult),
-            clusterTasksResult.executionResults
+            patchVersions(previousClusterState, resultingState),
+            nonFailedTasks
         );
     }
 
-    private ClusterState patchVersions(ClusterState previousClusterState, ClusterTasksResult<?> executionResult) {
-        ClusterState newClusterState = executionResult.resultingState;
+    @Nullable
+    private TaskInputs pollCoalescedTaskInputs(
+        ClusterState previousClusterState,
+        Priority priority,
+        Set<Object> executedExecutors,
+        long computationStartTime
+    ) {
+        if (previousClusterState.nodes().isLocalNodeElectedMaster() == false) {
+            // the state computed so far may make this node the master, but that must be published before running tasks that need a master
+            return null;
+        }
+        if (threadPool.rawRelativeTimeInMillis() - computationStartTime >= coalescingTimeSlice.millis()) {
+            return null;
+        }
+        final TaskInputs taskInputs = taskBatcher.pollTaskInputs(priority, executedExecutors);
+        if (taskInputs != null) {
+            logger.debug("executing cluster state update for [{}] together with the preceding batches", taskInputs.summary);
+        }
+        return taskInputs;
+    }
+
+    private ClusterState patchVersions(ClusterState previousClusterState, ClusterState newClusterState) {
 
         if (previousClusterState != newClusterState) {
             // only the master controls the version numbers
@@ -477,24 +587,28 @@ public class MasterService extends AbstractLifecycleComponent {
      * Output created by executing a set of tasks provided as TaskInputs
      */
     class TaskOutputs {
-        final TaskInputs taskInputs;
+        final List<ExecutedBatch> executedBatches;
         final ClusterState previousClusterState;
         final ClusterState newClusterState;
         final List<Batcher.UpdateTask> nonFailedTasks;
-        final Map<Object, ClusterStateTaskExecutor.TaskResult> executionResults;
 
         TaskOutputs(
-            TaskInputs taskInputs,
+            List<ExecutedBatch> executedBatches,
             ClusterState previousClusterState,
             ClusterState newClusterState,
-            List<Batcher.UpdateTask> nonFailedTasks,
-            Map<Object, ClusterStateTaskExecutor.TaskResult> executionResults
+            List<Batcher.UpdateTask> nonFailedTasks
         ) {
-            this.taskInputs = taskInputs;
+            this.executedBatches = executedBatches;
             this.previousClusterState = previousClusterState;
             this.newClusterState = newClusterState;
             this.nonFailedTasks = nonFailedTasks;
-            this.executionResults = executionResults;
+        }
+
+        String summary() {
+            if (executedBatches.size() == 1) {
+                return executedBatches.get(0).taskInputs().summary;
+            }
+            return executedBatches.stream().map(batch -> batch.taskInputs().summary).collect(Collectors.joining(", "));
         }
 
         void publishingFailed(FailedToCommitClusterStateException t) {
@@ -506,7 +620,12 @@ public class MasterService extends AbstractLifecycleComponent {
         }
 
         void clusterStatePublished(ClusterStatePublicationEvent clusterStatePublicationEvent) {
-            taskInputs.executor.clusterStatePublished(clusterStatePublicationEvent);
+            // only notify the executors which contributed to the new state, as if each of their batches had been published on its own
+            for (ExecutedBatch executedBatch : executedBatches) {
+                if (executedBatch.changedClusterState()) {
+                    executedBatch.taskInputs().executor.clusterStatePublished(clusterStatePublicationEvent);
+                }
+            }
         }
 
         ClusterStatePublisher.AckListener createAckListener(ThreadPool threadPool, ClusterState newClusterState) {
@@ -529,17 +648,6 @@ public class MasterService extends AbstractLifecycleComponent {
             return previousClusterState == newClusterState;
         }
 
-        void notifyFailedTasks() {
-            // fail all tasks that have failed
-            for (Batcher.UpdateTask updateTask : taskInputs.updateTasks) {
-                assert executionResults.containsKey(updateTask.task) : "missing " + updateTask;
-                final ClusterStateTaskExecutor.TaskResult taskResult = executionResults.get(updateTask.task);
-                if (taskResult.isSuccess() == false) {
-                    updateTask.listener.onFailure(updateTask.source(), taskResult.getFailure());
-                }
-            }
-        }
-
         void notifySuccessfulTasksOnUnchangedClusterState() {
             nonFailedTasks.forEach(task -> {
                 if (task.listener instanceof AckedClusterStateTaskListener) {
@@ -870,6 +978,17 @@ public class MasterService extends AbstractLifecycleComponent {
         return clusterTasksResult;
     }
 
+    private static void notifyFailedTasks(TaskInputs taskInputs, ClusterTasksResult<Object> clusterTasksResult) {
+        // fail all tasks that have failed
+        for (Batcher.UpdateTask updateTask : taskInputs.updateTasks) {
+            assert clusterTasksResult.executionResults.containsKey(updateTask.task) : "missing " + updateTask;
+            final ClusterStateTaskExecutor.TaskResult taskResult = clusterTasksResult.executionResults.get(updateTask.task);
+            if (taskResult.isSuccess() == false) {
+                updateTask.listener.onFailure(updateTask.source(), taskResult.getFailure());
+            }
+        }
+    }
+
     private List<Batcher.UpdateTask> getNonFailedTasks(TaskInputs taskInputs, ClusterTasksResult<Object> clusterTasksResult) {
         return taskInputs.updateTasks.stream().filter(updateTask -> {
             assert clusterTasksResult.executionResults.containsKey(updateTask.task) : "missing " + updateTask;
@@ -901,6 +1020,13 @@ public class MasterService extends AbstractLifecycleComponent {
         }
     }
 
+    /**
+     * A batch of tasks which has been executed as part of computing a new cluster state.
+     *
+     * @param changedClusterState whether executing the batch changed the cluster state
+     */
+    private record ExecutedBatch(TaskInputs taskInputs, boolean changedClusterState, long computationElapsedMillis) {}
+
     /**
      * Submits a batch of cluster state update tasks; submitted updates are guaranteed to be processed together,
      * potentially with more tasks of the same executor.
@@ -1028,6 +1154,8 @@ public class MasterService extends AbstractLifecycleComponent {
         private long failedMasterApplyElapsedMillis;
         private long failedNotificationElapsedMillis;
 
+        private final Map<String, ExecutorStatsTracker> executorStatsTrackers = new HashMap<>();
+
         synchronized void onUnchangedClusterState(long computationElapsedMillis, long notificationElapsedMillis) {
             unchangedTaskCount += 1;
             unchangedComputationElapsedMillis += computationElapsedMillis;
@@ -1064,7 +1192,39 @@ public class MasterService extends AbstractLifecycleComponent {
             failedNotificationElapsedMillis += notificationMillis;
         }
 
-        synchronized ClusterStateUpdateStats getStatistics() {
+        synchronized void onBatchesExecuted(List<ExecutedBatch> executedBatches, long publicationElapsedMillis) {
+            for (ExecutedBatch executedBatch : executedBatches) {
+                final ExecutorStatsTracker tracker = executorStatsTrackers.computeIfAbsent(
+                    executorName(executedBatch.taskInputs().executor),
+                    k -> new ExecutorStatsTracker()
+                );
+                tracker.batchCount += 1;
+                tracker.taskCount += executedBatch.taskInputs().updateTasks.size();
+                tracker.computationElapsedMillis += executedBatch.computationElapsedMillis();
+                tracker.publicationElapsedMillis += publicationElapsedMillis;
+            }
+        }
+
+        synchronized ClusterStateUpdateStats getStatistics(Map<String, Integer> pendingTaskCounts) {
+            final Map<String, ClusterStateUpdateStats.ExecutorStats> executorStats = new HashMap<>();
+            executorStatsTrackers.forEach(
+                (executor, tracker) -> executorStats.put(
+                    executor,
+                    new ClusterStateUpdateStats.ExecutorStats(
+                        pendingTaskCounts.getOrDefault(executor, 0),
+                        tracker.batchCount,
+                        tracker.taskCount,
+                        tracker.computationElapsedMillis,
+                        tracker.publicationElapsedMillis
+                    )
+                )
+            );
+            pendingTaskCounts.forEach(
+                (executor, pendingTaskCount) -> executorStats.putIfAbsent(
+                    executor,
+                    new ClusterStateUpdateStats.ExecutorStats(pendingTaskCount, 0L, 0L, 0L, 0L)
+                )
+            );
             return new ClusterStateUpdateStats(
                 unchangedTaskCount,
                 publicationSuccessCount,
@@ -1084,9 +1244,17 @@ public class MasterService extends AbstractLifecycleComponent {
                 failedCommitElapsedMillis,
                 failedCompletionElapsedMillis,
                 failedMasterApplyElapsedMillis,
-                failedNotificationElapsedMillis
+                failedNotificationElapsedMillis,
+                executorStats
             );
         }
     }
 
+    private static class ExecutorStatsTracker {
+        private long batchCount;
+        private long taskCount;
+        private long computationElapsedMillis;
+        private long publicationElapsedMillis;
+    }
+
 }
@@ -20,9 +20,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -35,8 +37,8 @@ public abstract class TaskBatcher {
 
     private final Logger logger;
     private final PrioritizedEsThreadPoolExecutor threadExecutor;
-    // package visible for tests
-    final Map<Object, LinkedHashSet<BatchedTask>> tasksPerBatchingKey = new HashMap<>();
+    // package visible for tests; iterates in the order in which the batches started to wait, see pollBatch
+    final Map<Object, LinkedHashSet<BatchedTask>> tasksPerBatchingKey = new LinkedHashMap<>();
 
     public TaskBatcher(Logger logger, PrioritizedEsThreadPoolExecutor threadExecutor) {
         this.logger = logger;
@@ -125,36 +127,91 @@ public abstract class TaskBatcher {
         // if this task is already processed, it shouldn't execute other tasks with same batching key that arrived later,
         // to give other tasks with different batching key a chance to execute.
         if (updateTask.processed.get() == false) {
-            final List<BatchedTask> toExecute = new ArrayList<>();
-            final Map<String, List<BatchedTask>> processTasksBySource = new HashMap<>();
+            final List<BatchedTask> toExecute;
             synchronized (tasksPerBatchingKey) {
-                LinkedHashSet<BatchedTask> pending = tasksPerBatchingKey.remove(updateTask.batchingKey);
-                if (pending != null) {
-                    for (BatchedTask task : pending) {
-                        if (task.processed.getAndSet(true) == false) {
-                            logger.trace("will process {}", task);
-                            toExecute.add(task);
-                            processTasksBySource.computeIfAbsent(task.source, s -> new ArrayList<>()).add(task);
-                        } else {
-                            logger.trace("skipping {}, already processed", task);
-                        }
-                    }
-                }
+                toExecute = markProcessed(tasksPerBatchingKey.remove(updateTask.batchingKey));
             }
 
             if (toExecute.isEmpty() == false) {
-                run(updateTask.batchingKey, toExecute, buildTasksDescription(updateTask, toExecute, processTasksBySource));
+                run(updateTask.batchingKey, toExecute, buildTasksDescription(updateTask, toExecute));
             }
         }
     }
 
+    /**
+     * Removes the pending batch that has been waiting the longest among those whose most urgent task has the given priority, and marks
+     * its tasks as processed so that their own runnables do nothing when the executor gets to them. This lets implementations execute
+     * several batches together. Only batches of the same priority qualify since those are the ones that would have been executed next
+     * anyway, and no batch is returned at all while a more urgent batch is pending, including one with an excluded batching key, so that
+     * joining batches to the current one does not let them overtake any more urgent work.
+     *
+     * @param priority             the priority of the batch to remove
+     * @param excludedBatchingKeys the batching keys of the batches which must be left pending
+     * @return the removed batch, or {@code null} if there is no such batch or if a more urgent batch is pending
+     */
+    @Nullable
+    protected Batch pollBatch(Priority priority, Set<Object> excludedBatchingKeys) {
+        synchronized (tasksPerBatchingKey) {
+            Object batchingKey = null;
+            for (Map.Entry<Object, LinkedHashSet<BatchedTask>> entry : tasksPerBatchingKey.entrySet()) {
+                final Priority batchPriority = entry.getValue().stream().map(BatchedTask::priority).min(Priority::compareTo).orElse(null);
+                if (batchPriority == null) {
+                    continue;
+                }
+                if (batchPriority.compareTo(priority) < 0) {
+                    // the more urgent batch must be executed on its own first
+                    return null;
+                }
+                if (batchingKey == null && batchPriority == priority && excludedBatchingKeys.contains(entry.getKey()) == false) {
+                    batchingKey = entry.getKey();
+                }
+            }
+            if (batchingKey == null) {
+                return null;
+            }
+            final List<BatchedTask> toExecute = markProcessed(tasksPerBatchingKey.remove(batchingKey));
+            if (toExecute.isEmpty()) {
+                return null;
+            }
+            final BatchedTask firstTask = toExecute.get(0);
+            return new Batch(firstTask.batchingKey, toExecute, buildTasksDescription(firstTask, toExecute));
+        }
+    }
+
+    /**
+     * @return the number of tasks waiting to be executed for each batching key
+     */
+    Map<Object, Integer> getPendingTaskCounts() {
+        synchronized (tasksPerBatchingKey) {
+            final Map<Object, Integer> pendingTaskCounts = new HashMap<>(tasksPerBatchingKey.size());
+            tasksPerBatchingKey.forEach((batchingKey, pending) -> pendingTaskCounts.put(batchingKey, pending.size()));
+            return pendingTaskCounts;
+        }
+    }
+
+    private List<BatchedTask> markProcessed(@Nullable LinkedHashSet<BatchedTask> pending) {
+        assert Thread.holdsLock(tasksPerBatchingKey);
+        final List<BatchedTask> toExecute = new ArrayList<>();
+        if (pending != null) {
+            for (BatchedTask task : pending) {
+                if (task.processed.getAndSet(true) == false) {
+                    logger.trace("will process {}", task);
+                    toExecute.add(task);
+                } else {
+                    logger.trace("skipping {}, already processed", task);
+                }
+            }
+        }
+        return toExecute;
+    }
+
     private static final int MAX_TASK_DESCRIPTION_CHARS = 8 * 1024;
 
-    private String buildTasksDescription(
-        BatchedTask updateTask,
-        List<BatchedTask> toExecute,
-        Map<String, List<BatchedTask>> processTasksBySource
-    ) {
+    private String buildTasksDescription(BatchedTask updateTask, List<BatchedTask> toExecute) {
+        final Map<String, List<BatchedTask>> processTasksBySource = new HashMap<>();
+        for (BatchedTask task : toExecute) {
+            processTasksBySource.computeIfAbsent(task.source, s -> new ArrayList<>()).add(task);
+        }
         final StringBuilder output = new StringBuilder();
         Strings.collectionToDelimitedStringWithLimit((Iterable<String>) () -> processTasksBySource.entrySet().stream().map(entry -> {
             String tasks = updateTask.describeTasks(entry.getValue());
@@ -172,6 +229,11 @@ public abstract class TaskBatcher {
      */
     protected abstract void run(Object batchingKey, List<? extends BatchedTask> tasks, String tasksSummary);
 
+    /**
+     * The tasks of a single batching key, see {@link #pollBatch}.
+     */
+    protected record Batch(Object batchingKey, List<? extends BatchedTask> tasks, String tasksSummary) {}
+
     /**
      * Represents a runnable task that supports batching.
      * Implementors of TaskBatcher can subclass this to add a payload to the task.
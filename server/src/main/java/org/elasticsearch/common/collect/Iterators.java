@@ -8,9 +8,11 @@
 
 package org.elasticsearch.common.collect;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Function;
 
 public class Iterators {
 
@@ -84,6 +86,46 @@ public class Iterators {
         }
     }
 
+    /**
+     * Returns an iterator over the elements of the iterators obtained by applying {@code fn} to each element of {@code input}. The inner
+     * iterators are created lazily, one at a time, as the returned iterator is consumed.
+     */
+    public static <T, U> Iterator<U> flatMap(Iterator<? extends T> input, Function<T, Iterator<? extends U>> fn) {
+        return new FlatMapIterator<>(Objects.requireNonNull(input), Objects.requireNonNull(fn));
+    }
+
+    private static final class FlatMapIterator<T, U> implements Iterator<U> {
+
+        private final Iterator<? extends T> input;
+        private final Function<T, Iterator<? extends U>> fn;
+
+        private Iterator<? extends U> current = Collections.emptyIterator();
+
+        private FlatMapIterator(Iterator<? extends T> input, Function<T, Iterator<? extends U>> fn) {
+            this.input = input;
+            this.fn = fn;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current.hasNext() == false) {
+                if (input.hasNext() == false) {
+                    return false;
+                }
+                current = Objects.requireNonNull(fn.apply(input.next()));
+            }
+            return true;
+        }
+
+        @Override
+        public U next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+
     public static <T> Iterator<T> forArray(T[] array) {
         return new ArrayIterator<>(array);
     }
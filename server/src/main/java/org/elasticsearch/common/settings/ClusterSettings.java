@@ -73,6 +73,7 @@ import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.IndicesRequestCache;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.ShardLimitValidator;
+import org.elasticsearch.indices.ShardStatsCache;
 import org.elasticsearch.indices.analysis.HunspellService;
 import org.elasticsearch.indices.breaker.BreakerSettings;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
@@ -92,6 +93,7 @@ import org.elasticsearch.persistent.decider.EnableAssignmentDecider;
 import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.repositories.fs.FsRepository;
 import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.action.document.RestBulkAction;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.SearchModule;
 import org.elasticsearch.search.SearchService;
@@ -201,6 +203,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING,
         IndicesService.INDICES_ID_FIELD_DATA_ENABLED_SETTING,
         IndicesService.WRITE_DANGLING_INDICES_INFO_SETTING,
+        ShardStatsCache.MAX_AGE_SETTING,
         MappingUpdatedAction.INDICES_MAPPING_DYNAMIC_TIMEOUT_SETTING,
         MappingUpdatedAction.INDICES_MAX_IN_FLIGHT_UPDATES_SETTING,
         Metadata.SETTING_READ_ONLY_SETTING,
@@ -292,13 +295,17 @@ public final class ClusterSettings extends AbstractScopedSettings {
         ClusterService.USER_DEFINED_METADATA,
         MasterService.MASTER_SERVICE_SLOW_TASK_LOGGING_THRESHOLD_SETTING,
         MasterService.MASTER_SERVICE_STARVATION_LOGGING_THRESHOLD_SETTING,
+        MasterService.MASTER_SERVICE_COALESCING_TIME_SLICE_SETTING,
         SearchService.DEFAULT_SEARCH_TIMEOUT_SETTING,
         SearchService.DEFAULT_ALLOW_PARTIAL_SEARCH_RESULTS,
         TransportSearchAction.SHARD_COUNT_LIMIT_SETTING,
+        TransportSearchAction.BATCH_QUERY_PHASE_BY_NODE_SETTING,
+        TransportSearchAction.CCS_FETCH_MERGED_HITS_SETTING,
         TransportSearchAction.DEFAULT_PRE_FILTER_SHARD_SIZE,
         RemoteClusterService.REMOTE_CLUSTER_SKIP_UNAVAILABLE,
         SniffConnectionStrategy.REMOTE_CONNECTIONS_PER_CLUSTER,
         RemoteClusterService.REMOTE_INITIAL_CONNECTION_TIMEOUT_SETTING,
+        RemoteClusterService.REMOTE_CLUSTER_RECONNECT_INTERVAL,
         RemoteClusterService.REMOTE_NODE_ATTRIBUTE,
         RemoteClusterService.REMOTE_CLUSTER_PING_SCHEDULE,
         RemoteClusterService.REMOTE_CLUSTER_COMPRESS,
@@ -328,6 +335,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         TransportSettings.PUBLISH_PORT_PROFILE,
         TransportSettings.TRANSPORT_COMPRESS,
         TransportSettings.TRANSPORT_COMPRESSION_SCHEME,
+        TransportSettings.FRAME_SIZE,
         TransportSettings.PING_SCHEDULE,
         TransportSettings.CONNECT_TIMEOUT,
         TransportSettings.DEFAULT_FEATURES_SETTING,
@@ -416,6 +424,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         NodeRoleSettings.NODE_ROLES_SETTING,
         AutoCreateIndex.AUTO_CREATE_INDEX_SETTING,
         BaseRestHandler.MULTI_ALLOW_EXPLICIT_INDEX,
+        RestBulkAction.DISPATCH_CHUNK_SIZE_SETTING,
         ClusterName.CLUSTER_NAME_SETTING,
         Client.CLIENT_TYPE_SETTING_S,
         ClusterModule.SHARDS_ALLOCATOR_TYPE_SETTING,
@@ -477,9 +486,11 @@ public final class ClusterSettings extends AbstractScopedSettings {
         FollowersChecker.FOLLOWER_CHECK_TIMEOUT_SETTING,
         FollowersChecker.FOLLOWER_CHECK_INTERVAL_SETTING,
         FollowersChecker.FOLLOWER_CHECK_RETRY_COUNT_SETTING,
+        FollowersChecker.FOLLOWER_CHECK_PIGGYBACK_SETTING,
         LeaderChecker.LEADER_CHECK_TIMEOUT_SETTING,
         LeaderChecker.LEADER_CHECK_INTERVAL_SETTING,
         LeaderChecker.LEADER_CHECK_RETRY_COUNT_SETTING,
+        LeaderChecker.LEADER_CHECK_PIGGYBACK_SETTING,
         Reconfigurator.CLUSTER_AUTO_SHRINK_VOTING_CONFIGURATION,
         TransportAddVotingConfigExclusionsAction.MAXIMUM_VOTING_CONFIG_EXCLUSIONS_SETTING,
         ClusterBootstrapService.INITIAL_MASTER_NODES_SETTING,
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.common.util;
 
+import org.apache.lucene.util.Accountable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 
@@ -17,7 +18,7 @@ import org.elasticsearch.core.Releasables;
  * The underlying long array grows lazily based on the biggest index
  * that needs to be set.
  */
-public final class BitArray implements Releasable {
+public final class BitArray implements Accountable, Releasable {
     private final BigArrays bigArrays;
     private LongArray bits;
 
@@ -120,6 +121,11 @@ public final class BitArray implements Releasable {
         return 1L << index;
     }
 
+    @Override
+    public long ramBytesUsed() {
+        return bits.ramBytesUsed();
+    }
+
     @Override
     public void close() {
         Releasables.close(bits);
@@ -0,0 +1,171 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import org.elasticsearch.core.Releasables;
+
+/**
+ * Specialized hash table implementation similar to {@link LongLongHash} that
+ * maps fixed-width tuples of long values to ids. Collisions are resolved
+ * with open addressing and linear probing, growth is smooth thanks to
+ * {@link BigArrays} and capacity is always a multiple of 2 for faster
+ * identification of buckets.
+ * This class is not thread-safe.
+ */
+// IDs are internally stored as id + 1 so that 0 encodes for an empty slot
+public final class LongTupleHash extends AbstractHash {
+    private final int width;
+    /**
+     * The keys of the hash, stored one after another. So the keys for an id
+     * are stored from {@code width * id} to {@code width * id + width - 1}.
+     */
+    private LongArray keys;
+
+    // Constructor with configurable capacity and default maximum load factor.
+    public LongTupleHash(int width, long capacity, BigArrays bigArrays) {
+        this(width, capacity, DEFAULT_MAX_LOAD_FACTOR, bigArrays);
+    }
+
+    // Constructor with configurable capacity and load factor.
+    public LongTupleHash(int width, long capacity, float maxLoadFactor, BigArrays bigArrays) {
+        super(capacity, maxLoadFactor, bigArrays);
+        if (width < 1) {
+            close();
+            throw new IllegalArgumentException("tuple width must be at least 1 but was [" + width + "]");
+        }
+        this.width = width;
+        try {
+            // `super` allocates a big array so we have to `close` if we fail here or we'll leak it.
+            keys = bigArrays.newLongArray(width * capacity, false);
+        } finally {
+            if (keys == null) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * The number of longs in each key.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Return the {@code index}th long of the key at {@code 0 &lt;= id &lt;= capacity()}.
+     * The result is undefined if the slot is unused.
+     */
+    public long getKey(long id, int index) {
+        assert index >= 0 && index < width;
+        return keys.get(width * id + index);
+    }
+
+    /**
+     * Get the id associated with <code>key</code> or -1 if the key is not contained in the hash.
+     */
+    public long find(long[] key) {
+        assert key.length == width;
+        final long slot = slot(hash(key), mask);
+        for (long index = slot;; index = nextSlot(index, mask)) {
+            final long id = id(index);
+            if (id == -1 || keyEquals(id, key)) {
+                return id;
+            }
+        }
+    }
+
+    private boolean keyEquals(long id, long[] key) {
+        final long keyOffset = width * id;
+        for (int i = 0; i < width; i++) {
+            if (keys.get(keyOffset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long set(long[] key, long id) {
+        assert size < maxSize;
+        final long slot = slot(hash(key), mask);
+        for (long index = slot;; index = nextSlot(index, mask)) {
+            final long curId = id(index);
+            if (curId == -1) { // means unset
+                id(index, id);
+                append(id, key);
+                ++size;
+                return id;
+            } else if (keyEquals(curId, key)) {
+                return -1 - curId;
+            }
+        }
+    }
+
+    private void append(long id, long[] key) {
+        final long keyOffset = width * id;
+        keys = bigArrays.grow(keys, keyOffset + width);
+        for (int i = 0; i < width; i++) {
+            keys.set(keyOffset + i, key[i]);
+        }
+    }
+
+    private void reset(long[] key, long id) {
+        final long slot = slot(hash(key), mask);
+        for (long index = slot;; index = nextSlot(index, mask)) {
+            final long curId = id(index);
+            if (curId == -1) { // means unset
+                id(index, id);
+                append(id, key);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Try to add {@code key}. Return its newly allocated id if it wasn't in
+     * the hash table yet, or {@code -1-id} if it was already present in
+     * the hash table. The {@code key} array is copied, so callers are free
+     * to reuse it.
+     */
+    public long add(long[] key) {
+        assert key.length == width;
+        if (size >= maxSize) {
+            assert size == maxSize;
+            grow();
+        }
+        assert size < maxSize;
+        return set(key, size);
+    }
+
+    @Override
+    protected void removeAndAdd(long index) {
+        final long id = id(index, -1);
+        assert id >= 0;
+        final long keyOffset = width * id;
+        final long[] key = new long[width];
+        for (int i = 0; i < width; i++) {
+            key[i] = keys.set(keyOffset + i, 0);
+        }
+        reset(key, id);
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(keys, () -> super.close());
+    }
+
+    static long hash(long[] key) {
+        long hash = 0;
+        for (long k : key) {
+            hash = 31 * hash + BitMixer.mix(k);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.common.xcontent;
+
+import org.elasticsearch.xcontent.ToXContent;
+
+import java.util.Iterator;
+
+/**
+ * An extension of {@link ToXContent} for objects whose rendering is large enough that it should be written out in pieces rather than into a
+ * single buffer. Writing the chunks returned by {@link #toXContentChunked} one after the other to the same builder must produce exactly the
+ * same output as a call to {@link #toXContent}.
+ */
+public interface ChunkedToXContent extends ToXContent {
+
+    /**
+     * Create an iterator of {@link ToXContent} chunks that together render this object. Each chunk is written to the builder in turn and
+     * may be flushed, and the memory it was rendered into released, before the next chunk is produced.
+     */
+    Iterator<? extends ToXContent> toXContentChunked(Params params);
+}
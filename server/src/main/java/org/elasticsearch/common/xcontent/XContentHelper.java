@@ -71,7 +71,7 @@ public class XContentHelper {
             final XContentType contentType = XContentFactory.xContentType(compressedInput);
             return XContentFactory.xContent(contentType).createParser(config, compressedInput);
         } else {
-            return XContentFactory.xContent(xContentType(bytes)).createParser(config, bytes.streamInput());
+            return createParserNotCompressed(config, bytes, xContentType(bytes));
         }
     }
 
@@ -103,12 +103,23 @@ public class XContentHelper {
             }
             return XContentFactory.xContent(xContentType).createParser(config, compressedInput);
         } else {
-            // TODO now that we have config we make a method on bytes to do this building wihout needing this check everywhere
-            if (bytes.hasArray()) {
-                return xContentType.xContent().createParser(config, bytes.array(), bytes.arrayOffset(), bytes.length());
-            }
-            return xContentType.xContent().createParser(config, bytes.streamInput());
+            return createParserNotCompressed(config, bytes, xContentType);
+        }
+    }
+
+    /**
+     * Creates a parser for the bytes using the supplied content-type, assuming that they are not compressed. Bytes that are split across
+     * several pages are parsed page by page, without first being copied into a single array or through a stream.
+     */
+    public static XContentParser createParserNotCompressed(
+        XContentParserConfiguration config,
+        BytesReference bytes,
+        XContentType xContentType
+    ) throws IOException {
+        if (bytes.hasArray()) {
+            return xContentType.xContent().createParser(config, bytes.array(), bytes.arrayOffset(), bytes.length());
         }
+        return xContentType.xContent().createParser(config, BytesReference.toByteBuffers(bytes));
     }
 
     /**
@@ -0,0 +1,404 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.xcontent.support;
+
+import org.apache.lucene.util.automaton.CharacterRunAutomaton;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.core.Nullable;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Filters a JSON object with the same rules as {@link XContentMapValues#filter(String[], String[])}, but straight from its bytes rather
+ * than from the map that it parses to. Properties that are filtered out are skipped by scanning for the end of their value, and properties
+ * that are kept as a whole are copied as they are, so neither is tokenized. Only the names of the properties on the way to the ones that
+ * are kept are decoded. Unlike filtering the map, the kept properties remain in the order of the source and numbers keep their precision.
+ *
+ * The bytes must be well-formed JSON, as a source is once it has been parsed on indexing, since the parts that are skipped or copied are
+ * not validated.
+ */
+public final class JsonSourceFilter {
+
+    private final CharacterRunAutomaton matchAllAutomaton;
+    private final CharacterRunAutomaton includeAutomaton;
+    private final CharacterRunAutomaton excludeAutomaton;
+
+    public JsonSourceFilter(String[] includes, String[] excludes) {
+        this.matchAllAutomaton = XContentMapValues.matchAllAutomaton();
+        this.includeAutomaton = XContentMapValues.includeAutomaton(includes, matchAllAutomaton);
+        this.excludeAutomaton = XContentMapValues.excludeAutomaton(excludes);
+    }
+
+    /**
+     * Filters the given JSON object, or returns {@code null} if the bytes are not backed by an array or do not start with an object, in
+     * which case they must be filtered through their map.
+     */
+    @Nullable
+    public BytesReference filter(BytesReference source) {
+        if (source.hasArray() == false) {
+            return null;
+        }
+        return new Filtering(source.array(), source.arrayOffset(), source.arrayOffset() + source.length()).filterRoot();
+    }
+
+    private class Filtering {
+
+        private final byte[] bytes;
+        private final int end;
+        private final BytesStreamOutput out;
+        private int pos;
+
+        Filtering(byte[] bytes, int offset, int end) {
+            this.bytes = bytes;
+            this.pos = offset;
+            this.end = end;
+            this.out = new BytesStreamOutput(Math.min(1024, end - offset));
+        }
+
+        @Nullable
+        BytesReference filterRoot() {
+            skipWhitespace();
+            if (pos == end || bytes[pos] != '{') {
+                return null;
+            }
+            pos++;
+            out.writeByte((byte) '{');
+            filterObject(includeAutomaton, 0, 0);
+            out.writeByte((byte) '}');
+            return out.bytes();
+        }
+
+        /**
+         * Filters the properties of the object whose opening brace has just been consumed, up to and including its closing brace, and
+         * returns whether any property was kept. The braces themselves are written by the caller.
+         */
+        private boolean filterObject(CharacterRunAutomaton include, int initialIncludeState, int initialExcludeState) {
+            boolean empty = true;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return false;
+            }
+            while (true) {
+                final int nameStart = pos;
+                final String key = readName();
+                final int nameEnd = pos;
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+
+                final int includeState = XContentMapValues.step(include, key, initialIncludeState);
+                final int excludeState = includeState == -1 ? -1 : XContentMapValues.step(excludeAutomaton, key, initialExcludeState);
+                if (includeState == -1 || (excludeState != -1 && excludeAutomaton.isAccept(excludeState))) {
+                    skipValue();
+                } else {
+                    CharacterRunAutomaton subInclude = include;
+                    int subIncludeState = includeState;
+                    boolean copy = false;
+                    if (include.isAccept(includeState)) {
+                        if (excludeState == -1 || excludeAutomaton.step(excludeState, '.') == -1) {
+                            // the exclude has no chances to match inner properties
+                            copy = true;
+                        } else {
+                            // the object matched, so consider that the include matches every inner property
+                            subInclude = matchAllAutomaton;
+                            subIncludeState = 0;
+                        }
+                    }
+                    final int mark = (int) out.position();
+                    if (empty == false) {
+                        out.writeByte((byte) ',');
+                    }
+                    out.writeBytes(bytes, nameStart, nameEnd - nameStart);
+                    out.writeByte((byte) ':');
+                    final byte first = peek();
+                    final boolean kept;
+                    if (copy) {
+                        copyValue();
+                        kept = true;
+                    } else if (first == '{') {
+                        subIncludeState = subInclude.step(subIncludeState, '.');
+                        if (subIncludeState == -1) {
+                            skipValue();
+                            kept = false;
+                        } else {
+                            pos++;
+                            out.writeByte((byte) '{');
+                            final int subExcludeState = excludeState == -1 ? -1 : excludeAutomaton.step(excludeState, '.');
+                            final boolean nonEmpty = filterObject(subInclude, subIncludeState, subExcludeState);
+                            out.writeByte((byte) '}');
+                            kept = nonEmpty || include.isAccept(includeState);
+                        }
+                    } else if (first == '[') {
+                        pos++;
+                        out.writeByte((byte) '[');
+                        final boolean nonEmpty = filterArray(subInclude, subIncludeState, excludeState);
+                        out.writeByte((byte) ']');
+                        kept = nonEmpty || include.isAccept(includeState);
+                    } else if (include.isAccept(includeState) && (excludeState == -1 || excludeAutomaton.isAccept(excludeState) == false)) {
+                        // leaf property
+                        copyValue();
+                        kept = true;
+                    } else {
+                        skipValue();
+                        kept = false;
+                    }
+                    if (kept) {
+                        empty = false;
+                    } else {
+                        out.seek(mark);
+                    }
+                }
+
+                skipWhitespace();
+                final byte next = peek();
+                pos++;
+                if (next == '}') {
+                    return empty == false;
+                }
+                if (next != ',') {
+                    throw malformed(pos - 1);
+                }
+                skipWhitespace();
+            }
+        }
+
+        /**
+         * Filters the elements of the array whose opening bracket has just been consumed, up to and including its closing bracket, and
+         * returns whether any element was kept. The brackets themselves are written by the caller.
+         */
+        private boolean filterArray(CharacterRunAutomaton include, int initialIncludeState, int initialExcludeState) {
+            final boolean isInclude = include.isAccept(initialIncludeState);
+            boolean empty = true;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return false;
+            }
+            while (true) {
+                final int mark = (int) out.position();
+                if (empty == false) {
+                    out.writeByte((byte) ',');
+                }
+                final byte first = peek();
+                final boolean kept;
+                if (first == '{') {
+                    final int includeState = include.step(initialIncludeState, '.');
+                    if (includeState == -1) {
+                        // no property of the object can match
+                        skipValue();
+                        kept = false;
+                    } else {
+                        pos++;
+                        out.writeByte((byte) '{');
+                        final int excludeState = initialExcludeState == -1 ? -1 : excludeAutomaton.step(initialExcludeState, '.');
+                        kept = filterObject(include, includeState, excludeState);
+                        out.writeByte((byte) '}');
+                    }
+                } else if (first == '[') {
+                    pos++;
+                    out.writeByte((byte) '[');
+                    kept = filterArray(include, initialIncludeState, initialExcludeState);
+                    out.writeByte((byte) ']');
+                } else if (isInclude) {
+                    // only accept this array value if the key we are on is accepted
+                    copyValue();
+                    kept = true;
+                } else {
+                    skipValue();
+                    kept = false;
+                }
+                if (kept) {
+                    empty = false;
+                } else {
+                    out.seek(mark);
+                }
+
+                skipWhitespace();
+                final byte next = peek();
+                pos++;
+                if (next == ']') {
+                    return empty == false;
+                }
+                if (next != ',') {
+                    throw malformed(pos - 1);
+                }
+                skipWhitespace();
+            }
+        }
+
+        /**
+         * Reads the quoted property name at the current position, which is decoded only if it contains escape sequences.
+         */
+        private String readName() {
+            expect('"');
+            final int start = pos;
+            boolean escaped = false;
+            while (true) {
+                final byte b = peek();
+                if (b == '"') {
+                    break;
+                }
+                if (b == '\\') {
+                    escaped = true;
+                    pos++;
+                }
+                pos++;
+            }
+            final String name = escaped ? unescape(start, pos) : new String(bytes, start, pos - start, StandardCharsets.UTF_8);
+            pos++;
+            return name;
+        }
+
+        private String unescape(int start, int end) {
+            final StringBuilder name = new StringBuilder(end - start);
+            int from = start;
+            for (int i = start; i < end; i++) {
+                if (bytes[i] != '\\') {
+                    continue;
+                }
+                name.append(new String(bytes, from, i - from, StandardCharsets.UTF_8));
+                final byte escape = bytes[++i];
+                switch (escape) {
+                    case 'b' -> name.append('\b');
+                    case 'f' -> name.append('\f');
+                    case 'n' -> name.append('\n');
+                    case 'r' -> name.append('\r');
+                    case 't' -> name.append('\t');
+                    case 'u' -> {
+                        name.append((char) Integer.parseInt(new String(bytes, i + 1, 4, StandardCharsets.US_ASCII), 16));
+                        i += 4;
+                    }
+                    default -> name.append((char) escape);
+                }
+                from = i + 1;
+            }
+            name.append(new String(bytes, from, end - from, StandardCharsets.UTF_8));
+            return name.toString();
+        }
+
+        private void copyValue() {
+            final int start = pos;
+            skipValue();
+            out.writeBytes(bytes, start, pos - start);
+        }
+
+        /**
+         * Moves past the value at the current position by only looking for the brackets, quotes and escapes which delimit it.
+         */
+        private void skipValue() {
+            final byte first = peek();
+            if (first == '"') {
+                skipString();
+                return;
+            }
+            if (first != '{' && first != '[') {
+                // a number, true, false or null
+                while (pos < end && isValueEnd(bytes[pos]) == false) {
+                    pos++;
+                }
+                return;
+            }
+            int depth = 0;
+            do {
+                final byte b = peek();
+                if (b == '"') {
+                    skipString();
+                    continue;
+                }
+                if (b == '/') {
+                    skipComment();
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                }
+                pos++;
+            } while (depth > 0);
+        }
+
+        private void skipString() {
+            pos++;
+            while (true) {
+                final byte b = peek();
+                pos++;
+                if (b == '"') {
+                    return;
+                }
+                if (b == '\\') {
+                    pos++;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < end) {
+                final byte b = bytes[pos];
+                if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                    pos++;
+                } else if (b == '/') {
+                    skipComment();
+                } else {
+                    return;
+                }
+            }
+        }
+
+        // the JSON parser allows comments, so they may be part of a source
+        private void skipComment() {
+            final int start = pos;
+            if (pos + 1 >= end) {
+                throw malformed(start);
+            }
+            if (bytes[pos + 1] == '/') {
+                pos += 2;
+                while (pos < end && bytes[pos] != '\n' && bytes[pos] != '\r') {
+                    pos++;
+                }
+            } else if (bytes[pos + 1] == '*') {
+                pos += 2;
+                while (pos + 1 < end && (bytes[pos] != '*' || bytes[pos + 1] != '/')) {
+                    pos++;
+                }
+                if (pos + 1 >= end) {
+                    throw malformed(start);
+                }
+                pos += 2;
+            } else {
+                throw malformed(start);
+            }
+        }
+
+        private byte peek() {
+            if (pos >= end) {
+                throw malformed(pos);
+            }
+            return bytes[pos];
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw malformed(pos);
+            }
+            pos++;
+        }
+
+    }
+
+    private static boolean isValueEnd(byte b) {
+        return b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '/';
+    }
+
+    private static IllegalArgumentException malformed(int position) {
+        return new IllegalArgumentException("malformed JSON source at position [" + position + "]");
+    }
+}
@@ -112,6 +112,7 @@ public abstract class AsyncShardFetch<T extends BaseNodeResponse> implements Rel
         }
         nodesToIgnore.addAll(ignoreNodes);
         fillShardCacheWithDataNodes(cache, nodes);
+        fillShardCacheWithKnownResponses(cache, nodes);
         List<NodeEntry<T>> nodesToFetch = findNodesToFetch(cache);
         if (nodesToFetch.isEmpty() == false) {
             // mark all node as fetching and go ahead and async fetch them
@@ -280,6 +281,31 @@ public abstract class AsyncShardFetch<T extends BaseNodeResponse> implements Rel
         shardCache.keySet().removeIf(nodeId -> nodes.nodeExists(nodeId) == false);
     }
 
+    /**
+     * Completes the entries of any nodes whose response is already known, see {@link #getKnownResponse}, so that they are not fetched.
+     */
+    private void fillShardCacheWithKnownResponses(Map<String, NodeEntry<T>> shardCache, DiscoveryNodes nodes) {
+        for (NodeEntry<T> nodeEntry : shardCache.values()) {
+            if (nodeEntry.hasData() == false && nodeEntry.isFetching() == false) {
+                final T knownResponse = getKnownResponse(nodes.get(nodeEntry.getNodeId()));
+                if (knownResponse != null) {
+                    logger.trace("{} using known response for [{}] from {}", shardId, type, nodeEntry.getNodeId());
+                    nodeEntry.markAsFetching(round.get());
+                    nodeEntry.doneFetching(knownResponse);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the response that the given node would send if it were asked, if this is known without asking it, for instance because
+     * the node is known not to hold any data for this shard. Returns {@code null} if the node must be asked.
+     */
+    @Nullable
+    protected T getKnownResponse(DiscoveryNode node) {
+        return null;
+    }
+
     /**
      * Finds all the nodes that need to be fetched. Those are nodes that have no
      * data, and are not in fetch mode.
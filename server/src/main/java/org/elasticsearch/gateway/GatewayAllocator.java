@@ -25,21 +25,26 @@ import org.elasticsearch.cluster.routing.allocation.ExistingShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.FailedShard;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
 import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.gateway.AsyncShardFetch.Lister;
 import org.elasticsearch.gateway.TransportNodesListGatewayStartedShards.NodeGatewayStartedShards;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.Store;
 import org.elasticsearch.indices.store.TransportNodesListShardStoreMetadata;
 import org.elasticsearch.indices.store.TransportNodesListShardStoreMetadata.NodeStoreFilesMetadata;
+import org.elasticsearch.indices.store.TransportNodesListShardStoreMetadata.StoreFilesMetadata;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class GatewayAllocator implements ExistingShardsAllocator {
@@ -59,11 +64,29 @@ public class GatewayAllocator implements ExistingShardsAllocator {
         .newConcurrentMap();
     private Set<String> lastSeenEphemeralIds = Collections.emptySet();
 
+    @Nullable // in tests
+    private final NodeShardInventories shardInventories;
+
     @Inject
     public GatewayAllocator(RerouteService rerouteService, NodeClient client) {
         this.rerouteService = rerouteService;
         this.primaryShardAllocator = new InternalPrimaryShardAllocator(client);
         this.replicaShardAllocator = new InternalReplicaShardAllocator(client);
+        this.shardInventories = new NodeShardInventories(
+            (nodes, listener) -> client.executeLocally(
+                TransportNodesListGatewayShardInventory.TYPE,
+                new TransportNodesListGatewayShardInventory.Request(nodes),
+                listener
+            ),
+            () -> rerouteService.reroute(
+                "shard_inventory",
+                Priority.HIGH,
+                ActionListener.wrap(
+                    r -> logger.trace("scheduled reroute completed for shard inventory"),
+                    e -> logger.debug("scheduled reroute failed for shard inventory", e)
+                )
+            )
+        );
     }
 
     @Override
@@ -72,6 +95,9 @@ public class GatewayAllocator implements ExistingShardsAllocator {
         asyncFetchStarted.clear();
         Releasables.close(asyncFetchStore.values());
         asyncFetchStore.clear();
+        if (shardInventories != null) {
+            shardInventories.clear();
+        }
     }
 
     // for tests
@@ -79,11 +105,12 @@ public class GatewayAllocator implements ExistingShardsAllocator {
         this.rerouteService = null;
         this.primaryShardAllocator = null;
         this.replicaShardAllocator = null;
+        this.shardInventories = null;
     }
 
     @Override
     public int getNumberOfInFlightFetches() {
-        int count = 0;
+        int count = shardInventories == null ? 0 : shardInventories.getNumberOfInFlightFetches();
         for (AsyncShardFetch<NodeGatewayStartedShards> fetch : asyncFetchStarted.values()) {
             count += fetch.getNumberOfInFlightFetches();
         }
@@ -114,6 +141,9 @@ public class GatewayAllocator implements ExistingShardsAllocator {
         assert primaryShardAllocator != null;
         assert replicaShardAllocator != null;
         ensureAsyncFetchStorePrimaryRecency(allocation);
+        if (shardInventories != null) {
+            shardInventories.beforeAllocation(allocation);
+        }
     }
 
     @Override
@@ -210,16 +240,37 @@ public class GatewayAllocator implements ExistingShardsAllocator {
         return false;
     }
 
+    /**
+     * Whether to wait for the shard inventories before starting to fetch the data for the given shard, since once they arrive we can
+     * avoid fetching its data from nodes that do not have a copy.
+     */
+    private boolean awaitShardInventories(ShardId shardId, Map<ShardId, ?> fetches) {
+        return shardInventories != null && fetches.containsKey(shardId) == false && shardInventories.isFetching();
+    }
+
     class InternalAsyncFetch<T extends BaseNodeResponse> extends AsyncShardFetch<T> {
 
+        private final Function<DiscoveryNode, T> noCopyResponse;
+
         InternalAsyncFetch(
             Logger logger,
             String type,
             ShardId shardId,
             String customDataPath,
-            Lister<? extends BaseNodesResponse<T>, T> action
+            Lister<? extends BaseNodesResponse<T>, T> action,
+            Function<DiscoveryNode, T> noCopyResponse
         ) {
             super(logger, type, shardId, customDataPath, action);
+            this.noCopyResponse = noCopyResponse;
+        }
+
+        @Override
+        protected T getKnownResponse(DiscoveryNode node) {
+            // the inventory only covers the node's own data paths, so shards with a custom data path must always be fetched
+            if (shardInventories == null || Strings.isNullOrEmpty(customDataPath) == false) {
+                return null;
+            }
+            return shardInventories.mayHaveCopy(node, shardId) ? null : noCopyResponse.apply(node);
         }
 
         @Override
@@ -249,6 +300,9 @@ public class GatewayAllocator implements ExistingShardsAllocator {
         protected AsyncShardFetch.FetchResult<NodeGatewayStartedShards> fetchData(ShardRouting shard, RoutingAllocation allocation) {
             // explicitly type lister, some IDEs (Eclipse) are not able to correctly infer the function type
             Lister<BaseNodesResponse<NodeGatewayStartedShards>, NodeGatewayStartedShards> lister = this::listStartedShards;
+            if (awaitShardInventories(shard.shardId(), asyncFetchStarted)) {
+                return new AsyncShardFetch.FetchResult<>(shard.shardId(), null, Collections.emptySet());
+            }
             AsyncShardFetch<NodeGatewayStartedShards> fetch = asyncFetchStarted.computeIfAbsent(
                 shard.shardId(),
                 shardId -> new InternalAsyncFetch<>(
@@ -256,7 +310,8 @@ public class GatewayAllocator implements ExistingShardsAllocator {
                     "shard_started",
                     shardId,
                     IndexMetadata.INDEX_DATA_PATH_SETTING.get(allocation.metadata().index(shard.index()).getSettings()),
-                    lister
+                    lister,
+                    node -> new NodeGatewayStartedShards(node, null, false)
                 )
             );
             AsyncShardFetch.FetchResult<NodeGatewayStartedShards> shardState = fetch.fetchData(
@@ -297,6 +352,9 @@ public class GatewayAllocator implements ExistingShardsAllocator {
         protected AsyncShardFetch.FetchResult<NodeStoreFilesMetadata> fetchData(ShardRouting shard, RoutingAllocation allocation) {
             // explicitly type lister, some IDEs (Eclipse) are not able to correctly infer the function type
             Lister<BaseNodesResponse<NodeStoreFilesMetadata>, NodeStoreFilesMetadata> lister = this::listStoreFilesMetadata;
+            if (awaitShardInventories(shard.shardId(), asyncFetchStore)) {
+                return new AsyncShardFetch.FetchResult<>(shard.shardId(), null, Collections.emptySet());
+            }
             AsyncShardFetch<NodeStoreFilesMetadata> fetch = asyncFetchStore.computeIfAbsent(
                 shard.shardId(),
                 shardId -> new InternalAsyncFetch<>(
@@ -304,7 +362,11 @@ public class GatewayAllocator implements ExistingShardsAllocator {
                     "shard_store",
                     shard.shardId(),
                     IndexMetadata.INDEX_DATA_PATH_SETTING.get(allocation.metadata().index(shard.index()).getSettings()),
-                    lister
+                    lister,
+                    node -> new NodeStoreFilesMetadata(
+                        node,
+                        new StoreFilesMetadata(shard.shardId(), Store.MetadataSnapshot.EMPTY, Collections.emptyList())
+                    )
                 )
             );
             AsyncShardFetch.FetchResult<NodeStoreFilesMetadata> shardStores = fetch.fetchData(
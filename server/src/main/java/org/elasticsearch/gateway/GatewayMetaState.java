@@ -485,15 +485,10 @@ public class GatewayMetaState implements Closeable {
                     getWriterSafe().writeFullStateAndCommit(currentTerm, clusterState);
                 } else {
                     writeNextStateFully = true; // in case of failure; this flag is cleared on success
-                    if (clusterState.term() != lastAcceptedState.term()) {
-                        assert clusterState.term() > lastAcceptedState.term() : clusterState.term() + " vs " + lastAcceptedState.term();
-                        // In a new currentTerm, we cannot compare the persisted metadata's lastAcceptedVersion to those in the new state,
-                        // so it's simplest to write everything again.
-                        getWriterSafe().writeFullStateAndCommit(currentTerm, clusterState);
-                    } else {
-                        // Within the same currentTerm, we _can_ use metadata versions to skip unnecessary writing.
-                        getWriterSafe().writeIncrementalStateAndCommit(currentTerm, lastAcceptedState, clusterState);
-                    }
+                    assert clusterState.term() >= lastAcceptedState.term() : clusterState.term() + " vs " + lastAcceptedState.term();
+                    // Within the same currentTerm we can use metadata versions to skip unnecessary writing; in a new currentTerm we cannot
+                    // compare versions but can still skip any index metadata that is identical to the instance we last wrote.
+                    getWriterSafe().writeIncrementalStateAndCommit(currentTerm, lastAcceptedState, clusterState);
                 }
             } catch (IOException e) {
                 throw new ElasticsearchException(e);
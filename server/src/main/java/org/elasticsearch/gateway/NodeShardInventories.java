@@ -0,0 +1,192 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.gateway;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.FailedNodeException;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.gateway.TransportNodesListGatewayShardInventory.NodeGatewayShardInventory;
+import org.elasticsearch.gateway.TransportNodesListGatewayShardInventory.NodesGatewayShardInventory;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks the shards for which each data node may hold data on disk, so that the {@link GatewayAllocator} need not ask every node about
+ * every unassigned shard. While there are unassigned shards, each data node is asked once for an inventory of its shard folders using
+ * {@link TransportNodesListGatewayShardInventory}; a node that has no folder for a shard is then known to answer that it has no copy.
+ * <p>
+ * The inventory is a snapshot, so any shard that is assigned to a node after its inventory was requested is also treated as possibly
+ * present on that node since it may have written data that the inventory missed. Shard folders that are deleted after the inventory was
+ * taken only cause an unnecessary fetch. All inventories are discarded as soon as there are no unassigned shards, and a node's inventory is
+ * discarded when it leaves the cluster, so they never need to be kept up to date for long.
+ */
+class NodeShardInventories {
+
+    private static final Logger logger = LogManager.getLogger(NodeShardInventories.class);
+
+    /**
+     * An action that lists the shard inventories of the given nodes.
+     */
+    interface Lister {
+        void list(DiscoveryNode[] nodes, ActionListener<NodesGatewayShardInventory> listener);
+    }
+
+    private final Lister lister;
+    private final Runnable reroute;
+
+    // keyed by ephemeral ID, so that a node which restarts is asked again
+    private final Map<String, NodeShardInventory> inventories = new HashMap<>();
+
+    NodeShardInventories(Lister lister, Runnable reroute) {
+        this.lister = lister;
+        this.reroute = reroute;
+    }
+
+    /**
+     * Brings the inventories up to date with the given allocation, discarding those of departed nodes, recording the shards currently
+     * assigned to each node, and requesting inventories from any new nodes.
+     */
+    synchronized void beforeAllocation(RoutingAllocation allocation) {
+        if (allocation.routingNodes().hasUnassignedShards() == false) {
+            if (inventories.isEmpty() == false) {
+                logger.trace("no unassigned shards, discarding shard inventories of [{}] nodes", inventories.size());
+                inventories.clear();
+            }
+            return;
+        }
+
+        final Map<String, DiscoveryNode> dataNodesByEphemeralId = new HashMap<>();
+        for (DiscoveryNode node : allocation.nodes().getDataNodes().values()) {
+            dataNodesByEphemeralId.put(node.getEphemeralId(), node);
+        }
+        inventories.keySet().retainAll(dataNodesByEphemeralId.keySet());
+
+        final Map<String, NodeShardInventory> newInventoriesByNodeId = new HashMap<>();
+        for (DiscoveryNode node : dataNodesByEphemeralId.values()) {
+            NodeShardInventory inventory = inventories.get(node.getEphemeralId());
+            if (inventory == null) {
+                if (node.getVersion().before(TransportNodesListGatewayShardInventory.MINIMUM_VERSION)) {
+                    continue;
+                }
+                inventory = new NodeShardInventory();
+                inventories.put(node.getEphemeralId(), inventory);
+                newInventoriesByNodeId.put(node.getId(), inventory);
+            }
+            final RoutingNode routingNode = allocation.routingNodes().node(node.getId());
+            if (routingNode != null) {
+                for (ShardRouting shardRouting : routingNode) {
+                    inventory.assignedShards.add(shardRouting.shardId());
+                }
+            }
+        }
+
+        if (newInventoriesByNodeId.isEmpty() == false) {
+            final DiscoveryNode[] nodesToList = newInventoriesByNodeId.keySet()
+                .stream()
+                .map(allocation.nodes()::get)
+                .toArray(DiscoveryNode[]::new);
+            logger.trace("listing shard inventories of {}", newInventoriesByNodeId.keySet());
+            lister.list(nodesToList, new ActionListener<>() {
+                @Override
+                public void onResponse(NodesGatewayShardInventory response) {
+                    for (NodeGatewayShardInventory nodeResponse : response.getNodes()) {
+                        final NodeShardInventory inventory = newInventoriesByNodeId.get(nodeResponse.getNode().getId());
+                        if (inventory != null) {
+                            inventory.onResponse(nodeResponse.getShardsByIndexUUID());
+                        }
+                    }
+                    for (FailedNodeException failure : response.failures()) {
+                        logger.debug("failed to list shard inventory of node [{}], falling back to fetching each shard", failure.nodeId());
+                        final NodeShardInventory inventory = newInventoriesByNodeId.get(failure.nodeId());
+                        if (inventory != null) {
+                            inventory.onFailure();
+                        }
+                    }
+                    reroute.run();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    logger.debug("failed to list shard inventories, falling back to fetching each shard", e);
+                    newInventoriesByNodeId.values().forEach(NodeShardInventory::onFailure);
+                    reroute.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * @return whether any inventories have been requested but not yet received
+     */
+    synchronized boolean isFetching() {
+        return getNumberOfInFlightFetches() > 0;
+    }
+
+    synchronized int getNumberOfInFlightFetches() {
+        int count = 0;
+        for (NodeShardInventory inventory : inventories.values()) {
+            if (inventory.isFetching()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return whether the given node may hold data for the given shard, i.e. {@code false} only if the node is certain to have no copy
+     */
+    synchronized boolean mayHaveCopy(DiscoveryNode node, ShardId shardId) {
+        final NodeShardInventory inventory = inventories.get(node.getEphemeralId());
+        return inventory == null || inventory.mayHaveCopy(shardId);
+    }
+
+    synchronized void clear() {
+        inventories.clear();
+    }
+
+    private static class NodeShardInventory {
+
+        // shards that were assigned to the node at some point since the inventory was requested, only accessed under the outer lock
+        private final Set<ShardId> assignedShards = new HashSet<>();
+
+        // null until the inventory has been received
+        private volatile Map<String, Set<Integer>> shardsOnDisk;
+        private volatile boolean failed;
+
+        void onResponse(Map<String, Set<Integer>> shardsOnDisk) {
+            this.shardsOnDisk = shardsOnDisk;
+        }
+
+        void onFailure() {
+            failed = true;
+        }
+
+        boolean isFetching() {
+            return shardsOnDisk == null && failed == false;
+        }
+
+        boolean mayHaveCopy(ShardId shardId) {
+            final Map<String, Set<Integer>> shardsOnDisk = this.shardsOnDisk;
+            if (shardsOnDisk == null || assignedShards.contains(shardId)) {
+                return true;
+            }
+            final Set<Integer> shardNumbers = shardsOnDisk.get(shardId.getIndex().getUUID());
+            return shardNumbers != null && shardNumbers.contains(shardId.id());
+        }
+    }
+}
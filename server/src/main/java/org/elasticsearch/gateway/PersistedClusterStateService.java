@@ -20,6 +20,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexNotFoundException;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.NoMergePolicy;
@@ -38,6 +39,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.NIOFSDirectory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.BytesRefIterator;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.Version;
@@ -52,6 +54,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.ByteArray;
 import org.elasticsearch.common.util.PageCacheRecycler;
@@ -103,6 +106,12 @@ import java.util.function.Supplier;
  * | INDEX_TYPE_NAME  == "index"  | Index UUID                  | Index metadata                               |
  * +------------------------------+-----------------------------+----------------------------------------------+
  *
+ * Each metadata document is serialized into a recycled buffer and then split into pages of at most {@code DOCUMENT_PAGE_SIZE} bytes,
+ * each of which is stored in its own Lucene document. The "page" field (stored int) records the position of the page within the document
+ * and the "last_page" field (stored int) is 1 on the final page and 0 otherwise. The pages of a document are always written together as
+ * a single block, and the index UUID is stored so that the pages of each index can be put back together when loading. Documents written
+ * before pagination was introduced have neither page field and hold the whole metadata in a single document.
+ *
  * Additionally each commit has the following user data:
  *
  * +---------------------------+-------------------------+-------------------------------------------------------------------------------+
@@ -127,6 +136,10 @@ public class PersistedClusterStateService {
     private static final String GLOBAL_TYPE_NAME = "global";
     private static final String INDEX_TYPE_NAME = "index";
     private static final String INDEX_UUID_FIELD_NAME = "index_uuid";
+    private static final String PAGE_FIELD_NAME = "page";
+    private static final String LAST_PAGE_FIELD_NAME = "last_page";
+    private static final int IS_LAST_PAGE = 1;
+    private static final int IS_NOT_LAST_PAGE = 0;
     private static final int COMMIT_DATA_SIZE = 4;
 
     private static final MergePolicy NO_MERGE_POLICY = noMergePolicy();
@@ -134,6 +147,13 @@ public class PersistedClusterStateService {
 
     public static final String METADATA_DIRECTORY_NAME = MetadataStateFormat.STATE_DIR_NAME;
 
+    /**
+     * The maximum number of bytes of serialized metadata held in a single Lucene document. Lucene buffers and compresses each document's
+     * stored fields as a unit, both when writing and when reading, so a very large metadata document (e.g. an index with an enormous
+     * mapping) would otherwise cause a correspondingly large transient allocation within Lucene on top of the serialized bytes.
+     */
+    static final int DOCUMENT_PAGE_SIZE = ByteSizeUnit.MB.toIntBytes(1);
+
     public static final Setting<TimeValue> SLOW_WRITE_LOGGING_THRESHOLD = Setting.timeSetting(
         "gateway.slow_write_logging_threshold",
         TimeValue.timeValueSeconds(10),
@@ -465,7 +485,7 @@ public class PersistedClusterStateService {
         searcher.setQueryCache(null);
 
         final SetOnce<Metadata.Builder> builderReference = new SetOnce<>();
-        consumeFromType(searcher, GLOBAL_TYPE_NAME, bytes -> {
+        consumeFromType(searcher, GLOBAL_TYPE_NAME, dataPath, bytes -> {
             final Metadata metadata = Metadata.Builder.fromXContent(
                 XContentType.SMILE.xContent().createParser(parserConfig, bytes.bytes, bytes.offset, bytes.length)
             );
@@ -484,7 +504,7 @@ public class PersistedClusterStateService {
         logger.trace("got global metadata, now reading index metadata");
 
         final Set<String> indexUUIDs = new HashSet<>();
-        consumeFromType(searcher, INDEX_TYPE_NAME, bytes -> {
+        consumeFromType(searcher, INDEX_TYPE_NAME, dataPath, bytes -> {
             final IndexMetadata indexMetadata = IndexMetadata.fromXContent(
                 XContentType.SMILE.xContent().createParser(parserConfig, bytes.bytes, bytes.offset, bytes.length)
             );
@@ -511,8 +531,16 @@ public class PersistedClusterStateService {
         );
     }
 
-    private static void consumeFromType(IndexSearcher indexSearcher, String type, CheckedConsumer<BytesRef, IOException> bytesRefConsumer)
-        throws IOException {
+    private static void consumeFromType(
+        IndexSearcher indexSearcher,
+        String type,
+        Path dataPath,
+        CheckedConsumer<BytesRef, IOException> bytesRefConsumer
+    ) throws IOException {
+
+        // pages of documents that did not fit in a single page, keyed by index UUID (or by type for the global metadata); since the pages
+        // of each document are written as a single block they are normally seen consecutively so this map has at most one entry
+        final Map<String, PaginatedDocumentReader> documentReaders = new HashMap<>();
 
         final Query query = new TermQuery(new Term(TYPE_FIELD_NAME, type));
         final Weight weight = indexSearcher.createWeight(query, ScoreMode.COMPLETE_NO_SCORES, 0.0f);
@@ -528,13 +556,67 @@ public class PersistedClusterStateService {
                 while (docIdSetIterator.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
                     if (isLiveDoc.test(docIdSetIterator.docID())) {
                         logger.trace("processing doc {}", docIdSetIterator.docID());
-                        bytesRefConsumer.accept(
-                            leafReaderContext.reader().document(docIdSetIterator.docID()).getBinaryValue(DATA_FIELD_NAME)
-                        );
+                        final Document document = leafReaderContext.reader().document(docIdSetIterator.docID());
+                        final BytesRef documentData = document.getBinaryValue(DATA_FIELD_NAME);
+
+                        final IndexableField pageField = document.getField(PAGE_FIELD_NAME);
+                        if (pageField == null) {
+                            // written before pagination was introduced, so always holds the whole document
+                            bytesRefConsumer.accept(documentData);
+                            continue;
+                        }
+
+                        final int pageIndex = pageField.numericValue().intValue();
+                        final boolean isLastPage = document.getField(LAST_PAGE_FIELD_NAME).numericValue().intValue() == IS_LAST_PAGE;
+                        if (pageIndex == 0 && isLastPage) {
+                            // common case: the document fits in a single page
+                            bytesRefConsumer.accept(documentData);
+                            continue;
+                        }
+
+                        final String key = type.equals(GLOBAL_TYPE_NAME) ? GLOBAL_TYPE_NAME : document.get(INDEX_UUID_FIELD_NAME);
+                        if (key == null) {
+                            throw new CorruptStateException("found paginated [" + type + "] document without a key in [" + dataPath + "]");
+                        }
+                        final PaginatedDocumentReader reader = documentReaders.computeIfAbsent(key, k -> new PaginatedDocumentReader());
+                        final BytesRef completeDocument = reader.addPage(key, documentData, pageIndex, isLastPage, dataPath);
+                        if (completeDocument != null) {
+                            documentReaders.remove(key);
+                            bytesRefConsumer.accept(completeDocument);
+                        }
                     }
                 }
             }
         }
+
+        if (documentReaders.isEmpty() == false) {
+            throw new CorruptStateException(
+                "incomplete paginated [" + type + "] documents " + documentReaders.keySet() + " found in [" + dataPath + "]"
+            );
+        }
+    }
+
+    /**
+     * Reassembles a document that was split into several pages, which must be presented in order.
+     */
+    private static class PaginatedDocumentReader {
+        private final BytesRefBuilder bytes = new BytesRefBuilder();
+        private int nextPageIndex;
+
+        /**
+         * @return the complete document if this was its last page, otherwise {@code null}
+         */
+        @Nullable
+        BytesRef addPage(String key, BytesRef page, int pageIndex, boolean isLastPage, Path dataPath) throws CorruptStateException {
+            if (pageIndex != nextPageIndex) {
+                throw new CorruptStateException(
+                    "found page [" + pageIndex + "] of [" + key + "] but expected page [" + nextPageIndex + "] in [" + dataPath + "]"
+                );
+            }
+            nextPageIndex += 1;
+            bytes.append(page);
+            return isLastPage ? bytes.get() : null;
+        }
     }
 
     private static final ToXContent.Params FORMAT_PARAMS;
@@ -589,14 +671,14 @@ public class PersistedClusterStateService {
             this.indexWriter.deleteAll();
         }
 
-        void updateIndexMetadataDocument(Document indexMetadataDocument, Index index) throws IOException {
-            this.logger.trace("updating metadata for [{}]", index);
-            indexWriter.updateDocument(new Term(INDEX_UUID_FIELD_NAME, index.getUUID()), indexMetadataDocument);
+        void updateIndexMetadataDocuments(List<Document> indexMetadataDocuments, Index index) throws IOException {
+            this.logger.trace("updating metadata for [{}] in [{}] pages", index, indexMetadataDocuments.size());
+            indexWriter.updateDocuments(new Term(INDEX_UUID_FIELD_NAME, index.getUUID()), indexMetadataDocuments);
         }
 
-        void updateGlobalMetadata(Document globalMetadataDocument) throws IOException {
-            this.logger.trace("updating global metadata doc");
-            indexWriter.updateDocument(new Term(TYPE_FIELD_NAME, GLOBAL_TYPE_NAME), globalMetadataDocument);
+        void updateGlobalMetadata(List<Document> globalMetadataDocuments) throws IOException {
+            this.logger.trace("updating global metadata in [{}] pages", globalMetadataDocuments.size());
+            indexWriter.updateDocuments(new Term(TYPE_FIELD_NAME, GLOBAL_TYPE_NAME), globalMetadataDocuments);
         }
 
         void deleteIndexMetadata(String indexUUID) throws IOException {
@@ -780,57 +862,71 @@ public class PersistedClusterStateService {
 
         /**
          * Update the persisted metadata to match the given cluster state by removing any stale or unnecessary documents and adding any
-         * updated documents.
+         * updated documents. Within a single term an index's metadata is unchanged iff its version is unchanged, but a new master may
+         * reuse versions with different contents so if the term has changed then we only skip indices whose metadata is the very same
+         * instance that was written previously, which is the common case since applying a diff retains the unchanged instances.
          */
         private WriterStats updateMetadata(Metadata previouslyWrittenMetadata, Metadata metadata) throws IOException {
-            assert previouslyWrittenMetadata.coordinationMetadata().term() == metadata.coordinationMetadata().term();
-            logger.trace("currentTerm [{}] matches previous currentTerm, writing changes only", metadata.coordinationMetadata().term());
+            final long previousTerm = previouslyWrittenMetadata.coordinationMetadata().term();
+            final boolean sameTerm = previousTerm == metadata.coordinationMetadata().term();
+            if (sameTerm) {
+                logger.trace("currentTerm [{}] matches previous currentTerm, writing changes only", previousTerm);
+            } else {
+                logger.trace(
+                    "currentTerm [{}] differs from previous currentTerm [{}], writing all but identical metadata",
+                    metadata.coordinationMetadata().term(),
+                    previousTerm
+                );
+            }
 
             try (DocumentBuffer documentBuffer = allocateBuffer()) {
 
                 final boolean updateGlobalMeta = Metadata.isGlobalStateEquals(previouslyWrittenMetadata, metadata) == false;
                 if (updateGlobalMeta) {
-                    final Document globalMetadataDocument = makeGlobalMetadataDocument(metadata, documentBuffer);
+                    final List<Document> globalMetadataDocuments = makeGlobalMetadataDocuments(metadata, documentBuffer);
                     for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
-                        metadataIndexWriter.updateGlobalMetadata(globalMetadataDocument);
+                        metadataIndexWriter.updateGlobalMetadata(globalMetadataDocuments);
                     }
                 }
 
-                final Map<String, Long> indexMetadataVersionByUUID = new HashMap<>(previouslyWrittenMetadata.indices().size());
+                final Map<String, IndexMetadata> previousIndexMetadataByUUID = new HashMap<>(previouslyWrittenMetadata.indices().size());
                 for (IndexMetadata indexMetadata : previouslyWrittenMetadata.indices().values()) {
-                    final Long previousValue = indexMetadataVersionByUUID.putIfAbsent(
+                    final IndexMetadata previousValue = previousIndexMetadataByUUID.putIfAbsent(
                         indexMetadata.getIndexUUID(),
-                        indexMetadata.getVersion()
+                        indexMetadata
                     );
-                    assert previousValue == null : indexMetadata.getIndexUUID() + " already mapped to " + previousValue;
+                    assert previousValue == null : indexMetadata.getIndexUUID() + " already mapped to " + previousValue.getIndex();
                 }
 
                 int numIndicesUpdated = 0;
                 int numIndicesUnchanged = 0;
                 for (IndexMetadata indexMetadata : metadata.indices().values()) {
-                    final Long previousVersion = indexMetadataVersionByUUID.get(indexMetadata.getIndexUUID());
-                    if (previousVersion == null || indexMetadata.getVersion() != previousVersion) {
+                    final IndexMetadata previousIndexMetadata = previousIndexMetadataByUUID.get(indexMetadata.getIndexUUID());
+                    final boolean unchanged = sameTerm
+                        ? previousIndexMetadata != null && previousIndexMetadata.getVersion() == indexMetadata.getVersion()
+                        : previousIndexMetadata == indexMetadata;
+                    if (unchanged == false) {
                         logger.trace(
                             "updating metadata for [{}], changing version from [{}] to [{}]",
                             indexMetadata.getIndex(),
-                            previousVersion,
+                            previousIndexMetadata == null ? null : previousIndexMetadata.getVersion(),
                             indexMetadata.getVersion()
                         );
                         numIndicesUpdated++;
-                        final Document indexMetadataDocument = makeIndexMetadataDocument(indexMetadata, documentBuffer);
+                        final List<Document> indexMetadataDocuments = makeIndexMetadataDocuments(indexMetadata, documentBuffer);
                         for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
-                            metadataIndexWriter.updateIndexMetadataDocument(indexMetadataDocument, indexMetadata.getIndex());
+                            metadataIndexWriter.updateIndexMetadataDocuments(indexMetadataDocuments, indexMetadata.getIndex());
                         }
                     } else {
                         numIndicesUnchanged++;
                         logger.trace("no action required for [{}]", indexMetadata.getIndex());
                     }
-                    indexMetadataVersionByUUID.remove(indexMetadata.getIndexUUID());
+                    previousIndexMetadataByUUID.remove(indexMetadata.getIndexUUID());
                 }
 
                 documentBufferUsed = documentBuffer.getMaxUsed();
 
-                for (String removedIndexUUID : indexMetadataVersionByUUID.keySet()) {
+                for (String removedIndexUUID : previousIndexMetadataByUUID.keySet()) {
                     for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
                         metadataIndexWriter.deleteIndexMetadata(removedIndexUUID);
                     }
@@ -862,15 +958,15 @@ public class PersistedClusterStateService {
         private WriterStats addMetadata(Metadata metadata) throws IOException {
             try (DocumentBuffer documentBuffer = allocateBuffer()) {
 
-                final Document globalMetadataDocument = makeGlobalMetadataDocument(metadata, documentBuffer);
+                final List<Document> globalMetadataDocuments = makeGlobalMetadataDocuments(metadata, documentBuffer);
                 for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
-                    metadataIndexWriter.updateGlobalMetadata(globalMetadataDocument);
+                    metadataIndexWriter.updateGlobalMetadata(globalMetadataDocuments);
                 }
 
                 for (IndexMetadata indexMetadata : metadata.indices().values()) {
-                    final Document indexMetadataDocument = makeIndexMetadataDocument(indexMetadata, documentBuffer);
+                    final List<Document> indexMetadataDocuments = makeIndexMetadataDocuments(indexMetadata, documentBuffer);
                     for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
-                        metadataIndexWriter.updateIndexMetadataDocument(indexMetadataDocument, indexMetadata.getIndex());
+                        metadataIndexWriter.updateIndexMetadataDocuments(indexMetadataDocuments, indexMetadata.getIndex());
                     }
                 }
 
@@ -956,22 +1052,27 @@ public class PersistedClusterStateService {
             }
         }
 
-        private Document makeIndexMetadataDocument(IndexMetadata indexMetadata, DocumentBuffer documentBuffer) throws IOException {
-            final Document indexMetadataDocument = makeDocument(INDEX_TYPE_NAME, indexMetadata, documentBuffer);
+        private List<Document> makeIndexMetadataDocuments(IndexMetadata indexMetadata, DocumentBuffer documentBuffer) throws IOException {
             final String indexUUID = indexMetadata.getIndexUUID();
             assert indexUUID.equals(IndexMetadata.INDEX_UUID_NA_VALUE) == false;
-            indexMetadataDocument.add(new StringField(INDEX_UUID_FIELD_NAME, indexUUID, Field.Store.NO));
-            return indexMetadataDocument;
+            final List<Document> indexMetadataDocuments = makeDocuments(INDEX_TYPE_NAME, indexMetadata, documentBuffer);
+            for (Document indexMetadataDocument : indexMetadataDocuments) {
+                // stored so that the pages of a paginated document can be matched up again when loading
+                indexMetadataDocument.add(new StringField(INDEX_UUID_FIELD_NAME, indexUUID, Field.Store.YES));
+            }
+            return indexMetadataDocuments;
         }
 
-        private Document makeGlobalMetadataDocument(Metadata metadata, DocumentBuffer documentBuffer) throws IOException {
-            return makeDocument(GLOBAL_TYPE_NAME, metadata, documentBuffer);
+        private List<Document> makeGlobalMetadataDocuments(Metadata metadata, DocumentBuffer documentBuffer) throws IOException {
+            return makeDocuments(GLOBAL_TYPE_NAME, metadata, documentBuffer);
         }
 
-        private Document makeDocument(String typeName, ToXContent metadata, DocumentBuffer documentBuffer) throws IOException {
-            final Document document = new Document();
-            document.add(new StringField(TYPE_FIELD_NAME, typeName, Field.Store.NO));
-
+        /**
+         * Serializes the given metadata into the document buffer and splits it into one or more documents of at most
+         * {@link #DOCUMENT_PAGE_SIZE} bytes each. The returned documents refer to the contents of the buffer, so they must be written
+         * before the buffer is reused.
+         */
+        private List<Document> makeDocuments(String typeName, ToXContent metadata, DocumentBuffer documentBuffer) throws IOException {
             try (RecyclingBytesStreamOutput streamOutput = documentBuffer.streamOutput()) {
                 try (
                     XContentBuilder xContentBuilder = XContentFactory.contentBuilder(
@@ -983,10 +1084,23 @@ public class PersistedClusterStateService {
                     metadata.toXContent(xContentBuilder, FORMAT_PARAMS);
                     xContentBuilder.endObject();
                 }
-                document.add(new StoredField(DATA_FIELD_NAME, streamOutput.toBytesRef()));
-            }
 
-            return document;
+                final BytesRef bytes = streamOutput.toBytesRef();
+                final int pageCount = Math.max(1, (bytes.length + DOCUMENT_PAGE_SIZE - 1) / DOCUMENT_PAGE_SIZE);
+                final List<Document> documents = new ArrayList<>(pageCount);
+                for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
+                    final int pageOffset = pageIndex * DOCUMENT_PAGE_SIZE;
+                    final int pageLength = Math.min(DOCUMENT_PAGE_SIZE, bytes.length - pageOffset);
+                    final boolean isLastPage = pageIndex == pageCount - 1;
+                    final Document document = new Document();
+                    document.add(new StringField(TYPE_FIELD_NAME, typeName, Field.Store.NO));
+                    document.add(new StoredField(PAGE_FIELD_NAME, pageIndex));
+                    document.add(new StoredField(LAST_PAGE_FIELD_NAME, isLastPage ? IS_LAST_PAGE : IS_NOT_LAST_PAGE));
+                    document.add(new StoredField(DATA_FIELD_NAME, bytes.bytes, bytes.offset + pageOffset, pageLength));
+                    documents.add(document);
+                }
+                return documents;
+            }
         }
     }
 
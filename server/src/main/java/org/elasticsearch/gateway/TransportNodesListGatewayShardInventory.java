@@ -0,0 +1,231 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.gateway;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionType;
+import org.elasticsearch.action.FailedNodeException;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.nodes.BaseNodeResponse;
+import org.elasticsearch.action.support.nodes.BaseNodesRequest;
+import org.elasticsearch.action.support.nodes.BaseNodesResponse;
+import org.elasticsearch.action.support.nodes.TransportNodesAction;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportRequest;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This transport action is used by the {@link GatewayAllocator} to list the shards for which each node has any data on disk, in a single
+ * round trip per node. It uses this inventory to avoid asking every node about every unassigned shard via
+ * {@link TransportNodesListGatewayStartedShards} and {@link org.elasticsearch.indices.store.TransportNodesListShardStoreMetadata}, since
+ * a node without a shard directory would only answer that it has no copy of the shard.
+ */
+public class TransportNodesListGatewayShardInventory extends TransportNodesAction<
+    TransportNodesListGatewayShardInventory.Request,
+    TransportNodesListGatewayShardInventory.NodesGatewayShardInventory,
+    TransportNodesListGatewayShardInventory.NodeRequest,
+    TransportNodesListGatewayShardInventory.NodeGatewayShardInventory> {
+
+    public static final String ACTION_NAME = "internal:gateway/local/shard_inventory";
+    public static final ActionType<NodesGatewayShardInventory> TYPE = new ActionType<>(ACTION_NAME, NodesGatewayShardInventory::new);
+
+    /**
+     * The version from which nodes can answer this action.
+     */
+    public static final Version MINIMUM_VERSION = Version.V_8_1_0;
+
+    private final NodeEnvironment nodeEnv;
+
+    @Inject
+    public TransportNodesListGatewayShardInventory(
+        ThreadPool threadPool,
+        ClusterService clusterService,
+        TransportService transportService,
+        ActionFilters actionFilters,
+        NodeEnvironment env
+    ) {
+        super(
+            ACTION_NAME,
+            threadPool,
+            clusterService,
+            transportService,
+            actionFilters,
+            Request::new,
+            NodeRequest::new,
+            ThreadPool.Names.FETCH_SHARD_STARTED,
+            NodeGatewayShardInventory.class
+        );
+        this.nodeEnv = env;
+    }
+
+    @Override
+    protected NodeRequest newNodeRequest(Request request) {
+        return new NodeRequest();
+    }
+
+    @Override
+    protected NodeGatewayShardInventory newNodeResponse(StreamInput in, DiscoveryNode node) throws IOException {
+        final NodeGatewayShardInventory response = new NodeGatewayShardInventory(in, node);
+        assert response.getNode() == node;
+        return response;
+    }
+
+    @Override
+    protected NodesGatewayShardInventory newResponse(
+        Request request,
+        List<NodeGatewayShardInventory> responses,
+        List<FailedNodeException> failures
+    ) {
+        return new NodesGatewayShardInventory(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected NodeGatewayShardInventory nodeOperation(NodeRequest request, Task task) {
+        try {
+            final Map<String, Set<Integer>> shardsByIndexUUID = new HashMap<>();
+            for (String indexFolderName : nodeEnv.availableIndexFolders()) {
+                // index folders are named by index UUID, and the index name plays no part in finding the shard folders
+                final Set<ShardId> shardIds = nodeEnv.findAllShardIds(new Index(IndexMetadata.INDEX_UUID_NA_VALUE, indexFolderName));
+                if (shardIds.isEmpty() == false) {
+                    final Set<Integer> shardNumbers = new HashSet<>(shardIds.size());
+                    for (ShardId shardId : shardIds) {
+                        shardNumbers.add(shardId.id());
+                    }
+                    shardsByIndexUUID.put(indexFolderName, shardNumbers);
+                }
+            }
+            logger.trace("found shard folders for [{}] indices", shardsByIndexUUID.size());
+            return new NodeGatewayShardInventory(clusterService.localNode(), shardsByIndexUUID);
+        } catch (Exception e) {
+            throw new ElasticsearchException("failed to list shard inventory", e);
+        }
+    }
+
+    public static class Request extends BaseNodesRequest<Request> {
+
+        public Request(StreamInput in) throws IOException {
+            super(in);
+        }
+
+        public Request(DiscoveryNode[] nodes) {
+            super(nodes);
+        }
+    }
+
+    public static class NodesGatewayShardInventory extends BaseNodesResponse<NodeGatewayShardInventory> {
+
+        public NodesGatewayShardInventory(StreamInput in) throws IOException {
+            super(in);
+        }
+
+        public NodesGatewayShardInventory(
+            ClusterName clusterName,
+            List<NodeGatewayShardInventory> nodes,
+            List<FailedNodeException> failures
+        ) {
+            super(clusterName, nodes, failures);
+        }
+
+        @Override
+        protected List<NodeGatewayShardInventory> readNodesFrom(StreamInput in) throws IOException {
+            return in.readList(NodeGatewayShardInventory::new);
+        }
+
+        @Override
+        protected void writeNodesTo(StreamOutput out, List<NodeGatewayShardInventory> nodes) throws IOException {
+            out.writeList(nodes);
+        }
+    }
+
+    public static class NodeRequest extends TransportRequest {
+
+        public NodeRequest(StreamInput in) throws IOException {
+            super(in);
+        }
+
+        public NodeRequest() {}
+    }
+
+    public static class NodeGatewayShardInventory extends BaseNodeResponse {
+
+        private final Map<String, Set<Integer>> shardsByIndexUUID;
+
+        public NodeGatewayShardInventory(StreamInput in) throws IOException {
+            this(in, null);
+        }
+
+        public NodeGatewayShardInventory(StreamInput in, DiscoveryNode node) throws IOException {
+            super(in, node);
+            shardsByIndexUUID = in.readMap(StreamInput::readString, i -> i.readSet(StreamInput::readVInt));
+        }
+
+        public NodeGatewayShardInventory(DiscoveryNode node, Map<String, Set<Integer>> shardsByIndexUUID) {
+            super(node);
+            this.shardsByIndexUUID = shardsByIndexUUID;
+        }
+
+        /**
+         * @return the numbers of the shards for which this node has a folder on disk, keyed by the UUID of their index
+         */
+        public Map<String, Set<Integer>> getShardsByIndexUUID() {
+            return shardsByIndexUUID;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeMap(
+                shardsByIndexUUID,
+                StreamOutput::writeString,
+                (o, shardNumbers) -> o.writeCollection(shardNumbers, StreamOutput::writeVInt)
+            );
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return shardsByIndexUUID.equals(((NodeGatewayShardInventory) o).shardsByIndexUUID);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shardsByIndexUUID);
+        }
+
+        @Override
+        public String toString() {
+            return "NodeGatewayShardInventory[" + shardsByIndexUUID + "]";
+        }
+    }
+}
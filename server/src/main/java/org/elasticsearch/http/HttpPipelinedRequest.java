@@ -9,6 +9,7 @@
 package org.elasticsearch.http;
 
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 
@@ -65,6 +66,12 @@ public class HttpPipelinedRequest implements HttpRequest, HttpPipelinedMessage {
         return new HttpPipelinedResponse(sequence, delegate.createResponse(status, content));
     }
 
+    @Override
+    public HttpPipelinedResponse createChunkedResponse(RestStatus status, ChunkedRestResponseBody content) {
+        final HttpResponse response = delegate.createChunkedResponse(status, content);
+        return response == null ? null : new HttpPipelinedResponse(sequence, response);
+    }
+
     @Override
     public void release() {
         delegate.release();
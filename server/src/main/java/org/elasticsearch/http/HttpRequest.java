@@ -10,6 +10,7 @@ package org.elasticsearch.http;
 
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 
@@ -75,6 +76,16 @@ public interface HttpRequest {
      */
     HttpResponse createResponse(RestStatus status, BytesReference content);
 
+    /**
+     * Create an http response from this request and the supplied status that streams the supplied body to the client in chunks. Returns
+     * {@code null} if the transport or the client cannot handle chunked responses, in which case the caller must materialize the body and
+     * use {@link #createResponse(RestStatus, BytesReference)} instead.
+     */
+    @Nullable
+    default HttpResponse createChunkedResponse(RestStatus status, ChunkedRestResponseBody content) {
+        return null;
+    }
+
     @Nullable
     Exception getInboundException();
 
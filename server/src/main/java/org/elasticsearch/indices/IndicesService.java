@@ -228,6 +228,7 @@ public class IndicesService extends AbstractLifecycleComponent
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
+    private final ShardStatsCache shardStatsCache;
     private final MetaStateService metaStateService;
     private final Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders;
     private final Map<String, IndexStorePlugin.DirectoryFactory> directoryFactories;
@@ -295,6 +296,8 @@ public class IndicesService extends AbstractLifecycleComponent
         this.indexNameExpressionResolver = indexNameExpressionResolver;
         this.indicesRequestCache = new IndicesRequestCache(settings);
         this.indicesQueryCache = new IndicesQueryCache(settings);
+        this.shardStatsCache = new ShardStatsCache(ShardStatsCache.MAX_AGE_SETTING.get(settings));
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(ShardStatsCache.MAX_AGE_SETTING, shardStatsCache::setMaxAge);
         this.mapperRegistry = mapperRegistry;
         this.namedWriteableRegistry = namedWriteableRegistry;
         indexingMemoryController = new IndexingMemoryController(
@@ -503,32 +506,41 @@ public class IndicesService extends AbstractLifecycleComponent
             return null;
         }
 
-        CommitStats commitStats;
-        SeqNoStats seqNoStats;
-        RetentionLeaseStats retentionLeaseStats;
-        try {
-            commitStats = indexShard.commitStats();
-            seqNoStats = indexShard.seqNoStats();
-            retentionLeaseStats = indexShard.getRetentionLeaseStats();
-        } catch (AlreadyClosedException e) {
-            // shard is closed - no stats is fine
-            commitStats = null;
-            seqNoStats = null;
-            retentionLeaseStats = null;
-        }
+        return new IndexShardStats(indexShard.shardId(), new ShardStats[] { indicesService.shardStats(indexShard, flags) });
+    }
 
-        return new IndexShardStats(
-            indexShard.shardId(),
-            new ShardStats[] {
-                new ShardStats(
-                    indexShard.routingEntry(),
-                    indexShard.shardPath(),
-                    new CommonStats(indicesService.getIndicesQueryCache(), indexShard, flags),
-                    commitStats,
-                    seqNoStats,
-                    retentionLeaseStats
-                ) }
-        );
+    /**
+     * Returns the stats of the given shard, which may be a snapshot computed up to {@link ShardStatsCache#MAX_AGE_SETTING} ago.
+     */
+    public ShardStats shardStats(final IndexShard indexShard, final CommonStatsFlags flags) {
+        return shardStatsCache.getOrCompute(indexShard, flags, () -> {
+            CommitStats commitStats;
+            SeqNoStats seqNoStats;
+            RetentionLeaseStats retentionLeaseStats;
+            try {
+                commitStats = indexShard.commitStats();
+                seqNoStats = indexShard.seqNoStats();
+                retentionLeaseStats = indexShard.getRetentionLeaseStats();
+            } catch (AlreadyClosedException e) {
+                // shard is closed - no stats is fine
+                commitStats = null;
+                seqNoStats = null;
+                retentionLeaseStats = null;
+            }
+            return new ShardStats(
+                indexShard.routingEntry(),
+                indexShard.shardPath(),
+                new CommonStats(getIndicesQueryCache(), indexShard, flags),
+                commitStats,
+                seqNoStats,
+                retentionLeaseStats
+            );
+        });
+    }
+
+    // for tests
+    ShardStatsCache getShardStatsCache() {
+        return shardStatsCache;
     }
 
     /**
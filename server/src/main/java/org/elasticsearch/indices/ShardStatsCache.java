@@ -0,0 +1,88 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags;
+import org.elasticsearch.action.admin.indices.stats.ShardStats;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.IndexShard;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Holds recent snapshots of the stats of the shards on this node so that the stats APIs, which are often polled frequently by monitoring
+ * systems, need not recompute the stats of every shard on every call. A snapshot is reused for up to {@link #MAX_AGE_SETTING} after it was
+ * computed, as long as it was computed with the same flags and the shard's routing has not changed since. Snapshotting is disabled by
+ * default, so that by default the stats APIs always return up-to-date values.
+ */
+public final class ShardStatsCache {
+
+    public static final Setting<TimeValue> MAX_AGE_SETTING = Setting.timeSetting(
+        "indices.stats.cache.max_age",
+        TimeValue.ZERO,
+        TimeValue.ZERO,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    // bounds the memory used by the cache, which typically holds a handful of entries for each shard on the node
+    static final int MAX_ENTRIES = 10_000;
+
+    private volatile Cache<Key, ShardStats> cache;
+
+    ShardStatsCache(TimeValue maxAge) {
+        setMaxAge(maxAge);
+    }
+
+    void setMaxAge(TimeValue maxAge) {
+        if (maxAge.nanos() <= 0L) {
+            cache = null;
+        } else {
+            cache = CacheBuilder.<Key, ShardStats>builder().setExpireAfterWrite(maxAge).setMaximumWeight(MAX_ENTRIES).build();
+        }
+    }
+
+    /**
+     * @return a snapshot of the stats of the given shard with the given flags, computed by {@code statsSupplier} if there is no recent
+     *         enough snapshot.
+     */
+    ShardStats getOrCompute(IndexShard indexShard, CommonStatsFlags flags, Supplier<ShardStats> statsSupplier) {
+        final Cache<Key, ShardStats> cache = this.cache;
+        final ShardRouting shardRouting = indexShard.routingEntry();
+        if (cache == null || shardRouting == null) {
+            return statsSupplier.get();
+        }
+        try {
+            return cache.computeIfAbsent(new Key(shardRouting, flags.clone()), key -> statsSupplier.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("unexpected failure computing stats of " + shardRouting, e.getCause());
+        }
+    }
+
+    // for tests
+    int count() {
+        final Cache<Key, ShardStats> cache = this.cache;
+        return cache == null ? 0 : cache.count();
+    }
+
+    /**
+     * A snapshot is only reused for the same shard copy in the same routing state, so that e.g. a promotion to primary or the start of a
+     * relocation is reflected immediately.
+     */
+    private record Key(ShardRouting shardRouting, CommonStatsFlags flags) {}
+}
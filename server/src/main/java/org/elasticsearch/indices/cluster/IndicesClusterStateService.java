@@ -522,7 +522,12 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             return;
         }
         final ClusterState state = event.state();
-        for (AllocatedIndex<? extends Shard> indexService : indicesService) {
+        // only the indices whose metadata instance changed can need an update, so there is no need to visit every local index
+        for (Index changedIndex : event.indicesWithChangedMetadata()) {
+            final AllocatedIndex<? extends Shard> indexService = indicesService.indexService(changedIndex);
+            if (indexService == null) {
+                continue;
+            }
             final Index index = indexService.index();
             final IndexMetadata currentIndexMetadata = indexService.getIndexSettings().getIndexMetadata();
             final IndexMetadata newIndexMetadata = state.metadata().index(index);
@@ -576,6 +581,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                     assert shardRouting.initializing() : shardRouting + " should have been removed by failMissingShards";
                     createShard(nodes, routingTable, shardRouting, state);
                 } else {
+                    // always update the shard, even if nothing about it changed, as it tracks the version of the last applied cluster
+                    // state and the routing table of its replication group
                     updateShard(nodes, shardRouting, shard, routingTable, state);
                 }
             }
@@ -0,0 +1,127 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * The body of a {@link RestResponse} that is serialized lazily, one chunk at a time, as the HTTP layer is ready to write it to the network.
+ * Only a single chunk needs to be held in memory at any one time, and its buffer is released as soon as it has been written.
+ */
+public interface ChunkedRestResponseBody {
+
+    /**
+     * @return true once this body has been fully serialized, i.e. the chunk returned by the last call to {@link #encodeChunk} was the final
+     *         chunk.
+     */
+    boolean isDone();
+
+    /**
+     * Serialize the next chunk of this body, of roughly {@code sizeHint} bytes, into pages obtained from {@code bigArrays} so that the
+     * memory is accounted for by the request circuit breaker until the caller releases the returned reference. Must not be called once
+     * {@link #isDone()} returns true.
+     *
+     * @param sizeHint  the number of bytes after which to stop serializing; the chunk may be somewhat larger since the smallest unit of
+     *                  work is a single {@link ToXContent} element
+     * @param bigArrays the arrays to allocate the chunk's buffer from
+     * @return the serialized chunk, which the caller must release once it has been written
+     */
+    ReleasableBytesReference encodeChunk(int sizeHint, BigArrays bigArrays) throws IOException;
+
+    /**
+     * @return the content type of the response body
+     */
+    String getResponseContentTypeString();
+
+    /**
+     * Create a chunked response body that serializes the given {@link ChunkedToXContent} to an {@link XContentBuilder} obtained from the
+     * given channel, honouring the content type, pretty printing and {@code filter_path} of the channel's request.
+     */
+    static ChunkedRestResponseBody fromXContent(ChunkedToXContent chunkedToXContent, ToXContent.Params params, RestChannel channel)
+        throws IOException {
+
+        return new ChunkedRestResponseBody() {
+
+            private final OutputStream out = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    target.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    target.write(b, off, len);
+                }
+            };
+
+            private final XContentBuilder builder = channel.newBuilder(
+                channel.request().getXContentType(),
+                null,
+                true,
+                Streams.noCloseStream(out)
+            );
+
+            private final Iterator<? extends ToXContent> serialization = chunkedToXContent.toXContentChunked(params);
+
+            private ReleasableBytesStreamOutput target;
+
+            private boolean done;
+
+            @Override
+            public boolean isDone() {
+                return done;
+            }
+
+            @Override
+            public ReleasableBytesReference encodeChunk(int sizeHint, BigArrays bigArrays) throws IOException {
+                assert done == false : "body already fully serialized";
+                assert target == null : "concurrent call to encodeChunk";
+                final ReleasableBytesStreamOutput chunkStream = new ReleasableBytesStreamOutput(bigArrays);
+                target = chunkStream;
+                boolean success = false;
+                try {
+                    while (serialization.hasNext()) {
+                        serialization.next().toXContent(builder, params);
+                        builder.flush();
+                        if (chunkStream.size() >= sizeHint) {
+                            break;
+                        }
+                    }
+                    if (serialization.hasNext() == false) {
+                        builder.close();
+                        done = true;
+                    }
+                    final ReleasableBytesReference result = new ReleasableBytesReference(chunkStream.bytes(), chunkStream);
+                    success = true;
+                    return result;
+                } finally {
+                    target = null;
+                    if (success == false) {
+                        chunkStream.close();
+                    }
+                }
+            }
+
+            @Override
+            public String getResponseContentTypeString() {
+                return builder.getResponseContentTypeString();
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest.action;
+
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.common.xcontent.StatusToXContentObject;
+import org.elasticsearch.rest.ChunkedRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestStatus;
+
+/**
+ * A REST based action listener that requires the response to implement {@link ChunkedToXContent} and sends it back as a
+ * {@link ChunkedRestResponse}, so that the response body is serialized chunk by chunk as it is written out rather than being built up
+ * in a single buffer first. The status is taken from the response if it is a {@link StatusToXContentObject}.
+ */
+public class RestChunkedToXContentListener<Response extends ChunkedToXContent> extends RestActionListener<Response> {
+
+    public RestChunkedToXContentListener(RestChannel channel) {
+        super(channel);
+    }
+
+    @Override
+    protected void processResponse(Response response) throws Exception {
+        channel.sendResponse(
+            new ChunkedRestResponse(getStatus(response), ChunkedRestResponseBody.fromXContent(response, channel.request(), channel))
+        );
+    }
+
+    protected RestStatus getStatus(Response response) {
+        if (response instanceof StatusToXContentObject statusToXContentObject) {
+            return statusToXContentObject.status();
+        }
+        return RestStatus.OK;
+    }
+}
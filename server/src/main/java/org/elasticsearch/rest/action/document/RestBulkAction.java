@@ -11,11 +11,16 @@ package org.elasticsearch.rest.action.document;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkShardRequest;
+import org.elasticsearch.action.bulk.ChunkedBulkDispatcher;
 import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.client.internal.Requests;
 import org.elasticsearch.client.internal.node.NodeClient;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.RestApiVersion;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.action.RestStatusToXContentListener;
@@ -39,10 +44,22 @@ import static org.elasticsearch.rest.RestRequest.Method.PUT;
 public class RestBulkAction extends BaseRestHandler {
     public static final String TYPES_DEPRECATION_MESSAGE = "[types removal]" + " Specifying types in bulk requests is deprecated.";
 
+    /**
+     * If positive, the items of a bulk request are executed in chunks of about this size, one after the other, starting as soon as the
+     * first chunk has been parsed. See {@link ChunkedBulkDispatcher}.
+     */
+    public static final Setting<ByteSizeValue> DISPATCH_CHUNK_SIZE_SETTING = Setting.byteSizeSetting(
+        "rest.action.bulk.dispatch_chunk_size",
+        ByteSizeValue.ZERO,
+        Setting.Property.NodeScope
+    );
+
     private final boolean allowExplicitIndex;
+    private final long dispatchChunkSizeInBytes;
 
     public RestBulkAction(Settings settings) {
         this.allowExplicitIndex = MULTI_ALLOW_EXPLICIT_INDEX.get(settings);
+        this.dispatchChunkSizeInBytes = DISPATCH_CHUNK_SIZE_SETTING.get(settings).getBytes();
     }
 
     @Override
@@ -79,6 +96,28 @@ public class RestBulkAction extends BaseRestHandler {
         Boolean defaultRequireAlias = request.paramAsBoolean(DocWriteRequest.REQUIRE_ALIAS, null);
         bulkRequest.timeout(request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT));
         bulkRequest.setRefreshPolicy(request.param("refresh"));
+        if (dispatchChunkSizeInBytes > 0 && request.requiredContent().length() > dispatchChunkSizeInBytes) {
+            final ActiveShardCount activeShardCount = bulkRequest.waitForActiveShards();
+            final TimeValue timeout = bulkRequest.timeout();
+            final WriteRequest.RefreshPolicy refreshPolicy = bulkRequest.getRefreshPolicy();
+            return channel -> new ChunkedBulkDispatcher(
+                () -> Requests.bulkRequest().waitForActiveShards(activeShardCount).timeout(timeout).setRefreshPolicy(refreshPolicy),
+                dispatchChunkSizeInBytes,
+                client::bulk,
+                new RestStatusToXContentListener<>(channel),
+                System::nanoTime
+            ).parseAndDispatch(
+                request.requiredContent(),
+                defaultIndex,
+                defaultRouting,
+                defaultFetchSourceContext,
+                defaultPipeline,
+                defaultRequireAlias,
+                allowExplicitIndex,
+                request.getXContentType(),
+                request.getRestApiVersion()
+            );
+        }
         bulkRequest.add(
             request.requiredContent(),
             defaultIndex,
@@ -20,6 +20,8 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.search.CanMatchNodeRequest;
 import org.elasticsearch.action.search.CanMatchNodeResponse;
+import org.elasticsearch.action.search.NodeQueryRequest;
+import org.elasticsearch.action.search.NodeQueryResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchShardTask;
 import org.elasticsearch.action.search.SearchType;
@@ -134,6 +136,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
@@ -483,6 +486,36 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         }));
     }
 
+    /**
+     * Executes the query phase of each of the shard-level requests in the given node-level request concurrently, and notifies the
+     * consumer of the result or failure of each of them as soon as it completes.
+     */
+    public void executeQueryPhase(
+        NodeQueryRequest request,
+        SearchShardTask task,
+        Consumer<NodeQueryResponse.ResponseOrFailure> resultConsumer
+    ) {
+        final List<ShardSearchRequest> shardSearchRequests = request.getShardSearchRequests();
+        for (int i = 0; i < shardSearchRequests.size(); i++) {
+            final int position = i;
+            try {
+                executeQueryPhase(shardSearchRequests.get(i), task, new ActionListener<>() {
+                    @Override
+                    public void onResponse(SearchPhaseResult result) {
+                        resultConsumer.accept(new NodeQueryResponse.ResponseOrFailure(position, result));
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        resultConsumer.accept(new NodeQueryResponse.ResponseOrFailure(position, e));
+                    }
+                });
+            } catch (Exception e) {
+                resultConsumer.accept(new NodeQueryResponse.ResponseOrFailure(position, e));
+            }
+        }
+    }
+
     private <T> void ensureAfterSeqNoRefreshed(
         IndexShard shard,
         ShardSearchRequest request,
@@ -1220,7 +1253,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             context.addReleasable(aggContext);
             try {
                 AggregatorFactories factories = source.aggregations().build(aggContext, null);
-                context.aggregations(new SearchContextAggregations(factories));
+                context.aggregations(new SearchContextAggregations(factories, source.aggregations().buildPipelineTree().shardReducible()));
             } catch (IOException e) {
                 throw new AggregationInitializationException("Failed to create aggregators", e);
             }
@@ -9,6 +9,8 @@ package org.elasticsearch.search.aggregations;
 
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.common.ParsingException;
+import org.elasticsearch.common.collect.Iterators;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentParser;
@@ -111,6 +113,26 @@ public class Aggregations implements Iterable<Aggregation>, ToXContentFragment {
         return builder.endObject();
     }
 
+    /**
+     * Renders the aggregations as a sequence of chunks which, written one after the other, produce the same output as
+     * {@link #toXContent}. Each {@link InternalAggregation} is chunked as it sees fit, other aggregations are rendered as one chunk.
+     */
+    public Iterator<ToXContent> toXContentChunked(Params params) {
+        if (aggregations.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return Iterators.concat(
+            Iterators.single((builder, p) -> builder.startObject(AGGREGATIONS_FIELD)),
+            Iterators.<Aggregation, ToXContent>flatMap(
+                aggregations.iterator(),
+                aggregation -> aggregation instanceof InternalAggregation internalAggregation
+                    ? internalAggregation.toXContentChunked(params)
+                    : Iterators.<ToXContent>single(aggregation)
+            ),
+            Iterators.single((builder, p) -> builder.endObject())
+        );
+    }
+
     /**
      * Directly write all the aggregations without their bounding object. Used by sub-aggregations (non top level aggs)
      */
@@ -8,6 +8,7 @@
 package org.elasticsearch.search.aggregations;
 
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.NamedWriteable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -15,6 +16,7 @@ import org.elasticsearch.rest.action.search.RestSearchAction;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator.PipelineTree;
 import org.elasticsearch.search.aggregations.support.AggregationPath;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
@@ -110,6 +112,22 @@ public abstract class InternalAggregation implements Aggregation, NamedWriteable
         return reducedAggs;
     }
 
+    /**
+     * Runs the parts of the pipeline aggs that this aggregation is associated with that are safe to run on
+     * a single shard's results, see {@link PipelineAggregator#reduceOnShard}. The pipelines of the
+     * sub-aggregations are run first, like in {@link #reducePipelines}.
+     */
+    public InternalAggregation reducePipelinesOnShard(PipelineTree pipelinesForThisAgg) {
+        InternalAggregation reduced = this;
+        if (pipelinesForThisAgg.hasSubTrees()) {
+            reduced = copyWithRewritenBuckets(aggs -> InternalAggregations.reducePipelinesOnShard(aggs, pipelinesForThisAgg));
+        }
+        for (PipelineAggregator pipelineAggregator : pipelinesForThisAgg.aggregators()) {
+            reduced = pipelineAggregator.reduceOnShard(reduced);
+        }
+        return reduced;
+    }
+
     /**
      * Reduces the given aggregations to a single one and returns it. In <b>most</b> cases, the assumption will be the all given
      * aggregations are of the same type (the same type as this aggregation). For best efficiency, when implementing,
@@ -178,6 +196,25 @@ public abstract class InternalAggregation implements Aggregation, NamedWriteable
 
     @Override
     public final XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        startXContent(builder, params);
+        doXContentBody(builder, params);
+        builder.endObject();
+        return builder;
+    }
+
+    /**
+     * Renders this aggregation as a sequence of chunks which, written one after the other, produce the same output as
+     * {@link #toXContent}. The body is chunked as {@link #doXContentBodyChunked} decides.
+     */
+    public final Iterator<ToXContent> toXContentChunked(Params params) {
+        return Iterators.concat(
+            Iterators.single(this::startXContent),
+            doXContentBodyChunked(params),
+            Iterators.single((builder, p) -> builder.endObject())
+        );
+    }
+
+    private XContentBuilder startXContent(XContentBuilder builder, Params params) throws IOException {
         if (params.paramAsBoolean(RestSearchAction.TYPED_KEYS_PARAM, false)) {
             // Concatenates the type and the name of the aggregation (ex: top_hits#foo)
             builder.startObject(String.join(TYPED_KEYS_DELIMITER, getType(), getName()));
@@ -188,13 +225,19 @@ public abstract class InternalAggregation implements Aggregation, NamedWriteable
             builder.field(CommonFields.META.getPreferredName());
             builder.map(this.metadata);
         }
-        doXContentBody(builder, params);
-        builder.endObject();
         return builder;
     }
 
     public abstract XContentBuilder doXContentBody(XContentBuilder builder, Params params) throws IOException;
 
+    /**
+     * Renders the body of this aggregation as a sequence of chunks. By default the whole body is a single chunk, aggregations that can
+     * return many buckets should override this to emit one chunk per bucket so that large responses can be streamed to the client.
+     */
+    protected Iterator<? extends ToXContent> doXContentBodyChunked(Params params) {
+        return Iterators.single(this::doXContentBody);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(name, metadata);
@@ -11,6 +11,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator.PipelineTree;
 import org.elasticsearch.search.aggregations.pipeline.SiblingPipelineAggregator;
 import org.elasticsearch.search.aggregations.support.AggregationPath;
 
@@ -120,6 +121,21 @@ public final class InternalAggregations extends Aggregations implements Writeabl
         return reduced;
     }
 
+    /**
+     * Run the parts of the pipeline aggregations that are safe to run on a single shard's results before
+     * they are sent to the coordinating node. Unlike {@link #topLevelReduce} this only runs the parent
+     * pipelines that {@link PipelineAggregator#canReduceOnShard can}, so {@code pipelineTree} should
+     * be {@link PipelineTree#shardReducible planned} for the shard.
+     */
+    public static InternalAggregations reducePipelinesOnShard(InternalAggregations aggregations, PipelineTree pipelineTree) {
+        List<InternalAggregation> internalAggregations = aggregations.getInternalAggregations();
+        List<InternalAggregation> reduced = new ArrayList<>(internalAggregations.size());
+        for (InternalAggregation aggregation : internalAggregations) {
+            reduced.add(aggregation.reducePipelinesOnShard(pipelineTree.subTree(aggregation.getName())));
+        }
+        return from(reduced);
+    }
+
     /**
      * Reduces the given list of aggregations as well as the top-level pipeline aggregators extracted from the first
      * {@link InternalAggregations} object found in the list.
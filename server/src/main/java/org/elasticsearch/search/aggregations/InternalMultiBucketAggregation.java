@@ -10,9 +10,11 @@ package org.elasticsearch.search.aggregations;
 
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
 import org.elasticsearch.search.aggregations.bucket.SingleBucketAggregation;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator.PipelineTree;
+import org.elasticsearch.search.sort.SortOrder;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -59,6 +61,19 @@ public abstract class InternalMultiBucketAggregation<
      */
     public abstract B createBucket(InternalAggregations aggregations, B prototype);
 
+    /**
+     * Drop the buckets of this shard-level result that can't make it into the
+     * first {@code size} buckets of the final result, as long as that doesn't
+     * change the key or contents of any of those buckets. The final result is
+     * sorted by bucket key in {@code keyOrder} or, if that is {@code null},
+     * in the order that the final reduction sorts the buckets in. Returns
+     * this aggregation unchanged if that can't be guaranteed, which is the
+     * default.
+     */
+    public InternalAggregation pruneOnShard(int size, @Nullable SortOrder keyOrder) {
+        return this;
+    }
+
     /**
      * Reduce a list of same-keyed buckets (from multiple shards) to a single bucket. This
      * requires all buckets to have the same key.
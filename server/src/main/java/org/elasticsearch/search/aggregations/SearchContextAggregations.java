@@ -7,25 +7,44 @@
  */
 package org.elasticsearch.search.aggregations;
 
+import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator.PipelineTree;
+
 /**
  * The aggregation context that is part of the search context.
  */
 public class SearchContextAggregations {
 
     private final AggregatorFactories factories;
+    private final PipelineTree shardPipelineTree;
     private Aggregator[] aggregators;
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
      */
     public SearchContextAggregations(AggregatorFactories factories) {
+        this(factories, PipelineTree.EMPTY);
+    }
+
+    /**
+     * Creates a new aggregation context with the parsed aggregator factories and the pipeline
+     * aggregators that can {@link PipelineTree#shardReducible reduce the shard's results}.
+     */
+    public SearchContextAggregations(AggregatorFactories factories, PipelineTree shardPipelineTree) {
         this.factories = factories;
+        this.shardPipelineTree = shardPipelineTree;
     }
 
     public AggregatorFactories factories() {
         return factories;
     }
 
+    /**
+     * The pipeline aggregators to run on the shard's results before they are sent to the coordinating node.
+     */
+    public PipelineTree shardPipelineTree() {
+        return shardPipelineTree;
+    }
+
     public Aggregator[] aggregators() {
         return aggregators;
     }
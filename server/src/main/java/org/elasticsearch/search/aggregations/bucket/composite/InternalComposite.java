@@ -11,6 +11,7 @@ package org.elasticsearch.search.aggregations.bucket.composite;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.PriorityQueue;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.search.DocValueFormat;
@@ -20,6 +21,7 @@ import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.aggregations.InternalMultiBucketAggregation;
 import org.elasticsearch.search.aggregations.KeyComparable;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
@@ -113,6 +115,24 @@ public class InternalComposite extends InternalMultiBucketAggregation<InternalCo
         return CompositeAggregation.toXContentFragment(this, builder, params);
     }
 
+    @Override
+    protected Iterator<ToXContent> doXContentBodyChunked(Params params) {
+        final ToXContent start = (builder, p) -> {
+            if (afterKey() != null) {
+                CompositeAggregation.buildCompositeMap("after_key", afterKey(), builder);
+            }
+            return builder.startArray(CommonFields.BUCKETS.getPreferredName());
+        };
+        return Iterators.concat(
+            Iterators.single(start),
+            Iterators.<InternalBucket, ToXContent>flatMap(
+                buckets.iterator(),
+                bucket -> Iterators.single((builder, p) -> CompositeAggregation.bucketToXContent(bucket, builder, p))
+            ),
+            Iterators.single((builder, p) -> builder.endArray())
+        );
+    }
+
     @Override
     public String getWriteableName() {
         return CompositeAggregationBuilder.NAME;
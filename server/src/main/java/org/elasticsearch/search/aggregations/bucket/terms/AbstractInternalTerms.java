@@ -9,6 +9,7 @@
 package org.elasticsearch.search.aggregations.bucket.terms;
 
 import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.search.aggregations.AggregationExecutionException;
 import org.elasticsearch.search.aggregations.AggregationReduceContext;
@@ -20,12 +21,15 @@ import org.elasticsearch.search.aggregations.InternalMultiBucketAggregation;
 import org.elasticsearch.search.aggregations.InternalOrder;
 import org.elasticsearch.search.aggregations.TopBucketBuilder;
 import org.elasticsearch.search.aggregations.bucket.IteratorAndCurrent;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -84,6 +88,42 @@ public abstract class AbstractInternalTerms<A extends AbstractInternalTerms<A, B
 
     protected abstract B createBucket(long docCount, InternalAggregations aggs, long docCountError, B prototype);
 
+    /**
+     * Whether comparing the {@link Bucket#getKey() keys} of the buckets sorts
+     * them in the same order as {@link InternalOrder#key}.
+     */
+    protected boolean keysCompareInKeyOrder() {
+        return false;
+    }
+
+    /**
+     * Pruning is safe if the terms are sorted by key and the final reduction
+     * doesn't filter on doc count: it then keeps a prefix of the merged keys,
+     * and every shard holding one of the first {@code size} merged keys
+     * holds it among its own first {@code size} keys, so both the key and
+     * its doc count survive the pruning. The doc counts of the pruned
+     * buckets move to {@code sum_other_doc_count} like on a final reduce.
+     */
+    @Override
+    public InternalAggregation pruneOnShard(int size, SortOrder keyOrder) {
+        if (isKeyOrder(getOrder()) == false || getMinDocCount() > 1 || getBuckets().size() <= size) {
+            return this;
+        }
+        if (keyOrder != null && (keysCompareInKeyOrder() == false || (keyOrder == SortOrder.ASC) != isKeyAsc(getOrder()))) {
+            return this;
+        }
+        List<B> ordered = new ArrayList<>(getBuckets());
+        ordered.sort(getOrder().comparator());
+        List<B> kept = new ArrayList<>(ordered.subList(0, size));
+        long otherDocCount = getSumOfOtherDocCounts();
+        for (B pruned : ordered.subList(size, ordered.size())) {
+            otherDocCount += pruned.getDocCount();
+        }
+        kept.sort(getReduceOrder().comparator());
+        Long docCountError = getDocCountError();
+        return create(name, kept, getReduceOrder(), docCountError == null ? 0 : docCountError, otherDocCount);
+    }
+
     @Override
     public B reduceBucket(List<B> buckets, AggregationReduceContext context) {
         assert buckets.size() > 0;
@@ -358,4 +398,20 @@ public abstract class AbstractInternalTerms<A extends AbstractInternalTerms<A, B
         return builder;
     }
 
+    /**
+     * Chunked version of {@link #doXContentCommon}, rendering each bucket as its own chunk.
+     */
+    protected static Iterator<ToXContent> doXContentCommonChunked(
+        Long docCountError,
+        long otherDocCount,
+        List<? extends AbstractTermsBucket> buckets
+    ) {
+        final ToXContent start = (builder, params) -> {
+            builder.field(DOC_COUNT_ERROR_UPPER_BOUND_FIELD_NAME.getPreferredName(), docCountError);
+            builder.field(SUM_OF_OTHER_DOC_COUNTS.getPreferredName(), otherDocCount);
+            return builder.startArray(CommonFields.BUCKETS.getPreferredName());
+        };
+        return Iterators.concat(Iterators.single(start), buckets.iterator(), Iterators.single((builder, params) -> builder.endArray()));
+    }
+
 }
@@ -186,6 +186,11 @@ public class DoubleTerms extends InternalMappedTerms<DoubleTerms, DoubleTerms.Bu
         );
     }
 
+    @Override
+    protected boolean keysCompareInKeyOrder() {
+        return true;
+    }
+
     @Override
     public InternalAggregation reduce(List<InternalAggregation> aggregations, AggregationReduceContext reduceContext) {
         boolean promoteToDouble = false;
@@ -13,9 +13,11 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -155,4 +157,9 @@ public abstract class InternalMappedTerms<A extends InternalTerms<A, B>, B exten
     public final XContentBuilder doXContentBody(XContentBuilder builder, Params params) throws IOException {
         return doXContentCommon(builder, params, docCountError, otherDocCount, buckets);
     }
+
+    @Override
+    protected final Iterator<ToXContent> doXContentBodyChunked(Params params) {
+        return doXContentCommonChunked(docCountError, otherDocCount, buckets);
+    }
 }
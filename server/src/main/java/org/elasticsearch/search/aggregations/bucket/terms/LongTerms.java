@@ -198,6 +198,12 @@ public class LongTerms extends InternalMappedTerms<LongTerms, LongTerms.Bucket>
         );
     }
 
+    @Override
+    protected boolean keysCompareInKeyOrder() {
+        // unsigned longs are rendered as a mix of Long and BigInteger keys that can't be compared to one another
+        return format != DocValueFormat.UNSIGNED_LONG_SHIFTED;
+    }
+
     @Override
     public InternalAggregation reduce(List<InternalAggregation> aggregations, AggregationReduceContext reduceContext) {
         boolean unsignedLongFormat = false;
@@ -174,6 +174,7 @@ public class CardinalityAggregator extends NumericMetricsAggregator.SingleValue
         add.accept("ordinals_collectors_used", ordinalsCollectorsUsed);
         add.accept("ordinals_collectors_overhead_too_high", ordinalsCollectorsOverheadTooHigh);
         add.accept("string_hashing_collectors_used", stringHashingCollectorsUsed);
+        add.accept("counts_ram_bytes_used", counts == null ? 0 : counts.ramBytesUsed());
     }
 
     private abstract static class Collector extends LeafBucketCollector implements Releasable {
@@ -8,18 +8,17 @@
 
 package org.elasticsearch.search.aggregations.metrics;
 
-import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.BitArray;
 import org.elasticsearch.common.util.ByteArray;
-import org.elasticsearch.common.util.ByteUtils;
 import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.util.Arrays;
 
 /**
  * Hyperloglog++ counter, implemented based on pseudo code from
@@ -35,9 +34,14 @@ import java.nio.ByteOrder;
  * data structure are processed using the linear counting until a threshold defined by the precision is reached where the data is replayed
  * to the HyperLogLog algorithm and then this is used.
  *
- * It supports storing several HyperLogLogPlusPlus structures which are identified by a bucket number.
+ * It supports storing several HyperLogLogPlusPlus structures which are identified by a bucket number. Buckets don't own any
+ * memory of their own: the linear counting hash tables live in a shared slab of ints and start small, doubling in size as
+ * they fill up and returning to a free list when they outgrow their block. The HyperLogLog registers live in a second shared
+ * slab and are only assigned to a bucket once it is upgraded. This keeps the per-bucket overhead to a few bytes for the
+ * (very common) case of a {@code cardinality} under a high cardinality bucket aggregation where most buckets only ever see
+ * a handful of values.
  */
-public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
+public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus implements Accountable {
 
     private static final float MAX_LOAD_FACTOR = 0.75f;
 
@@ -59,7 +63,8 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
     }
 
     /**
-     * Return the expected per-bucket memory usage for the given precision.
+     * Return the maximum per-bucket memory usage for the given precision. Buckets
+     * that only see a few distinct values use much less than this.
      */
     public static long memoryUsage(int precision) {
         return 1L << precision;
@@ -73,7 +78,7 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
         boolean success = false;
         try {
             hll = new HyperLogLog(bigArrays, initialBucketCount, precision);
-            lc = new LinearCounting(bigArrays, initialBucketCount, precision, hll);
+            lc = new LinearCounting(bigArrays, initialBucketCount, precision);
             algorithm = new BitArray(1, bigArrays);
             success = true;
         } finally {
@@ -117,7 +122,7 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
 
     @Override
     public void collect(long bucket, long hash) {
-        hll.ensureCapacity(bucket + 1);
+        ensureCapacity(bucket + 1);
         if (algorithm.get(bucket) == LINEAR_COUNTING) {
             final int newSize = lc.collect(bucket, hash);
             if (newSize > lc.threshold) {
@@ -128,47 +133,50 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
         }
     }
 
+    /**
+     * The number of bytes used by all buckets, including the free space in the shared slabs.
+     */
+    @Override
+    public long ramBytesUsed() {
+        return algorithm.ramBytesUsed() + hll.ramBytesUsed() + lc.ramBytesUsed();
+    }
+
     @Override
     public void close() {
         Releasables.close(algorithm, hll, lc);
     }
 
     protected void addRunLen(long bucketOrd, int register, int runLen) {
+        ensureCapacity(bucketOrd + 1);
         if (algorithm.get(bucketOrd) == LINEAR_COUNTING) {
             upgradeToHll(bucketOrd);
         }
-        hll.addRunLen(0, register, runLen);
+        hll.addRunLen(bucketOrd, register, runLen);
+    }
+
+    private void ensureCapacity(long numBuckets) {
+        hll.ensureCapacity(numBuckets);
+        lc.ensureCapacity(numBuckets);
     }
 
     void upgradeToHll(long bucketOrd) {
-        // We need to copy values into an arrays as we will override
-        // the values on the buffer
-        hll.ensureCapacity(bucketOrd + 1);
-        // It's safe to reuse lc's readSpare because we're single threaded.
-        final AbstractLinearCounting.HashesIterator hashes = new LinearCountingIterator(lc, lc.readSpare, bucketOrd);
-        final IntArray values = lc.bigArrays.newIntArray(hashes.size());
-        try {
-            int i = 0;
-            while (hashes.next()) {
-                values.set(i++, hashes.value());
-            }
-            assert i == hashes.size();
-            hll.reset(bucketOrd);
-            for (long j = 0; j < values.size(); ++j) {
-                final int encoded = values.get(j);
-                hll.collectEncoded(bucketOrd, encoded);
-            }
-            algorithm.set(bucketOrd);
-        } finally {
-            Releasables.close(values);
-        }
+        ensureCapacity(bucketOrd + 1);
+        // The registers don't share memory with the linear counting hash table
+        // so we can replay the hashes directly and release the table afterwards.
+        hll.allocate(bucketOrd);
+        final AbstractLinearCounting.HashesIterator hashes = lc.values(bucketOrd);
+        while (hashes.next()) {
+            hll.collectEncoded(bucketOrd, hashes.value());
+        }
+        lc.release(bucketOrd);
+        algorithm.set(bucketOrd);
     }
 
     public void merge(long thisBucket, AbstractHyperLogLogPlusPlus other, long otherBucket) {
         if (precision() != other.precision()) {
             throw new IllegalArgumentException();
         }
-        hll.ensureCapacity(thisBucket + 1);
+        ensureCapacity(thisBucket + 1);
         if (other.getAlgorithm(otherBucket) == LINEAR_COUNTING) {
             merge(thisBucket, other.getLinearCounting(otherBucket));
         } else {
@@ -202,24 +210,44 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
 
     private static class HyperLogLog extends AbstractHyperLogLog implements Releasable {
         private final BigArrays bigArrays;
-        private final int precision;
-        // array for holding the runlens.
+        // maps a bucket to its (one based) block of registers in runLens, 0 means the bucket has no registers.
+        private IntArray slots;
+        // shared slab holding the registers of all the buckets using HyperLogLog, in blocks of m bytes.
         private ByteArray runLens;
+        private int usedSlots;
 
         HyperLogLog(BigArrays bigArrays, long initialBucketCount, int precision) {
             super(precision);
-            this.runLens = bigArrays.newByteArray(initialBucketCount << precision);
             this.bigArrays = bigArrays;
-            this.precision = precision;
+            IntArray slots = null;
+            ByteArray runLens = null;
+            boolean success = false;
+            try {
+                slots = bigArrays.newIntArray(initialBucketCount);
+                runLens = bigArrays.newByteArray(0);
+                success = true;
+            } finally {
+                if (success == false) {
+                    Releasables.close(slots, runLens);
+                }
+            }
+            this.slots = slots;
+            this.runLens = runLens;
         }
 
         public long maxOrd() {
-            return runLens.size() >>> precision();
+            return slots.size();
+        }
+
+        private long start(long bucketOrd) {
+            final int slot = slots.get(bucketOrd);
+            assert slot > 0 : "bucket [" + bucketOrd + "] doesn't have any registers";
+            return ((long) (slot - 1)) << p;
         }
 
         @Override
         protected void addRunLen(long bucketOrd, int register, int encoded) {
-            final long bucketIndex = (bucketOrd << p) + register;
+            final long bucketIndex = start(bucketOrd) + register;
             runLens.set(bucketIndex, (byte) Math.max(encoded, runLens.get(bucketIndex)));
         }
 
@@ -228,17 +256,28 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
             return new HyperLogLogIterator(this, bucketOrd);
         }
 
-        protected void reset(long bucketOrd) {
-            runLens.fill(bucketOrd << p, (bucketOrd << p) + m, (byte) 0);
+        /**
+         * Assign a block of empty registers to the bucket.
+         */
+        protected void allocate(long bucketOrd) {
+            assert slots.get(bucketOrd) == 0 : "bucket [" + bucketOrd + "] already has registers";
+            final long start = ((long) usedSlots) << p;
+            runLens = bigArrays.grow(runLens, start + m);
+            runLens.fill(start, start + m, (byte) 0);
+            slots.set(bucketOrd, ++usedSlots);
         }
 
         protected void ensureCapacity(long numBuckets) {
-            runLens = bigArrays.grow(runLens, numBuckets << p);
+            slots = bigArrays.grow(slots, numBuckets);
+        }
+
+        protected long ramBytesUsed() {
+            return slots.ramBytesUsed() + runLens.ramBytesUsed();
         }
 
         @Override
         public void close() {
-            Releasables.close(runLens);
+            Releasables.close(slots, runLens);
         }
     }
 
@@ -251,7 +290,7 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
 
         HyperLogLogIterator(HyperLogLog hll, long bucket) {
             this.hll = hll;
-            start = bucket << hll.p;
+            start = hll.start(bucket);
         }
 
         @Override
@@ -272,47 +311,150 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
 
     private static class LinearCounting extends AbstractLinearCounting implements Releasable {
 
+        // The smallest hash table we hand out, expressed as a power of two number of ints.
+        private static final int MIN_CAPACITY_BITS = 4;
+
         protected final int threshold;
-        private final int mask;
-        private final BytesRef readSpare;
-        private final ByteBuffer writeSpare;
+        private final int minCapacityBits;
+        private final int maxCapacityBits;
         private final BigArrays bigArrays;
-        // We are actually using HyperLogLog's runLens array but interpreting it as a hash set for linear counting.
-        private final HyperLogLog hll;
-        private final int capacity;
+        // Heads of the lists of released hash tables, one per capacity, -1 when empty.
+        // The link to the next released table is stored in the first two ints of each table.
+        private final long[] freeLists;
+        // Shared slab holding the hash tables of all the buckets using linear counting.
+        private IntArray hashes;
+        private long usedHashes;
+        // Maps a bucket to the (one based) start of its hash table in hashes, 0 means the bucket has no table.
+        private LongArray offsets;
+        // Log2 of the capacity of the hash table of each bucket.
+        private ByteArray capacityBits;
         // Number of elements stored.
         private IntArray sizes;
 
-        LinearCounting(BigArrays bigArrays, long initialBucketCount, int p, HyperLogLog hll) {
+        LinearCounting(BigArrays bigArrays, long initialBucketCount, int p) {
             super(p);
             this.bigArrays = bigArrays;
-            this.hll = hll;
-            this.capacity = (1 << p) / 4; // because ints take 4 bytes
-            threshold = (int) (capacity * MAX_LOAD_FACTOR);
-            mask = capacity - 1;
-            sizes = bigArrays.newIntArray(initialBucketCount);
-            readSpare = new BytesRef();
-            writeSpare = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            this.maxCapacityBits = p - 2; // because ints take 4 bytes
+            this.minCapacityBits = Math.min(MIN_CAPACITY_BITS, maxCapacityBits);
+            threshold = (int) ((1 << maxCapacityBits) * MAX_LOAD_FACTOR);
+            freeLists = new long[maxCapacityBits - minCapacityBits + 1];
+            Arrays.fill(freeLists, -1L);
+            IntArray hashes = null;
+            LongArray offsets = null;
+            ByteArray capacityBits = null;
+            IntArray sizes = null;
+            boolean success = false;
+            try {
+                hashes = bigArrays.newIntArray(0);
+                offsets = bigArrays.newLongArray(initialBucketCount);
+                capacityBits = bigArrays.newByteArray(initialBucketCount);
+                sizes = bigArrays.newIntArray(initialBucketCount);
+                success = true;
+            } finally {
+                if (success == false) {
+                    Releasables.close(hashes, offsets, capacityBits, sizes);
+                }
+            }
+            this.hashes = hashes;
+            this.offsets = offsets;
+            this.capacityBits = capacityBits;
+            this.sizes = sizes;
         }
 
         @Override
         protected int addEncoded(long bucketOrd, int encoded) {
-            sizes = bigArrays.grow(sizes, bucketOrd + 1);
             assert encoded != 0;
+            if (offsets.get(bucketOrd) == 0) {
+                capacityBits.set(bucketOrd, (byte) minCapacityBits);
+                offsets.set(bucketOrd, allocate(minCapacityBits) + 1);
+            }
+            final int bits = capacityBits.get(bucketOrd);
+            if (bits < maxCapacityBits && sizes.get(bucketOrd) + 1 > (int) ((1 << bits) * MAX_LOAD_FACTOR)) {
+                resize(bucketOrd, bits + 1);
+            }
+            if (insert(offsets.get(bucketOrd) - 1, capacityBits.get(bucketOrd), encoded)) {
+                return sizes.increment(bucketOrd, 1);
+            }
+            // k is already in the set
+            return -1;
+        }
+
+        /**
+         * Insert a value in the hash table starting at {@code start}.
+         * @return true if the value was added, false if it was already present
+         */
+        private boolean insert(long start, int bits, int encoded) {
+            final int mask = (1 << bits) - 1;
             for (int i = (encoded & mask);; i = (i + 1) & mask) {
-                hll.runLens.get(index(bucketOrd, i), 4, readSpare);
-                final int v = ByteUtils.readIntLE(readSpare.bytes, readSpare.offset);
+                final int v = hashes.get(start + i);
                 if (v == 0) {
                     // means unused, take it!
-                    set(bucketOrd, i, encoded);
-                    return sizes.increment(bucketOrd, 1);
+                    hashes.set(start + i, encoded);
+                    return true;
                 } else if (v == encoded) {
-                    // k is already in the set
-                    return -1;
+                    return false;
                 }
             }
         }
 
+        private void resize(long bucketOrd, int newBits) {
+            final long oldStart = offsets.get(bucketOrd) - 1;
+            final int oldBits = capacityBits.get(bucketOrd);
+            final long newStart = allocate(newBits);
+            for (long i = oldStart; i < oldStart + (1 << oldBits); ++i) {
+                final int v = hashes.get(i);
+                if (v != 0) {
+                    insert(newStart, newBits, v);
+                }
+            }
+            free(oldStart, oldBits);
+            offsets.set(bucketOrd, newStart + 1);
+            capacityBits.set(bucketOrd, (byte) newBits);
+        }
+
+        /**
+         * Hand out an empty hash table of {@code 1 << bits} ints, reusing a released one if possible.
+         */
+        private long allocate(int bits) {
+            final int freeList = bits - minCapacityBits;
+            final long start;
+            if (freeLists[freeList] >= 0) {
+                start = freeLists[freeList];
+                freeLists[freeList] = (((long) hashes.get(start)) << 32) | (hashes.get(start + 1) & 0xFFFFFFFFL);
+            } else {
+                start = usedHashes;
+                usedHashes += 1 << bits;
+                hashes = bigArrays.grow(hashes, usedHashes);
+            }
+            hashes.fill(start, start + (1 << bits), 0);
+            return start;
+        }
+
+        private void free(long start, int bits) {
+            final int freeList = bits - minCapacityBits;
+            hashes.set(start, (int) (freeLists[freeList] >>> 32));
+            hashes.set(start + 1, (int) freeLists[freeList]);
+            freeLists[freeList] = start;
+        }
+
+        /**
+         * Release the hash table of a bucket that has been upgraded to HyperLogLog.
+         */
+        protected void release(long bucketOrd) {
+            final long offset = offsets.get(bucketOrd);
+            if (offset != 0) {
+                free(offset - 1, capacityBits.get(bucketOrd));
+                offsets.set(bucketOrd, 0);
+                sizes.set(bucketOrd, 0);
+            }
+        }
+
+        protected void ensureCapacity(long numBuckets) {
+            offsets = bigArrays.grow(offsets, numBuckets);
+            capacityBits = bigArrays.grow(capacityBits, numBuckets);
+            sizes = bigArrays.grow(sizes, numBuckets);
+        }
+
         @Override
         protected int size(long bucketOrd) {
             if (bucketOrd >= sizes.size()) {
@@ -325,56 +467,52 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
 
         @Override
         protected HashesIterator values(long bucketOrd) {
-            // Make a fresh BytesRef for reading scratch work because this method can be called on many threads
-            return new LinearCountingIterator(this, new BytesRef(), bucketOrd);
-        }
-
-        private long index(long bucketOrd, int index) {
-            return (bucketOrd << p) + (index << 2);
-        }
-
-        private void set(long bucketOrd, int index, int value) {
-            writeSpare.putInt(0, value);
-            hll.runLens.set(index(bucketOrd, index), writeSpare.array(), 0, 4);
+            return new LinearCountingIterator(this, bucketOrd);
         }
 
         private int recomputedSize(long bucketOrd) {
-            if (bucketOrd >= hll.maxOrd()) {
+            final long offset = offsets.get(bucketOrd);
+            if (offset == 0) {
                 return 0;
             }
             int size = 0;
-            BytesRef spare = new BytesRef();
-            for (int i = 0; i <= mask; ++i) {
-                hll.runLens.get(index(bucketOrd, i), 4, spare);
-                final int v = ByteUtils.readIntLE(spare.bytes, spare.offset);
-                if (v != 0) {
+            for (long i = offset - 1; i < offset - 1 + (1 << capacityBits.get(bucketOrd)); ++i) {
+                if (hashes.get(i) != 0) {
                     ++size;
                 }
             }
             return size;
         }
 
+        protected long ramBytesUsed() {
+            return hashes.ramBytesUsed() + offsets.ramBytesUsed() + capacityBits.ramBytesUsed() + sizes.ramBytesUsed();
+        }
+
         @Override
         public void close() {
-            Releasables.close(sizes);
+            Releasables.close(hashes, offsets, capacityBits, sizes);
         }
     }
 
     private static class LinearCountingIterator implements AbstractLinearCounting.HashesIterator {
 
         private final LinearCounting lc;
-        private final BytesRef spare;
-        private final long bucketOrd;
+        private final long start;
+        private final int capacity;
         private final int size;
         private int pos;
         private int value;
 
-        LinearCountingIterator(LinearCounting lc, BytesRef spare, long bucketOrd) {
+        LinearCountingIterator(LinearCounting lc, long bucketOrd) {
             this.lc = lc;
-            this.spare = spare;
-            this.bucketOrd = bucketOrd;
             this.size = lc.size(bucketOrd);
-            this.pos = size == 0 ? lc.capacity : 0;
+            if (size == 0) {
+                this.start = 0;
+                this.capacity = 0;
+            } else {
+                this.start = lc.offsets.get(bucketOrd) - 1;
+                this.capacity = 1 << lc.capacityBits.get(bucketOrd);
+            }
         }
 
         @Override
@@ -384,15 +522,11 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
 
         @Override
         public boolean next() {
-            if (pos < lc.capacity) {
-                for (; pos < lc.capacity; ++pos) {
-                    lc.hll.runLens.get(lc.index(bucketOrd, pos), 4, spare);
-                    int k = ByteUtils.readIntLE(spare.bytes, spare.offset);
-                    if (k != 0) {
-                        ++pos;
-                        value = k;
-                        return true;
-                    }
+            while (pos < capacity) {
+                final int k = lc.hashes.get(start + pos++);
+                if (k != 0) {
+                    value = k;
+                    return true;
                 }
             }
             return false;
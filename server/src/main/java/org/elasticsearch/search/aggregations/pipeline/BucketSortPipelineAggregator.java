@@ -81,6 +81,26 @@ public class BucketSortPipelineAggregator extends PipelineAggregator {
         return originalAgg.create(newBuckets);
     }
 
+    /**
+     * Without sorts, or when just sorting by {@code _key}, the buckets we keep
+     * are a prefix of the parent's final buckets in a known order, so each
+     * shard can drop the buckets after the first {@code from + size} as long
+     * as the parent confirms that is safe for its own reduction.
+     */
+    @Override
+    public boolean canReduceOnShard() {
+        return size != null && (sorts.isEmpty() || (sorts.size() == 1 && "_key".equals(sorts.get(0).getFieldName())));
+    }
+
+    @Override
+    public InternalAggregation reduceOnShard(InternalAggregation aggregation) {
+        if (aggregation instanceof InternalMultiBucketAggregation<?, ?> multiBucketAggregation) {
+            SortOrder keyOrder = sorts.isEmpty() ? null : sorts.get(0).order();
+            return multiBucketAggregation.pruneOnShard((int) Math.min((long) from + size, Integer.MAX_VALUE), keyOrder);
+        }
+        return aggregation;
+    }
+
     private class ComparableBucket implements Comparable<ComparableBucket> {
 
         private final MultiBucketsAggregation parentAgg;
@@ -15,8 +15,10 @@ import org.elasticsearch.xcontent.ParseField;
 import org.elasticsearch.xcontent.XContentParser;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
@@ -86,6 +88,29 @@ public abstract class PipelineAggregator {
             return false == subTrees.isEmpty();
         }
 
+        /**
+         * Plan the work that the {@link PipelineAggregator}s in this tree can
+         * do on each shard: the sub-tree of the aggregators that
+         * {@link PipelineAggregator#canReduceOnShard can reduce on the shard},
+         * or {@link #EMPTY} if none of them can.
+         */
+        public PipelineTree shardReducible() {
+            Map<String, PipelineTree> shardSubTrees = new HashMap<>();
+            for (Map.Entry<String, PipelineTree> subTree : subTrees.entrySet()) {
+                PipelineTree shardSubTree = subTree.getValue().shardReducible();
+                if (shardSubTree != EMPTY) {
+                    shardSubTrees.put(subTree.getKey(), shardSubTree);
+                }
+            }
+            List<PipelineAggregator> shardAggregators = aggregators.stream()
+                .filter(PipelineAggregator::canReduceOnShard)
+                .collect(Collectors.toList());
+            if (shardSubTrees.isEmpty() && shardAggregators.isEmpty()) {
+                return EMPTY;
+            }
+            return new PipelineTree(shardSubTrees, shardAggregators);
+        }
+
         @Override
         public String toString() {
             return "PipelineTree[" + aggregators + "," + subTrees + "]";
@@ -115,4 +140,25 @@ public abstract class PipelineAggregator {
     }
 
     public abstract InternalAggregation reduce(InternalAggregation aggregation, AggregationReduceContext reduceContext);
+
+    /**
+     * Whether this aggregator might be able to do part of its work on each
+     * shard's results before they are sent to the coordinating node, see
+     * {@link #reduceOnShard}.
+     */
+    public boolean canReduceOnShard() {
+        return false;
+    }
+
+    /**
+     * Do the part of this aggregator's work that is safe to do on a single
+     * shard's results, usually dropping buckets that the final {@link #reduce}
+     * is certain to drop as well, so less is sent to and reduced on the
+     * coordinating node. {@link #reduce} still runs on the final result so
+     * this must never change what it produces. Only called if
+     * {@link #canReduceOnShard} returns {@code true}.
+     */
+    public InternalAggregation reduceOnShard(InternalAggregation aggregation) {
+        return aggregation;
+    }
 }
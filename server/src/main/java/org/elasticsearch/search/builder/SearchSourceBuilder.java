@@ -22,6 +22,7 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.script.Script;
@@ -1054,6 +1055,46 @@ public final class SearchSourceBuilder implements Writeable, ToXContentObject, R
         return shallowCopy(queryBuilder, postQueryBuilder, aggregations, sliceBuilder, sorts, rescoreBuilders, highlightBuilder);
     }
 
+    /**
+     * Create a shallow copy of this builder that only retrieves what is needed to rank the hits: their identity along with their score
+     * and sort values. Everything that is loaded for each hit on the fetch phase, such as the source, fields and highlighting, is left out
+     * so that it can be fetched afterwards for the hits that make it to the final results only, see {@link #fetchPhaseCopy}.
+     */
+    public SearchSourceBuilder queryPhaseCopy() {
+        SearchSourceBuilder copy = shallowCopy();
+        copy.explain = null;
+        copy.version = null;
+        copy.seqNoAndPrimaryTerm = null;
+        copy.fetchSourceContext = FetchSourceContext.DO_NOT_FETCH_SOURCE;
+        copy.fetchFields = null;
+        copy.docValueFields = null;
+        copy.scriptFields = null;
+        copy.storedFieldsContext = null;
+        copy.highlightBuilder = null;
+        return copy;
+    }
+
+    /**
+     * Create a shallow copy of this builder that fetches the hits which match both its query and the given filter, which is expected to
+     * select the top hits previously found with a {@link #queryPhaseCopy()} of this builder. The aggregations, suggestions and everything
+     * else that does not relate to the hits themselves are left out.
+     */
+    public SearchSourceBuilder fetchPhaseCopy(QueryBuilder filter, int size) {
+        QueryBuilder query = QueryBuilders.boolQuery()
+            .must(queryBuilder == null ? QueryBuilders.matchAllQuery() : queryBuilder)
+            .filter(filter);
+        SearchSourceBuilder copy = shallowCopy(query, null, null, null, sorts, rescoreBuilders, highlightBuilder);
+        copy.from = 0;
+        copy.size = size;
+        copy.suggestBuilder = null;
+        copy.profile = false;
+        copy.trackTotalHitsUpTo = TRACK_TOTAL_HITS_DISABLED;
+        copy.terminateAfter = SearchContext.DEFAULT_TERMINATE_AFTER;
+        copy.searchAfterBuilder = null;
+        copy.collapse = null;
+        return copy;
+    }
+
     /**
      * Create a shallow copy of this source replaced {@link #queryBuilder}, {@link #postQueryBuilder}, and {@link #sliceBuilder}. Used by
      * {@link #rewrite(QueryRewriteContext)}}.
@@ -13,6 +13,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.support.JsonSourceFilter;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.core.Booleans;
 import org.elasticsearch.rest.RestRequest;
@@ -42,6 +43,7 @@ public class FetchSourceContext implements Writeable, ToXContentObject {
     private final String[] includes;
     private final String[] excludes;
     private Function<Map<String, ?>, Map<String, Object>> filter;
+    private JsonSourceFilter jsonFilter;
 
     public FetchSourceContext(boolean fetchSource, String[] includes, String[] excludes) {
         this.fetchSource = fetchSource;
@@ -255,4 +257,14 @@ public class FetchSourceContext implements Writeable, ToXContentObject {
         }
         return filter;
     }
+
+    /**
+     * Returns a filter which applies the same rules as {@link #getFilter()} to the bytes of a JSON source.
+     */
+    public JsonSourceFilter getJsonFilter() {
+        if (jsonFilter == null) {
+            jsonFilter = new JsonSourceFilter(includes, excludes);
+        }
+        return jsonFilter;
+    }
 }
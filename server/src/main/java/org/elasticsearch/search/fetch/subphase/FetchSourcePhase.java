@@ -66,6 +66,15 @@ public final class FetchSourcePhase implements FetchSubPhase {
                     return;
                 }
 
+                // If this is a parent document whose source has not been parsed yet, then filter its bytes rather than its map.
+                if (nestedHit == false) {
+                    BytesReference filtered = source.filterUnparsedJson(fetchSourceContext);
+                    if (filtered != null) {
+                        hitContext.hit().sourceRef(filtered);
+                        return;
+                    }
+                }
+
                 // Otherwise, filter the source and add it to the hit.
                 Object value = source.filter(fetchSourceContext);
                 if (nestedHit) {
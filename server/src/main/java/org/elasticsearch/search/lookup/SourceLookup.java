@@ -208,6 +208,19 @@ public class SourceLookup implements Map<String, Object> {
         return context.getFilter().apply(source());
     }
 
+    /**
+     * Filters the source straight from its bytes if it is JSON which has not been parsed into a map yet, which is cheaper than parsing
+     * it only to filter the map. Returns {@code null} otherwise, in which case the source must be filtered with
+     * {@link #filter(FetchSourceContext)}.
+     */
+    @Nullable
+    public BytesReference filterUnparsedJson(FetchSourceContext context) {
+        if (source != null || sourceAsBytes == null) {
+            return null;
+        }
+        return context.getJsonFilter().filter(sourceAsBytes);
+    }
+
     @Override
     public Object get(Object key) {
         return source().get(key);
@@ -15,22 +15,37 @@ import net.jpountz.lz4.LZ4FastDecompressor;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.core.Booleans;
+import org.elasticsearch.core.Releasable;
 import org.elasticsearch.lz4.ESLZ4Compressor;
 import org.elasticsearch.lz4.ESLZ4Decompressor;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 public class Compression {
 
     public enum Scheme {
         LZ4,
-        DEFLATE;
+        DEFLATE,
+        /**
+         * DEFLATE with a preset dictionary of byte sequences that are common in transport messages, which compresses small messages much
+         * better than plain DEFLATE. Falls back to plain DEFLATE for nodes that do not support it.
+         */
+        DEFLATE_DICTIONARY;
 
         static final Version LZ4_VERSION = Version.V_7_14_0;
+        static final Version DEFLATE_DICTIONARY_VERSION = Version.V_8_1_0;
         static final int HEADER_LENGTH = 4;
         private static final byte[] DEFLATE_HEADER = new byte[] { 'D', 'F', 'L', '\0' };
         private static final byte[] LZ4_HEADER = new byte[] { 'L', 'Z', '4', '\0' };
+        // the last byte of the header is the ID of the dictionary, see TransportCompressionDictionaries
+        private static final byte[] DEFLATE_DICTIONARY_HEADER = new byte[] { 'D', 'F', 'D', TransportCompressionDictionaries.CURRENT_ID };
+        private static final int DEFLATE_DICTIONARY_LEVEL = 3;
+        private static final int DEFLATE_DICTIONARY_BUFFER_SIZE = 4096;
+        private static final ThreadLocal<ReusableDeflater> DICTIONARY_DEFLATER = ThreadLocal.withInitial(ReusableDeflater::new);
         private static final int LZ4_BLOCK_SIZE;
         private static final boolean USE_FORKED_LZ4;
 
@@ -67,8 +82,34 @@ public class Compression {
             }
         }
 
+        public static boolean isDeflateWithDictionary(BytesReference bytes) {
+            byte firstByte = bytes.get(0);
+            if (firstByte != Scheme.DEFLATE_DICTIONARY_HEADER[0]) {
+                return false;
+            } else {
+                return validateHeader(bytes, DEFLATE_DICTIONARY_HEADER, HEADER_LENGTH - 1);
+            }
+        }
+
+        /**
+         * @return the dictionary identified by the header of the given bytes, which must be compressed with {@link #DEFLATE_DICTIONARY}.
+         */
+        static byte[] deflateDictionary(BytesReference bytes) {
+            assert isDeflateWithDictionary(bytes);
+            final byte dictionaryId = bytes.get(HEADER_LENGTH - 1);
+            final byte[] dictionary = TransportCompressionDictionaries.get(dictionaryId);
+            if (dictionary == null) {
+                throw new IllegalStateException("stream compressed with unknown dictionary [" + dictionaryId + "]");
+            }
+            return dictionary;
+        }
+
         private static boolean validateHeader(BytesReference bytes, byte[] header) {
-            for (int i = 1; i < Compression.Scheme.HEADER_LENGTH; ++i) {
+            return validateHeader(bytes, header, Compression.Scheme.HEADER_LENGTH);
+        }
+
+        private static boolean validateHeader(BytesReference bytes, byte[] header, int length) {
+            for (int i = 1; i < length; ++i) {
                 if (bytes.get(i) != header[i]) {
                     return false;
                 }
@@ -94,6 +135,59 @@ public class Compression {
             }
             return new ReuseBuffersLZ4BlockOutputStream(outputStream, LZ4_BLOCK_SIZE, lz4Compressor);
         }
+
+        public static OutputStream deflateDictionaryOutputStream(OutputStream outputStream) throws IOException {
+            outputStream.write(DEFLATE_DICTIONARY_HEADER);
+            final ReusableDeflater reusableDeflater = DICTIONARY_DEFLATER.get();
+            final Deflater deflater;
+            final Releasable releasable;
+            if (reusableDeflater.inUse) {
+                // Nested compression streams should not happen but we still handle them safely by using a fresh Deflater
+                deflater = new Deflater(DEFLATE_DICTIONARY_LEVEL, true);
+                releasable = deflater::end;
+            } else {
+                deflater = reusableDeflater.acquire();
+                releasable = reusableDeflater;
+            }
+            // a raw DEFLATE stream does not record that it uses a dictionary, the receiver knows this from the header instead
+            deflater.setDictionary(TransportCompressionDictionaries.get(TransportCompressionDictionaries.CURRENT_ID));
+            final DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(
+                outputStream,
+                deflater,
+                DEFLATE_DICTIONARY_BUFFER_SIZE,
+                true
+            ) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        // only called once since the BufferedOutputStream below only closes its delegate once
+                        releasable.close();
+                    }
+                }
+            };
+            return new BufferedOutputStream(deflaterOutputStream, DEFLATE_DICTIONARY_BUFFER_SIZE);
+        }
+
+        private static final class ReusableDeflater implements Releasable {
+
+            private final Deflater deflater = new Deflater(DEFLATE_DICTIONARY_LEVEL, true);
+            private boolean inUse;
+
+            Deflater acquire() {
+                assert inUse == false;
+                inUse = true;
+                return deflater;
+            }
+
+            @Override
+            public void close() {
+                assert inUse;
+                inUse = false;
+                deflater.reset();
+            }
+        }
     }
 
     public enum Enabled {
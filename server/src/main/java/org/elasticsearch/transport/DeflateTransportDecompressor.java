@@ -15,6 +15,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.core.Nullable;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
@@ -24,6 +25,7 @@ import java.util.zip.Inflater;
 public class DeflateTransportDecompressor implements TransportDecompressor {
 
     private final Inflater inflater;
+    private final Compression.Scheme scheme;
     private final Recycler<BytesRef> recycler;
     private final ArrayDeque<Recycler.V<BytesRef>> pages;
     private int pageOffset = 0;
@@ -31,8 +33,22 @@ public class DeflateTransportDecompressor implements TransportDecompressor {
     private boolean hasSkippedHeader = false;
 
     public DeflateTransportDecompressor(Recycler<BytesRef> recycler) {
+        this(recycler, null);
+    }
+
+    /**
+     * @param dictionary the preset dictionary with which the stream was compressed, if any
+     */
+    DeflateTransportDecompressor(Recycler<BytesRef> recycler, @Nullable byte[] dictionary) {
         this.recycler = recycler;
         inflater = new Inflater(true);
+        if (dictionary == null) {
+            scheme = Compression.Scheme.DEFLATE;
+        } else {
+            // a raw DEFLATE stream does not ask for its dictionary, it must be set up front
+            inflater.setDictionary(dictionary);
+            scheme = Compression.Scheme.DEFLATE_DICTIONARY;
+        }
         pages = new ArrayDeque<>(4);
     }
 
@@ -120,7 +136,7 @@ public class DeflateTransportDecompressor implements TransportDecompressor {
 
     @Override
     public Compression.Scheme getScheme() {
-        return Compression.Scheme.DEFLATE;
+        return scheme;
     }
 
     @Override
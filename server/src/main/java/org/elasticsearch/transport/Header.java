@@ -73,6 +73,10 @@ public class Header {
         return TransportStatus.isCompress(status);
     }
 
+    boolean isFrame() {
+        return TransportStatus.isFrame(status);
+    }
+
     public String getActionName() {
         return actionName;
     }
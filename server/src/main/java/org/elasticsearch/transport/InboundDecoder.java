@@ -186,7 +186,10 @@ public class InboundDecoder implements Releasable {
                 if (remoteVersion.onOrAfter(TcpHeader.VERSION_WITH_HEADER_SIZE)) {
                     // Skip since we already have ensured enough data available
                     streamInput.readInt();
-                    header.finishParsingHeader(streamInput);
+                    if (header.isFrame() == false) {
+                        // frames have no variable header, it is part of the framed message instead
+                        header.finishParsingHeader(streamInput);
+                    }
                 }
             }
             return header;
@@ -0,0 +1,142 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reassembles the messages that the sender split into frames so that other messages could be sent in between them. Each frame is a
+ * transport message whose status has the frame bit set and whose content is the next slice of the complete framed message, including
+ * that message's own header. The frames of a message are sent in order, but may be interleaved with other messages and with the frames of
+ * other messages, so the partially-received messages are tracked by request ID and direction.
+ */
+final class InboundFrames implements Releasable {
+
+    private final Map<StreamKey, PartialMessage> partialMessages = new HashMap<>();
+    private PartialMessage currentMessage;
+    private boolean isClosed = false;
+
+    void frameStarted(Header header) {
+        ensureOpen();
+        assert header.isFrame() : header;
+        assert isReceivingFrame() == false;
+        currentMessage = partialMessages.computeIfAbsent(new StreamKey(header.getRequestId(), header.isRequest()), PartialMessage::new);
+    }
+
+    void frameContent(ReleasableBytesReference content) {
+        ensureOpen();
+        assert isReceivingFrame();
+        currentMessage.add(content.retain());
+    }
+
+    /**
+     * @return the complete framed message if the frame just received was its last frame, otherwise {@code null}.
+     */
+    @Nullable
+    ReleasableBytesReference frameFinished() throws IOException {
+        ensureOpen();
+        assert isReceivingFrame();
+        final PartialMessage partialMessage = currentMessage;
+        currentMessage = null;
+        if (partialMessage.isComplete()) {
+            partialMessages.remove(partialMessage.key);
+            return partialMessage.toBytesReference();
+        } else {
+            return null;
+        }
+    }
+
+    boolean isReceivingFrame() {
+        return currentMessage != null;
+    }
+
+    // exposed for tests
+    int getPartialMessageCount() {
+        return partialMessages.size();
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+        currentMessage = null;
+        Releasables.close(partialMessages.values());
+        partialMessages.clear();
+    }
+
+    private void ensureOpen() {
+        if (isClosed) {
+            throw new IllegalStateException("Frames are already closed");
+        }
+    }
+
+    private record StreamKey(long requestId, boolean isRequest) {}
+
+    private static final class PartialMessage implements Releasable {
+
+        private final StreamKey key;
+        private final List<ReleasableBytesReference> content = new ArrayList<>();
+        private int length;
+        private int expectedLength = -1;
+
+        PartialMessage(StreamKey key) {
+            this.key = key;
+        }
+
+        void add(ReleasableBytesReference bytes) {
+            content.add(bytes);
+            length += bytes.length();
+        }
+
+        boolean isComplete() throws IOException {
+            if (expectedLength == -1) {
+                final int messageLength = TcpTransport.readMessageLength(toCompositeBytesReference());
+                if (messageLength == -1) {
+                    return false;
+                } else if (messageLength == 0) {
+                    throw new StreamCorruptedException("received framed ping for " + key);
+                }
+                expectedLength = messageLength + TcpHeader.BYTES_REQUIRED_FOR_MESSAGE_SIZE;
+            }
+            if (length > expectedLength) {
+                throw new StreamCorruptedException(
+                    "received [" + length + "] bytes of framed message for " + key + " of length [" + expectedLength + "]"
+                );
+            }
+            return length == expectedLength;
+        }
+
+        ReleasableBytesReference toBytesReference() {
+            final ReleasableBytesReference[] references = content.toArray(new ReleasableBytesReference[0]);
+            content.clear();
+            return new ReleasableBytesReference(CompositeBytesReference.of(references), () -> Releasables.close(references));
+        }
+
+        private BytesReference toCompositeBytesReference() {
+            return CompositeBytesReference.of(content.toArray(new ReleasableBytesReference[0]));
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(content);
+            content.clear();
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 
 import java.io.IOException;
+import java.io.StreamCorruptedException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.function.BiConsumer;
@@ -34,6 +35,7 @@ public class InboundPipeline implements Releasable {
     private final StatsTracker statsTracker;
     private final InboundDecoder decoder;
     private final InboundAggregator aggregator;
+    private final InboundFrames frames = new InboundFrames();
     private final BiConsumer<TcpChannel, InboundMessage> messageHandler;
     private Exception uncaughtException;
     private final ArrayDeque<ReleasableBytesReference> pending = new ArrayDeque<>(2);
@@ -75,7 +77,7 @@ public class InboundPipeline implements Releasable {
     @Override
     public void close() {
         isClosed = true;
-        Releasables.closeExpectNoException(decoder, aggregator, () -> Releasables.close(pending), pending::clear);
+        Releasables.closeExpectNoException(decoder, aggregator, frames, () -> Releasables.close(pending), pending::clear);
     }
 
     public void handleBytes(TcpChannel channel, ReleasableBytesReference reference) throws IOException {
@@ -133,7 +135,21 @@ public class InboundPipeline implements Releasable {
 
     private void forwardFragments(TcpChannel channel, ArrayList<Object> fragments) throws IOException {
         for (Object fragment : fragments) {
-            if (fragment instanceof Header) {
+            if (fragment instanceof Header header && header.isFrame()) {
+                assert aggregator.isAggregating() == false;
+                frames.frameStarted(header);
+            } else if (frames.isReceivingFrame()) {
+                if (fragment == InboundDecoder.END_CONTENT) {
+                    try (ReleasableBytesReference framedMessage = frames.frameFinished()) {
+                        if (framedMessage != null) {
+                            forwardFramedMessage(channel, framedMessage);
+                        }
+                    }
+                } else {
+                    assert fragment instanceof ReleasableBytesReference;
+                    frames.frameContent((ReleasableBytesReference) fragment);
+                }
+            } else if (fragment instanceof Header) {
                 assert aggregator.isAggregating() == false;
                 aggregator.headerReceived((Header) fragment);
             } else if (fragment instanceof Compression.Scheme) {
@@ -156,6 +172,37 @@ public class InboundPipeline implements Releasable {
         }
     }
 
+    /**
+     * Decodes and handles a message that was reassembled from frames. The decoder is between messages at this point, since a frame is only
+     * finished on reaching the end of its content.
+     */
+    private void forwardFramedMessage(TcpChannel channel, ReleasableBytesReference framedMessage) throws IOException {
+        final ArrayList<Object> fragments = new ArrayList<>();
+        try {
+            int bytesDecoded = 0;
+            while (bytesDecoded < framedMessage.length()) {
+                final int length = framedMessage.length() - bytesDecoded;
+                try (ReleasableBytesReference toDecode = framedMessage.retainedSlice(bytesDecoded, length)) {
+                    final int decoded = decoder.decode(toDecode, fragments::add);
+                    if (decoded == 0) {
+                        throw new StreamCorruptedException("framed message ended after [" + bytesDecoded + "] bytes");
+                    }
+                    bytesDecoded += decoded;
+                }
+            }
+            if (fragments.isEmpty() == false && fragments.get(0) instanceof Header header && header.isFrame()) {
+                throw new StreamCorruptedException("received frame [" + header + "] within a frame");
+            }
+            forwardFragments(channel, fragments);
+        } finally {
+            for (Object fragment : fragments) {
+                if (fragment instanceof ReleasableBytesReference) {
+                    ((ReleasableBytesReference) fragment).close();
+                }
+            }
+        }
+    }
+
     private boolean endOfMessage(Object fragment) {
         return fragment == InboundDecoder.PING || fragment == InboundDecoder.END_CONTENT || fragment instanceof Exception;
     }
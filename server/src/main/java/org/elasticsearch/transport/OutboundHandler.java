@@ -18,17 +18,21 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
 import org.elasticsearch.common.network.CloseableChannel;
 import org.elasticsearch.common.network.HandlingTimeTracker;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.transport.NetworkExceptionHelper;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 final class OutboundHandler {
 
@@ -42,6 +46,7 @@ final class OutboundHandler {
     private final HandlingTimeTracker handlingTimeTracker;
 
     private volatile long slowLogThresholdMs = Long.MAX_VALUE;
+    private volatile int frameSize = 0;
 
     private volatile TransportMessageListener messageListener = TransportMessageListener.NOOP_LISTENER;
 
@@ -65,6 +70,13 @@ final class OutboundHandler {
         this.slowLogThresholdMs = slowLogThreshold.getMillis();
     }
 
+    /**
+     * Sets the size of the frames into which larger messages are split, or {@code 0} to send every message in one piece.
+     */
+    void setFrameSize(ByteSizeValue frameSize) {
+        this.frameSize = Math.toIntExact(frameSize.getBytes());
+    }
+
     void sendBytes(TcpChannel channel, BytesReference bytes, ActionListener<Void> listener) {
         internalSend(channel, bytes, null, listener);
     }
@@ -181,11 +193,15 @@ final class OutboundHandler {
     ) {
         final long startTime = threadPool.rawRelativeTimeInMillis();
         channel.getChannelStats().markAccessed(startTime);
-        final long messageSize = reference.length();
+        final int frameSize = this.frameSize;
+        final boolean sendInFrames = message != null && shouldSendInFrames(message, reference.length(), frameSize);
+        final long messageSize = sendInFrames
+            ? reference.length() + TcpHeader.headerSize(message.getVersion()) * (((long) reference.length() + frameSize - 1) / frameSize)
+            : reference.length();
         TransportLogger.logOutboundMessage(channel, reference);
         // stash thread context so that channel event loop is not polluted by thread context
         try (ThreadContext.StoredContext existing = threadPool.getThreadContext().stashContext()) {
-            channel.sendMessage(reference, new ActionListener<>() {
+            final ActionListener<Void> sendListener = new ActionListener<>() {
                 @Override
                 public void onResponse(Void v) {
                     statsTracker.markBytesWritten(messageSize);
@@ -230,7 +246,12 @@ final class OutboundHandler {
                         }
                     }
                 }
-            });
+            };
+            if (sendInFrames) {
+                new FramedSend(channel, message, reference, frameSize, sendListener).run();
+            } else {
+                channel.sendMessage(reference, sendListener);
+            }
         } catch (RuntimeException ex) {
             listener.onFailure(ex);
             CloseableChannel.closeChannel(channel);
@@ -238,6 +259,79 @@ final class OutboundHandler {
         }
     }
 
+    private static boolean shouldSendInFrames(OutboundMessage message, int messageLength, int frameSize) {
+        return frameSize > 0
+            && messageLength > frameSize
+            && message.isHandshake() == false
+            && message.getVersion().onOrAfter(TcpHeader.VERSION_WITH_FRAMES);
+    }
+
+    /**
+     * Sends a large message as a sequence of frames, each of which is a transport message carrying the next slice of the serialized
+     * message, which the receiver reassembles in {@link InboundFrames}. Each frame is only passed to the channel once the previous frame
+     * has been written, so that any other messages sent on the channel in the meantime are written between the frames rather than
+     * waiting behind the whole of this message.
+     */
+    private static final class FramedSend {
+
+        private final TcpChannel channel;
+        private final OutboundMessage message;
+        private final BytesReference bytes;
+        private final int frameSize;
+        private final ActionListener<Void> listener;
+        // the number of frames ready to be sent, so that the frames following synchronously-written frames are sent in a loop rather
+        // than recursively
+        private final AtomicInteger framesToSend = new AtomicInteger(1);
+        private int offset;
+
+        FramedSend(TcpChannel channel, OutboundMessage message, BytesReference bytes, int frameSize, ActionListener<Void> listener) {
+            this.channel = channel;
+            this.message = message;
+            this.bytes = bytes;
+            this.frameSize = frameSize;
+            this.listener = listener;
+        }
+
+        void run() {
+            do {
+                sendNextFrame();
+            } while (framesToSend.decrementAndGet() > 0);
+        }
+
+        private void sendNextFrame() {
+            final int length = Math.min(frameSize, bytes.length() - offset);
+            final BytesReference frame = CompositeBytesReference.of(frameHeader(length), bytes.slice(offset, length));
+            offset += length;
+            if (offset == bytes.length()) {
+                channel.sendMessage(frame, listener);
+            } else {
+                channel.sendMessage(frame, ActionListener.wrap(ignored -> {
+                    if (framesToSend.incrementAndGet() == 1) {
+                        run();
+                    }
+                }, e -> {
+                    // the receiver cannot make sense of the frames it has received without the rest of the message
+                    CloseableChannel.closeChannel(channel);
+                    listener.onFailure(e);
+                }));
+            }
+        }
+
+        private BytesReference frameHeader(int frameLength) {
+            final Version version = message.getVersion();
+            final byte status = TransportStatus.setFrame(
+                message.isRequest() ? TransportStatus.setRequest((byte) 0) : TransportStatus.setResponse((byte) 0)
+            );
+            final BytesStreamOutput output = new BytesStreamOutput(TcpHeader.headerSize(version));
+            try {
+                TcpHeader.writeHeader(output, message.getRequestId(), status, version, frameLength, 0);
+            } catch (IOException e) {
+                throw new AssertionError("writing to an in-memory stream should not fail", e);
+            }
+            return output.bytes();
+        }
+    }
+
     void setMessageListener(TransportMessageListener listener) {
         if (messageListener == TransportMessageListener.NOOP_LISTENER) {
             messageListener = listener;
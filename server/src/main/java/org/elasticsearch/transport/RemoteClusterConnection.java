@@ -19,6 +19,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
@@ -36,7 +37,8 @@ import java.util.function.Function;
  *
  * In the case of a disconnection, this class will issue a re-connect task to establish at most
  * {@link SniffConnectionStrategy#REMOTE_CONNECTIONS_PER_CLUSTER} until either all eligible nodes are exhausted or the maximum number of
- * connections per cluster has been reached.
+ * connections per cluster has been reached. Connections that could not be re-established then are also re-opened periodically in the
+ * background if {@link RemoteClusterService#REMOTE_CLUSTER_RECONNECT_INTERVAL} is set.
  */
 final class RemoteClusterConnection implements Closeable {
 
@@ -47,6 +49,7 @@ final class RemoteClusterConnection implements Closeable {
     private final ThreadPool threadPool;
     private volatile boolean skipUnavailable;
     private final TimeValue initialConnectionTimeout;
+    private final Scheduler.Cancellable reconnectTask;
 
     /**
      * Creates a new {@link RemoteClusterConnection}
@@ -66,6 +69,13 @@ final class RemoteClusterConnection implements Closeable {
             .get(settings);
         this.threadPool = transportService.threadPool;
         initialConnectionTimeout = RemoteClusterService.REMOTE_INITIAL_CONNECTION_TIMEOUT_SETTING.get(settings);
+        TimeValue reconnectInterval = RemoteClusterService.REMOTE_CLUSTER_RECONNECT_INTERVAL.get(settings);
+        if (reconnectInterval.millis() > 0) {
+            // the strategy forks the connect round to the management thread pool
+            reconnectTask = threadPool.scheduleWithFixedDelay(connectionStrategy::maybeReconnect, reconnectInterval, ThreadPool.Names.SAME);
+        } else {
+            reconnectTask = null;
+        }
     }
 
     /**
@@ -169,6 +179,9 @@ final class RemoteClusterConnection implements Closeable {
 
     @Override
     public void close() throws IOException {
+        if (reconnectTask != null) {
+            reconnectTask.cancel();
+        }
         IOUtils.close(connectionStrategy, remoteConnectionManager);
     }
 
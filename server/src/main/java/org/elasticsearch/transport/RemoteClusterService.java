@@ -64,6 +64,17 @@ public final class RemoteClusterService extends RemoteClusterAware implements Cl
         Setting.Property.NodeScope
     );
 
+    /**
+     * The interval at which the connections to each remote cluster are checked in the background, so that the ones that were lost and
+     * could not be re-established right away are opened again before the next request to the remote cluster rather than by it. Disabled
+     * by default.
+     */
+    public static final Setting<TimeValue> REMOTE_CLUSTER_RECONNECT_INTERVAL = Setting.timeSetting(
+        "cluster.remote.reconnect_interval",
+        TimeValue.MINUS_ONE,
+        Setting.Property.NodeScope
+    );
+
     /**
      * The name of a node attribute to select nodes that should be connected to in the remote cluster.
      * For instance a node can be configured with {@code node.attr.gateway: true} in order to be eligible as a gateway node between
@@ -350,6 +350,22 @@ public abstract class RemoteConnectionStrategy implements TransportConnectionLis
         }
     }
 
+    /**
+     * Opens more connections if some of them were lost and could not be re-established when they were, for instance because the remote
+     * cluster was unreachable for a while. Called periodically in the background, see
+     * {@link RemoteClusterService#REMOTE_CLUSTER_RECONNECT_INTERVAL}.
+     */
+    void maybeReconnect() {
+        if (isClosed() == false && shouldOpenMoreConnections()) {
+            connect(
+                ActionListener.wrap(
+                    ignore -> logger.trace("[{}] successfully reconnected in the background", clusterAlias),
+                    e -> logger.debug(() -> new ParameterizedMessage("[{}] failed to reconnect in the background", clusterAlias), e)
+                )
+            );
+        }
+    }
+
     @Override
     public void close() {
         final List<ActionListener<Void>> toNotify;
@@ -17,6 +17,9 @@ public class TcpHeader {
 
     public static final Version VERSION_WITH_HEADER_SIZE = Version.V_7_6_0;
 
+    // nodes from this version onwards can receive large messages split into frames, see OutboundHandler and InboundFrames
+    public static final Version VERSION_WITH_FRAMES = Version.V_8_1_0;
+
     public static final int MARKER_BYTES_SIZE = 2;
 
     public static final int MESSAGE_LENGTH_SIZE = 4;
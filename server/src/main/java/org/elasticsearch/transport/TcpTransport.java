@@ -153,6 +153,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
 
         this.recycler = createRecycler(settings, pageCacheRecycler);
         this.outboundHandler = new OutboundHandler(nodeName, version, statsTracker, threadPool, recycler, outboundHandlingTimeTracker);
+        this.outboundHandler.setFrameSize(TransportSettings.FRAME_SIZE.get(settings));
 
         final boolean ignoreDeserializationErrors = IGNORE_DESERIALIZATION_ERRORS_SETTING.get(settings);
 
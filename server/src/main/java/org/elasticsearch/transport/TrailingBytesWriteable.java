@@ -0,0 +1,31 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+
+/**
+ * A transport message whose serialized form may end with a large chunk of bytes, such as a chunk of a file. Unless the message is
+ * compressed, the network layer sends these bytes as they are rather than copying them into its serialization buffers first.
+ */
+public interface TrailingBytesWriteable extends Writeable {
+
+    /**
+     * Writes this object like {@link #writeTo}, except that it may stop short of some bytes at the end of its serialized form. These bytes
+     * are returned instead, and the caller must append them to the written content as they are. The returned bytes must remain valid
+     * until this object is released.
+     *
+     * @return the bytes that were not written, which may be empty
+     */
+    BytesReference writeWithoutTrailingBytes(StreamOutput out) throws IOException;
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.core.Nullable;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The preset dictionaries used by {@link Compression.Scheme#DEFLATE_DICTIONARY}. A preset dictionary lets DEFLATE refer back to byte
+ * sequences which are common in transport messages even in the first bytes of a message, which makes a big difference to the compression
+ * ratio of small messages. Every compressed message records the ID of the dictionary it used, and the receiver must have the same
+ * dictionary under that ID, so a dictionary must never change once released. An improved dictionary needs a new ID, and every node must
+ * keep the dictionaries that the wire-compatible versions may use.
+ */
+final class TransportCompressionDictionaries {
+
+    static final byte CURRENT_ID = 1;
+
+    // DEFLATE encodes references to nearby bytes more compactly, so the most common sequences come last
+    private static final byte[] DICTIONARY_1 = toBytes(
+        // exceptions
+        "org.elasticsearch.index.IndexNotFoundException",
+        "org.elasticsearch.action.NoShardAvailableActionException",
+        "org.elasticsearch.index.shard.IllegalIndexShardStateException",
+        "org.elasticsearch.transport.RemoteTransportException",
+        "index_not_found_exception",
+        "no such index",
+        "resource.type",
+        "resource.id",
+        "index_or_alias",
+        // query, aggregation and sort names
+        "simple_query_string",
+        "query_string",
+        "multi_match",
+        "match_phrase",
+        "match_all",
+        "wildcard",
+        "prefix",
+        "nested",
+        "exists",
+        "range",
+        "terms",
+        "term",
+        "match",
+        "bool",
+        "date_histogram",
+        "histogram",
+        "composite",
+        "percentiles",
+        "cardinality",
+        "value_count",
+        "top_hits",
+        "filters",
+        "filter",
+        "sterms",
+        "lterms",
+        "dterms",
+        "avg",
+        "sum",
+        "min",
+        "max",
+        "strict_date_optional_time",
+        "epoch_millis",
+        "_shard_doc",
+        // index names
+        ".kibana",
+        ".security-7",
+        ".tasks",
+        ".fleet-",
+        ".ds-traces-apm-default-",
+        ".ds-metrics-system.cpu-default-",
+        ".ds-logs-generic-default-",
+        "traces-",
+        "metrics-",
+        "logs-",
+        // documents
+        "\"http\":{\"response\":{\"status_code\":200},\"request\":{\"method\":\"GET\"}},\"url\":{\"path\":\"/\"},",
+        "\"source\":{\"ip\":\"",
+        "\"destination\":{\"ip\":\"",
+        "\"user\":{\"name\":\"",
+        "\"process\":{\"pid\":",
+        "\"file\":{\"path\":\"",
+        "\"error\":{\"message\":\"",
+        "\"trace\":{\"id\":\"",
+        "\"transaction\":{\"id\":\"",
+        "\"span\":{\"id\":\"",
+        "\"kubernetes\":{\"pod\":{\"name\":\"",
+        "\"container\":{\"id\":\"",
+        "\"cloud\":{\"provider\":\"",
+        "\"service\":{\"name\":\"",
+        "\"agent\":{\"type\":\"filebeat\",\"version\":\"8.1.0\"},",
+        "\"ecs\":{\"version\":\"8.0.0\"},",
+        "\"log\":{\"level\":\"info\"},",
+        "\"event\":{\"dataset\":\"",
+        "\"data_stream\":{\"type\":\"logs\",\"dataset\":\"generic\",\"namespace\":\"default\"},",
+        "\"host\":{\"name\":\"",
+        "\",\"message\":\"",
+        "{\"@timestamp\":\"",
+        "T00:00:00.000Z",
+        "_primary_term",
+        "_seq_no",
+        "_version",
+        "_routing",
+        "_source",
+        "_score",
+        "_index",
+        "_doc",
+        "_id"
+    );
+
+    private TransportCompressionDictionaries() {}
+
+    /**
+     * @return the dictionary with the given ID, or {@code null} if there is no such dictionary.
+     */
+    @Nullable
+    static byte[] get(byte id) {
+        if (id == 1) {
+            return DICTIONARY_1;
+        } else {
+            return null;
+        }
+    }
+
+    private static byte[] toBytes(String... sequences) {
+        return String.join("", sequences).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -42,6 +42,8 @@ public interface TransportDecompressor extends Releasable {
             return new DeflateTransportDecompressor(recycler);
         } else if (Compression.Scheme.isLZ4(bytes)) {
             return new Lz4TransportDecompressor(recycler);
+        } else if (Compression.Scheme.isDeflateWithDictionary(bytes)) {
+            return new DeflateTransportDecompressor(recycler, Compression.Scheme.deflateDictionary(bytes));
         } else {
             throw createIllegalState(bytes);
         }
@@ -88,6 +88,14 @@ public final class TransportSettings {
         Compression.Scheme.LZ4,
         Setting.Property.NodeScope
     );
+    // messages larger than this are sent in frames of this size so that other messages can be sent in between, defaults to disabled (0)
+    public static final Setting<ByteSizeValue> FRAME_SIZE = Setting.byteSizeSetting(
+        "transport.frame_size",
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ofBytes(Integer.MAX_VALUE),
+        Setting.Property.NodeScope
+    );
     // the scheduled internal ping interval setting, defaults to disabled (-1)
     public static final Setting<TimeValue> PING_SCHEDULE = timeSetting(
         "transport.ping_schedule",
@@ -14,6 +14,7 @@ public final class TransportStatus {
     private static final byte STATUS_ERROR = 1 << 1;
     private static final byte STATUS_COMPRESS = 1 << 2;
     private static final byte STATUS_HANDSHAKE = 1 << 3;
+    private static final byte STATUS_FRAME = 1 << 4;
 
     public static boolean isRequest(byte value) {
         return (value & STATUS_REQRES) == 0;
@@ -55,4 +56,13 @@ public final class TransportStatus {
         value |= STATUS_HANDSHAKE;
         return value;
     }
+
+    static boolean isFrame(byte value) { // pkg private since it's only used internally
+        return (value & STATUS_FRAME) != 0;
+    }
+
+    static byte setFrame(byte value) { // pkg private since it's only used internally
+        value |= STATUS_FRAME;
+        return value;
+    }
 }
@@ -9,12 +9,14 @@
 package org.elasticsearch.action.admin.cluster.node.stats;
 
 import org.elasticsearch.cluster.coordination.ClusterStateSerializationStats;
+import org.elasticsearch.cluster.coordination.FaultDetectionStats;
 import org.elasticsearch.cluster.coordination.PendingClusterStateStats;
 import org.elasticsearch.cluster.coordination.PublishClusterStateStats;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterApplierRecordingService;
 import org.elasticsearch.cluster.service.ClusterApplierRecordingService.Stats.Recording;
 import org.elasticsearch.cluster.service.ClusterStateUpdateStats;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.network.HandlingTimeTracker;
@@ -335,6 +337,10 @@ public class NodeStatsTests extends ESTestCase {
                             publishStats.getIncompatibleClusterStateDiffReceivedCount(),
                             deserializedPublishStats.getIncompatibleClusterStateDiffReceivedCount()
                         );
+                        assertEquals(
+                            Strings.toString(publishStats.getClusterStateSerializationStats()),
+                            Strings.toString(deserializedPublishStats.getClusterStateSerializationStats())
+                        );
                     }
 
                     final ClusterStateUpdateStats clusterStateUpdateStats = discoveryStats.getClusterStateUpdateStats();
@@ -419,7 +425,10 @@ public class NodeStatsTests extends ESTestCase {
                             clusterStateUpdateStats.getFailedNotificationElapsedMillis(),
                             deserializedClusterStateUpdateStats.getFailedNotificationElapsedMillis()
                         );
+                        assertEquals(clusterStateUpdateStats.getExecutorStats(), deserializedClusterStateUpdateStats.getExecutorStats());
                     }
+
+                    assertEquals(discoveryStats.getFaultDetectionStats(), deserializedDiscoveryStats.getFaultDetectionStats());
                 }
                 IngestStats ingestStats = nodeStats.getIngestStats();
                 IngestStats deserializedIngestStats = deserializedNodeStats.getIngestStats();
@@ -761,6 +770,9 @@ public class NodeStatsTests extends ESTestCase {
                             randomNonNegativeLong(),
                             randomNonNegativeLong(),
                             randomNonNegativeLong(),
+                            randomNonNegativeLong(),
+                            randomNonNegativeLong(),
+                            randomNonNegativeLong(),
                             randomNonNegativeLong()
                         )
                     )
@@ -785,10 +797,23 @@ public class NodeStatsTests extends ESTestCase {
                         randomNonNegativeLong(),
                         randomNonNegativeLong(),
                         randomNonNegativeLong(),
-                        randomNonNegativeLong()
+                        randomNonNegativeLong(),
+                        randomBoolean()
+                            ? Map.of()
+                            : Map.of(
+                                randomAlphaOfLength(10),
+                                new ClusterStateUpdateStats.ExecutorStats(
+                                    randomNonNegativeLong(),
+                                    randomNonNegativeLong(),
+                                    randomNonNegativeLong(),
+                                    randomNonNegativeLong(),
+                                    randomNonNegativeLong()
+                                )
+                            )
                     )
                     : null,
-                timeTrackerStats
+                timeTrackerStats,
+                randomBoolean() ? new FaultDetectionStats(randomCheckStats(), randomCheckStats()) : null
             )
             : null;
         IngestStats ingestStats = null;
@@ -918,6 +943,17 @@ public class NodeStatsTests extends ESTestCase {
         }
     }
 
+    private static FaultDetectionStats.CheckStats randomCheckStats() {
+        return new FaultDetectionStats.CheckStats(
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomDoubleBetween(0.0, 100.0, true)
+        );
+    }
+
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream().filter(p1 -> p1.getPipelineId().equals(id)).findFirst().map(p2 -> p2.getStats()).orElse(null);
     }
@@ -0,0 +1,180 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.core.RestApiVersion;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xcontent.XContentType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ChunkedBulkDispatcherTests extends ESTestCase {
+
+    public void testDispatchesChunksOneAfterTheOtherAndCombinesResponses() throws IOException {
+        final int numItems = between(1, 100);
+        final List<Tuple<BulkRequest, ActionListener<BulkResponse>>> chunks = new ArrayList<>();
+        final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+        final ChunkedBulkDispatcher dispatcher = new ChunkedBulkDispatcher(
+            BulkRequest::new,
+            between(1, 1000),
+            (request, listener) -> chunks.add(Tuple.tuple(request, listener)),
+            future,
+            System::nanoTime
+        );
+        final BytesArray body = bulkBody(numItems);
+        dispatcher.parseAndDispatch(body, "index", null, null, null, null, true, XContentType.JSON, RestApiVersion.current());
+
+        final boolean failChunk = randomBoolean();
+        final IllegalStateException failure = new IllegalStateException("simulated");
+        int completedChunks = 0;
+        int failedChunk = -1;
+        while (future.isDone() == false) {
+            // the next chunk is only dispatched once the previous one has completed, so that items for the same document stay in order
+            assertThat(chunks.size(), equalTo(completedChunks + 1));
+            final Tuple<BulkRequest, ActionListener<BulkResponse>> chunk = chunks.get(completedChunks);
+            if (failChunk && failedChunk == -1 && randomBoolean()) {
+                failedChunk = completedChunks;
+                chunk.v2().onFailure(failure);
+            } else {
+                chunk.v2().onResponse(successfulResponse(chunk.v1()));
+            }
+            completedChunks++;
+        }
+        assertThat(chunks.size(), equalTo(completedChunks));
+        assertThat(chunks.stream().mapToInt(chunk -> chunk.v1().numberOfActions()).sum(), equalTo(numItems));
+        if (chunks.size() == 1 && failedChunk == 0) {
+            assertThat(expectThrows(IllegalStateException.class, future::actionGet), sameInstance(failure));
+            return;
+        }
+
+        final BulkItemResponse[] items = future.actionGet().getItems();
+        assertThat(items.length, equalTo(numItems));
+        int itemId = 0;
+        for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++) {
+            for (DocWriteRequest<?> request : chunks.get(chunkIndex).v1().requests()) {
+                final BulkItemResponse item = items[itemId];
+                assertThat(item.getItemId(), equalTo(itemId));
+                assertThat(item.getId(), equalTo(request.id()));
+                assertThat(item.getId(), equalTo(Integer.toString(itemId)));
+                assertThat(item.isFailed(), equalTo(chunkIndex == failedChunk));
+                if (chunkIndex == failedChunk) {
+                    assertThat(item.getFailure().getCause(), sameInstance(failure));
+                }
+                itemId++;
+            }
+        }
+    }
+
+    public void testFailureOfOnlyChunkFailsRequest() throws IOException {
+        final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+        final IllegalStateException failure = new IllegalStateException("simulated");
+        final ChunkedBulkDispatcher dispatcher = new ChunkedBulkDispatcher(
+            BulkRequest::new,
+            Long.MAX_VALUE,
+            (request, listener) -> listener.onFailure(failure),
+            future,
+            System::nanoTime
+        );
+        final BytesArray body = bulkBody(between(0, 10));
+        dispatcher.parseAndDispatch(body, "index", null, null, null, null, true, XContentType.JSON, RestApiVersion.current());
+        assertThat(expectThrows(IllegalStateException.class, future::actionGet), sameInstance(failure));
+    }
+
+    public void testMalformedBodyThrowsIfNothingWasDispatched() {
+        final List<BulkRequest> chunks = new ArrayList<>();
+        final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+        final ChunkedBulkDispatcher dispatcher = new ChunkedBulkDispatcher(
+            BulkRequest::new,
+            Long.MAX_VALUE,
+            (request, listener) -> chunks.add(request),
+            future,
+            System::nanoTime
+        );
+        final BytesArray body = new BytesArray(bulkBody(between(0, 3)).utf8ToString() + "{\"index\":[]}\n{}\n");
+        expectThrows(
+            IllegalArgumentException.class,
+            () -> dispatcher.parseAndDispatch(body, "index", null, null, null, null, true, XContentType.JSON, RestApiVersion.current())
+        );
+        assertThat(chunks.size(), equalTo(0));
+        assertFalse(future.isDone());
+    }
+
+    public void testMalformedBodyAfterDispatchFailsTheRest() throws IOException {
+        final List<Tuple<BulkRequest, ActionListener<BulkResponse>>> chunks = new ArrayList<>();
+        final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+        final boolean completeImmediately = randomBoolean();
+        final ChunkedBulkDispatcher dispatcher = new ChunkedBulkDispatcher(BulkRequest::new, 1, (request, listener) -> {
+            chunks.add(Tuple.tuple(request, listener));
+            if (completeImmediately) {
+                listener.onResponse(successfulResponse(request));
+            }
+        }, future, System::nanoTime);
+        final BytesArray body = new BytesArray(bulkBody(3).utf8ToString() + "{\"index\":[]}\n{}\n");
+        dispatcher.parseAndDispatch(body, "index", null, null, null, null, true, XContentType.JSON, RestApiVersion.current());
+        // the items that were parsed after the first one wait for it to complete
+        final int dispatchedChunks = completeImmediately ? 3 : 1;
+        assertThat(chunks.size(), equalTo(dispatchedChunks));
+        if (completeImmediately == false) {
+            assertFalse(future.isDone());
+            chunks.get(0).v2().onResponse(successfulResponse(chunks.get(0).v1()));
+        }
+        // nothing is dispatched after the parse failure
+        assertThat(chunks.size(), equalTo(dispatchedChunks));
+
+        final BulkResponse response = future.actionGet();
+        assertTrue(response.hasFailures());
+        final BulkItemResponse[] items = response.getItems();
+        assertThat(items.length, equalTo(4));
+        for (int i = 0; i < items.length; i++) {
+            assertThat(items[i].getItemId(), equalTo(i));
+            assertThat(items[i].isFailed(), equalTo(i >= dispatchedChunks));
+            if (items[i].isFailed()) {
+                assertThat(items[i].getFailure().getCause(), instanceOf(IllegalArgumentException.class));
+            }
+        }
+    }
+
+    private static BytesArray bulkBody(int numItems) {
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < numItems; i++) {
+            body.append("{\"index\":{\"_id\":\"").append(i).append("\"}}\n");
+            body.append("{\"field\":\"").append(randomAlphaOfLength(between(1, 100))).append("\"}\n");
+        }
+        return new BytesArray(body.toString());
+    }
+
+    private static BulkResponse successfulResponse(BulkRequest chunk) {
+        final BulkItemResponse[] items = new BulkItemResponse[chunk.numberOfActions()];
+        for (int i = 0; i < items.length; i++) {
+            final DocWriteRequest<?> request = chunk.requests().get(i);
+            assertThat(request, instanceOf(IndexRequest.class));
+            items[i] = BulkItemResponse.success(
+                i,
+                request.opType(),
+                new IndexResponse(new ShardId(request.index(), "_na_", 0), request.id(), i, 1, 1, true)
+            );
+        }
+        return new BulkResponse(items, 1);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.index.mapper.IndexFieldMapper;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.collapse.CollapseBuilder;
+import org.elasticsearch.search.fetch.StoredFieldsContext;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.suggest.SuggestBuilder;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.transport.RemoteClusterAware;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CrossClusterFetchTests extends ESTestCase {
+
+    public void testCanFetchMergedHits() {
+        assertFalse(CrossClusterFetch.canFetchMergedHits(new SearchRequest()));
+        assertTrue(CrossClusterFetch.canFetchMergedHits(new SearchRequest().source(new SearchSourceBuilder())));
+        assertFalse(CrossClusterFetch.canFetchMergedHits(new SearchRequest().source(new SearchSourceBuilder().size(0))));
+        assertFalse(
+            CrossClusterFetch.canFetchMergedHits(
+                new SearchRequest().source(new SearchSourceBuilder().collapse(new CollapseBuilder("field")))
+            )
+        );
+        assertFalse(
+            CrossClusterFetch.canFetchMergedHits(new SearchRequest().source(new SearchSourceBuilder().suggest(new SuggestBuilder())))
+        );
+        assertFalse(
+            CrossClusterFetch.canFetchMergedHits(
+                new SearchRequest().source(new SearchSourceBuilder().storedFields(StoredFieldsContext.fromList(List.of("_none_"))))
+            )
+        );
+        assertTrue(CrossClusterFetch.canFetchMergedHits(new SearchRequest().source(new SearchSourceBuilder().storedField("field"))));
+    }
+
+    public void testQueryAndFetchPhaseCopies() {
+        SearchSourceBuilder source = new SearchSourceBuilder().query(QueryBuilders.termQuery("field", "value"))
+            .from(5)
+            .size(10)
+            .explain(true)
+            .version(true)
+            .fetchField("field")
+            .highlighter(new HighlightBuilder().field("field"))
+            .postFilter(QueryBuilders.existsQuery("field"))
+            .suggest(new SuggestBuilder())
+            .trackTotalHits(true);
+
+        SearchSourceBuilder querySource = source.queryPhaseCopy();
+        assertThat(querySource.query(), equalTo(source.query()));
+        assertThat(querySource.postFilter(), equalTo(source.postFilter()));
+        assertThat(querySource.from(), equalTo(5));
+        assertThat(querySource.size(), equalTo(10));
+        assertThat(querySource.fetchSource(), equalTo(FetchSourceContext.DO_NOT_FETCH_SOURCE));
+        assertThat(querySource.explain(), nullValue());
+        assertThat(querySource.version(), nullValue());
+        assertThat(querySource.fetchFields(), nullValue());
+        assertThat(querySource.highlighter(), nullValue());
+        assertThat(querySource.suggest(), equalTo(source.suggest()));
+
+        SearchSourceBuilder fetchSource = source.fetchPhaseCopy(QueryBuilders.idsQuery().addIds("1"), 1);
+        assertThat(
+            fetchSource.query(),
+            equalTo(QueryBuilders.boolQuery().must(source.query()).filter(QueryBuilders.idsQuery().addIds("1")))
+        );
+        assertThat(fetchSource.postFilter(), nullValue());
+        assertThat(fetchSource.from(), equalTo(0));
+        assertThat(fetchSource.size(), equalTo(1));
+        assertThat(fetchSource.explain(), equalTo(true));
+        assertThat(fetchSource.fetchFields(), equalTo(source.fetchFields()));
+        assertThat(fetchSource.highlighter(), equalTo(source.highlighter()));
+        assertThat(fetchSource.suggest(), nullValue());
+        assertThat(fetchSource.trackTotalHitsUpTo(), equalTo(SearchContext.TRACK_TOTAL_HITS_DISABLED));
+    }
+
+    public void testHitsFilter() {
+        Map<String, List<String>> idsByIndex = Map.of("index", List.of("1", "2"));
+        assertThat(
+            CrossClusterFetch.hitsFilter(RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY, idsByIndex),
+            equalTo(
+                QueryBuilders.boolQuery()
+                    .should(
+                        QueryBuilders.boolQuery()
+                            .filter(QueryBuilders.termQuery(IndexFieldMapper.NAME, "index"))
+                            .filter(QueryBuilders.idsQuery().addIds("1", "2"))
+                    )
+            )
+        );
+        // the shards of a remote cluster only match index names that are prefixed with their cluster alias
+        assertThat(
+            CrossClusterFetch.hitsFilter("remote", idsByIndex),
+            equalTo(
+                QueryBuilders.boolQuery()
+                    .should(
+                        QueryBuilders.boolQuery()
+                            .filter(QueryBuilders.termQuery(IndexFieldMapper.NAME, "remote:index"))
+                            .filter(QueryBuilders.idsQuery().addIds("1", "2"))
+                    )
+            )
+        );
+    }
+
+    public void testMergeFetchedHits() {
+        SearchHit[] mergedHits = new SearchHit[] {
+            hit("remote", "index", "1", 3f),
+            hit(RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY, "index", "1", 2.5f),
+            hit("remote", "other", "1", 2f),
+            hit("remote", "index", "2", 1.5f),
+            hit("skipped", "index", "1", 1f) };
+        TotalHits totalHits = new TotalHits(100, TotalHits.Relation.EQUAL_TO);
+        SearchResponse mergedResponse = response(new SearchHits(mergedHits, totalHits, 3f), new SearchResponse.Clusters(3, 3, 0));
+
+        Map<String, SearchResponse> fetchResponses = new HashMap<>();
+        // the second hit of the remote cluster was deleted in the meantime
+        SearchHit[] remoteHits = new SearchHit[] { hit("remote", "other", "1", 0.2f), hit("remote", "index", "1", 0.3f) };
+        fetchResponses.put("remote", response(new SearchHits(remoteHits, null, 0.3f), SearchResponse.Clusters.EMPTY));
+        SearchHit[] localHits = new SearchHit[] { hit(RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY, "index", "1", 0.25f) };
+        fetchResponses.put(
+            RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY,
+            response(new SearchHits(localHits, null, 0.25f), SearchResponse.Clusters.EMPTY)
+        );
+
+        SearchResponse response = CrossClusterFetch.mergeFetchedHits(mergedResponse, fetchResponses, 1, 42);
+        assertThat(
+            Arrays.stream(response.getHits().getHits())
+                .map(hit -> hit.getClusterAlias() + ":" + hit.getIndex() + "/" + hit.getId())
+                .toList(),
+            contains("remote:index/1", ":index/1", "remote:other/1")
+        );
+        assertThat(Arrays.stream(response.getHits().getHits()).map(SearchHit::getScore).toList(), contains(3f, 2.5f, 2f));
+        assertThat(response.getHits().getTotalHits(), equalTo(totalHits));
+        assertThat(response.getHits().getMaxScore(), equalTo(3f));
+        assertThat(response.getTook().millis(), equalTo(42L));
+        assertThat(response.getClusters(), equalTo(new SearchResponse.Clusters(3, 2, 1)));
+    }
+
+    private static SearchHit hit(String clusterAlias, String index, String id, float score) {
+        SearchHit hit = new SearchHit(randomInt(100), id, null, null);
+        hit.score(score);
+        hit.shard(new SearchShardTarget("node", new ShardId(index, "_na_", 0), clusterAlias));
+        return hit;
+    }
+
+    private static SearchResponse response(SearchHits hits, SearchResponse.Clusters clusters) {
+        return new SearchResponse(
+            new InternalSearchResponse(hits, null, null, null, false, null, 1),
+            null,
+            1,
+            1,
+            0,
+            1,
+            ShardSearchFailure.EMPTY_ARRAY,
+            clusters
+        );
+    }
+}
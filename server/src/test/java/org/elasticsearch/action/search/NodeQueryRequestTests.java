@@ -0,0 +1,126 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.AbstractSearchTestCase;
+import org.elasticsearch.search.SearchSortValuesAndFormatsTests;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.tasks.TaskId;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class NodeQueryRequestTests extends AbstractSearchTestCase {
+
+    public void testSerialization() throws IOException {
+        final SearchRequest searchRequest = createSearchRequest().allowPartialSearchResults(randomBoolean());
+        final int numberOfShards = randomIntBetween(2, 100);
+        final List<ShardSearchRequest> shardSearchRequests = new ArrayList<>();
+        for (int i = between(1, numberOfShards); i > 0; i--) {
+            shardSearchRequests.add(createShardSearchRequest(searchRequest, numberOfShards));
+        }
+        final NodeQueryRequest request = new NodeQueryRequest(shardSearchRequests);
+        request.setParentTask(new TaskId(randomAlphaOfLength(10), randomNonNegativeLong()));
+
+        final NodeQueryRequest deserialized = copyWriteable(request, namedWriteableRegistry, NodeQueryRequest::new);
+        assertThat(deserialized.getParentTask(), equalTo(request.getParentTask()));
+        assertArrayEquals(request.indices(), deserialized.indices());
+        assertThat(deserialized.indicesOptions(), equalTo(request.indicesOptions()));
+        final List<ShardSearchRequest> deserializedShardSearchRequests = deserialized.getShardSearchRequests();
+        assertThat(deserializedShardSearchRequests.size(), equalTo(shardSearchRequests.size()));
+        for (int i = 0; i < shardSearchRequests.size(); i++) {
+            shardSearchRequests.get(i).setParentTask(request.getParentTask());
+            assertThat(deserializedShardSearchRequests.get(i).getParentTask(), equalTo(request.getParentTask()));
+            assertThat(deserializedShardSearchRequests.get(i).source(), equalTo(searchRequest.source()));
+            assertThat(serialize(deserializedShardSearchRequests.get(i)), equalTo(serialize(shardSearchRequests.get(i))));
+        }
+
+        if (searchRequest.source() != null && shardSearchRequests.size() > 1) {
+            // the source is only serialized once
+            int shardLevelLength = 0;
+            for (ShardSearchRequest shardSearchRequest : shardSearchRequests) {
+                shardLevelLength += serialize(shardSearchRequest).length();
+            }
+            assertThat(serialize(request).length(), lessThan(shardLevelLength));
+        }
+    }
+
+    public void testEachShardGetsItsOwnSource() throws IOException {
+        final SearchRequest searchRequest = createSearchRequest().source(createSearchSourceBuilder());
+        final int numberOfShards = randomIntBetween(2, 100);
+        final List<ShardSearchRequest> shardSearchRequests = new ArrayList<>();
+        for (int i = between(2, numberOfShards); i > 0; i--) {
+            shardSearchRequests.add(createShardSearchRequest(searchRequest, numberOfShards));
+        }
+        final NodeQueryRequest request = new NodeQueryRequest(shardSearchRequests);
+
+        final NodeQueryRequest deserialized = copyWriteable(request, namedWriteableRegistry, NodeQueryRequest::new);
+        final List<ShardSearchRequest> deserializedShardSearchRequests = deserialized.getShardSearchRequests();
+        // the shards execute concurrently and may modify their source, so they must not share it
+        final Set<SearchSourceBuilder> sources = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ShardSearchRequest shardSearchRequest : deserializedShardSearchRequests) {
+            assertThat(shardSearchRequest.source(), equalTo(searchRequest.source()));
+            assertTrue(sources.add(shardSearchRequest.source()));
+        }
+    }
+
+    public void testCanBatch() throws IOException {
+        final SearchRequest searchRequest = createSearchRequest().allowPartialSearchResults(randomBoolean());
+        final int numberOfShards = randomIntBetween(2, 100);
+        final ShardSearchRequest first = createShardSearchRequest(searchRequest, numberOfShards);
+        final ShardSearchRequest other = createShardSearchRequest(searchRequest, numberOfShards);
+        assertTrue(NodeQueryRequest.canBatch(first, other));
+
+        other.setBottomSortValues(SearchSortValuesAndFormatsTests.randomInstance());
+        assertFalse(NodeQueryRequest.canBatch(first, other));
+
+        final SearchRequest singleShardRequest = createSearchRequest().allowPartialSearchResults(randomBoolean());
+        assertFalse(
+            NodeQueryRequest.canBatch(createShardSearchRequest(singleShardRequest, 1), createShardSearchRequest(singleShardRequest, 1))
+        );
+    }
+
+    private ShardSearchRequest createShardSearchRequest(SearchRequest searchRequest, int numberOfShards) {
+        final ShardSearchRequest shardSearchRequest = new ShardSearchRequest(
+            new OriginalIndices(searchRequest),
+            searchRequest,
+            new ShardId(randomAlphaOfLengthBetween(2, 10), randomAlphaOfLengthBetween(2, 10), randomInt()),
+            randomIntBetween(0, numberOfShards - 1),
+            numberOfShards,
+            new AliasFilter(null, Strings.EMPTY_ARRAY),
+            randomBoolean() ? 1.0f : randomFloat(),
+            Math.abs(randomLong()),
+            null
+        );
+        shardSearchRequest.canReturnNullResponseIfMatchNoDocs(randomBoolean());
+        return shardSearchRequest;
+    }
+
+    private static BytesReference serialize(Writeable writeable) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            writeable.writeTo(out);
+            return out.bytes();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.support.ChannelActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.transport.MockTransportService;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.AbstractSimpleTransportTestCase;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+
+public class NodeQueryResultsSenderTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void tearDownThreadPool() {
+        terminate(threadPool);
+    }
+
+    public void testSendsResultsOfFastShardsWhileSlowShardIsRunning() throws Exception {
+        try (
+            MockTransportService coordinatingNode = MockTransportService.createNewService(Settings.EMPTY, Version.CURRENT, threadPool);
+            MockTransportService dataNode = MockTransportService.createNewService(Settings.EMPTY, Version.CURRENT, threadPool)
+        ) {
+            final SearchTransportService searchTransportService = new SearchTransportService(
+                coordinatingNode,
+                null,
+                (connection, listener) -> listener
+            );
+            SearchTransportService.registerRequestHandler(coordinatingNode, null, searchTransportService);
+            final CountDownLatch slowShardLatch = new CountDownLatch(1);
+            dataNode.registerRequestHandler(
+                SearchTransportService.QUERY_NODE_ACTION_NAME,
+                ThreadPool.Names.SAME,
+                NodeQueryRequest::new,
+                (request, channel, task) -> {
+                    final NodeQueryResultsSender resultsSender = new NodeQueryResultsSender(
+                        dataNode,
+                        request,
+                        new ChannelActionListener<>(channel, SearchTransportService.QUERY_NODE_ACTION_NAME, request)
+                    );
+                    // the first shard only completes once the test lets it, the others complete right away
+                    threadPool.generic().execute(() -> {
+                        try {
+                            slowShardLatch.await();
+                        } catch (InterruptedException e) {
+                            throw new AssertionError(e);
+                        }
+                        resultsSender.onShardResult(new NodeQueryResponse.ResponseOrFailure(0, QuerySearchResult.nullInstance()));
+                    });
+                    for (int i = 1; i < request.getShardSearchRequests().size(); i++) {
+                        resultsSender.onShardResult(new NodeQueryResponse.ResponseOrFailure(i, QuerySearchResult.nullInstance()));
+                    }
+                }
+            );
+            coordinatingNode.start();
+            coordinatingNode.acceptIncomingRequests();
+            dataNode.start();
+            dataNode.acceptIncomingRequests();
+            AbstractSimpleTransportTestCase.connectToNode(coordinatingNode, dataNode.getLocalNode());
+            AbstractSimpleTransportTestCase.connectToNode(dataNode, coordinatingNode.getLocalNode());
+
+            final int numShards = randomIntBetween(2, 20);
+            final AtomicIntegerArray notifications = new AtomicIntegerArray(numShards);
+            final CountDownLatch fastShardsLatch = new CountDownLatch(numShards - 1);
+            final CountDownLatch allShardsLatch = new CountDownLatch(numShards);
+            final List<ShardSearchRequest> shardSearchRequests = new ArrayList<>();
+            final List<SearchActionListener<SearchPhaseResult>> listeners = new ArrayList<>();
+            for (int i = 0; i < numShards; i++) {
+                final int shard = i;
+                final ShardId shardId = new ShardId("index", "index-uuid", shard);
+                shardSearchRequests.add(shardSearchRequest(shardId, numShards));
+                listeners.add(new SearchActionListener<>(new SearchShardTarget("data-node", shardId, null), shard) {
+                    @Override
+                    protected void innerOnResponse(SearchPhaseResult response) {
+                        notifications.incrementAndGet(shard);
+                        if (shard > 0) {
+                            fastShardsLatch.countDown();
+                        }
+                        allShardsLatch.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        throw new AssertionError(e);
+                    }
+                });
+            }
+            final SearchTask task = new SearchTask(randomNonNegativeLong(), "n/a", "n/a", () -> "test", null, Collections.emptyMap());
+            searchTransportService.sendExecuteQuery(
+                coordinatingNode.getConnection(dataNode.getLocalNode()),
+                new NodeQueryRequest(shardSearchRequests),
+                task,
+                listeners
+            );
+
+            assertTrue(fastShardsLatch.await(10, TimeUnit.SECONDS));
+            // the slow shard is still running, which doesn't hold back the results of the others
+            assertThat(allShardsLatch.getCount(), equalTo(1L));
+            slowShardLatch.countDown();
+            assertTrue(allShardsLatch.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < numShards; i++) {
+                assertThat(notifications.get(i), equalTo(1));
+            }
+        }
+    }
+
+    public void testSendsAllResultsInResponseWithoutCoordinatingNode() {
+        final int numShards = randomIntBetween(2, 20);
+        final List<ShardSearchRequest> shardSearchRequests = new ArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            shardSearchRequests.add(shardSearchRequest(new ShardId("index", "index-uuid", i), numShards));
+        }
+        final PlainActionFuture<NodeQueryResponse> future = new PlainActionFuture<>();
+        final NodeQueryResultsSender resultsSender = new NodeQueryResultsSender(null, new NodeQueryRequest(shardSearchRequests), future);
+        final List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            positions.add(i);
+        }
+        Collections.shuffle(positions, random());
+        for (int position : positions) {
+            assertFalse(future.isDone());
+            resultsSender.onShardResult(new NodeQueryResponse.ResponseOrFailure(position, QuerySearchResult.nullInstance()));
+        }
+        assertThat(
+            future.actionGet().getResponses().stream().map(NodeQueryResponse.ResponseOrFailure::getPosition).toList(),
+            containsInAnyOrder(positions.toArray())
+        );
+    }
+
+    private static ShardSearchRequest shardSearchRequest(ShardId shardId, int numberOfShards) {
+        final SearchRequest searchRequest = new SearchRequest(shardId.getIndexName());
+        return new ShardSearchRequest(
+            new OriginalIndices(searchRequest),
+            searchRequest,
+            shardId,
+            shardId.id(),
+            numberOfShards,
+            new AliasFilter(null, Strings.EMPTY_ARRAY),
+            1.0f,
+            0L,
+            null
+        );
+    }
+}
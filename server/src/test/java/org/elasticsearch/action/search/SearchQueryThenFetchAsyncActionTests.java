@@ -194,7 +194,8 @@ public class SearchQueryThenFetchAsyncActionTests extends ESTestCase {
             timeProvider,
             null,
             task,
-            SearchResponse.Clusters.EMPTY
+            SearchResponse.Clusters.EMPTY,
+            false
         ) {
             @Override
             protected SearchPhase getNextPhase(SearchPhaseResults<SearchPhaseResult> results, SearchPhaseContext context) {
@@ -333,7 +334,8 @@ public class SearchQueryThenFetchAsyncActionTests extends ESTestCase {
             timeProvider,
             null,
             task,
-            SearchResponse.Clusters.EMPTY
+            SearchResponse.Clusters.EMPTY,
+            randomBoolean()
         );
 
         newSearchAsyncAction.start();
@@ -466,7 +468,8 @@ public class SearchQueryThenFetchAsyncActionTests extends ESTestCase {
             timeProvider,
             null,
             task,
-            SearchResponse.Clusters.EMPTY
+            SearchResponse.Clusters.EMPTY,
+            false
         ) {
             @Override
             protected SearchPhase getNextPhase(SearchPhaseResults<SearchPhaseResult> results, SearchPhaseContext context) {
@@ -609,7 +612,8 @@ public class SearchQueryThenFetchAsyncActionTests extends ESTestCase {
             timeProvider,
             null,
             task,
-            SearchResponse.Clusters.EMPTY
+            SearchResponse.Clusters.EMPTY,
+            false
         ) {
             @Override
             protected SearchPhase getNextPhase(SearchPhaseResults<SearchPhaseResult> results, SearchPhaseContext context) {
@@ -654,4 +658,134 @@ public class SearchQueryThenFetchAsyncActionTests extends ESTestCase {
         Exception e = expectThrows(VersionMismatchException.class, () -> action.executePhaseOnShard(shardIt, searchShardTarget, listener));
         assertThat(e.getMessage(), equalTo("One of the shards is incompatible with the required minimum version [" + minVersion + "]"));
     }
+
+    public void testBatchesInitialShardRequestsByNode() throws Exception {
+        final TransportSearchAction.SearchTimeProvider timeProvider = new TransportSearchAction.SearchTimeProvider(
+            0,
+            System.nanoTime(),
+            System::nanoTime
+        );
+
+        Map<String, Transport.Connection> lookup = new ConcurrentHashMap<>();
+        DiscoveryNode node = new DiscoveryNode("node1", buildNewFakeTransportAddress(), Version.CURRENT);
+        lookup.put("node1", new SearchAsyncActionTests.MockConnection(node));
+
+        int numShards = randomIntBetween(2, 20);
+        int numConcurrent = randomIntBetween(2, 25);
+        AtomicInteger successfulOps = new AtomicInteger();
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger shardLevelRequests = new AtomicInteger();
+        SearchTransportService searchTransportService = new SearchTransportService(null, null, null) {
+            @Override
+            public void sendExecuteQuery(
+                Transport.Connection connection,
+                ShardSearchRequest request,
+                SearchTask task,
+                SearchActionListener<? super SearchPhaseResult> listener
+            ) {
+                shardLevelRequests.incrementAndGet();
+                respond(request, listener);
+            }
+
+            @Override
+            public void sendExecuteQuery(
+                Transport.Connection connection,
+                NodeQueryRequest request,
+                SearchTask task,
+                List<? extends SearchActionListener<? super SearchPhaseResult>> listeners
+            ) {
+                List<ShardSearchRequest> shardSearchRequests = request.getShardSearchRequests();
+                assertThat(listeners.size(), equalTo(shardSearchRequests.size()));
+                batchSizes.add(shardSearchRequests.size());
+                for (int i = 0; i < shardSearchRequests.size(); i++) {
+                    assertThat(shardSearchRequests.get(i).source(), equalTo(shardSearchRequests.get(0).source()));
+                    respond(shardSearchRequests.get(i), listeners.get(i));
+                }
+            }
+
+            private void respond(ShardSearchRequest request, SearchActionListener<? super SearchPhaseResult> listener) {
+                int shardId = request.shardId().id();
+                QuerySearchResult queryResult = new QuerySearchResult(
+                    new ShardSearchContextId("N/A", 123),
+                    new SearchShardTarget("node1", new ShardId("idx", "na", shardId), null),
+                    null
+                );
+                queryResult.topDocs(
+                    new TopDocsAndMaxScore(
+                        new TopFieldDocs(
+                            new TotalHits(1, TotalHits.Relation.EQUAL_TO),
+                            new FieldDoc[] { new FieldDoc(randomInt(1000), Float.NaN, new Object[] { shardId }) },
+                            new SortField[] { new SortField("timestamp", SortField.Type.LONG) }
+                        ),
+                        Float.NaN
+                    ),
+                    new DocValueFormat[] { DocValueFormat.RAW }
+                );
+                queryResult.from(0);
+                queryResult.size(1);
+                successfulOps.incrementAndGet();
+                new Thread(() -> listener.onResponse(queryResult)).start();
+            }
+        };
+        CountDownLatch latch = new CountDownLatch(1);
+        GroupShardsIterator<SearchShardIterator> shardsIter = SearchAsyncActionTests.getShardsIter(
+            "idx",
+            new OriginalIndices(new String[] { "idx" }, SearchRequest.DEFAULT_INDICES_OPTIONS),
+            numShards,
+            false,
+            node,
+            null
+        );
+        final SearchRequest searchRequest = new SearchRequest();
+        searchRequest.setMaxConcurrentShardRequests(numConcurrent);
+        searchRequest.source(new SearchSourceBuilder().size(1).sort(SortBuilders.fieldSort("timestamp")));
+        searchRequest.allowPartialSearchResults(false);
+        SearchPhaseController controller = new SearchPhaseController((t, r) -> InternalAggregationTestCase.emptyReduceContextBuilder());
+        SearchTask task = new SearchTask(0, "n/a", "n/a", () -> "test", null, Collections.emptyMap());
+        QueryPhaseResultConsumer resultConsumer = new QueryPhaseResultConsumer(
+            searchRequest,
+            EsExecutors.DIRECT_EXECUTOR_SERVICE,
+            new NoopCircuitBreaker(CircuitBreaker.REQUEST),
+            controller,
+            task::isCancelled,
+            task.getProgressListener(),
+            shardsIter.size(),
+            exc -> {}
+        );
+        SearchQueryThenFetchAsyncAction action = new SearchQueryThenFetchAsyncAction(
+            logger,
+            searchTransportService,
+            (clusterAlias, nodeId) -> lookup.get(nodeId),
+            Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY)),
+            Collections.emptyMap(),
+            controller,
+            EsExecutors.DIRECT_EXECUTOR_SERVICE,
+            resultConsumer,
+            searchRequest,
+            null,
+            shardsIter,
+            timeProvider,
+            null,
+            task,
+            SearchResponse.Clusters.EMPTY,
+            true
+        ) {
+            @Override
+            protected SearchPhase getNextPhase(SearchPhaseResults<SearchPhaseResult> results, SearchPhaseContext context) {
+                return new SearchPhase("test") {
+                    @Override
+                    public void run() {
+                        latch.countDown();
+                    }
+                };
+            }
+        };
+        action.start();
+        latch.await();
+        assertThat(successfulOps.get(), equalTo(numShards));
+        // the initial fan-out is sent in a single request, and the shards that it could not include due to the concurrency limit follow
+        // one by one as the earlier shards complete
+        assertThat(batchSizes, equalTo(List.of(Math.min(numShards, numConcurrent))));
+        assertThat(shardLevelRequests.get(), equalTo(numShards - Math.min(numShards, numConcurrent)));
+    }
 }
@@ -12,6 +12,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.cluster.block.ClusterBlocks;
 import org.elasticsearch.cluster.metadata.IndexGraveyard;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.IndexTemplateMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
@@ -215,6 +216,55 @@ public class ClusterChangedEventTests extends ESTestCase {
         assertTrue("index routing table should not be the same object", event.indexRoutingTableChanged(initialIndices.get(0).getName()));
     }
 
+    /**
+     * Test the sets of indices and templates that changed between two cluster states.
+     */
+    public void testChangeSets() {
+        final int numNodesInCluster = 3;
+        final ClusterState originalState = createState(numNodesInCluster, randomBoolean(), initialIndices);
+
+        // nothing changed
+        ClusterChangedEvent event = new ClusterChangedEvent("_na_", ClusterState.builder(originalState).build(), originalState);
+        assertThat(event.indicesWithChangedMetadata(), equalTo(Set.of()));
+        assertThat(event.indicesWithChangedRouting(), equalTo(Set.of()));
+        assertThat(event.changedTemplates(), equalTo(Set.of()));
+
+        // update one index, add another, delete a third and add a template
+        final Index updated = initialIndices.get(0);
+        final Index deleted = initialIndices.get(2);
+        final Index added = new Index("idx4", UUIDs.randomBase64UUID());
+        final IndexMetadata updatedIndexMetadata = createIndexMetadata(updated, originalState.metadata().index(updated).getVersion() + 1);
+        final IndexMetadata addedIndexMetadata = createIndexMetadata(added);
+        final Metadata metadata = Metadata.builder(originalState.metadata())
+            .put(updatedIndexMetadata, true)
+            .put(addedIndexMetadata, true)
+            .remove(deleted.getName())
+            .put(IndexTemplateMetadata.builder("template").patterns(List.of("idx*")))
+            .build();
+        final RoutingTable routingTable = RoutingTable.builder(originalState.routingTable())
+            .remove(deleted.getName())
+            .addAsNew(addedIndexMetadata)
+            .build();
+        final ClusterState newState = ClusterState.builder(originalState).metadata(metadata).routingTable(routingTable).build();
+        event = new ClusterChangedEvent("_na_", newState, originalState);
+        assertThat(event.indicesWithChangedMetadata(), equalTo(Set.of(updated, added)));
+        assertSame(event.indicesWithChangedMetadata(), event.indicesWithChangedMetadata());
+        assertThat(event.indicesWithChangedRouting(), equalTo(Set.of(added)));
+        assertSame(event.indicesWithChangedRouting(), event.indicesWithChangedRouting());
+        assertThat(event.changedTemplates(), equalTo(Set.of("template")));
+        assertThat(event.indicesCreated(), equalTo(List.of(added.getName())));
+        assertThat(event.indicesDeleted(), equalTo(List.of(deleted)));
+
+        // remove the template again
+        final ClusterState removedTemplateState = ClusterState.builder(newState)
+            .metadata(Metadata.builder(newState.metadata()).removeTemplate("template"))
+            .build();
+        event = new ClusterChangedEvent("_na_", removedTemplateState, newState);
+        assertThat(event.changedTemplates(), equalTo(Set.of("template")));
+        assertThat(event.indicesWithChangedMetadata(), equalTo(Set.of()));
+        assertThat(event.indicesWithChangedRouting(), equalTo(Set.of()));
+    }
+
     /**
      * Test custom metadata change checks
      */
@@ -53,6 +53,7 @@ import java.util.stream.Stream;
 import static java.util.Collections.emptySet;
 import static org.elasticsearch.cluster.coordination.FollowersChecker.FOLLOWER_CHECK_ACTION_NAME;
 import static org.elasticsearch.cluster.coordination.FollowersChecker.FOLLOWER_CHECK_INTERVAL_SETTING;
+import static org.elasticsearch.cluster.coordination.FollowersChecker.FOLLOWER_CHECK_PIGGYBACK_SETTING;
 import static org.elasticsearch.cluster.coordination.FollowersChecker.FOLLOWER_CHECK_RETRY_COUNT_SETTING;
 import static org.elasticsearch.cluster.coordination.FollowersChecker.FOLLOWER_CHECK_TIMEOUT_SETTING;
 import static org.elasticsearch.monitor.StatusInfo.Status.HEALTHY;
@@ -64,6 +65,8 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
@@ -167,6 +170,66 @@ public class FollowersCheckerTests extends ESTestCase {
         assertThat(checkedNodes, empty());
     }
 
+    public void testSkipsAlternateChecksOfNodeThatRespondsToOtherRequests() {
+        final DiscoveryNode localNode = new DiscoveryNode("local-node", buildNewFakeTransportAddress(), Version.CURRENT);
+        final DiscoveryNode otherNode = new DiscoveryNode("other-node", buildNewFakeTransportAddress(), Version.CURRENT);
+        final Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), localNode.getId())
+            .put(FOLLOWER_CHECK_PIGGYBACK_SETTING.getKey(), true)
+            .build();
+        final DeterministicTaskQueue deterministicTaskQueue = new DeterministicTaskQueue();
+        final AtomicInteger checkCount = new AtomicInteger();
+
+        final MockTransport mockTransport = new MockTransport() {
+            @Override
+            protected void onSendRequest(long requestId, String action, TransportRequest request, DiscoveryNode node) {
+                assertThat(action, equalTo(FOLLOWER_CHECK_ACTION_NAME));
+                assertThat(node, equalTo(otherNode));
+                checkCount.incrementAndGet();
+                deterministicTaskQueue.scheduleNow(() -> handleResponse(requestId, Empty.INSTANCE));
+            }
+        };
+
+        final TransportService transportService = mockTransport.createTransportService(
+            settings,
+            deterministicTaskQueue.getThreadPool(),
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            boundTransportAddress -> localNode,
+            null,
+            emptySet()
+        );
+        transportService.start();
+        transportService.acceptIncomingRequests();
+
+        final FollowersChecker followersChecker = new FollowersChecker(
+            settings,
+            transportService,
+            fcr -> { assert false : fcr; },
+            (node, reason) -> { assert false : node; },
+            () -> new StatusInfo(HEALTHY, "healthy-info")
+        );
+        followersChecker.setCurrentNodes(DiscoveryNodes.builder().add(localNode).add(otherNode).localNodeId(localNode.getId()).build());
+
+        final long checkIntervalMillis = FOLLOWER_CHECK_INTERVAL_SETTING.get(settings).millis();
+        while (deterministicTaskQueue.getCurrentTimeMillis() < 20 * checkIntervalMillis) {
+            if (deterministicTaskQueue.hasRunnableTasks()) {
+                deterministicTaskQueue.runRandomTask();
+            } else {
+                deterministicTaskQueue.advanceTime();
+                // the node responds to some other request just before every check is due, but only every other check may be skipped
+                followersChecker.onResponseReceived(otherNode);
+            }
+        }
+
+        final FaultDetectionStats.CheckStats stats = followersChecker.getStats();
+        assertThat(stats.getSuccessful(), equalTo((long) checkCount.get()));
+        assertThat(stats.getSkipped(), greaterThanOrEqualTo(checkCount.get() - 1L));
+        assertThat(stats.getSkipped(), lessThanOrEqualTo((long) checkCount.get()));
+        assertThat(stats.getFailed(), equalTo(0L));
+        assertThat(stats.getTimedOut(), equalTo(0L));
+        assertThat(followersChecker.getFaultyNodes(), empty());
+    }
+
     public void testFailsNodeThatDoesNotRespond() {
         final Settings settings = randomSettings();
         testBehaviourOfFailingNode(
@@ -0,0 +1,73 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.coordination;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class HeartbeatHistoryTests extends ESTestCase {
+
+    public void testNoSuspicionWithoutHistory() {
+        final HeartbeatHistory heartbeatHistory = new HeartbeatHistory();
+        assertThat(heartbeatHistory.getLastHeartbeatMillis(), equalTo(-1L));
+        assertThat(heartbeatHistory.suspicion(randomNonNegativeLong()), equalTo(0.0));
+
+        final long firstHeartbeatMillis = randomLongBetween(0L, 100000L);
+        heartbeatHistory.onHeartbeat(firstHeartbeatMillis);
+        assertThat(heartbeatHistory.getLastHeartbeatMillis(), equalTo(firstHeartbeatMillis));
+        assertThat(heartbeatHistory.suspicion(firstHeartbeatMillis + randomLongBetween(0L, 100000L)), equalTo(0.0));
+    }
+
+    public void testSuspicionGrowsWithSilence() {
+        final HeartbeatHistory heartbeatHistory = new HeartbeatHistory();
+        final long intervalMillis = randomLongBetween(500L, 2000L);
+        long nowMillis = randomLongBetween(0L, 100000L);
+        for (int i = between(2, HeartbeatHistory.MAX_SAMPLES * 2); i > 0; i--) {
+            heartbeatHistory.onHeartbeat(nowMillis);
+            nowMillis += intervalMillis;
+        }
+        nowMillis -= intervalMillis;
+
+        // halfway to the next heartbeat of a regular node there is no cause for suspicion
+        assertThat(heartbeatHistory.suspicion(nowMillis + intervalMillis / 2), lessThan(0.1));
+        // missing the next heartbeat is suspicious, and missing several is much more suspicious
+        final double suspicionAfterOneMissed = heartbeatHistory.suspicion(nowMillis + 2 * intervalMillis);
+        assertThat(suspicionAfterOneMissed, greaterThan(1.0));
+        final double suspicionAfterSeveralMissed = heartbeatHistory.suspicion(nowMillis + 5 * intervalMillis);
+        assertThat(suspicionAfterSeveralMissed, greaterThan(suspicionAfterOneMissed));
+        assertTrue(Double.isFinite(heartbeatHistory.suspicion(nowMillis + 1000 * intervalMillis)));
+    }
+
+    public void testIrregularHistoryIsLessSuspicious() {
+        final HeartbeatHistory regular = new HeartbeatHistory();
+        final HeartbeatHistory irregular = new HeartbeatHistory();
+        long regularMillis = 0L;
+        long irregularMillis = 0L;
+        for (int i = 0; i < HeartbeatHistory.MAX_SAMPLES; i++) {
+            regular.onHeartbeat(regularMillis);
+            irregular.onHeartbeat(irregularMillis);
+            regularMillis += 1000L;
+            irregularMillis += i % 2 == 0 ? 200L : 1800L;
+        }
+        regularMillis -= 1000L;
+        irregularMillis -= HeartbeatHistory.MAX_SAMPLES % 2 == 0 ? 1800L : 200L;
+
+        assertThat(irregular.suspicion(irregularMillis + 2500L), lessThan(regular.suspicion(regularMillis + 2500L)));
+    }
+
+    public void testPhiOfMean() {
+        final double mean = randomDoubleBetween(100.0, 10000.0, true);
+        // half of all intervals exceed the mean, and -log10(0.5) is about 0.3
+        assertThat(HeartbeatHistory.phi((long) mean, mean, randomDoubleBetween(100.0, 1000.0, true)), closeTo(Math.log10(2.0), 0.01));
+    }
+}
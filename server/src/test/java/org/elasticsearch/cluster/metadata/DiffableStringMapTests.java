@@ -10,11 +10,13 @@ package org.elasticsearch.cluster.metadata;
 
 import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
@@ -89,4 +91,25 @@ public class DiffableStringMapTests extends ESTestCase {
         DiffableStringMap deserialized = DiffableStringMap.readFrom(bso.bytes().streamInput());
         assertThat(deserialized, equalTo(dsm));
     }
+
+    public void testSerializationWithValueDeduplication() throws IOException {
+        final String value = randomAlphaOfLength(20);
+        final DiffableStringMap first = new DiffableStringMap(Map.of("foo", new String(value), "bar", "baz"));
+        final DiffableStringMap second = new DiffableStringMap(Map.of("foo", new String(value)));
+
+        BytesStreamOutput bso = new BytesStreamOutput();
+        first.writeTo(bso);
+        second.writeTo(bso);
+        final Map<String, String> values = new HashMap<>();
+        final UnaryOperator<String> deduplicator = v -> {
+            final String existing = values.putIfAbsent(v, v);
+            return existing == null ? v : existing;
+        };
+        final StreamInput in = bso.bytes().streamInput();
+        final DiffableStringMap firstDeserialized = DiffableStringMap.readFrom(in, deduplicator);
+        final DiffableStringMap secondDeserialized = DiffableStringMap.readFrom(in, deduplicator);
+        assertThat(firstDeserialized, equalTo(first));
+        assertThat(secondDeserialized, equalTo(second));
+        assertSame(firstDeserialized.get("foo"), secondDeserialized.get("foo"));
+    }
 }
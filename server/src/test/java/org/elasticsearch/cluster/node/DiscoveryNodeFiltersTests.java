@@ -317,6 +317,20 @@ public class DiscoveryNodeFiltersTests extends ESTestCase {
         assertThat(filters.match(node), equalTo(true));
     }
 
+    public void testEqualsAndHashCode() {
+        Settings settings = Settings.builder().put("xxx.tag", "A,B").put("xxx._ip", "192.1.1.54").build();
+        DiscoveryNodeFilters filters = buildFromSettings(OR, "xxx.", settings);
+        DiscoveryNodeFilters sameFilters = buildFromSettings(OR, "xxx.", shuffleSettings(settings));
+        assertNotSame(filters, sameFilters);
+        assertEquals(filters, sameFilters);
+        assertEquals(filters.hashCode(), sameFilters.hashCode());
+
+        assertNotEquals(filters, buildFromSettings(AND, "xxx.", settings));
+        assertNotEquals(filters, buildFromSettings(OR, "xxx.", Settings.builder().put(settings).put("xxx.tag", "B,A").build()));
+        assertNotEquals(filters, buildFromSettings(OR, "xxx.", Settings.builder().put(settings).put("xxx.rack", "r1").build()));
+        assertNotEquals(filters, buildFromSettings(OR, "xxx.", Settings.builder().put("xxx.tag", "A,B").build()));
+    }
+
     private Settings shuffleSettings(Settings source) {
         Settings.Builder settings = Settings.builder();
         List<String> keys = new ArrayList<>(source.keySet());
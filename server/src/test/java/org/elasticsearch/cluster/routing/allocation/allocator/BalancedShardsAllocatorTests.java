@@ -11,22 +11,32 @@ package org.elasticsearch.cluster.routing.allocation.allocator;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
 import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ESAllocationTestCase;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingNode;
 import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.AllocateUnassignedDecision;
+import org.elasticsearch.cluster.routing.allocation.AllocationService;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.snapshots.SnapshotShardSizeInfo;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 
 public class BalancedShardsAllocatorTests extends ESAllocationTestCase {
 
@@ -67,4 +77,55 @@ public class BalancedShardsAllocatorTests extends ESAllocationTestCase {
         assertNotNull(allocateDecision.getTargetNode().getId(), assignedShards.get(0).currentNodeId());
     }
 
+    public void testOnlyAsksDecidersAboutUnbalancedIndices() {
+        final AllocationService allocationService = createAllocationService();
+        Metadata metadata = Metadata.builder()
+            .put(IndexMetadata.builder("idx").settings(settings(Version.CURRENT)).numberOfShards(4).numberOfReplicas(0))
+            .build();
+        ClusterState clusterState = ClusterState.builder(ClusterName.DEFAULT)
+            .metadata(metadata)
+            .routingTable(RoutingTable.builder().addAsNew(metadata.index("idx")).build())
+            .nodes(DiscoveryNodes.builder().add(newNode("node1")))
+            .build();
+        clusterState = allocationService.reroute(clusterState, "reroute");
+        clusterState = startInitializingShardsAndReroute(allocationService, clusterState);
+        assertThat(clusterState.getRoutingNodes().node("node1").numberOfShardsWithState(ShardRoutingState.STARTED), equalTo(4));
+
+        // all the shards are on the first node, so adding a second one makes the index unbalanced
+        clusterState = ClusterState.builder(clusterState).nodes(DiscoveryNodes.builder(clusterState.nodes()).add(newNode("node2"))).build();
+        final AtomicInteger indexDecisions = new AtomicInteger();
+        final AllocationDeciders countingDeciders = new AllocationDeciders(List.of(new AllocationDecider() {
+            @Override
+            public Decision canAllocate(IndexMetadata indexMetadata, RoutingNode node, RoutingAllocation allocation) {
+                indexDecisions.incrementAndGet();
+                return Decision.YES;
+            }
+        }));
+        final BalancedShardsAllocator allocator = new BalancedShardsAllocator(Settings.EMPTY);
+        RoutingAllocation allocation = newRoutingAllocation(countingDeciders, clusterState);
+        allocator.allocate(allocation);
+        assertThat(indexDecisions.get(), greaterThan(0));
+        assertThat(allocation.routingNodes().node("node2").numberOfShardsWithState(ShardRoutingState.INITIALIZING), equalTo(2));
+
+        // once the shards have moved the index is balanced, so the balancer should not need to ask the deciders about it
+        clusterState = allocationService.reroute(clusterState, "reroute");
+        clusterState = startInitializingShardsAndReroute(allocationService, clusterState);
+        assertThat(clusterState.getRoutingNodes().node("node2").numberOfShardsWithState(ShardRoutingState.STARTED), equalTo(2));
+        indexDecisions.set(0);
+        allocation = newRoutingAllocation(countingDeciders, clusterState);
+        allocator.allocate(allocation);
+        assertThat(indexDecisions.get(), equalTo(0));
+        assertFalse(allocation.routingNodesChanged());
+    }
+
+    private static RoutingAllocation newRoutingAllocation(AllocationDeciders deciders, ClusterState clusterState) {
+        return new RoutingAllocation(
+            deciders,
+            RoutingNodes.mutable(clusterState.routingTable(), clusterState.nodes()),
+            clusterState,
+            ClusterInfo.EMPTY,
+            SnapshotShardSizeInfo.EMPTY,
+            System.nanoTime()
+        );
+    }
 }
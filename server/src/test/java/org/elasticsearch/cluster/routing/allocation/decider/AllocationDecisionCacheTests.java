@@ -0,0 +1,62 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class AllocationDecisionCacheTests extends ESTestCase {
+
+    public void testCachesValuesUntilDependencyChanges() {
+        final AllocationDecisionCache<String, Integer> cache = new AllocationDecisionCache<>(between(2, 100));
+        final AtomicInteger computations = new AtomicInteger();
+        final Object dependency = new Object();
+
+        final int lookups = between(1, 10);
+        for (int i = 0; i < lookups; i++) {
+            assertThat(cache.computeIfAbsent(dependency, "foo", key -> computations.incrementAndGet()), equalTo(1));
+            assertThat(cache.computeIfAbsent(dependency, "bar", key -> computations.incrementAndGet()), equalTo(2));
+        }
+        assertThat(computations.get(), equalTo(2));
+        assertThat(cache.size(), equalTo(2));
+
+        // the dependency is compared by identity, so an equal but different instance still invalidates the cache
+        final List<String> equalDependency = new ArrayList<>(List.of("state"));
+        assertThat(cache.computeIfAbsent(equalDependency, "foo", key -> computations.incrementAndGet()), equalTo(3));
+        assertThat(cache.size(), equalTo(1));
+        assertThat(cache.computeIfAbsent(new ArrayList<>(List.of("state")), "foo", key -> computations.incrementAndGet()), equalTo(4));
+        assertThat(cache.computeIfAbsent(dependency, "foo", key -> computations.incrementAndGet()), equalTo(5));
+        assertThat(computations.get(), equalTo(5));
+    }
+
+    public void testDropsValuesWhenFull() {
+        final int maxSize = between(2, 100);
+        final AllocationDecisionCache<Integer, Integer> cache = new AllocationDecisionCache<>(maxSize);
+        final AtomicInteger computations = new AtomicInteger();
+        final Object dependency = new Object();
+        for (int i = 0; i < maxSize; i++) {
+            cache.computeIfAbsent(dependency, i, key -> computations.incrementAndGet());
+        }
+        assertThat(cache.size(), equalTo(maxSize));
+        cache.computeIfAbsent(dependency, 0, key -> computations.incrementAndGet());
+        assertThat(computations.get(), equalTo(maxSize));
+
+        // the values that are no longer looked up don't pile up
+        cache.computeIfAbsent(dependency, maxSize, key -> computations.incrementAndGet());
+        assertThat(cache.size(), equalTo(1));
+        cache.computeIfAbsent(dependency, 0, key -> computations.incrementAndGet());
+        assertThat(computations.get(), equalTo(maxSize + 2));
+        assertThat(cache.size(), equalTo(2));
+    }
+}
@@ -16,6 +16,7 @@ import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.RecoverySource;
+import org.elasticsearch.cluster.routing.RoutingNode;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.AllocationService;
@@ -148,6 +149,56 @@ public class FilterAllocationDeciderTests extends ESAllocationTestCase {
         assertEquals("node passes include/exclude/require filters", decision.getExplanation());
     }
 
+    public void testCachesFilterMatchesUntilNodesChange() {
+        ClusterSettings clusterSettings = new ClusterSettings(
+            Settings.builder().put("cluster.routing.allocation.exclude._ip", "192.168.0.*").build(),
+            ClusterSettings.BUILT_IN_CLUSTER_SETTINGS
+        );
+        FilterAllocationDecider filterAllocationDecider = new FilterAllocationDecider(
+            Settings.builder().put("cluster.routing.allocation.exclude._ip", "192.168.0.*").build(),
+            clusterSettings
+        );
+        AllocationDeciders allocationDeciders = new AllocationDeciders(List.of(filterAllocationDecider));
+        ClusterState state = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metadata(
+                Metadata.builder()
+                    .put(
+                        IndexMetadata.builder("idx")
+                            .settings(settings(Version.CURRENT).put("index.routing.allocation.require._name", "node1"))
+                            .numberOfShards(1)
+                            .numberOfReplicas(0)
+                    )
+            )
+            .nodes(DiscoveryNodes.builder().add(newNode("node1")).add(newNode("node2")))
+            .build();
+        final IndexMetadata indexMetadata = state.metadata().index("idx");
+        final AllocationDecisionCache<FilterAllocationDecider.FilterMatchKey, Boolean> matchCache = filterAllocationDecider
+            .getMatchCache();
+
+        for (int reroute = 0; reroute < 3; reroute++) {
+            RoutingAllocation allocation = new RoutingAllocation(allocationDeciders, state.getRoutingNodes(), state, null, null, 0);
+            allocation.debugDecision(randomBoolean());
+            RoutingNode node1 = state.getRoutingNodes().node("node1");
+            RoutingNode node2 = state.getRoutingNodes().node("node2");
+            assertEquals(Type.YES, filterAllocationDecider.canAllocate(indexMetadata, node1, allocation).type());
+            assertEquals(Type.NO, filterAllocationDecider.canAllocate(indexMetadata, node2, allocation).type());
+        }
+        // the cluster and index filters are checked against each node once, later reroutes reuse the cached matches
+        assertEquals(4, matchCache.size());
+
+        // changing the nodes drops the cache
+        state = ClusterState.builder(state).nodes(DiscoveryNodes.builder(state.nodes()).remove("node2")).build();
+        RoutingAllocation allocation = new RoutingAllocation(allocationDeciders, state.getRoutingNodes(), state, null, null, 0);
+        RoutingNode node1 = state.getRoutingNodes().node("node1");
+        assertEquals(Type.YES, filterAllocationDecider.canAllocate(indexMetadata, node1, allocation).type());
+        assertEquals(2, matchCache.size());
+
+        // changing the cluster filters uses different keys
+        clusterSettings.applySettings(Settings.builder().put("cluster.routing.allocation.exclude._name", "node1").build());
+        assertEquals(Type.NO, filterAllocationDecider.canAllocate(indexMetadata, node1, allocation).type());
+        assertEquals(3, matchCache.size());
+    }
+
     private ClusterState createInitialClusterState(AllocationService service, Settings indexSettings) {
         return createInitialClusterState(service, indexSettings, Settings.EMPTY);
     }
@@ -9,10 +9,12 @@
 package org.elasticsearch.cluster.service;
 
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.core.Tuple;
 import org.elasticsearch.test.AbstractWireSerializingTestCase;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.Map;
 
 public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireSerializingTestCase<ClusterStateUpdateStats> {
 
@@ -38,6 +40,21 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
             randomNonNegativeLong(),
             randomNonNegativeLong(),
             randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomExecutorStats()
+        );
+    }
+
+    private static Map<String, ClusterStateUpdateStats.ExecutorStats> randomExecutorStats() {
+        return randomMap(0, 5, () -> Tuple.tuple(randomAlphaOfLength(10), randomExecutorStatsValue()));
+    }
+
+    private static ClusterStateUpdateStats.ExecutorStats randomExecutorStatsValue() {
+        return new ClusterStateUpdateStats.ExecutorStats(
             randomNonNegativeLong(),
             randomNonNegativeLong(),
             randomNonNegativeLong(),
@@ -52,7 +69,7 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
 
     @Override
     protected ClusterStateUpdateStats mutateInstance(ClusterStateUpdateStats instance) throws IOException {
-        switch (between(1, 19)) {
+        switch (between(1, 20)) {
             case 1:
                 return new ClusterStateUpdateStats(
                     not(instance.getUnchangedTaskCount()),
@@ -73,7 +90,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 2:
                 return new ClusterStateUpdateStats(
@@ -95,7 +113,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 3:
                 return new ClusterStateUpdateStats(
@@ -117,7 +136,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 4:
                 return new ClusterStateUpdateStats(
@@ -139,7 +159,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 5:
                 return new ClusterStateUpdateStats(
@@ -161,7 +182,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 6:
                 return new ClusterStateUpdateStats(
@@ -183,7 +205,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 7:
                 return new ClusterStateUpdateStats(
@@ -205,7 +228,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 8:
                 return new ClusterStateUpdateStats(
@@ -227,7 +251,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 9:
                 return new ClusterStateUpdateStats(
@@ -249,7 +274,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 10:
                 return new ClusterStateUpdateStats(
@@ -271,7 +297,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 11:
                 return new ClusterStateUpdateStats(
@@ -293,7 +320,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 12:
                 return new ClusterStateUpdateStats(
@@ -315,7 +343,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 13:
                 return new ClusterStateUpdateStats(
@@ -337,7 +366,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 14:
                 return new ClusterStateUpdateStats(
@@ -359,7 +389,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 15:
                 return new ClusterStateUpdateStats(
@@ -381,7 +412,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 16:
                 return new ClusterStateUpdateStats(
@@ -403,7 +435,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     not(instance.getFailedCommitElapsedMillis()),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 17:
                 return new ClusterStateUpdateStats(
@@ -425,7 +458,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     not(instance.getFailedCompletionElapsedMillis()),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 18:
                 return new ClusterStateUpdateStats(
@@ -447,7 +481,8 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     not(instance.getFailedMasterApplyElapsedMillis()),
-                    instance.getFailedNotificationElapsedMillis()
+                    instance.getFailedNotificationElapsedMillis(),
+                    instance.getExecutorStats()
                 );
             case 19:
                 return new ClusterStateUpdateStats(
@@ -469,7 +504,31 @@ public class ClusterStateUpdateStatsWireSerializationTests extends AbstractWireS
                     instance.getFailedCommitElapsedMillis(),
                     instance.getFailedCompletionElapsedMillis(),
                     instance.getFailedMasterApplyElapsedMillis(),
-                    not(instance.getFailedNotificationElapsedMillis())
+                    not(instance.getFailedNotificationElapsedMillis()),
+                    instance.getExecutorStats()
+                );
+            case 20:
+                return new ClusterStateUpdateStats(
+                    instance.getUnchangedTaskCount(),
+                    instance.getPublicationSuccessCount(),
+                    instance.getPublicationFailureCount(),
+                    instance.getUnchangedComputationElapsedMillis(),
+                    instance.getUnchangedNotificationElapsedMillis(),
+                    instance.getSuccessfulComputationElapsedMillis(),
+                    instance.getSuccessfulPublicationElapsedMillis(),
+                    instance.getSuccessfulContextConstructionElapsedMillis(),
+                    instance.getSuccessfulCommitElapsedMillis(),
+                    instance.getSuccessfulCompletionElapsedMillis(),
+                    instance.getSuccessfulMasterApplyElapsedMillis(),
+                    instance.getSuccessfulNotificationElapsedMillis(),
+                    instance.getFailedComputationElapsedMillis(),
+                    instance.getFailedPublicationElapsedMillis(),
+                    instance.getFailedContextConstructionElapsedMillis(),
+                    instance.getFailedCommitElapsedMillis(),
+                    instance.getFailedCompletionElapsedMillis(),
+                    instance.getFailedMasterApplyElapsedMillis(),
+                    instance.getFailedNotificationElapsedMillis(),
+                    randomValueOtherThan(instance.getExecutorStats(), ClusterStateUpdateStatsWireSerializationTests::randomExecutorStats)
                 );
         }
         throw new AssertionError("impossible");
@@ -59,6 +59,7 @@ import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Semaphore;
@@ -71,8 +72,10 @@ import java.util.concurrent.atomic.AtomicReference;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasKey;
 
 public class MasterServiceTests extends ESTestCase {
@@ -109,11 +112,16 @@ public class MasterServiceTests extends ESTestCase {
     }
 
     private MasterService createMasterService(boolean makeMaster) {
+        return createMasterService(makeMaster, Settings.EMPTY);
+    }
+
+    private MasterService createMasterService(boolean makeMaster, Settings settings) {
         final DiscoveryNode localNode = new DiscoveryNode("node1", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT);
         final MasterService masterService = new MasterService(
             Settings.builder()
                 .put(ClusterName.CLUSTER_NAME_SETTING.getKey(), MasterServiceTests.class.getSimpleName())
                 .put(Node.NODE_NAME_SETTING.getKey(), "test_node")
+                .put(settings)
                 .build(),
             new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
             threadPool
@@ -667,6 +675,186 @@ public class MasterServiceTests extends ESTestCase {
         }
     }
 
+    public void testCoalescesBatchesOfTheSamePriority() throws Exception {
+        class TestExecutor implements ClusterStateTaskExecutor<String> {
+            private final boolean changesClusterState;
+            private final AtomicReference<Long> publishedVersion = new AtomicReference<>();
+
+            TestExecutor(boolean changesClusterState) {
+                this.changesClusterState = changesClusterState;
+            }
+
+            @Override
+            public ClusterTasksResult<String> execute(ClusterState currentState, List<String> tasks) {
+                final ClusterState newClusterState = changesClusterState ? ClusterState.builder(currentState).build() : currentState;
+                return ClusterTasksResult.<String>builder().successes(tasks).build(newClusterState);
+            }
+
+            @Override
+            public void clusterStatePublished(ClusterStatePublicationEvent clusterStatePublicationEvent) {
+                assertNull(publishedVersion.getAndSet(clusterStatePublicationEvent.getNewState().version()));
+            }
+        }
+
+        // all the batches are queued before any of them runs, so a time slice that can't run out makes the coalescing deterministic
+        final Settings settings = Settings.builder()
+            .put(MasterService.MASTER_SERVICE_COALESCING_TIME_SLICE_SETTING.getKey(), TimeValue.timeValueHours(1).getStringRep())
+            .build();
+        try (MasterService masterService = createMasterService(true, settings)) {
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch unblock = new CountDownLatch(1);
+            masterService.submitStateUpdateTask("block", new ClusterStateUpdateTask(Priority.IMMEDIATE) {
+                @Override
+                public ClusterState execute(ClusterState currentState) throws Exception {
+                    blocked.countDown();
+                    unblock.await();
+                    return currentState;
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            blocked.await();
+
+            final CountDownLatch processed = new CountDownLatch(4);
+            final ClusterStateTaskListener listener = new ClusterStateTaskListener() {
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+
+                @Override
+                public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                    processed.countDown();
+                }
+            };
+            final TestExecutor first = new TestExecutor(true);
+            final TestExecutor second = new TestExecutor(true);
+            final TestExecutor unchanged = new TestExecutor(false);
+            final TestExecutor lowPriority = new TestExecutor(true);
+            final ClusterStateTaskConfig normal = ClusterStateTaskConfig.build(Priority.NORMAL);
+            masterService.submitStateUpdateTask("first", "first", normal, first, listener);
+            masterService.submitStateUpdateTask("second", "second", normal, second, listener);
+            masterService.submitStateUpdateTask("unchanged", "unchanged", normal, unchanged, listener);
+            masterService.submitStateUpdateTask("low", "low", ClusterStateTaskConfig.build(Priority.LOW), lowPriority, listener);
+            unblock.countDown();
+            assertTrue(processed.await(10, TimeUnit.SECONDS));
+
+            // the batches of the same priority are published together, and only the executors which changed the state are notified
+            assertBusy(() -> {
+                assertNotNull(first.publishedVersion.get());
+                assertEquals(first.publishedVersion.get(), second.publishedVersion.get());
+                assertNull(unchanged.publishedVersion.get());
+                assertNotNull(lowPriority.publishedVersion.get());
+                assertThat(lowPriority.publishedVersion.get(), greaterThan(first.publishedVersion.get()));
+
+                final ClusterStateUpdateStats.ExecutorStats executorStats = masterService.getClusterStateUpdateStats()
+                    .getExecutorStats()
+                    .get(TestExecutor.class.getName());
+                assertNotNull(executorStats);
+                assertEquals(0L, executorStats.getPendingTaskCount());
+                assertEquals(4L, executorStats.getBatchCount());
+                assertEquals(4L, executorStats.getTaskCount());
+            });
+        }
+    }
+
+    public void testMoreUrgentTaskStopsCoalescing() throws Exception {
+        final List<String> executionOrder = new CopyOnWriteArrayList<>();
+        final CountDownLatch firstExecuting = new CountDownLatch(1);
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+        class TestExecutor implements ClusterStateTaskExecutor<String> {
+            @Override
+            public ClusterTasksResult<String> execute(ClusterState currentState, List<String> tasks) throws Exception {
+                executionOrder.addAll(tasks);
+                if (tasks.contains("first")) {
+                    firstExecuting.countDown();
+                    assertTrue(releaseFirst.await(10, TimeUnit.SECONDS));
+                }
+                return ClusterTasksResult.<String>builder().successes(tasks).build(ClusterState.builder(currentState).build());
+            }
+        }
+
+        // without the urgent task, all the normal batches would be coalesced since the time slice can't run out
+        final Settings settings = Settings.builder()
+            .put(MasterService.MASTER_SERVICE_COALESCING_TIME_SLICE_SETTING.getKey(), TimeValue.timeValueHours(1).getStringRep())
+            .build();
+        try (MasterService masterService = createMasterService(true, settings)) {
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch unblock = new CountDownLatch(1);
+            masterService.submitStateUpdateTask("block", new ClusterStateUpdateTask(Priority.IMMEDIATE) {
+                @Override
+                public ClusterState execute(ClusterState currentState) throws Exception {
+                    blocked.countDown();
+                    unblock.await();
+                    return currentState;
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            blocked.await();
+
+            final CountDownLatch processed = new CountDownLatch(4);
+            final ClusterStateTaskListener listener = new ClusterStateTaskListener() {
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+
+                @Override
+                public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                    processed.countDown();
+                }
+            };
+            final ClusterStateTaskConfig normal = ClusterStateTaskConfig.build(Priority.NORMAL);
+            masterService.submitStateUpdateTask("first", "first", normal, new TestExecutor(), listener);
+            masterService.submitStateUpdateTask("second", "second", normal, new TestExecutor(), listener);
+            masterService.submitStateUpdateTask("third", "third", normal, new TestExecutor(), listener);
+            unblock.countDown();
+
+            assertTrue(firstExecuting.await(10, TimeUnit.SECONDS));
+            final ClusterStateTaskConfig urgent = ClusterStateTaskConfig.build(Priority.URGENT);
+            masterService.submitStateUpdateTask("urgent", "urgent", urgent, new TestExecutor(), listener);
+            releaseFirst.countDown();
+            assertTrue(processed.await(10, TimeUnit.SECONDS));
+
+            // the batch that was executing when the urgent task arrived completes, but the remaining normal batches wait for it
+            assertThat(executionOrder, contains("first", "urgent", "second", "third"));
+        }
+    }
+
+    public void testExecutorNamesAreStable() {
+        final ClusterStateTaskExecutor<String> lambda = (currentState, tasks) -> ClusterStateTaskExecutor.ClusterTasksResult
+            .<String>builder()
+            .successes(tasks)
+            .build(currentState);
+        assertEquals(MasterServiceTests.class.getName(), MasterService.executorName(lambda));
+        final ClusterStateUpdateTask anonymous = new ClusterStateUpdateTask() {
+            @Override
+            public ClusterState execute(ClusterState currentState) {
+                return currentState;
+            }
+
+            @Override
+            public void onFailure(String source, Exception e) {
+                throw new AssertionError(e);
+            }
+        };
+        assertEquals(MasterServiceTests.class.getName(), MasterService.executorName(anonymous));
+        class NamedExecutor implements ClusterStateTaskExecutor<String> {
+            @Override
+            public ClusterTasksResult<String> execute(ClusterState currentState, List<String> tasks) {
+                return ClusterTasksResult.<String>builder().successes(tasks).build(currentState);
+            }
+        }
+        assertEquals(NamedExecutor.class.getName(), MasterService.executorName(new NamedExecutor()));
+    }
+
     public void testBlockingCallInClusterStateTaskListenerFails() throws InterruptedException {
         assumeTrue("assertions must be enabled for this test to work", BaseFuture.class.desiredAssertionStatus());
         final CountDownLatch latch = new CountDownLatch(1);
@@ -771,6 +959,8 @@ public class MasterServiceTests extends ESTestCase {
                 Settings.builder()
                     .put(ClusterName.CLUSTER_NAME_SETTING.getKey(), MasterServiceTests.class.getSimpleName())
                     .put(Node.NODE_NAME_SETTING.getKey(), "test_node")
+                    // the tasks below must be published one at a time for their publications to be logged separately
+                    .put(MasterService.MASTER_SERVICE_COALESCING_TIME_SLICE_SETTING.getKey(), TimeValue.ZERO.getStringRep())
                     .build(),
                 new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
                 threadPool
@@ -42,6 +42,16 @@ public class IteratorsTests extends ESTestCase {
         assertEmptyIterator(iterator);
     }
 
+    public void testFlatMap() {
+        Iterator<Integer> iterator = Iterators.flatMap(Arrays.asList(0, 1, 2, 3).iterator(), i -> Collections.nCopies(i, i).iterator());
+        assertContainsInOrder(iterator, 1, 2, 2, 3, 3, 3);
+    }
+
+    public void testFlatMapOfEmpty() {
+        Iterator<Integer> iterator = Iterators.flatMap(Collections.<Integer>emptyIterator(), i -> Collections.singletonList(i).iterator());
+        assertEmptyIterator(iterator);
+    }
+
     public void testSingleton() {
         int value = randomInt();
         assertSingleton(value, singletonIterator(value));
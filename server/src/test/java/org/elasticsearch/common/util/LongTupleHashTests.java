@@ -0,0 +1,147 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class LongTupleHashTests extends ESTestCase {
+    private BigArrays randombigArrays() {
+        return new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+    }
+
+    private LongTupleHash randomHash(int width) {
+        // Test high load factors to make sure that collision resolution works fine
+        final float maxLoadFactor = 0.6f + randomFloat() * 0.39f;
+        return new LongTupleHash(width, randomIntBetween(0, 100), maxLoadFactor, randombigArrays());
+    }
+
+    public void testSimple() {
+        try (LongTupleHash hash = randomHash(3)) {
+            assertThat(hash.width(), equalTo(3));
+            assertThat(hash.add(new long[] { 0, 0, 0 }), equalTo(0L));
+            assertThat(hash.add(new long[] { 0, 0, 1 }), equalTo(1L));
+            assertThat(hash.add(new long[] { 0, 1, 0 }), equalTo(2L));
+            assertThat(hash.add(new long[] { 1, 0, 0 }), equalTo(3L));
+            assertThat(hash.add(new long[] { 1, 1, 1 }), equalTo(4L));
+
+            assertThat(hash.add(new long[] { 0, 0, 0 }), equalTo(-1L));
+            assertThat(hash.add(new long[] { 0, 1, 0 }), equalTo(-3L));
+            assertThat(hash.add(new long[] { 1, 1, 1 }), equalTo(-5L));
+
+            assertThat(hash.find(new long[] { 1, 0, 0 }), equalTo(3L));
+            assertThat(hash.find(new long[] { 2, 0, 0 }), equalTo(-1L));
+
+            assertThat(hash.getKey(2, 0), equalTo(0L));
+            assertThat(hash.getKey(2, 1), equalTo(1L));
+            assertThat(hash.getKey(2, 2), equalTo(0L));
+            assertThat(hash.getKey(3, 0), equalTo(1L));
+        }
+    }
+
+    public void testKeyIsCopied() {
+        try (LongTupleHash hash = randomHash(2)) {
+            long[] key = new long[] { 1, 2 };
+            assertThat(hash.add(key), equalTo(0L));
+            key[0] = 3;
+            key[1] = 4;
+            assertThat(hash.add(key), equalTo(1L));
+            assertThat(hash.getKey(0, 0), equalTo(1L));
+            assertThat(hash.getKey(0, 1), equalTo(2L));
+        }
+    }
+
+    public void testInvalidWidth() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> randomHash(randomIntBetween(-10, 0)));
+        assertThat(e.getMessage(), containsString("tuple width must be at least 1"));
+    }
+
+    public void testDuel() {
+        final int width = randomIntBetween(1, 5);
+        try (LongTupleHash hash = randomHash(width)) {
+            int iters = scaledRandomIntBetween(100, 100000);
+            Key[] values = randomArray(1, iters, Key[]::new, () -> {
+                long[] key = new long[width];
+                for (int i = 0; i < width; i++) {
+                    // Keep the values small sometimes so that keys share most of their components
+                    key[i] = randomBoolean() ? randomLong() : randomIntBetween(0, 3);
+                }
+                return new Key(key);
+            });
+            Map<Key, Integer> keyToId = new HashMap<>();
+            List<Key> idToKey = new ArrayList<>();
+            for (int i = 0; i < iters; ++i) {
+                Key key = randomFrom(values);
+                if (keyToId.containsKey(key)) {
+                    assertEquals(-1 - keyToId.get(key), hash.add(key.values));
+                } else {
+                    assertEquals(keyToId.size(), hash.add(key.values));
+                    keyToId.put(key, keyToId.size());
+                    idToKey.add(key);
+                }
+            }
+
+            assertEquals(keyToId.size(), hash.size());
+            for (Map.Entry<Key, Integer> entry : keyToId.entrySet()) {
+                assertEquals(entry.getValue().longValue(), hash.find(entry.getKey().values));
+            }
+
+            assertEquals(idToKey.size(), hash.size());
+            for (long i = 0; i < hash.capacity(); i++) {
+                long id = hash.id(i);
+                if (id >= 0) {
+                    Key key = idToKey.get((int) id);
+                    for (int k = 0; k < width; k++) {
+                        assertEquals(key.values[k], hash.getKey(id, k));
+                    }
+                }
+            }
+
+            for (long i = 0; i < hash.size(); i++) {
+                Key key = idToKey.get((int) i);
+                for (int k = 0; k < width; k++) {
+                    assertEquals(key.values[k], hash.getKey(i, k));
+                }
+            }
+        }
+    }
+
+    public void testAllocation() {
+        MockBigArrays.assertFitsIn(new ByteSizeValue(256), bigArrays -> new LongTupleHash(2, 1, bigArrays));
+    }
+
+    static class Key {
+        final long[] values;
+
+        Key(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+}
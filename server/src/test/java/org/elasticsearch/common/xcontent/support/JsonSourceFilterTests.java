@@ -0,0 +1,105 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.xcontent.support;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentType;
+import org.elasticsearch.xcontent.json.JsonXContent;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.elasticsearch.common.xcontent.XContentHelper.convertToMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class JsonSourceFilterTests extends ESTestCase {
+
+    private static final String[] NAMES = { "a", "b", "c", "a.b", "b.c" };
+    private static final String[] PATTERNS = { "a", "b", "c", "a.b", "a.c", "b.c", "a.b.c", "a*", "*b", "*.c", "a.*", "*" };
+
+    public void testSameAsFilteringMap() throws IOException {
+        final XContentBuilder builder = JsonXContent.contentBuilder();
+        if (randomBoolean()) {
+            builder.prettyPrint();
+        }
+        builder.startObject();
+        addRandomFields(builder, 4);
+        final BytesReference source = BytesReference.bytes(builder.endObject());
+        final String[] includes = randomArray(0, 3, String[]::new, () -> randomFrom(PATTERNS));
+        final String[] excludes = randomArray(0, 2, String[]::new, () -> randomFrom(PATTERNS));
+
+        final BytesReference filtered = new JsonSourceFilter(includes, excludes).filter(source);
+        final Map<String, Object> sourceAsMap = convertToMap(source, false, XContentType.JSON).v2();
+        final Map<String, Object> expected = XContentMapValues.filter(sourceAsMap, includes, excludes);
+        assertThat(
+            "source " + source.utf8ToString() + " filtered to " + filtered.utf8ToString(),
+            convertToMap(filtered, false, XContentType.JSON).v2(),
+            equalTo(expected)
+        );
+    }
+
+    public void testKeepsOrderAndRepresentation() {
+        final BytesReference source = new BytesArray("""
+            {"z": 1.10, "skipped": {"a": [1, {"b": "}"}]}, "a": {"c": 2, "b": "x"}, "b": [0.5e10, {"c": true}]}""");
+        final JsonSourceFilter filter = new JsonSourceFilter(new String[] { "z", "a.b", "b" }, new String[] { "b.c" });
+        assertThat(filter.filter(source).utf8ToString(), equalTo("""
+            {"z":1.10,"a":{"b":"x"},"b":[0.5e10]}"""));
+    }
+
+    public void testEscapedNamesAndComments() {
+        final BytesReference source = new BytesArray("""
+            { /* leading */ "\\u0061" : { "b\\"c" : "v" // trailing
+            }, "b": "skipped" }""");
+        final JsonSourceFilter filter = new JsonSourceFilter(new String[] { "a" }, Strings.EMPTY_ARRAY);
+        assertThat(filter.filter(source).utf8ToString(), equalTo("""
+            {"\\u0061":{ "b\\"c" : "v" // trailing
+            }}"""));
+    }
+
+    public void testNotAnObject() {
+        final JsonSourceFilter filter = new JsonSourceFilter(new String[] { "a" }, Strings.EMPTY_ARRAY);
+        assertThat(filter.filter(new BytesArray("[1, 2]")), nullValue());
+        assertThat(filter.filter(new BytesArray("")), nullValue());
+    }
+
+    private static void addRandomFields(XContentBuilder builder, int depth) throws IOException {
+        final int numFields = between(0, NAMES.length);
+        for (int i = 0; i < numFields; i++) {
+            builder.field(NAMES[i]);
+            addRandomValue(builder, depth);
+        }
+    }
+
+    private static void addRandomValue(XContentBuilder builder, int depth) throws IOException {
+        switch (between(0, depth > 0 ? 5 : 3)) {
+            case 0 -> builder.value(randomAlphaOfLengthBetween(0, 10) + randomFrom("", "\"", "\\", "}", "]", ","));
+            case 1 -> builder.value(randomLong());
+            case 2 -> builder.value(randomDouble());
+            case 3 -> builder.value(randomFrom(true, false, null));
+            case 4 -> {
+                builder.startObject();
+                addRandomFields(builder, depth - 1);
+                builder.endObject();
+            }
+            default -> {
+                builder.startArray();
+                final int numValues = between(0, 3);
+                for (int i = 0; i < numValues; i++) {
+                    addRandomValue(builder, depth - 1);
+                }
+                builder.endArray();
+            }
+        }
+    }
+}
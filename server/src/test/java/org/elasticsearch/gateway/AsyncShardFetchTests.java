@@ -221,6 +221,25 @@ public class AsyncShardFetchTests extends ESTestCase {
         assertThat(fetchData.getData().get(node2), sameInstance(response2));
     }
 
+    public void testKnownResponseIsNotFetched() throws Exception {
+        DiscoveryNodes nodes = DiscoveryNodes.builder().add(node1).add(node2).build();
+        test.addSimulation(node1.getId(), response1);
+        test.addKnownResponse(node2.getId(), response2);
+
+        // only the node without a known response is fetched
+        AsyncShardFetch.FetchResult<Response> fetchData = test.fetchData(nodes, emptySet());
+        assertThat(fetchData.hasData(), equalTo(false));
+        assertThat(test.getNumberOfInFlightFetches(), equalTo(1));
+
+        test.fireSimulationAndWait(node1.getId());
+        assertThat(test.reroute.get(), equalTo(1));
+        fetchData = test.fetchData(nodes, emptySet());
+        assertThat(fetchData.hasData(), equalTo(true));
+        assertThat(fetchData.getData().size(), equalTo(2));
+        assertThat(fetchData.getData().get(node1), sameInstance(response1));
+        assertThat(fetchData.getData().get(node2), sameInstance(response2));
+    }
+
     public void testTwoNodesOnSetupAndFailure() throws Exception {
         DiscoveryNodes nodes = DiscoveryNodes.builder().add(node1).add(node2).build();
         test.addSimulation(node1.getId(), response1);
@@ -372,6 +391,7 @@ public class AsyncShardFetchTests extends ESTestCase {
 
         private final ThreadPool threadPool;
         private final Map<String, Entry> simulations = new ConcurrentHashMap<>();
+        private final Map<String, Response> knownResponses = new ConcurrentHashMap<>();
         private AtomicInteger reroute = new AtomicInteger();
 
         TestFetch(ThreadPool threadPool) {
@@ -387,6 +407,10 @@ public class AsyncShardFetchTests extends ESTestCase {
             simulations.put(nodeId, new Entry(null, t));
         }
 
+        public void addKnownResponse(String nodeId, Response response) {
+            knownResponses.put(nodeId, response);
+        }
+
         public void fireSimulationAndWait(String nodeId) throws InterruptedException {
             simulations.get(nodeId).executeLatch.countDown();
             simulations.get(nodeId).waitLatch.await();
@@ -398,6 +422,11 @@ public class AsyncShardFetchTests extends ESTestCase {
             reroute.incrementAndGet();
         }
 
+        @Override
+        protected Response getKnownResponse(DiscoveryNode node) {
+            return knownResponses.get(node.getId());
+        }
+
         @Override
         protected void asyncFetch(DiscoveryNode[] nodes, long fetchingRound) {
             for (final DiscoveryNode node : nodes) {
@@ -0,0 +1,194 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.gateway;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.FailedNodeException;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ESAllocationTestCase;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingNodes;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.gateway.TransportNodesListGatewayShardInventory.NodeGatewayShardInventory;
+import org.elasticsearch.gateway.TransportNodesListGatewayShardInventory.NodesGatewayShardInventory;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.VersionUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class NodeShardInventoriesTests extends ESAllocationTestCase {
+
+    private static final String INDEX_UUID = "test-uuid";
+
+    private final DiscoveryNode node1 = newNode("node1");
+    private final DiscoveryNode node2 = newNode("node2");
+    private final ShardId shard0 = new ShardId("test", INDEX_UUID, 0);
+    private final ShardId shard1 = new ShardId("test", INDEX_UUID, 1);
+
+    private final List<DiscoveryNode[]> listedNodes = new ArrayList<>();
+    private final List<ActionListener<NodesGatewayShardInventory>> listeners = new ArrayList<>();
+    private final AtomicInteger reroutes = new AtomicInteger();
+    private final NodeShardInventories inventories = new NodeShardInventories((nodes, listener) -> {
+        listedNodes.add(nodes);
+        listeners.add(listener);
+    }, reroutes::incrementAndGet);
+
+    public void testSkipsNodesWithoutShardFolders() {
+        inventories.beforeAllocation(allocation(DiscoveryNodes.builder().add(node1).add(node2)));
+        assertThat(listedNodes, hasSize(1));
+        assertThat(listedNodes.get(0), arrayContainingInAnyOrder(node1, node2));
+        assertTrue(inventories.isFetching());
+        assertThat(inventories.getNumberOfInFlightFetches(), equalTo(2));
+        assertTrue(inventories.mayHaveCopy(node1, shard0));
+        assertTrue(inventories.mayHaveCopy(node2, shard0));
+
+        listeners.get(0)
+            .onResponse(
+                response(
+                    List.of(inventory(node1, Map.of(INDEX_UUID, Set.of(0))), inventory(node2, Map.of())),
+                    Collections.emptyList()
+                )
+            );
+        assertThat(reroutes.get(), equalTo(1));
+        assertFalse(inventories.isFetching());
+        assertTrue(inventories.mayHaveCopy(node1, shard0));
+        assertFalse(inventories.mayHaveCopy(node1, shard1));
+        assertFalse(inventories.mayHaveCopy(node2, shard0));
+        assertFalse(inventories.mayHaveCopy(node2, shard1));
+
+        // nodes are only listed once
+        inventories.beforeAllocation(allocation(DiscoveryNodes.builder().add(node1).add(node2)));
+        assertThat(listedNodes, hasSize(1));
+    }
+
+    public void testFallsBackToFetchingOnFailure() {
+        inventories.beforeAllocation(allocation(DiscoveryNodes.builder().add(node1).add(node2)));
+        if (randomBoolean()) {
+            listeners.get(0)
+                .onResponse(
+                    response(
+                        List.of(inventory(node1, Map.of())),
+                        List.of(new FailedNodeException(node2.getId(), "simulated", new Exception()))
+                    )
+                );
+            assertFalse(inventories.mayHaveCopy(node1, shard0));
+        } else {
+            listeners.get(0).onFailure(new Exception("simulated"));
+            assertTrue(inventories.mayHaveCopy(node1, shard0));
+        }
+        assertThat(reroutes.get(), equalTo(1));
+        assertFalse(inventories.isFetching());
+        assertTrue(inventories.mayHaveCopy(node2, shard0));
+    }
+
+    public void testDoesNotListOlderNodes() {
+        final DiscoveryNode oldNode = newNode(
+            "old",
+            VersionUtils.randomVersionBetween(
+                random(),
+                Version.CURRENT.minimumCompatibilityVersion(),
+                VersionUtils.getPreviousVersion(TransportNodesListGatewayShardInventory.MINIMUM_VERSION)
+            )
+        );
+        inventories.beforeAllocation(allocation(DiscoveryNodes.builder().add(node1).add(oldNode)));
+        assertThat(listedNodes, hasSize(1));
+        assertThat(listedNodes.get(0), arrayContainingInAnyOrder(node1));
+        listeners.get(0).onResponse(response(List.of(inventory(node1, Map.of())), Collections.emptyList()));
+        assertFalse(inventories.mayHaveCopy(node1, shard0));
+        assertTrue(inventories.mayHaveCopy(oldNode, shard0));
+    }
+
+    public void testShardsAssignedAfterListingMayHaveCopy() {
+        final RoutingAllocation allocation = allocation(DiscoveryNodes.builder().add(node1).add(node2));
+        inventories.beforeAllocation(allocation);
+        listeners.get(0)
+            .onResponse(response(List.of(inventory(node1, Map.of()), inventory(node2, Map.of())), Collections.emptyList()));
+        assertFalse(inventories.mayHaveCopy(node2, shard0));
+
+        final RoutingNodes.UnassignedShards.UnassignedIterator iterator = allocation.routingNodes().unassigned().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().shardId().equals(shard0)) {
+                iterator.initialize(node2.getId(), null, 0L, allocation.changes());
+                break;
+            }
+        }
+        inventories.beforeAllocation(allocation);
+        assertTrue(inventories.mayHaveCopy(node2, shard0));
+        assertFalse(inventories.mayHaveCopy(node2, shard1));
+        assertFalse(inventories.mayHaveCopy(node1, shard0));
+    }
+
+    public void testDiscardsInventoriesOfDepartedNodes() {
+        inventories.beforeAllocation(allocation(DiscoveryNodes.builder().add(node1).add(node2)));
+        listeners.get(0)
+            .onResponse(response(List.of(inventory(node1, Map.of()), inventory(node2, Map.of())), Collections.emptyList()));
+        assertFalse(inventories.mayHaveCopy(node2, shard0));
+
+        inventories.beforeAllocation(allocation(DiscoveryNodes.builder().add(node1)));
+        assertThat(listedNodes, hasSize(1));
+        assertTrue(inventories.mayHaveCopy(node2, shard0));
+        assertFalse(inventories.mayHaveCopy(node1, shard0));
+
+        // a node that rejoins is listed again
+        inventories.beforeAllocation(allocation(DiscoveryNodes.builder().add(node1).add(node2)));
+        assertThat(listedNodes, hasSize(2));
+        assertThat(listedNodes.get(1), arrayContainingInAnyOrder(node2));
+        assertTrue(inventories.mayHaveCopy(node2, shard0));
+    }
+
+    private RoutingAllocation allocation(DiscoveryNodes.Builder nodes) {
+        final Metadata metadata = Metadata.builder()
+            .put(
+                IndexMetadata.builder("test")
+                    .settings(settings(Version.CURRENT).put(IndexMetadata.SETTING_INDEX_UUID, INDEX_UUID))
+                    .numberOfShards(2)
+                    .numberOfReplicas(0)
+            )
+            .build();
+        final ClusterState state = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metadata(metadata)
+            .routingTable(RoutingTable.builder().addAsRecovery(metadata.index("test")).build())
+            .nodes(nodes)
+            .build();
+        return new RoutingAllocation(
+            new AllocationDeciders(Collections.emptyList()),
+            state.mutableRoutingNodes(),
+            state,
+            null,
+            null,
+            System.nanoTime()
+        );
+    }
+
+    private static NodeGatewayShardInventory inventory(DiscoveryNode node, Map<String, Set<Integer>> shardsByIndexUUID) {
+        return new NodeGatewayShardInventory(node, shardsByIndexUUID);
+    }
+
+    private static NodesGatewayShardInventory response(List<NodeGatewayShardInventory> nodes, List<FailedNodeException> failures) {
+        return new NodesGatewayShardInventory(ClusterName.DEFAULT, nodes, failures);
+    }
+}
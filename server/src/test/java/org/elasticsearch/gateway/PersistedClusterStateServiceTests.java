@@ -10,6 +10,7 @@ package org.elasticsearch.gateway;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -70,7 +71,9 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 
@@ -1150,6 +1153,174 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
         }
     }
 
+    public void testPersistsAndReloadsLargeMetadataInPages() throws IOException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createDataPaths())) {
+            final PersistedClusterStateService persistedClusterStateService = newPersistedClusterStateService(nodeEnvironment);
+            final int pageSize = PersistedClusterStateService.DOCUMENT_PAGE_SIZE;
+            final String largeGlobalValue = randomAlphaOfLength(between(pageSize, 3 * pageSize));
+            final String largeIndexValue = randomAlphaOfLength(between(pageSize, 3 * pageSize));
+            final String indexUUID = UUIDs.randomBase64UUID(random());
+
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                ClusterState clusterState = loadPersistedClusterState(persistedClusterStateService);
+                final ClusterState largeClusterState = ClusterState.builder(clusterState)
+                    .metadata(
+                        Metadata.builder(clusterState.metadata())
+                            .version(1L)
+                            .persistentSettings(Settings.builder().put("large.setting", largeGlobalValue).build())
+                            .put(
+                                IndexMetadata.builder("large-index")
+                                    .version(1L)
+                                    .settings(
+                                        Settings.builder()
+                                            .put(IndexMetadata.INDEX_NUMBER_OF_SHARDS_SETTING.getKey(), 1)
+                                            .put(IndexMetadata.INDEX_NUMBER_OF_REPLICAS_SETTING.getKey(), 0)
+                                            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                                            .put(IndexMetadata.SETTING_INDEX_UUID, indexUUID)
+                                            .put("index.large_setting", largeIndexValue)
+                                    )
+                            )
+                            .put(
+                                IndexMetadata.builder("small-index")
+                                    .version(1L)
+                                    .settings(
+                                        Settings.builder()
+                                            .put(IndexMetadata.INDEX_NUMBER_OF_SHARDS_SETTING.getKey(), 1)
+                                            .put(IndexMetadata.INDEX_NUMBER_OF_REPLICAS_SETTING.getKey(), 0)
+                                            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                                            .put(IndexMetadata.SETTING_INDEX_UUID, UUIDs.randomBase64UUID(random()))
+                                    )
+                            )
+                    )
+                    .incrementVersion()
+                    .build();
+                writeState(writer, 0L, largeClusterState, clusterState);
+
+                for (Path dataPath : nodeEnvironment.nodeDataPaths()) {
+                    try (
+                        Directory directory = newFSDirectory(dataPath.resolve(METADATA_DIRECTORY_NAME));
+                        DirectoryReader reader = DirectoryReader.open(directory)
+                    ) {
+                        // both large documents are split into at least two pages, alongside the single page for the small index
+                        assertThat(reader.numDocs(), greaterThanOrEqualTo(5));
+                    }
+                }
+
+                clusterState = loadPersistedClusterState(persistedClusterStateService);
+                assertThat(clusterState.metadata().persistentSettings().get("large.setting"), equalTo(largeGlobalValue));
+                assertThat(clusterState.metadata().index("large-index").getSettings().get("index.large_setting"), equalTo(largeIndexValue));
+                assertThat(clusterState.metadata().index("small-index").getIndexUUID(), not(equalTo(indexUUID)));
+
+                // shrinking the large index to a single page must remove all its previous pages
+                final ClusterState shrunkClusterState = ClusterState.builder(clusterState)
+                    .metadata(
+                        Metadata.builder(clusterState.metadata())
+                            .version(2L)
+                            .put(
+                                IndexMetadata.builder(clusterState.metadata().index("large-index"))
+                                    .version(2L)
+                                    .settings(
+                                        Settings.builder()
+                                            .put(clusterState.metadata().index("large-index").getSettings())
+                                            .put("index.large_setting", "small")
+                                    )
+                            )
+                    )
+                    .incrementVersion()
+                    .build();
+                writeState(writer, 0L, shrunkClusterState, clusterState);
+
+                clusterState = loadPersistedClusterState(persistedClusterStateService);
+                assertThat(clusterState.metadata().persistentSettings().get("large.setting"), equalTo(largeGlobalValue));
+                assertThat(clusterState.metadata().index("large-index").getSettings().get("index.large_setting"), equalTo("small"));
+                assertThat(
+                    clusterState.metadata().index("large-index").getVersion(),
+                    equalTo(shrunkClusterState.metadata().index("large-index").getVersion())
+                );
+                assertThat(clusterState.metadata().indices().size(), equalTo(2));
+            }
+        }
+    }
+
+    @TestLogging(value = "org.elasticsearch.gateway.PersistedClusterStateService:DEBUG", reason = "to check the number of indices written")
+    public void testSkipsIdenticalIndexMetadataInNewTerm() throws IOException, IllegalAccessException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createDataPaths())) {
+            final PersistedClusterStateService persistedClusterStateService = newPersistedClusterStateService(nodeEnvironment);
+
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                final ClusterState emptyState = loadPersistedClusterState(persistedClusterStateService);
+                final ClusterState clusterState = ClusterState.builder(emptyState)
+                    .metadata(
+                        Metadata.builder(emptyState.metadata())
+                            .version(1L)
+                            .coordinationMetadata(CoordinationMetadata.builder(emptyState.coordinationMetadata()).term(1L).build())
+                            .put(
+                                IndexMetadata.builder("unchanged")
+                                    .version(1L)
+                                    .settings(
+                                        Settings.builder()
+                                            .put(IndexMetadata.INDEX_NUMBER_OF_SHARDS_SETTING.getKey(), 1)
+                                            .put(IndexMetadata.INDEX_NUMBER_OF_REPLICAS_SETTING.getKey(), 0)
+                                            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                                            .put(IndexMetadata.SETTING_INDEX_UUID, UUIDs.randomBase64UUID(random()))
+                                    )
+                            )
+                            .put(
+                                IndexMetadata.builder("same-version")
+                                    .version(1L)
+                                    .settings(
+                                        Settings.builder()
+                                            .put(IndexMetadata.INDEX_NUMBER_OF_SHARDS_SETTING.getKey(), 1)
+                                            .put(IndexMetadata.INDEX_NUMBER_OF_REPLICAS_SETTING.getKey(), 0)
+                                            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                                            .put(IndexMetadata.SETTING_INDEX_UUID, UUIDs.randomBase64UUID(random()))
+                                    )
+                            )
+                    )
+                    .incrementVersion()
+                    .build();
+                writer.writeFullStateAndCommit(1L, clusterState);
+
+                // a new master may produce different metadata with the same version, so only the identical instance may be skipped
+                final IndexMetadata sameVersion = clusterState.metadata().index("same-version");
+                final ClusterState newTermState = ClusterState.builder(clusterState)
+                    .metadata(
+                        Metadata.builder(clusterState.metadata())
+                            .coordinationMetadata(CoordinationMetadata.builder(clusterState.coordinationMetadata()).term(2L).build())
+                            .put(
+                                IndexMetadata.builder(sameVersion)
+                                    .settings(Settings.builder().put(sameVersion.getSettings()).put("index.new_term_setting", "value"))
+                                    .build(),
+                                false
+                            )
+                    )
+                    .incrementVersion()
+                    .build();
+                assertSame(clusterState.metadata().index("unchanged"), newTermState.metadata().index("unchanged"));
+                assertThat(newTermState.metadata().index("same-version").getVersion(), equalTo(sameVersion.getVersion()));
+
+                assertExpectedLogs(
+                    2L,
+                    clusterState,
+                    newTermState,
+                    writer,
+                    new MockLogAppender.SeenEventExpectation(
+                        "should skip only the identical index",
+                        PersistedClusterStateService.class.getCanonicalName(),
+                        Level.DEBUG,
+                        "writing cluster state took [*]; "
+                            + "wrote global metadata [true] and metadata for [1] indices and skipped [1] unchanged indices"
+                    )
+                );
+
+                final ClusterState reloadedState = loadPersistedClusterState(persistedClusterStateService);
+                assertThat(reloadedState.metadata().coordinationMetadata().term(), equalTo(2L));
+                assertThat(reloadedState.metadata().index("same-version").getSettings().get("index.new_term_setting"), equalTo("value"));
+                assertNotNull(reloadedState.metadata().index("unchanged"));
+            }
+        }
+    }
+
     public void testFailsIfCorrupt() throws IOException {
         try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createDataPaths())) {
             final PersistedClusterStateService persistedClusterStateService = newPersistedClusterStateService(nodeEnvironment);
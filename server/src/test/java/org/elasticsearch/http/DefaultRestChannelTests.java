@@ -12,6 +12,7 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.settings.Settings;
@@ -19,9 +20,12 @@ import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.ByteArray;
 import org.elasticsearch.common.util.MockBigArrays;
 import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
@@ -30,6 +34,7 @@ import org.elasticsearch.tasks.Task;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.json.JsonXContent;
 import org.junit.After;
@@ -40,10 +45,13 @@ import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.IntStream;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
@@ -243,6 +251,70 @@ public class DefaultRestChannelTests extends ESTestCase {
         // ESTestCase#after will invoke ensureAllArraysAreReleased which will fail if the response content was not released
     }
 
+    @SuppressWarnings("unchecked")
+    public void testChunkedResponse() throws IOException {
+        final Settings settings = Settings.EMPTY;
+        // the transport may not support streaming the response, in which case it must be serialized up-front
+        final boolean streamed = randomBoolean();
+        final TestHttpRequest httpRequest = new TestHttpRequest(HttpRequest.HttpVersion.HTTP_1_1, RestRequest.Method.GET, "/") {
+            @Override
+            public HttpResponse createChunkedResponse(RestStatus status, ChunkedRestResponseBody content) {
+                return streamed ? new TestHttpResponse(status, BytesArray.EMPTY) : null;
+            }
+        };
+        final RestRequest request = RestRequest.request(parserConfig(), httpRequest, httpChannel);
+        final DefaultRestChannel channel = new DefaultRestChannel(
+            httpChannel,
+            httpRequest,
+            request,
+            bigArrays,
+            HttpHandlingSettings.fromSettings(settings),
+            threadPool.getThreadContext(),
+            CorsHandler.fromSettings(settings),
+            null
+        );
+
+        final int fields = between(0, 100);
+        final ChunkedToXContent chunkedToXContent = new ChunkedToXContent() {
+            @Override
+            public Iterator<? extends ToXContent> toXContentChunked(Params params) {
+                return Iterators.concat(
+                    Iterators.single((builder, p) -> builder.startObject()),
+                    IntStream.range(0, fields).<ToXContent>mapToObj(i -> (builder, p) -> builder.field("field_" + i, i)).iterator(),
+                    Iterators.single((builder, p) -> builder.endObject())
+                );
+            }
+
+            @Override
+            public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+                builder.startObject();
+                for (int i = 0; i < fields; i++) {
+                    builder.field("field_" + i, i);
+                }
+                return builder.endObject();
+            }
+        };
+        final ChunkedRestResponseBody body = ChunkedRestResponseBody.fromXContent(chunkedToXContent, request, channel);
+        channel.sendResponse(new ChunkedRestResponse(RestStatus.OK, body));
+
+        Class<ActionListener<Void>> listenerClass = (Class<ActionListener<Void>>) (Class) ActionListener.class;
+        ArgumentCaptor<ActionListener<Void>> listenerCaptor = ArgumentCaptor.forClass(listenerClass);
+        ArgumentCaptor<TestHttpResponse> responseCaptor = ArgumentCaptor.forClass(TestHttpResponse.class);
+        verify(httpChannel).sendResponse(responseCaptor.capture(), listenerCaptor.capture());
+        final TestHttpResponse httpResponse = responseCaptor.getValue();
+        if (streamed) {
+            assertFalse(body.isDone());
+            assertFalse(httpResponse.containsHeader(DefaultRestChannel.CONTENT_LENGTH));
+        } else {
+            assertTrue(body.isDone());
+            final BytesReference expected = BytesReference.bytes(chunkedToXContent.toXContent(JsonXContent.contentBuilder(), request));
+            assertThat(httpResponse.content(), equalTo(expected));
+            assertThat(httpResponse.headers().get(DefaultRestChannel.CONTENT_LENGTH), contains(String.valueOf(expected.length())));
+        }
+        listenerCaptor.getValue().onResponse(null);
+        // ESTestCase#after will invoke ensureAllArraysAreReleased which will fail if the serialized body was not released
+    }
+
     @SuppressWarnings("unchecked")
     public void testConnectionClose() throws Exception {
         final Settings settings = Settings.builder().build();
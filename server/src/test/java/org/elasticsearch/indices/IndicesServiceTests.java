@@ -14,6 +14,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags;
 import org.elasticsearch.action.admin.indices.stats.IndexShardStats;
+import org.elasticsearch.action.admin.indices.stats.ShardStats;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.AliasMetadata;
@@ -552,6 +553,44 @@ public class IndicesServiceTests extends ESSingleNodeTestCase {
         assertThat("unexpected shard stats", indexStats.get(index), equalTo(shardStats));
     }
 
+    public void testShardStatsSnapshots() {
+        createIndex("test", Settings.builder().put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1).build());
+        final IndicesService indicesService = getIndicesService();
+        final IndexShard indexShard = indicesService.indexServiceSafe(resolveIndex("test")).getShard(0);
+        final ShardStatsCache shardStatsCache = indicesService.getShardStatsCache();
+
+        // snapshots are disabled by default
+        final ShardStats freshStats = indicesService.shardStats(indexShard, CommonStatsFlags.ALL);
+        assertNotSame(freshStats, indicesService.shardStats(indexShard, CommonStatsFlags.ALL));
+        assertThat(shardStatsCache.count(), equalTo(0));
+
+        try {
+            assertAcked(
+                client().admin()
+                    .cluster()
+                    .prepareUpdateSettings()
+                    .setPersistentSettings(Settings.builder().put(ShardStatsCache.MAX_AGE_SETTING.getKey(), "1h"))
+            );
+            final ShardStats allStats = indicesService.shardStats(indexShard, CommonStatsFlags.ALL);
+            assertSame(allStats, indicesService.shardStats(indexShard, new CommonStatsFlags(CommonStatsFlags.Flag.values())));
+            assertThat(shardStatsCache.count(), equalTo(1));
+
+            // snapshots are not shared between requests for different stats
+            final ShardStats docsStats = indicesService.shardStats(indexShard, new CommonStatsFlags(CommonStatsFlags.Flag.Docs));
+            assertNotSame(allStats, docsStats);
+            assertNull(docsStats.getStats().getStore());
+            assertThat(shardStatsCache.count(), equalTo(2));
+        } finally {
+            assertAcked(
+                client().admin()
+                    .cluster()
+                    .prepareUpdateSettings()
+                    .setPersistentSettings(Settings.builder().putNull(ShardStatsCache.MAX_AGE_SETTING.getKey()))
+            );
+        }
+        assertThat(shardStatsCache.count(), equalTo(0));
+    }
+
     public void testGetEngineFactory() throws IOException {
         final IndicesService indicesService = getIndicesService();
 
@@ -0,0 +1,98 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class RecoveryFileChunkRequestTests extends ESTestCase {
+
+    public void testSerialization() throws IOException {
+        final Version version = VersionUtils.randomCompatibleVersion(random(), Version.CURRENT);
+        final RecoveryFileChunkRequest outRequest = randomRequest();
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            outRequest.writeTo(out);
+
+            try (StreamInput in = out.bytes().streamInput()) {
+                in.setVersion(version);
+                final RecoveryFileChunkRequest inRequest = new RecoveryFileChunkRequest(in);
+                assertThat(inRequest.recoveryId(), equalTo(outRequest.recoveryId()));
+                assertThat(inRequest.requestSeqNo(), equalTo(outRequest.requestSeqNo()));
+                assertThat(inRequest.shardId(), equalTo(outRequest.shardId()));
+                assertThat(inRequest.metadata().name(), equalTo(outRequest.metadata().name()));
+                assertThat(inRequest.metadata().length(), equalTo(outRequest.metadata().length()));
+                assertThat(inRequest.metadata().checksum(), equalTo(outRequest.metadata().checksum()));
+                assertThat(inRequest.metadata().writtenBy(), equalTo(outRequest.metadata().writtenBy()));
+                assertThat(inRequest.position(), equalTo(outRequest.position()));
+                assertThat(inRequest.content(), equalTo(outRequest.content()));
+                assertThat(inRequest.lastChunk(), equalTo(outRequest.lastChunk()));
+                assertThat(inRequest.totalTranslogOps(), equalTo(outRequest.totalTranslogOps()));
+                assertThat(inRequest.sourceThrottleTimeInNanos(), equalTo(outRequest.sourceThrottleTimeInNanos()));
+                assertEquals(0, in.available());
+                inRequest.decRef();
+            }
+        } finally {
+            outRequest.decRef();
+        }
+    }
+
+    public void testWriteWithoutTrailingBytes() throws IOException {
+        final Version version = VersionUtils.randomCompatibleVersion(random(), Version.CURRENT);
+        final RecoveryFileChunkRequest request = randomRequest();
+        try (BytesStreamOutput fullOut = new BytesStreamOutput(); BytesStreamOutput thinOut = new BytesStreamOutput()) {
+            fullOut.setVersion(version);
+            request.writeTo(fullOut);
+
+            thinOut.setVersion(version);
+            final BytesReference trailingBytes = request.writeWithoutTrailingBytes(thinOut);
+            if (version.onOrAfter(RecoveryFileChunkRequest.CONTENT_LAST_VERSION)) {
+                // the content is not copied
+                assertThat(trailingBytes, sameInstance(request.content()));
+            } else {
+                assertThat(trailingBytes.length(), equalTo(0));
+            }
+            assertThat(thinOut.bytes().length() + trailingBytes.length(), equalTo(fullOut.bytes().length()));
+            trailingBytes.writeTo(thinOut);
+            assertThat(thinOut.bytes(), equalTo(fullOut.bytes()));
+        } finally {
+            request.decRef();
+        }
+    }
+
+    private static RecoveryFileChunkRequest randomRequest() {
+        final long fileLength = randomLongBetween(1L, ByteSizeUnit.GB.toBytes(1L));
+        final String writtenBy = org.apache.lucene.util.Version.LATEST.toString();
+        return new RecoveryFileChunkRequest(
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            new ShardId(randomAlphaOfLength(10), randomAlphaOfLength(10), between(0, 10)),
+            new StoreFileMetadata(randomAlphaOfLength(10), fileLength, randomAlphaOfLength(8), writtenBy),
+            randomLongBetween(0L, fileLength),
+            ReleasableBytesReference.wrap(new BytesArray(randomByteArrayOfLength(between(0, 1024)))),
+            randomBoolean(),
+            between(0, 1000),
+            randomNonNegativeLong()
+        );
+    }
+}
@@ -10,7 +10,9 @@ package org.elasticsearch.search.aggregations.bucket.terms;
 
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.sort.SortOrder;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -20,6 +22,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+
 public class LongTermsTests extends InternalTermsTestCase {
 
     @Override
@@ -173,4 +179,103 @@ public class LongTermsTests extends InternalTermsTestCase {
             return new UnmappedTerms(name, order, requiredSize, minDocCount, metadata);
         }
     }
+
+    public void testPruneOnShard() {
+        boolean asc = randomBoolean();
+        BucketOrder order = BucketOrder.key(asc);
+        int requiredSize = between(1, 20);
+        int pruneSize = between(1, 30);
+        SortOrder keyOrder = randomBoolean() ? null : (asc ? SortOrder.ASC : SortOrder.DESC);
+        List<InternalAggregation> shardResults = new ArrayList<>();
+        List<InternalAggregation> prunedShardResults = new ArrayList<>();
+        int shards = between(2, 5);
+        for (int s = 0; s < shards; s++) {
+            List<LongTerms.Bucket> buckets = new ArrayList<>();
+            Set<Long> terms = new HashSet<>();
+            int numBuckets = between(0, 50);
+            for (int b = 0; b < numBuckets; b++) {
+                terms.add((long) between(0, 60));
+            }
+            for (long term : terms) {
+                buckets.add(new LongTerms.Bucket(term, between(1, 100), InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+            }
+            buckets.sort(BucketOrder.key(true).comparator());
+            LongTerms shardResult = new LongTerms(
+                "terms",
+                BucketOrder.key(true),
+                order,
+                requiredSize,
+                1,
+                null,
+                DocValueFormat.RAW,
+                requiredSize,
+                false,
+                between(0, 10),
+                buckets,
+                0
+            );
+            shardResults.add(shardResult);
+            prunedShardResults.add(shardResult.pruneOnShard(pruneSize, keyOrder));
+        }
+        LongTerms expected = (LongTerms) shardResults.get(0).reduce(shardResults, emptyReduceContextBuilder().forFinalReduction());
+        LongTerms actual = (LongTerms) prunedShardResults.get(0)
+            .reduce(prunedShardResults, emptyReduceContextBuilder().forFinalReduction());
+
+        int prefix = Math.min(pruneSize, expected.getBuckets().size());
+        assertThat(actual.getBuckets().size(), greaterThanOrEqualTo(prefix));
+        for (int b = 0; b < prefix; b++) {
+            assertThat(actual.getBuckets().get(b).getKey(), equalTo(expected.getBuckets().get(b).getKey()));
+            assertThat(actual.getBuckets().get(b).getDocCount(), equalTo(expected.getBuckets().get(b).getDocCount()));
+        }
+        assertThat(totalDocCount(actual), equalTo(totalDocCount(expected)));
+    }
+
+    public void testPruneOnShardUnsafe() {
+        List<LongTerms.Bucket> buckets = new ArrayList<>();
+        for (long term = 0; term < 10; term++) {
+            buckets.add(new LongTerms.Bucket(term, 10 - term, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+        }
+        BucketOrder order = randomFrom(BucketOrder.count(false), BucketOrder.key(true));
+        long minDocCount = BucketOrder.key(true).equals(order) ? 2 : 1;
+        LongTerms terms = new LongTerms(
+            "terms",
+            BucketOrder.key(true),
+            order,
+            10,
+            minDocCount,
+            null,
+            DocValueFormat.RAW,
+            10,
+            false,
+            0,
+            buckets,
+            0
+        );
+        // counts aren't final on a shard and min_doc_count applies to the final counts
+        assertSame(terms, terms.pruneOnShard(3, null));
+
+        LongTerms keyOrdered = new LongTerms(
+            "terms",
+            BucketOrder.key(true),
+            BucketOrder.key(true),
+            10,
+            1,
+            null,
+            DocValueFormat.RAW,
+            10,
+            false,
+            0,
+            buckets,
+            0
+        );
+        // the final result is sorted in the other direction
+        assertSame(keyOrdered, keyOrdered.pruneOnShard(3, SortOrder.DESC));
+        LongTerms pruned = (LongTerms) keyOrdered.pruneOnShard(3, SortOrder.ASC);
+        assertThat(pruned.getBuckets(), hasSize(3));
+        assertThat(pruned.getSumOfOtherDocCounts(), equalTo(7L + 6 + 5 + 4 + 3 + 2 + 1));
+    }
+
+    private static long totalDocCount(LongTerms terms) {
+        return terms.getBuckets().stream().mapToLong(LongTerms.Bucket::getDocCount).sum() + terms.getSumOfOtherDocCounts();
+    }
 }
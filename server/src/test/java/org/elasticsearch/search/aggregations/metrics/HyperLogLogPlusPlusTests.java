@@ -27,6 +27,7 @@ import static org.elasticsearch.search.aggregations.metrics.AbstractCardinalityA
 import static org.elasticsearch.search.aggregations.metrics.AbstractCardinalityAlgorithm.MIN_PRECISION;
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -75,6 +76,51 @@ public class HyperLogLogPlusPlusTests extends ESTestCase {
         assertThat((double) e.cardinality(bucket), closeTo(set.size(), 0.1 * set.size()));
     }
 
+    public void testManyBuckets() {
+        final int p = randomIntBetween(MIN_PRECISION, MAX_PRECISION);
+        final int numBuckets = randomIntBetween(1, 5000);
+        final IntHashSet[] sets = new IntHashSet[numBuckets];
+        for (int i = 0; i < numBuckets; ++i) {
+            sets[i] = new IntHashSet();
+        }
+        try (HyperLogLogPlusPlus counts = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 1)) {
+            final int numValues = randomIntBetween(1, 50000);
+            for (int i = 0; i < numValues; ++i) {
+                // skew the values so some buckets grow their hash tables or upgrade while others stay tiny
+                final int bucket = (int) (Math.pow(randomDouble(), 3) * numBuckets);
+                final int n = randomInt(100000);
+                sets[bucket].add(n);
+                counts.collect(bucket, BitMixer.mix64(n));
+            }
+            for (int bucket = 0; bucket < numBuckets; ++bucket) {
+                final int expected = sets[bucket].size();
+                if (counts.getAlgorithm(bucket) == HyperLogLogPlusPlus.LINEAR_COUNTING) {
+                    // linear counting is only off when encoded hashes collide
+                    assertThat((double) counts.cardinality(bucket), closeTo(expected, Math.max(1, 0.01 * expected)));
+                } else {
+                    assertThat((double) counts.cardinality(bucket), closeTo(expected, 0.1 * expected));
+                }
+            }
+        }
+    }
+
+    public void testSmallBucketsDoNotAllocateRegisters() {
+        final int p = randomIntBetween(14, MAX_PRECISION);
+        final int numBuckets = randomIntBetween(1000, 10000);
+        try (HyperLogLogPlusPlus counts = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 1)) {
+            for (int bucket = 0; bucket < numBuckets; ++bucket) {
+                for (int i = 0; i < 3; ++i) {
+                    counts.collect(bucket, BitMixer.mix64(bucket * 3 + i));
+                }
+            }
+            for (int bucket = 0; bucket < numBuckets; ++bucket) {
+                assertEquals(3, counts.cardinality(bucket));
+            }
+            // a dense structure would need (numBuckets << p) bytes
+            assertThat(counts.ramBytesUsed(), lessThan(((long) numBuckets << p) / 100));
+        }
+    }
+
     public void testMerge() {
         final int p = randomIntBetween(MIN_PRECISION, MAX_PRECISION);
         final HyperLogLogPlusPlus single = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 0);
@@ -90,4 +90,21 @@ public class BucketSortTests extends BasePipelineAggregationTestCase<BucketSortP
             equalTo("Validation Failed: 1: bucket_sort aggregation [foo] must be declared inside of another aggregation;")
         );
     }
+
+    public void testCanReduceOnShard() {
+        assertTrue(new BucketSortPipelineAggregationBuilder("foo", emptyList()).size(3).create().canReduceOnShard());
+        List<FieldSortBuilder> keySort = singletonList(new FieldSortBuilder("_key").order(randomFrom(SortOrder.values())));
+        assertTrue(new BucketSortPipelineAggregationBuilder("foo", keySort).from(2).size(3).create().canReduceOnShard());
+        // without a size every bucket after from is kept
+        assertFalse(new BucketSortPipelineAggregationBuilder("foo", emptyList()).from(2).create().canReduceOnShard());
+        // sorting on a sub-aggregation needs the final values
+        assertFalse(
+            new BucketSortPipelineAggregationBuilder("foo", singletonList(new FieldSortBuilder("bar"))).size(3).create().canReduceOnShard()
+        );
+        assertFalse(
+            new BucketSortPipelineAggregationBuilder("foo", List.of(new FieldSortBuilder("_key"), new FieldSortBuilder("bar"))).size(3)
+                .create()
+                .canReduceOnShard()
+        );
+    }
 }
@@ -9,6 +9,7 @@
 package org.elasticsearch.transport;
 
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
@@ -26,6 +27,12 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThan;
 
 public class DeflateTransportDecompressorTests extends ESTestCase {
 
@@ -128,4 +135,76 @@ public class DeflateTransportDecompressorTests extends ESTestCase {
 
         }
     }
+
+    public void testCompressionWithDictionary() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            final int count = between(1, 10000);
+            try (StreamOutput deflateStream = new OutputStreamStreamOutput(Compression.Scheme.deflateDictionaryOutputStream(output))) {
+                for (int i = 0; i < count; ++i) {
+                    deflateStream.writeInt(i);
+                }
+            }
+
+            BytesReference bytes = output.bytes();
+            assertTrue(Compression.Scheme.isDeflateWithDictionary(bytes));
+
+            TransportDecompressor decompressor = TransportDecompressor.getDecompressor(recycler, bytes);
+            assertEquals(Compression.Scheme.DEFLATE_DICTIONARY, decompressor.getScheme());
+            int split = between(Compression.Scheme.HEADER_LENGTH, bytes.length());
+            int bytesConsumed = decompressor.decompress(bytes.slice(0, split));
+            bytesConsumed += decompressor.decompress(bytes.slice(split, bytes.length() - split));
+            assertEquals(bytes.length(), bytesConsumed);
+            assertTrue(decompressor.isEOS());
+            List<ReleasableBytesReference> pages = new ArrayList<>();
+            ReleasableBytesReference page;
+            while ((page = decompressor.pollDecompressedPage(true)) != null) {
+                pages.add(page);
+            }
+            BytesReference composite = CompositeBytesReference.of(pages.toArray(new BytesReference[0]));
+            assertEquals(4 * count, composite.length());
+            StreamInput streamInput = composite.streamInput();
+            for (int i = 0; i < count; ++i) {
+                assertEquals(i, streamInput.readInt());
+            }
+            Releasables.close(pages);
+            decompressor.close();
+        }
+    }
+
+    public void testDictionaryImprovesCompressionOfSmallMessages() throws IOException {
+        final String document = "{\"@timestamp\":\"2022-01-01T00:00:00.000Z\",\"message\":\"GET / 200\",\"host\":{\"name\":\"node-1\"}}";
+        final byte[] message = document.getBytes(StandardCharsets.UTF_8);
+        final BytesReference withDictionary;
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (OutputStream deflateStream = Compression.Scheme.deflateDictionaryOutputStream(output)) {
+                deflateStream.write(message);
+            }
+            withDictionary = output.bytes();
+        }
+        final BytesReference withoutDictionary;
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (OutputStream deflateStream = CompressorFactory.COMPRESSOR.threadLocalOutputStream(Streams.flushOnCloseStream(output))) {
+                deflateStream.write(message);
+            }
+            withoutDictionary = output.bytes();
+        }
+        assertThat(withDictionary.length(), lessThan(withoutDictionary.length()));
+    }
+
+    public void testUnknownDictionary() throws IOException {
+        final BytesReference bytes;
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (OutputStream deflateStream = Compression.Scheme.deflateDictionaryOutputStream(output)) {
+                deflateStream.write(randomByte());
+            }
+            final byte[] compressed = BytesReference.toBytes(output.bytes());
+            compressed[Compression.Scheme.HEADER_LENGTH - 1] = (byte) (TransportCompressionDictionaries.CURRENT_ID + 1);
+            bytes = new BytesArray(compressed);
+        }
+        final IllegalStateException e = expectThrows(
+            IllegalStateException.class,
+            () -> TransportDecompressor.getDecompressor(recycler, bytes)
+        );
+        assertThat(e.getMessage(), containsString("unknown dictionary"));
+    }
 }
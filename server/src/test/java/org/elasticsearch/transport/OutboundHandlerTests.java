@@ -26,6 +26,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.network.HandlingTimeTracker;
 import org.elasticsearch.common.network.NetworkAddress;
 import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.PageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.core.TimeValue;
@@ -33,6 +34,7 @@ import org.elasticsearch.core.Tuple;
 import org.elasticsearch.core.internal.io.Streams;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.MockLogAppender;
+import org.elasticsearch.test.VersionUtils;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.After;
@@ -40,6 +42,8 @@ import org.junit.Before;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -50,7 +54,10 @@ import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class OutboundHandlerTests extends ESTestCase {
 
@@ -258,6 +265,74 @@ public class OutboundHandlerTests extends ESTestCase {
         assertEquals("header_value", header.getHeaders().v1().get("header"));
     }
 
+    public void testSendInFrames() throws IOException {
+        final int frameSize = between(64, 512);
+        handler.setFrameSize(ByteSizeValue.ofBytes(frameSize));
+        final long requestId = randomLongBetween(0, 300);
+        final String requestValue = randomAlphaOfLength(between(frameSize * 2, frameSize * 10));
+        final String responseValue = randomAlphaOfLength(between(frameSize * 2, frameSize * 10));
+
+        // a request and a response with the same ID are distinct streams of frames
+        final List<Tuple<BytesReference, ActionListener<Void>>> framesInFlight = new ArrayList<>();
+        handler.sendRequest(node, channel, requestId, "action", new TestRequest(requestValue), options, Version.CURRENT, null, false);
+        framesInFlight.add(new Tuple<>(channel.getMessageCaptor().get(), channel.getListenerCaptor().get()));
+        handler.sendResponse(Version.CURRENT, channel, requestId, "action", new TestResponse(responseValue), null, false);
+        framesInFlight.add(new Tuple<>(channel.getMessageCaptor().get(), channel.getListenerCaptor().get()));
+
+        final List<Tuple<Header, BytesReference>> received = new ArrayList<>();
+        int frameCount = 0;
+        while (framesInFlight.isEmpty() == false) {
+            final Tuple<BytesReference, ActionListener<Void>> frame = framesInFlight.remove(between(0, framesInFlight.size() - 1));
+            frameCount += 1;
+            assertThat(frame.v1().length(), lessThanOrEqualTo(frameSize + TcpHeader.headerSize(Version.CURRENT)));
+            message.set(null);
+            pipeline.handleBytes(channel, new ReleasableBytesReference(frame.v1(), () -> {}));
+            if (message.get() != null) {
+                received.add(message.get());
+            }
+
+            // the next frame of a message is only sent once the previous one has been written
+            final BytesReference lastSent = channel.getMessageCaptor().get();
+            frame.v2().onResponse(null);
+            if (channel.getMessageCaptor().get() != lastSent) {
+                framesInFlight.add(new Tuple<>(channel.getMessageCaptor().get(), channel.getListenerCaptor().get()));
+            }
+        }
+
+        assertThat(frameCount, greaterThan(4));
+        assertThat(received, hasSize(2));
+        for (Tuple<Header, BytesReference> receivedMessage : received) {
+            final Header header = receivedMessage.v1();
+            assertEquals(requestId, header.getRequestId());
+            assertEquals(Version.CURRENT, header.getVersion());
+            assertFalse(header.isFrame());
+            if (header.isRequest()) {
+                assertEquals("action", header.getActionName());
+                assertEquals(requestValue, new TestRequest(receivedMessage.v2().streamInput()).value);
+            } else {
+                assertEquals(responseValue, new TestResponse(receivedMessage.v2().streamInput()).value);
+            }
+        }
+        assertNotEquals(received.get(0).v1().isRequest(), received.get(1).v1().isRequest());
+    }
+
+    public void testDoesNotSendFramesToOlderVersions() throws IOException {
+        handler.setFrameSize(ByteSizeValue.ofBytes(between(64, 512)));
+        final Version version = VersionUtils.randomVersionBetween(
+            random(),
+            Version.CURRENT.minimumCompatibilityVersion(),
+            VersionUtils.getPreviousVersion(TcpHeader.VERSION_WITH_FRAMES)
+        );
+        final String value = randomAlphaOfLength(between(1024, 4096));
+        handler.sendRequest(node, channel, randomLongBetween(0, 300), "action", new TestRequest(value), options, version, null, false);
+
+        pipeline.handleBytes(channel, new ReleasableBytesReference(channel.getMessageCaptor().get(), () -> {}));
+        final Tuple<Header, BytesReference> tuple = message.get();
+        assertNotNull(tuple);
+        assertEquals(version, tuple.v1().getVersion());
+        assertEquals(value, new TestRequest(tuple.v2().streamInput()).value);
+    }
+
     public void testErrorResponse() throws IOException {
         ThreadContext threadContext = threadPool.getThreadContext();
         Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
@@ -64,6 +64,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -74,6 +75,7 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.either;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.sameInstance;
 
@@ -502,6 +504,44 @@ public class RemoteClusterConnectionTests extends ESTestCase {
         }
     }
 
+    public void testReconnectInBackground() throws Exception {
+        List<DiscoveryNode> knownNodes = new CopyOnWriteArrayList<>();
+        try (MockTransportService seedTransport = startTransport("seed_node", knownNodes, Version.CURRENT)) {
+            DiscoveryNode seedNode = seedTransport.getLocalDiscoNode();
+            knownNodes.add(seedTransport.getLocalDiscoNode());
+            try (MockTransportService service = MockTransportService.createNewService(Settings.EMPTY, Version.CURRENT, threadPool, null)) {
+                service.start();
+                service.acceptIncomingRequests();
+                String clusterAlias = "test-cluster";
+                Settings settings = Settings.builder()
+                    .put(buildSniffSettings(clusterAlias, addresses(seedNode)))
+                    .put(RemoteClusterService.REMOTE_CLUSTER_RECONNECT_INTERVAL.getKey(), "100ms")
+                    .build();
+
+                try (RemoteClusterConnection connection = new RemoteClusterConnection(settings, clusterAlias, service)) {
+                    // nothing asks for the connection, it is opened in the background
+                    assertBusy(() -> assertTrue(connection.isNodeConnected(seedNode)));
+
+                    // the seed node is unreachable for a while, so the reconnect attempt on disconnect fails
+                    AtomicInteger connectAttempts = new AtomicInteger();
+                    service.addConnectBehavior(seedTransport, (transport, discoveryNode, profile, listener) -> {
+                        connectAttempts.incrementAndGet();
+                        listener.onFailure(new ConnectTransportException(discoveryNode, "simulated"));
+                    });
+                    connection.getConnectionManager().disconnectFromNode(seedNode);
+                    assertFalse(connection.isNodeConnected(seedNode));
+                    // wait for attempts beyond the one that follows the disconnect, which only the background task makes
+                    assertBusy(() -> assertThat(connectAttempts.get(), greaterThan(1)));
+                    assertFalse(connection.isNodeConnected(seedNode));
+
+                    // once the seed node is reachable again the connection is re-opened without any request asking for it
+                    service.clearAllRules();
+                    assertBusy(() -> assertTrue(connection.isNodeConnected(seedNode)));
+                }
+            }
+        }
+    }
+
     public void testNoChannelsExceptREG() throws Exception {
         List<DiscoveryNode> knownNodes = new CopyOnWriteArrayList<>();
         try (MockTransportService seedTransport = startTransport("seed_node", knownNodes, Version.CURRENT)) {
@@ -139,6 +139,7 @@ import org.elasticsearch.xcontent.ContextParser;
 import org.elasticsearch.xcontent.NamedXContentRegistry;
 import org.elasticsearch.xcontent.ParseField;
 import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentParser;
 import org.elasticsearch.xcontent.XContentType;
 
@@ -147,6 +148,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -496,6 +498,28 @@ public abstract class InternalAggregationTestCase<T extends InternalAggregation>
         });
     }
 
+    /**
+     * Test that rendering an aggregation chunk by chunk, as large search
+     * responses are sent over REST, produces exactly the same bytes as
+     * rendering it in one go.
+     */
+    public final void testToXContentChunked() throws IOException {
+        T testInstance = createTestInstanceForXContent();
+        ToXContent.Params params = new ToXContent.MapParams(singletonMap(RestSearchAction.TYPED_KEYS_PARAM, "true"));
+        XContentType xContentType = randomFrom(XContentType.values());
+        boolean humanReadable = randomBoolean();
+        BytesReference expected = toXContent(testInstance, xContentType, params, humanReadable);
+
+        XContentBuilder builder = XContentBuilder.builder(xContentType.xContent()).humanReadable(humanReadable);
+        builder.startObject();
+        Iterator<ToXContent> chunks = testInstance.toXContentChunked(params);
+        while (chunks.hasNext()) {
+            chunks.next().toXContent(builder, params);
+        }
+        builder.endObject();
+        assertEquals(expected, BytesReference.bytes(builder));
+    }
+
     @SuppressWarnings("unchecked")
     protected <P extends ParsedAggregation> P parseAndAssert(
         final InternalAggregation aggregation,
@@ -24,6 +24,7 @@ import org.elasticsearch.search.aggregations.metrics.TDigestState;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.xpack.analytics.aggregations.support.HistogramValuesSource;
+import org.elasticsearch.xpack.analytics.aggregations.support.LogHistogramValues;
 
 import java.io.IOException;
 import java.util.Map;
@@ -38,6 +39,8 @@ abstract class AbstractHistoBackedTDigestPercentilesAggregator extends NumericMe
     protected final ValuesSource valuesSource;
     protected final DocValueFormat formatter;
     protected ObjectArray<TDigestState> states;
+    // buckets collected from log_histogram fields that haven't been added to their digest yet
+    private ObjectArray<LogBucketCounts> logBucketCounts;
     protected final double compression;
     protected final boolean keyed;
 
@@ -57,6 +60,7 @@ abstract class AbstractHistoBackedTDigestPercentilesAggregator extends NumericMe
         this.keyed = keyed;
         this.formatter = formatter;
         this.states = context.bigArrays().newObjectArray(1);
+        this.logBucketCounts = context.bigArrays().newObjectArray(1);
         this.keys = keys;
         this.compression = compression;
     }
@@ -72,6 +76,18 @@ abstract class AbstractHistoBackedTDigestPercentilesAggregator extends NumericMe
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
         final HistogramValues values = ((HistogramValuesSource.Histogram) valuesSource).getHistogramValues(ctx);
+        if (values instanceof LogHistogramValues) {
+            final LogHistogramValues logValues = (LogHistogramValues) values;
+            return new LeafBucketCollectorBase(sub, values) {
+                @Override
+                public void collect(int doc, long bucket) throws IOException {
+                    getExistingOrNewHistogram(bigArrays(), bucket);
+                    if (logValues.advanceExact(doc)) {
+                        getExistingOrNewLogBucketCounts(bigArrays(), bucket, logValues.gamma()).add(logValues.histogram());
+                    }
+                }
+            };
+        }
 
         return new LeafBucketCollectorBase(sub, values) {
             @Override
@@ -97,6 +113,16 @@ abstract class AbstractHistoBackedTDigestPercentilesAggregator extends NumericMe
         return state;
     }
 
+    private LogBucketCounts getExistingOrNewLogBucketCounts(final BigArrays bigArrays, long bucket, double gamma) {
+        logBucketCounts = bigArrays.grow(logBucketCounts, bucket + 1);
+        LogBucketCounts counts = logBucketCounts.get(bucket);
+        if (counts == null) {
+            counts = new LogBucketCounts(gamma, bigArrays);
+            logBucketCounts.set(bucket, counts);
+        }
+        return counts;
+    }
+
     @Override
     public boolean hasMetric(String name) {
         return indexOfKey(keys, Double.parseDouble(name)) >= 0;
@@ -107,12 +133,23 @@ abstract class AbstractHistoBackedTDigestPercentilesAggregator extends NumericMe
             return null;
         }
         final TDigestState state = states.get(bucketOrd);
+        if (state != null && bucketOrd < logBucketCounts.size()) {
+            final LogBucketCounts counts = logBucketCounts.get(bucketOrd);
+            if (counts != null) {
+                counts.addTo(state);
+                logBucketCounts.set(bucketOrd, null);
+                counts.close();
+            }
+        }
         return state;
     }
 
     @Override
     protected void doClose() {
-        Releasables.close(states);
+        for (long i = 0; i < logBucketCounts.size(); i++) {
+            Releasables.close(logBucketCounts.get(i));
+        }
+        Releasables.close(states, logBucketCounts);
     }
 
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.analytics.aggregations.metrics;
+
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.LongHash;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.search.aggregations.metrics.TDigestState;
+import org.elasticsearch.xpack.analytics.aggregations.support.LogHistogramValues;
+
+import java.io.IOException;
+
+/**
+ * Sums the counts of the buckets of many {@code log_histogram} values. Merging a
+ * document only touches a hash table, every distinct bucket is added to the
+ * {@link TDigestState} once when the percentiles are built. The hash tables are
+ * allocated from {@link BigArrays} so that the circuit breaker accounts for them.
+ */
+public final class LogBucketCounts implements Releasable {
+
+    private final double gamma;
+    private final Buckets negative;
+    private final Buckets positive;
+    private long zeroCount;
+
+    public LogBucketCounts(double gamma, BigArrays bigArrays) {
+        this.gamma = gamma;
+        Buckets negative = null;
+        boolean success = false;
+        try {
+            negative = new Buckets(bigArrays);
+            this.positive = new Buckets(bigArrays);
+            success = true;
+        } finally {
+            if (success == false) {
+                Releasables.close(negative);
+            }
+        }
+        this.negative = negative;
+    }
+
+    /**
+     * Merge all the buckets of a histogram.
+     */
+    public void add(LogHistogramValues.LogHistogramValue histogram) throws IOException {
+        while (histogram.next()) {
+            final double value = histogram.value();
+            if (value > 0) {
+                positive.add(histogram.index(), histogram.count());
+            } else if (value < 0) {
+                negative.add(histogram.index(), histogram.count());
+            } else {
+                zeroCount += histogram.count();
+            }
+        }
+    }
+
+    /**
+     * Add the representative value of every bucket to the digest, weighted by its count.
+     */
+    public void addTo(TDigestState state) {
+        for (long id = 0; id < negative.indices.size(); id++) {
+            add(state, -LogHistogramValues.value(negative.indices.get(id), gamma), negative.counts.get(id));
+        }
+        add(state, 0, zeroCount);
+        for (long id = 0; id < positive.indices.size(); id++) {
+            add(state, LogHistogramValues.value(positive.indices.get(id), gamma), positive.counts.get(id));
+        }
+    }
+
+    private static void add(TDigestState state, double value, long count) {
+        // the digest only takes integer weights
+        while (count > 0) {
+            final int weight = (int) Math.min(count, Integer.MAX_VALUE);
+            state.add(value, weight);
+            count -= weight;
+        }
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(negative, positive);
+    }
+
+    /**
+     * The counts of the buckets on one side of zero, by bucket index.
+     */
+    private static final class Buckets implements Releasable {
+        private final BigArrays bigArrays;
+        private final LongHash indices;
+        private LongArray counts;
+
+        Buckets(BigArrays bigArrays) {
+            this.bigArrays = bigArrays;
+            this.indices = new LongHash(1, bigArrays);
+            boolean success = false;
+            try {
+                this.counts = bigArrays.newLongArray(1, true);
+                success = true;
+            } finally {
+                if (success == false) {
+                    indices.close();
+                }
+            }
+        }
+
+        void add(long index, long count) {
+            long id = indices.add(index);
+            if (id < 0) {
+                id = -1 - id;
+            } else {
+                counts = bigArrays.grow(counts, id + 1);
+            }
+            counts.increment(id, count);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(indices, counts);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+package org.elasticsearch.xpack.analytics.aggregations.support;
+
+import org.elasticsearch.index.fielddata.HistogramValue;
+import org.elasticsearch.index.fielddata.HistogramValues;
+
+import java.io.IOException;
+
+/**
+ * {@link HistogramValues} read from a {@code log_histogram} field. Every value of the
+ * histogram is the representative value of a logarithmically sized bucket, so the
+ * histograms of many documents can be merged by summing the counts of the buckets
+ * with the same index instead of re-adding every value.
+ */
+public abstract class LogHistogramValues extends HistogramValues {
+
+    /**
+     * The ratio between the upper and the lower bound of every bucket.
+     */
+    public abstract double gamma();
+
+    @Override
+    public abstract LogHistogramValue histogram() throws IOException;
+
+    /**
+     * A {@link HistogramValue} that also exposes the bucket of the current value.
+     */
+    public abstract static class LogHistogramValue extends HistogramValue {
+
+        /**
+         * The index of the bucket containing the absolute value of the current value.
+         * Meaningless if the current value is {@code 0}.
+         */
+        public abstract long index();
+    }
+
+    /**
+     * The ratio between the bounds of the buckets required to guarantee the provided relative accuracy.
+     */
+    public static double gamma(double relativeAccuracy) {
+        return (1 + relativeAccuracy) / (1 - relativeAccuracy);
+    }
+
+    /**
+     * The index of the bucket containing {@code value}, which must be strictly positive. Bucket
+     * {@code i} contains the values in {@code (gamma^(i-1), gamma^i]}.
+     */
+    public static long index(double value, double gamma) {
+        assert value > 0 : "expected a positive value but got [" + value + "]";
+        return (long) Math.ceil(Math.log(value) / Math.log(gamma));
+    }
+
+    /**
+     * The value representing all the values in the bucket at {@code index}. It is within
+     * the relative accuracy of every value in the bucket.
+     */
+    public static double value(long index, double gamma) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+}
@@ -283,96 +283,16 @@ public class HistogramFieldMapper extends FieldMapper {
                 context.path().remove();
                 return;
             }
-            DoubleArrayList values = null;
-            IntArrayList counts = null;
             // should be an object
             ensureExpectedToken(XContentParser.Token.START_OBJECT, token, context.parser());
             subParser = new XContentSubParser(context.parser());
-            token = subParser.nextToken();
-            while (token != XContentParser.Token.END_OBJECT) {
-                // should be an field
-                ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, subParser);
-                String fieldName = subParser.currentName();
-                if (fieldName.equals(VALUES_FIELD.getPreferredName())) {
-                    token = subParser.nextToken();
-                    // should be an array
-                    ensureExpectedToken(XContentParser.Token.START_ARRAY, token, subParser);
-                    values = new DoubleArrayList();
-                    token = subParser.nextToken();
-                    double previousVal = -Double.MAX_VALUE;
-                    while (token != XContentParser.Token.END_ARRAY) {
-                        // should be a number
-                        ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, subParser);
-                        double val = subParser.doubleValue();
-                        if (val < previousVal) {
-                            // values must be in increasing order
-                            throw new MapperParsingException(
-                                "error parsing field ["
-                                    + name()
-                                    + "], ["
-                                    + VALUES_FIELD
-                                    + "] values must be in increasing order, got ["
-                                    + val
-                                    + "] but previous value was ["
-                                    + previousVal
-                                    + "]"
-                            );
-                        }
-                        values.add(val);
-                        previousVal = val;
-                        token = subParser.nextToken();
-                    }
-                } else if (fieldName.equals(COUNTS_FIELD.getPreferredName())) {
-                    token = subParser.nextToken();
-                    // should be an array
-                    ensureExpectedToken(XContentParser.Token.START_ARRAY, token, subParser);
-                    counts = new IntArrayList();
-                    token = subParser.nextToken();
-                    while (token != XContentParser.Token.END_ARRAY) {
-                        // should be a number
-                        ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, subParser);
-                        counts.add(subParser.intValue());
-                        token = subParser.nextToken();
-                    }
-                } else {
-                    throw new MapperParsingException("error parsing field [" + name() + "], with unknown parameter [" + fieldName + "]");
-                }
-                token = subParser.nextToken();
-            }
-            if (values == null) {
-                throw new MapperParsingException(
-                    "error parsing field [" + name() + "], expected field called [" + VALUES_FIELD.getPreferredName() + "]"
-                );
-            }
-            if (counts == null) {
-                throw new MapperParsingException(
-                    "error parsing field [" + name() + "], expected field called [" + COUNTS_FIELD.getPreferredName() + "]"
-                );
-            }
-            if (values.size() != counts.size()) {
-                throw new MapperParsingException(
-                    "error parsing field ["
-                        + name()
-                        + "], expected same length from ["
-                        + VALUES_FIELD.getPreferredName()
-                        + "] and "
-                        + "["
-                        + COUNTS_FIELD.getPreferredName()
-                        + "] but got ["
-                        + values.size()
-                        + " != "
-                        + counts.size()
-                        + "]"
-                );
-            }
+            ValuesAndCounts histogram = parseValuesAndCounts(name(), subParser, true);
+            DoubleArrayList values = histogram.values();
+            IntArrayList counts = histogram.counts();
             BytesStreamOutput streamOutput = new BytesStreamOutput();
             for (int i = 0; i < values.size(); i++) {
                 int count = counts.get(i);
-                if (count < 0) {
-                    throw new MapperParsingException(
-                        "error parsing field [" + name() + "], [" + COUNTS_FIELD + "] elements must be >= 0 but got " + counts.get(i)
-                    );
-                } else if (count > 0) {
+                if (count > 0) {
                     // we do not add elements with count == 0
                     streamOutput.writeVInt(count);
                     streamOutput.writeLong(Double.doubleToRawLongBits(values.get(i)));
@@ -405,6 +325,106 @@ public class HistogramFieldMapper extends FieldMapper {
         context.path().remove();
     }
 
+    /**
+     * The {@code values} and {@code counts} of a pre-aggregated histogram, as found in the source of a document.
+     */
+    record ValuesAndCounts(DoubleArrayList values, IntArrayList counts) {}
+
+    /**
+     * Parses the {@code values} and {@code counts} of a pre-aggregated histogram from a parser that was just positioned on the start of
+     * the object that holds them. Both arrays must be present and have the same length, and all counts must be positive or zero. Shared
+     * by the histogram field types, which only differ in how they encode what they parsed.
+     */
+    static ValuesAndCounts parseValuesAndCounts(String name, XContentParser parser, boolean increasingValues) throws IOException {
+        DoubleArrayList values = null;
+        IntArrayList counts = null;
+        XContentParser.Token token = parser.nextToken();
+        while (token != XContentParser.Token.END_OBJECT) {
+            // should be an field
+            ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser);
+            String fieldName = parser.currentName();
+            if (fieldName.equals(VALUES_FIELD.getPreferredName())) {
+                token = parser.nextToken();
+                // should be an array
+                ensureExpectedToken(XContentParser.Token.START_ARRAY, token, parser);
+                values = new DoubleArrayList();
+                token = parser.nextToken();
+                double previousVal = -Double.MAX_VALUE;
+                while (token != XContentParser.Token.END_ARRAY) {
+                    // should be a number
+                    ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, parser);
+                    double val = parser.doubleValue();
+                    if (increasingValues && val < previousVal) {
+                        // values must be in increasing order
+                        throw new MapperParsingException(
+                            "error parsing field ["
+                                + name
+                                + "], ["
+                                + VALUES_FIELD
+                                + "] values must be in increasing order, got ["
+                                + val
+                                + "] but previous value was ["
+                                + previousVal
+                                + "]"
+                        );
+                    }
+                    values.add(val);
+                    previousVal = val;
+                    token = parser.nextToken();
+                }
+            } else if (fieldName.equals(COUNTS_FIELD.getPreferredName())) {
+                token = parser.nextToken();
+                // should be an array
+                ensureExpectedToken(XContentParser.Token.START_ARRAY, token, parser);
+                counts = new IntArrayList();
+                token = parser.nextToken();
+                while (token != XContentParser.Token.END_ARRAY) {
+                    // should be a number
+                    ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, parser);
+                    counts.add(parser.intValue());
+                    token = parser.nextToken();
+                }
+            } else {
+                throw new MapperParsingException("error parsing field [" + name + "], with unknown parameter [" + fieldName + "]");
+            }
+            token = parser.nextToken();
+        }
+        if (values == null) {
+            throw new MapperParsingException(
+                "error parsing field [" + name + "], expected field called [" + VALUES_FIELD.getPreferredName() + "]"
+            );
+        }
+        if (counts == null) {
+            throw new MapperParsingException(
+                "error parsing field [" + name + "], expected field called [" + COUNTS_FIELD.getPreferredName() + "]"
+            );
+        }
+        if (values.size() != counts.size()) {
+            throw new MapperParsingException(
+                "error parsing field ["
+                    + name
+                    + "], expected same length from ["
+                    + VALUES_FIELD.getPreferredName()
+                    + "] and "
+                    + "["
+                    + COUNTS_FIELD.getPreferredName()
+                    + "] but got ["
+                    + values.size()
+                    + " != "
+                    + counts.size()
+                    + "]"
+            );
+        }
+        for (int i = 0; i < counts.size(); i++) {
+            if (counts.get(i) < 0) {
+                throw new MapperParsingException(
+                    "error parsing field [" + name + "], [" + COUNTS_FIELD + "] elements must be >= 0 but got " + counts.get(i)
+                );
+            }
+        }
+        return new ValuesAndCounts(values, counts);
+    }
+
     /** re-usable {@link HistogramValue} implementation */
     private static class InternalHistogramValue extends HistogramValue {
         double value;
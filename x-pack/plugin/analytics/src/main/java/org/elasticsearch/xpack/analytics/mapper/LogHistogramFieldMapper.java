@@ -0,0 +1,482 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+package org.elasticsearch.xpack.analytics.mapper;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Explicit;
+import org.elasticsearch.common.io.stream.ByteArrayStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
+import org.elasticsearch.index.fielddata.IndexHistogramFieldData;
+import org.elasticsearch.index.fielddata.LeafHistogramFieldData;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.index.mapper.DocumentParserContext;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MapperBuilderContext;
+import org.elasticsearch.index.mapper.MapperParsingException;
+import org.elasticsearch.index.mapper.SourceValueFetcher;
+import org.elasticsearch.index.mapper.TextSearchInfo;
+import org.elasticsearch.index.mapper.ValueFetcher;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.script.field.DocValuesField;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.MultiValueMode;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.search.sort.BucketedSort;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xcontent.XContentSubParser;
+import org.elasticsearch.xpack.analytics.aggregations.support.AnalyticsValuesSourceType;
+import org.elasticsearch.xpack.analytics.aggregations.support.LogHistogramValues;
+import org.elasticsearch.xpack.analytics.mapper.HistogramFieldMapper.ValuesAndCounts;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static org.elasticsearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
+import static org.elasticsearch.xpack.analytics.mapper.HistogramFieldMapper.COUNTS_FIELD;
+import static org.elasticsearch.xpack.analytics.mapper.HistogramFieldMapper.VALUES_FIELD;
+
+/**
+ * Field Mapper for pre-aggregated histograms stored as logarithmically sized buckets.
+ * <p>
+ * Values are accepted in the same format as the {@code histogram} field but they are
+ * folded into buckets whose bounds grow by a constant ratio, so that every bucket is
+ * represented by a value within {@code relative_accuracy} of all the values it contains.
+ * Because all documents of a field share the same buckets, the histograms of many documents
+ * can be merged by summing counts, which is what the {@code percentiles} and
+ * {@code percentile_ranks} aggregations do instead of feeding every value to their digest.
+ */
+public class LogHistogramFieldMapper extends FieldMapper {
+    public static final String CONTENT_TYPE = "log_histogram";
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    private static LogHistogramFieldMapper toType(FieldMapper in) {
+        return (LogHistogramFieldMapper) in;
+    }
+
+    public static class Builder extends FieldMapper.Builder {
+
+        private final Parameter<Map<String, String>> meta = Parameter.metaParam();
+        private final Parameter<Explicit<Boolean>> ignoreMalformed;
+        private final Parameter<Double> relativeAccuracy = new Parameter<>(
+            "relative_accuracy",
+            false,
+            () -> DEFAULT_RELATIVE_ACCURACY,
+            (n, c, o) -> XContentMapValues.nodeDoubleValue(o),
+            m -> toType(m).relativeAccuracy
+        ).addValidator(v -> {
+            if (v <= 0 || v >= 1) {
+                throw new IllegalArgumentException("[relative_accuracy] must be in (0, 1) but was [" + v + "]");
+            }
+        });
+
+        public Builder(String name, boolean ignoreMalformedByDefault) {
+            super(name);
+            this.ignoreMalformed = Parameter.explicitBoolParam(
+                "ignore_malformed",
+                true,
+                m -> toType(m).ignoreMalformed,
+                ignoreMalformedByDefault
+            );
+        }
+
+        @Override
+        protected List<Parameter<?>> getParameters() {
+            return List.of(ignoreMalformed, relativeAccuracy, meta);
+        }
+
+        @Override
+        public LogHistogramFieldMapper build(MapperBuilderContext context) {
+            return new LogHistogramFieldMapper(
+                name,
+                new LogHistogramFieldType(context.buildFullName(name), meta.getValue(), relativeAccuracy.getValue()),
+                multiFieldsBuilder.build(this, context),
+                copyTo.build(),
+                this
+            );
+        }
+    }
+
+    public static final TypeParser PARSER = new TypeParser(
+        (n, c) -> new Builder(n, IGNORE_MALFORMED_SETTING.get(c.getSettings())),
+        notInMultiFields(CONTENT_TYPE)
+    );
+
+    private final Explicit<Boolean> ignoreMalformed;
+    private final boolean ignoreMalformedByDefault;
+    private final double relativeAccuracy;
+
+    public LogHistogramFieldMapper(
+        String simpleName,
+        MappedFieldType mappedFieldType,
+        MultiFields multiFields,
+        CopyTo copyTo,
+        Builder builder
+    ) {
+        super(simpleName, mappedFieldType, multiFields, copyTo);
+        this.ignoreMalformed = builder.ignoreMalformed.getValue();
+        this.ignoreMalformedByDefault = builder.ignoreMalformed.getDefaultValue().value();
+        this.relativeAccuracy = builder.relativeAccuracy.getValue();
+    }
+
+    boolean ignoreMalformed() {
+        return ignoreMalformed.value();
+    }
+
+    @Override
+    public LogHistogramFieldType fieldType() {
+        return (LogHistogramFieldType) super.fieldType();
+    }
+
+    @Override
+    protected String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public FieldMapper.Builder getMergeBuilder() {
+        return new Builder(simpleName(), ignoreMalformedByDefault).init(this);
+    }
+
+    @Override
+    protected void parseCreateField(DocumentParserContext context) {
+        throw new UnsupportedOperationException("Parsing is implemented in parse(), this method should NEVER be called");
+    }
+
+    public static class LogHistogramFieldType extends MappedFieldType {
+
+        private final double gamma;
+
+        public LogHistogramFieldType(String name, Map<String, String> meta, double relativeAccuracy) {
+            super(name, false, false, true, TextSearchInfo.NONE, meta);
+            this.gamma = LogHistogramValues.gamma(relativeAccuracy);
+        }
+
+        @Override
+        public String typeName() {
+            return CONTENT_TYPE;
+        }
+
+        /**
+         * The ratio between the upper and the lower bound of the buckets of this field.
+         */
+        public double gamma() {
+            return gamma;
+        }
+
+        @Override
+        public ValueFetcher valueFetcher(SearchExecutionContext context, String format) {
+            return SourceValueFetcher.identity(name(), context, format);
+        }
+
+        @Override
+        public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName, Supplier<SearchLookup> searchLookup) {
+            failIfNoDocValues();
+            return (cache, breakerService) -> new IndexHistogramFieldData(name(), AnalyticsValuesSourceType.HISTOGRAM) {
+
+                @Override
+                public LeafHistogramFieldData load(LeafReaderContext context) {
+                    return new LeafHistogramFieldData() {
+                        @Override
+                        public LogHistogramValues getHistogramValues() throws IOException {
+                            try {
+                                final BinaryDocValues values = DocValues.getBinary(context.reader(), fieldName);
+                                final InternalLogHistogramValue value = new InternalLogHistogramValue(gamma);
+                                return new LogHistogramValues() {
+
+                                    @Override
+                                    public boolean advanceExact(int doc) throws IOException {
+                                        return values.advanceExact(doc);
+                                    }
+
+                                    @Override
+                                    public double gamma() {
+                                        return gamma;
+                                    }
+
+                                    @Override
+                                    public LogHistogramValue histogram() throws IOException {
+                                        try {
+                                            value.reset(values.binaryValue());
+                                            return value;
+                                        } catch (IOException e) {
+                                            throw new IOException("Cannot load doc value", e);
+                                        }
+                                    }
+                                };
+                            } catch (IOException e) {
+                                throw new IOException("Cannot load doc values", e);
+                            }
+                        }
+
+                        @Override
+                        public DocValuesField<?> getScriptField(String name) {
+                            throw new UnsupportedOperationException("The [" + CONTENT_TYPE + "] field does not support scripts");
+                        }
+
+                        @Override
+                        public SortedBinaryDocValues getBytesValues() {
+                            throw new UnsupportedOperationException(
+                                "String representation of doc values for [" + CONTENT_TYPE + "] fields is not supported"
+                            );
+                        }
+
+                        @Override
+                        public long ramBytesUsed() {
+                            return 0; // Unknown
+                        }
+
+                        @Override
+                        public void close() {
+
+                        }
+                    };
+                }
+
+                @Override
+                public LeafHistogramFieldData loadDirect(LeafReaderContext context) {
+                    return load(context);
+                }
+
+                @Override
+                public SortField sortField(Object missingValue, MultiValueMode sortMode, Nested nested, boolean reverse) {
+                    throw new UnsupportedOperationException("can't sort on the [" + CONTENT_TYPE + "] field");
+                }
+
+                @Override
+                public BucketedSort newBucketedSort(
+                    BigArrays bigArrays,
+                    Object missingValue,
+                    MultiValueMode sortMode,
+                    Nested nested,
+                    SortOrder sortOrder,
+                    DocValueFormat format,
+                    int bucketSize,
+                    BucketedSort.ExtraData extra
+                ) {
+                    throw new IllegalArgumentException("can't sort on the [" + CONTENT_TYPE + "] field");
+                }
+            };
+        }
+
+        @Override
+        public Query termQuery(Object value, SearchExecutionContext context) {
+            throw new IllegalArgumentException(
+                "[" + CONTENT_TYPE + "] field do not support searching, use dedicated aggregations instead: [" + name() + "]"
+            );
+        }
+    }
+
+    @Override
+    public void parse(DocumentParserContext context) throws IOException {
+        context.path().add(simpleName());
+        XContentParser.Token token;
+        XContentSubParser subParser = null;
+        try {
+            token = context.parser().currentToken();
+            if (token == XContentParser.Token.VALUE_NULL) {
+                context.path().remove();
+                return;
+            }
+            // should be an object
+            ensureExpectedToken(XContentParser.Token.START_OBJECT, token, context.parser());
+            subParser = new XContentSubParser(context.parser());
+            // the values are folded into buckets, so unlike for the histogram field they don't need to be sorted
+            ValuesAndCounts histogram = HistogramFieldMapper.parseValuesAndCounts(name(), subParser, false);
+            DoubleArrayList values = histogram.values();
+            IntArrayList counts = histogram.counts();
+            final double gamma = fieldType().gamma();
+            final NavigableMap<Long, Long> negative = new TreeMap<>();
+            final NavigableMap<Long, Long> positive = new TreeMap<>();
+            long zeroCount = 0;
+            for (int i = 0; i < values.size(); i++) {
+                final int count = counts.get(i);
+                final double value = values.get(i);
+                if (Double.isFinite(value) == false) {
+                    throw new MapperParsingException(
+                        "error parsing field [" + name() + "], [" + VALUES_FIELD + "] elements must be finite but got " + value
+                    );
+                } else if (count == 0) {
+                    // we do not add elements with count == 0
+                    continue;
+                }
+                if (value > 0) {
+                    positive.merge(LogHistogramValues.index(value, gamma), (long) count, Long::sum);
+                } else if (value < 0) {
+                    negative.merge(LogHistogramValues.index(-value, gamma), (long) count, Long::sum);
+                } else {
+                    zeroCount += count;
+                }
+            }
+            BytesStreamOutput streamOutput = new BytesStreamOutput();
+            // buckets are written by increasing value so negative buckets go first, by decreasing index
+            writeBuckets(streamOutput, negative.descendingMap());
+            streamOutput.writeVInt(checkCount(zeroCount));
+            writeBuckets(streamOutput, positive);
+            BytesRef docValue = streamOutput.bytes().toBytesRef();
+            Field field = new BinaryDocValuesField(name(), docValue);
+            if (context.doc().getByKey(fieldType().name()) != null) {
+                throw new IllegalArgumentException(
+                    "Field ["
+                        + name()
+                        + "] of type ["
+                        + typeName()
+                        + "] doesn't not support indexing multiple values for the same field in the same document"
+                );
+            }
+            context.doc().addWithKey(fieldType().name(), field);
+
+        } catch (Exception ex) {
+            if (ignoreMalformed.value() == false) {
+                throw new MapperParsingException("failed to parse field [{}] of type [{}]", ex, fieldType().name(), fieldType().typeName());
+            }
+
+            if (subParser != null) {
+                // close the subParser so we advance to the end of the object
+                subParser.close();
+            }
+            context.addIgnoredField(fieldType().name());
+        }
+        context.path().remove();
+    }
+
+    private void writeBuckets(BytesStreamOutput out, Map<Long, Long> buckets) throws IOException {
+        out.writeVInt(buckets.size());
+        long previousIndex = 0;
+        for (Map.Entry<Long, Long> bucket : buckets.entrySet()) {
+            out.writeZLong(bucket.getKey() - previousIndex);
+            out.writeVInt(checkCount(bucket.getValue()));
+            previousIndex = bucket.getKey();
+        }
+    }
+
+    private int checkCount(long count) {
+        if (count > Integer.MAX_VALUE) {
+            throw new MapperParsingException(
+                "error parsing field [" + name() + "], the sum of the [" + COUNTS_FIELD + "] of a bucket must fit in an integer"
+            );
+        }
+        return (int) count;
+    }
+
+    /** re-usable {@link LogHistogramValues.LogHistogramValue} implementation */
+    static class InternalLogHistogramValue extends LogHistogramValues.LogHistogramValue {
+        private static final int NEGATIVE = 0;
+        private static final int ZERO = 1;
+        private static final int POSITIVE = 2;
+
+        final double gamma;
+        final ByteArrayStreamInput streamInput;
+        int section;
+        int remaining;
+        long index;
+        double value;
+        int count;
+        boolean isExhausted;
+
+        InternalLogHistogramValue(double gamma) {
+            this.gamma = gamma;
+            streamInput = new ByteArrayStreamInput();
+        }
+
+        /** reset the value for the histogram */
+        void reset(BytesRef bytesRef) throws IOException {
+            streamInput.reset(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+            isExhausted = false;
+            section = NEGATIVE;
+            remaining = streamInput.readVInt();
+            index = 0;
+            value = 0;
+            count = 0;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while (isExhausted == false) {
+                switch (section) {
+                    case NEGATIVE:
+                        if (remaining > 0) {
+                            remaining--;
+                            index += streamInput.readZLong();
+                            count = streamInput.readVInt();
+                            value = -LogHistogramValues.value(index, gamma);
+                            return true;
+                        }
+                        section = ZERO;
+                        count = streamInput.readVInt();
+                        if (count > 0) {
+                            value = 0;
+                            return true;
+                        }
+                        break;
+                    case ZERO:
+                        section = POSITIVE;
+                        remaining = streamInput.readVInt();
+                        index = 0;
+                        break;
+                    case POSITIVE:
+                        if (remaining > 0) {
+                            remaining--;
+                            index += streamInput.readZLong();
+                            count = streamInput.readVInt();
+                            value = LogHistogramValues.value(index, gamma);
+                            return true;
+                        }
+                        isExhausted = true;
+                        break;
+                    default:
+                        throw new IllegalStateException("unknown section [" + section + "]");
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long index() {
+            if (isExhausted) {
+                throw new IllegalArgumentException("histogram already exhausted");
+            }
+            return index;
+        }
+
+        @Override
+        public double value() {
+            if (isExhausted) {
+                throw new IllegalArgumentException("histogram already exhausted");
+            }
+            return value;
+        }
+
+        @Override
+        public int count() {
+            if (isExhausted) {
+                throw new IllegalArgumentException("histogram already exhausted");
+            }
+            return count;
+        }
+    }
+}
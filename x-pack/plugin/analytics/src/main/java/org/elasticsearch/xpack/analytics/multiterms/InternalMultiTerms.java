@@ -21,11 +21,13 @@ import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.aggregations.InternalOrder;
 import org.elasticsearch.search.aggregations.KeyComparable;
 import org.elasticsearch.search.aggregations.bucket.terms.AbstractInternalTerms;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -593,6 +595,11 @@ public class InternalMultiTerms extends AbstractInternalTerms<InternalMultiTerms
         return doXContentCommon(builder, params, docCountError, otherDocCount, buckets);
     }
 
+    @Override
+    protected Iterator<ToXContent> doXContentBodyChunked(Params params) {
+        return doXContentCommonChunked(docCountError, otherDocCount, buckets);
+    }
+
     @Override
     public String getWriteableName() {
         return MultiTermsAggregationBuilder.NAME;
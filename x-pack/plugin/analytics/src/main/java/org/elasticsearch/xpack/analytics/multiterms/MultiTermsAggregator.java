@@ -9,7 +9,9 @@ package org.elasticsearch.xpack.analytics.multiterms;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.PriorityQueue;
@@ -18,7 +20,11 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.LongTupleHash;
 import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
@@ -35,6 +41,7 @@ import org.elasticsearch.search.aggregations.bucket.DeferableBucketAggregator;
 import org.elasticsearch.search.aggregations.bucket.terms.BucketPriorityQueue;
 import org.elasticsearch.search.aggregations.bucket.terms.BytesKeyedBucketOrds;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregator;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregatorFactory;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
@@ -46,6 +53,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
@@ -72,7 +80,7 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
     private final boolean needsScore;
     private final List<InternalMultiTerms.KeyConverter> keyConverters;
 
-    private final BytesKeyedBucketOrds bucketOrds;
+    private final CollectionStrategy collectionStrategy;
 
     protected MultiTermsAggregator(
         String name,
@@ -110,7 +118,19 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
             .map(c -> context.getValuesSourceRegistry().getAggregator(REGISTRY_KEY, c).build(c))
             .collect(Collectors.toList());
         keyConverters = values.stream().map(TermValuesSource::keyConverter).collect(Collectors.toList());
-        bucketOrds = BytesKeyedBucketOrds.build(context.bigArrays(), cardinality);
+        collectionStrategy = buildCollectionStrategy(context, cardinality);
+    }
+
+    private CollectionStrategy buildCollectionStrategy(AggregationContext context, CardinalityUpperBound cardinality) throws IOException {
+        List<PackedTermValuesSource> packed = new ArrayList<>(values.size());
+        for (TermValuesSource termValuesSource : values) {
+            PackedTermValuesSource packedSource = termValuesSource.packed(context);
+            if (packedSource == null) {
+                return new BytesCollectionStrategy(BytesKeyedBucketOrds.build(context.bigArrays(), cardinality));
+            }
+            packed.add(packedSource);
+        }
+        return new PackedCollectionStrategy(packed, cardinality, context.bigArrays());
     }
 
     private boolean subAggsNeedScore() {
@@ -156,9 +176,7 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
     }
 
     /**
-     * Packs a list of terms into ByteRef so we can use BytesKeyedBucketOrds
-     *
-     * TODO: this is a temporary solution, we should replace it with a more optimal mechanism instead of relying on BytesKeyedBucketOrds
+     * Packs a list of terms into ByteRef so we can use BytesKeyedBucketOrds when the terms can't be packed into longs
      */
     static BytesRef packKey(List<Object> terms) {
         try (BytesStreamOutput output = new BytesStreamOutput()) {
@@ -171,8 +189,6 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
 
     /**
      * Unpacks ByteRef back into a list of terms
-     *
-     * TODO: this is a temporary solution, we should replace it with a more optimal mechanism instead of relying on BytesKeyedBucketOrds
      */
     static List<Object> unpackTerms(BytesRef termsBytes) {
         try (StreamInput input = new BytesArray(termsBytes).streamInput()) {
@@ -184,45 +200,18 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
 
     @Override
     public LeafBucketCollector getLeafCollector(LeafReaderContext ctx, LeafBucketCollector sub) throws IOException {
-        List<TermValues> termValuesList = termValuesList(ctx);
-
-        return new LeafBucketCollectorBase(sub, values) {
-            @Override
-            public void collect(int doc, long owningBucketOrd) throws IOException {
-                List<List<Object>> terms = docTerms(termValuesList, doc);
-                if (terms != null) {
-                    List<Object> path = new ArrayList<>(terms.size());
-                    new CheckedConsumer<Integer, IOException>() {
-                        @Override
-                        public void accept(Integer start) throws IOException {
-                            for (Object term : terms.get(start)) {
-                                if (start == path.size()) {
-                                    path.add(term);
-                                } else {
-                                    path.set(start, term);
-                                }
-                                if (start < terms.size() - 1) {
-                                    this.accept(start + 1);
-                                } else {
-                                    long bucketOrd = bucketOrds.add(owningBucketOrd, packKey(path));
-                                    if (bucketOrd < 0) { // already seen
-                                        bucketOrd = -1 - bucketOrd;
-                                        collectExistingBucket(sub, doc, bucketOrd);
-                                    } else {
-                                        collectBucket(sub, doc, bucketOrd);
-                                    }
-                                }
-                            }
-                        }
-                    }.accept(0);
-                }
-            }
-        };
+        return collectionStrategy.getLeafCollector(ctx, sub);
     }
 
     @Override
     protected void doClose() {
-        Releasables.close(bucketOrds);
+        Releasables.close(collectionStrategy);
+    }
+
+    @Override
+    public void collectDebugInfo(BiConsumer<String, Object> add) {
+        super.collectDebugInfo(add);
+        add.accept("collection_strategy", collectionStrategy.describe());
     }
 
     @Override
@@ -230,13 +219,12 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
         InternalMultiTerms.Bucket[][] topBucketsPerOrd = new InternalMultiTerms.Bucket[owningBucketOrds.length][];
         long[] otherDocCounts = new long[owningBucketOrds.length];
         for (int ordIdx = 0; ordIdx < owningBucketOrds.length; ordIdx++) {
-            long bucketsInOrd = bucketOrds.bucketsInOrd(owningBucketOrds[ordIdx]);
+            long bucketsInOrd = collectionStrategy.bucketsInOrd(owningBucketOrds[ordIdx]);
 
             int size = (int) Math.min(bucketsInOrd, bucketCountThresholds.getShardSize());
             PriorityQueue<InternalMultiTerms.Bucket> ordered = new BucketPriorityQueue<>(size, partiallyBuiltBucketComparator);
             InternalMultiTerms.Bucket spare = null;
-            BytesRef spareKey = null;
-            BytesKeyedBucketOrds.BucketOrdsEnum ordsEnum = bucketOrds.ordsEnum(owningBucketOrds[ordIdx]);
+            BucketOrdsEnum ordsEnum = collectionStrategy.ordsEnum(owningBucketOrds[ordIdx]);
             while (ordsEnum.next()) {
                 long docCount = bucketDocCount(ordsEnum.ord());
                 otherDocCounts[ordIdx] += docCount;
@@ -245,10 +233,8 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
                 }
                 if (spare == null) {
                     spare = new InternalMultiTerms.Bucket(null, 0, null, showTermDocCountError, 0, formats, keyConverters);
-                    spareKey = new BytesRef();
                 }
-                ordsEnum.readValue(spareKey);
-                spare.terms = unpackTerms(spareKey);
+                spare.terms = ordsEnum.terms();
                 spare.docCount = docCount;
                 spare.bucketOrd = ordsEnum.ord();
                 spare = ordered.insertWithOverflow(spare);
@@ -316,6 +302,315 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
         );
     }
 
+    /**
+     * Strategy for mapping the tuples of terms collected from each document
+     * to bucket ordinals.
+     */
+    abstract class CollectionStrategy implements Releasable {
+        /**
+         * Short description of the collection mechanism added to the profile
+         * output to help with debugging.
+         */
+        abstract String describe();
+
+        abstract LeafBucketCollector getLeafCollector(LeafReaderContext ctx, LeafBucketCollector sub) throws IOException;
+
+        /**
+         * The number of buckets collected for {@code owningBucketOrd}.
+         */
+        abstract long bucketsInOrd(long owningBucketOrd);
+
+        /**
+         * Iterate the buckets collected for {@code owningBucketOrd}.
+         */
+        abstract BucketOrdsEnum ordsEnum(long owningBucketOrd);
+    }
+
+    interface BucketOrdsEnum {
+        /**
+         * Advance to the next bucket, returning {@code false} if there are no more buckets.
+         */
+        boolean next();
+
+        /**
+         * The ordinal of the current bucket.
+         */
+        long ord();
+
+        /**
+         * The terms that make up the key of the current bucket.
+         */
+        List<Object> terms();
+    }
+
+    /**
+     * {@linkplain CollectionStrategy} that serializes the terms of each bucket
+     * into a {@link BytesRef}. This works for any combination of terms but has
+     * to serialize every tuple it collects, so it is only used when some of the
+     * terms can't be {@link TermValuesSource#packed packed} into longs.
+     */
+    class BytesCollectionStrategy extends CollectionStrategy {
+        private final BytesKeyedBucketOrds bucketOrds;
+
+        BytesCollectionStrategy(BytesKeyedBucketOrds bucketOrds) {
+            this.bucketOrds = bucketOrds;
+        }
+
+        @Override
+        String describe() {
+            return "bytes";
+        }
+
+        @Override
+        LeafBucketCollector getLeafCollector(LeafReaderContext ctx, LeafBucketCollector sub) throws IOException {
+            List<TermValues> termValuesList = termValuesList(ctx);
+
+            return new LeafBucketCollectorBase(sub, values) {
+                @Override
+                public void collect(int doc, long owningBucketOrd) throws IOException {
+                    List<List<Object>> terms = docTerms(termValuesList, doc);
+                    if (terms != null) {
+                        List<Object> path = new ArrayList<>(terms.size());
+                        new CheckedConsumer<Integer, IOException>() {
+                            @Override
+                            public void accept(Integer start) throws IOException {
+                                for (Object term : terms.get(start)) {
+                                    if (start == path.size()) {
+                                        path.add(term);
+                                    } else {
+                                        path.set(start, term);
+                                    }
+                                    if (start < terms.size() - 1) {
+                                        this.accept(start + 1);
+                                    } else {
+                                        long bucketOrd = bucketOrds.add(owningBucketOrd, packKey(path));
+                                        if (bucketOrd < 0) { // already seen
+                                            bucketOrd = -1 - bucketOrd;
+                                            collectExistingBucket(sub, doc, bucketOrd);
+                                        } else {
+                                            collectBucket(sub, doc, bucketOrd);
+                                        }
+                                    }
+                                }
+                            }
+                        }.accept(0);
+                    }
+                }
+            };
+        }
+
+        @Override
+        long bucketsInOrd(long owningBucketOrd) {
+            return bucketOrds.bucketsInOrd(owningBucketOrd);
+        }
+
+        @Override
+        BucketOrdsEnum ordsEnum(long owningBucketOrd) {
+            BytesKeyedBucketOrds.BucketOrdsEnum ordsEnum = bucketOrds.ordsEnum(owningBucketOrd);
+            BytesRef spareKey = new BytesRef();
+            return new BucketOrdsEnum() {
+                @Override
+                public boolean next() {
+                    return ordsEnum.next();
+                }
+
+                @Override
+                public long ord() {
+                    return ordsEnum.ord();
+                }
+
+                @Override
+                public List<Object> terms() {
+                    ordsEnum.readValue(spareKey);
+                    return unpackTerms(spareKey);
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(bucketOrds);
+        }
+    }
+
+    /**
+     * {@linkplain CollectionStrategy} that packs every term into a single long
+     * and keys the buckets on the fixed-width tuple of those longs, prefixed
+     * with the owning bucket ordinal if there can be more than one. Collecting
+     * a tuple is then just a matter of hashing a few longs, and the terms are
+     * only {@link PackedTermValuesSource#unpack unpacked} for the buckets that
+     * are visited when building the results.
+     */
+    class PackedCollectionStrategy extends CollectionStrategy {
+        private final List<PackedTermValuesSource> sources;
+        /**
+         * The index of the first term in each key. {@code 1} if the key is
+         * prefixed with the owning bucket ordinal, {@code 0} otherwise.
+         */
+        private final int offset;
+        private final BigArrays bigArrays;
+        private final LongTupleHash bucketOrds;
+        /*
+         * If there can be more than one owning bucket, the buckets of each
+         * owning bucket are linked together in the order they were added so
+         * that building the results for an owning bucket only visits its own
+         * buckets rather than all of them. The ordinals of the buckets are
+         * dense, so the links are indexed by bucket ordinal and the heads
+         * and counts by owning bucket ordinal. All of them stay null if
+         * there is at most one owning bucket.
+         */
+        private LongArray bucketCounts;
+        private LongArray firstBucketOrds;
+        private LongArray lastBucketOrds;
+        private LongArray nextBucketOrds;
+
+        PackedCollectionStrategy(List<PackedTermValuesSource> sources, CardinalityUpperBound cardinality, BigArrays bigArrays) {
+            this.sources = sources;
+            this.offset = cardinality.map(estimate -> estimate < 2 ? 0 : 1);
+            this.bigArrays = bigArrays;
+            this.bucketOrds = new LongTupleHash(offset + sources.size(), 1, bigArrays);
+        }
+
+        @Override
+        String describe() {
+            return "packed";
+        }
+
+        @Override
+        LeafBucketCollector getLeafCollector(LeafReaderContext ctx, LeafBucketCollector sub) throws IOException {
+            PackedTermValues[] termValues = new PackedTermValues[sources.size()];
+            for (int i = 0; i < termValues.length; i++) {
+                termValues[i] = sources.get(i).getValues(ctx);
+            }
+            int[] counts = new int[termValues.length];
+            int[] positions = new int[termValues.length];
+            long[] key = new long[bucketOrds.width()];
+
+            return new LeafBucketCollectorBase(sub, values) {
+                @Override
+                public void collect(int doc, long owningBucketOrd) throws IOException {
+                    for (int i = 0; i < termValues.length; i++) {
+                        counts[i] = termValues[i].advanceExact(doc);
+                        if (counts[i] == 0) {
+                            return;
+                        }
+                        positions[i] = 0;
+                        key[offset + i] = termValues[i].value(0);
+                    }
+                    if (offset > 0) {
+                        key[0] = owningBucketOrd;
+                    } else {
+                        assert owningBucketOrd == 0;
+                    }
+                    // Walk the cartesian product of the values, advancing the last term first
+                    while (true) {
+                        long bucketOrd = bucketOrds.add(key);
+                        if (bucketOrd < 0) { // already seen
+                            bucketOrd = -1 - bucketOrd;
+                            collectExistingBucket(sub, doc, bucketOrd);
+                        } else {
+                            if (offset > 0) {
+                                linkBucket(owningBucketOrd, bucketOrd);
+                            }
+                            collectBucket(sub, doc, bucketOrd);
+                        }
+                        int i = termValues.length - 1;
+                        while (++positions[i] == counts[i]) {
+                            if (i == 0) {
+                                return;
+                            }
+                            positions[i] = 0;
+                            key[offset + i] = termValues[i].value(0);
+                            i--;
+                        }
+                        key[offset + i] = termValues[i].value(positions[i]);
+                    }
+                }
+            };
+        }
+
+        /**
+         * Appends a new bucket to the buckets of its owning bucket.
+         */
+        private void linkBucket(long owningBucketOrd, long bucketOrd) {
+            if (bucketCounts == null) {
+                bucketCounts = bigArrays.newLongArray(owningBucketOrd + 1);
+                firstBucketOrds = bigArrays.newLongArray(owningBucketOrd + 1);
+                lastBucketOrds = bigArrays.newLongArray(owningBucketOrd + 1);
+                nextBucketOrds = bigArrays.newLongArray(bucketOrd + 1);
+            } else {
+                bucketCounts = bigArrays.grow(bucketCounts, owningBucketOrd + 1);
+                firstBucketOrds = bigArrays.grow(firstBucketOrds, owningBucketOrd + 1);
+                lastBucketOrds = bigArrays.grow(lastBucketOrds, owningBucketOrd + 1);
+                nextBucketOrds = bigArrays.grow(nextBucketOrds, bucketOrd + 1);
+            }
+            if (bucketCounts.increment(owningBucketOrd, 1) == 1) {
+                firstBucketOrds.set(owningBucketOrd, bucketOrd);
+            } else {
+                nextBucketOrds.set(lastBucketOrds.get(owningBucketOrd), bucketOrd);
+            }
+            lastBucketOrds.set(owningBucketOrd, bucketOrd);
+        }
+
+        @Override
+        long bucketsInOrd(long owningBucketOrd) {
+            if (offset == 0) {
+                assert owningBucketOrd == 0;
+                return bucketOrds.size();
+            }
+            if (bucketCounts == null || owningBucketOrd >= bucketCounts.size()) {
+                return 0;
+            }
+            return bucketCounts.get(owningBucketOrd);
+        }
+
+        @Override
+        BucketOrdsEnum ordsEnum(long owningBucketOrd) {
+            final long count = bucketsInOrd(owningBucketOrd);
+            return new BucketOrdsEnum() {
+                private long ord = -1;
+                private long visited = 0;
+
+                @Override
+                public boolean next() {
+                    if (visited == count) {
+                        return false;
+                    }
+                    if (offset == 0) {
+                        ord++;
+                    } else {
+                        ord = visited == 0 ? firstBucketOrds.get(owningBucketOrd) : nextBucketOrds.get(ord);
+                    }
+                    visited++;
+                    return true;
+                }
+
+                @Override
+                public long ord() {
+                    return ord;
+                }
+
+                @Override
+                public List<Object> terms() {
+                    List<Object> terms = new ArrayList<>(sources.size());
+                    for (int i = 0; i < sources.size(); i++) {
+                        try {
+                            terms.add(sources.get(i).unpack(bucketOrds.getKey(ord, offset + i)));
+                        } catch (IOException ex) {
+                            throw ExceptionsHelper.convertToRuntime(ex);
+                        }
+                    }
+                    return terms;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(bucketOrds, bucketCounts, firstBucketOrds, lastBucketOrds, nextBucketOrds);
+        }
+    }
+
     static TermValuesSource buildNumericTermValues(ValuesSourceConfig config) {
         final ValuesSource.Numeric vs = (ValuesSource.Numeric) config.getValuesSource();
         if (vs.isFloatingPoint()) {
@@ -338,6 +633,13 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
          * Returns a key converter that knows how to convert key values into user-friendly representation and format them as a string
          */
         InternalMultiTerms.KeyConverter keyConverter();
+
+        /**
+         * Returns a view of this source that packs each term into a single long, or {@code null} if the terms can't be packed
+         */
+        default PackedTermValuesSource packed(AggregationContext context) throws IOException {
+            return null;
+        }
     }
 
     interface TermValues {
@@ -347,6 +649,64 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
         List<Object> collectValues(int doc) throws IOException;
     }
 
+    /**
+     * Terms that are packed into a single long each so the key of a bucket can be stored as a fixed-width tuple of longs
+     */
+    interface PackedTermValuesSource {
+        /**
+         * used in getLeafCollector to obtain the packed doc values for the given segment
+         */
+        PackedTermValues getValues(LeafReaderContext ctx) throws IOException;
+
+        /**
+         * Converts a packed term back into the same object that {@link TermValues#collectValues} would have returned for it
+         */
+        Object unpack(long packed) throws IOException;
+    }
+
+    interface PackedTermValues {
+        /**
+         * Advances to the given document and returns the number of distinct packed values it has, {@code 0} if it has none
+         */
+        int advanceExact(int doc) throws IOException;
+
+        /**
+         * Returns the packed value at {@code index} for the current document
+         */
+        long value(int index);
+    }
+
+    /**
+     * Buffers the distinct values of the current document, deduplicating consecutive values like
+     * {@link TermValues#collectValues} does
+     */
+    abstract static class BufferedPackedTermValues implements PackedTermValues {
+        private long[] buffer = new long[1];
+        private int count;
+
+        final void clear() {
+            count = 0;
+        }
+
+        final void add(long value) {
+            if (count > 0 && buffer[count - 1] == value) {
+                return;
+            }
+            buffer = ArrayUtil.grow(buffer, count + 1);
+            buffer[count++] = value;
+        }
+
+        final int count() {
+            return count;
+        }
+
+        @Override
+        public final long value(int index) {
+            assert index < count;
+            return buffer[index];
+        }
+    }
+
     /**
      * Handles non-float and date doc values
      */
@@ -389,6 +749,34 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
         public InternalMultiTerms.KeyConverter keyConverter() {
             return converter;
         }
+
+        @Override
+        public PackedTermValuesSource packed(AggregationContext context) {
+            return new PackedTermValuesSource() {
+                @Override
+                public PackedTermValues getValues(LeafReaderContext ctx) throws IOException {
+                    SortedNumericDocValues values = source.longValues(ctx);
+                    return new BufferedPackedTermValues() {
+                        @Override
+                        public int advanceExact(int doc) throws IOException {
+                            clear();
+                            if (values.advanceExact(doc)) {
+                                int valuesCount = values.docValueCount();
+                                for (int i = 0; i < valuesCount; ++i) {
+                                    add(values.nextValue());
+                                }
+                            }
+                            return count();
+                        }
+                    };
+                }
+
+                @Override
+                public Object unpack(long packed) {
+                    return packed;
+                }
+            };
+        }
     }
 
     /**
@@ -427,6 +815,39 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
         public InternalMultiTerms.KeyConverter keyConverter() {
             return InternalMultiTerms.KeyConverter.DOUBLE;
         }
+
+        @Override
+        public PackedTermValuesSource packed(AggregationContext context) {
+            return new PackedTermValuesSource() {
+                @Override
+                public PackedTermValues getValues(LeafReaderContext ctx) throws IOException {
+                    SortedNumericDoubleValues values = source.doubleValues(ctx);
+                    return new BufferedPackedTermValues() {
+                        @Override
+                        public int advanceExact(int doc) throws IOException {
+                            clear();
+                            if (values.advanceExact(doc)) {
+                                int valuesCount = values.docValueCount();
+                                double previous = Double.MAX_VALUE;
+                                for (int i = 0; i < valuesCount; ++i) {
+                                    double val = values.nextValue();
+                                    if (previous != val || i == 0) {
+                                        add(Double.doubleToLongBits(val));
+                                        previous = val;
+                                    }
+                                }
+                            }
+                            return count();
+                        }
+                    };
+                }
+
+                @Override
+                public Object unpack(long packed) {
+                    return Double.longBitsToDouble(packed);
+                }
+            };
+        }
     }
 
     /**
@@ -464,6 +885,40 @@ class MultiTermsAggregator extends DeferableBucketAggregator {
                 }
             };
         }
+
+        /**
+         * Packs the terms as global ordinals if the field has them, looking up the bytes of just the terms in the top buckets
+         */
+        @Override
+        public PackedTermValuesSource packed(AggregationContext context) throws IOException {
+            if ((source instanceof ValuesSource.Bytes.WithOrdinals withOrdinals) == false) {
+                return null;
+            }
+            SortedSetDocValues lookup = TermsAggregatorFactory.globalOrdsValues(context, withOrdinals);
+            return new PackedTermValuesSource() {
+                @Override
+                public PackedTermValues getValues(LeafReaderContext ctx) throws IOException {
+                    SortedSetDocValues globalOrds = withOrdinals.globalOrdinalsValues(ctx);
+                    return new BufferedPackedTermValues() {
+                        @Override
+                        public int advanceExact(int doc) throws IOException {
+                            clear();
+                            if (globalOrds.advanceExact(doc)) {
+                                for (long ord = globalOrds.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = globalOrds.nextOrd()) {
+                                    add(ord);
+                                }
+                            }
+                            return count();
+                        }
+                    };
+                }
+
+                @Override
+                public Object unpack(long packed) throws IOException {
+                    return BytesRef.deepCopyOf(lookup.lookupOrd(packed));
+                }
+            };
+        }
     }
 
     /**
@@ -15,8 +15,12 @@ import org.HdrHistogram.DoubleHistogramIterationValue;
 import org.apache.lucene.document.BinaryDocValuesField;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.search.aggregations.metrics.TDigestState;
+import org.elasticsearch.xpack.analytics.aggregations.support.LogHistogramValues;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 public final class AnalyticsTestsUtils {
 
@@ -61,4 +65,36 @@ public final class AnalyticsTestsUtils {
         return new BinaryDocValuesField(fieldName, streamOutput.bytes().toBytesRef());
     }
 
+    /**
+     * Generates an index field for {@code log_histogram} fields with a count of one per value.
+     */
+    public static BinaryDocValuesField logHistogramFieldDocValues(String fieldName, double gamma, double[] values) throws IOException {
+        NavigableMap<Long, Integer> negative = new TreeMap<>();
+        NavigableMap<Long, Integer> positive = new TreeMap<>();
+        int zeroCount = 0;
+        for (double value : values) {
+            if (value > 0) {
+                positive.merge(LogHistogramValues.index(value, gamma), 1, Integer::sum);
+            } else if (value < 0) {
+                negative.merge(LogHistogramValues.index(-value, gamma), 1, Integer::sum);
+            } else {
+                zeroCount++;
+            }
+        }
+        BytesStreamOutput streamOutput = new BytesStreamOutput();
+        writeLogBuckets(streamOutput, negative.descendingMap());
+        streamOutput.writeVInt(zeroCount);
+        writeLogBuckets(streamOutput, positive);
+        return new BinaryDocValuesField(fieldName, streamOutput.bytes().toBytesRef());
+    }
+
+    private static void writeLogBuckets(BytesStreamOutput streamOutput, Map<Long, Integer> buckets) throws IOException {
+        streamOutput.writeVInt(buckets.size());
+        long previousIndex = 0;
+        for (Map.Entry<Long, Integer> bucket : buckets.entrySet()) {
+            streamOutput.writeZLong(bucket.getKey() - previousIndex);
+            streamOutput.writeVInt(bucket.getValue());
+            previousIndex = bucket.getKey();
+        }
+    }
 }
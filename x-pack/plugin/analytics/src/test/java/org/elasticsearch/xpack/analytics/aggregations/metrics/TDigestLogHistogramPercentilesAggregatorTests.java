@@ -0,0 +1,133 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+package org.elasticsearch.xpack.analytics.aggregations.metrics;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.plugins.SearchPlugin;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorTestCase;
+import org.elasticsearch.search.aggregations.metrics.InternalTDigestPercentileRanks;
+import org.elasticsearch.search.aggregations.metrics.InternalTDigestPercentiles;
+import org.elasticsearch.search.aggregations.metrics.PercentileRanksAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.PercentilesAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.PercentilesMethod;
+import org.elasticsearch.search.aggregations.metrics.TDigestState;
+import org.elasticsearch.search.aggregations.support.AggregationInspectionHelper;
+import org.elasticsearch.xpack.analytics.AnalyticsPlugin;
+import org.elasticsearch.xpack.analytics.mapper.LogHistogramFieldMapper;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Collections.singleton;
+import static org.elasticsearch.xpack.analytics.AnalyticsTestsUtils.logHistogramFieldDocValues;
+import static org.hamcrest.Matchers.closeTo;
+
+public class TDigestLogHistogramPercentilesAggregatorTests extends AggregatorTestCase {
+
+    private static final LogHistogramFieldMapper.LogHistogramFieldType FIELD_TYPE = new LogHistogramFieldMapper.LogHistogramFieldType(
+        "number",
+        Collections.emptyMap(),
+        LogHistogramFieldMapper.DEFAULT_RELATIVE_ACCURACY
+    );
+
+    @Override
+    protected List<SearchPlugin> getSearchPlugins() {
+        return List.of(new AnalyticsPlugin());
+    }
+
+    @Override
+    protected AggregationBuilder createAggBuilderForTypeTest(MappedFieldType fieldType, String fieldName) {
+        return new PercentilesAggregationBuilder("tdigest_percentiles").field(fieldName).method(PercentilesMethod.TDIGEST);
+    }
+
+    public void testEmptyField() throws IOException {
+        testPercentiles(
+            iw -> iw.addDocument(singleton(logHistogramFieldDocValues("number", FIELD_TYPE.gamma(), new double[0]))),
+            percentiles -> assertFalse(AggregationInspectionHelper.hasValue(percentiles))
+        );
+    }
+
+    public void testMatchesRawValues() throws IOException {
+        int numDocs = randomIntBetween(1, 100);
+        double[][] docs = new double[numDocs][];
+        TDigestState expected = new TDigestState(100);
+        for (int d = 0; d < numDocs; d++) {
+            docs[d] = new double[randomIntBetween(1, 50)];
+            for (int i = 0; i < docs[d].length; i++) {
+                docs[d][i] = randomDoubleBetween(-1000, 1000, true);
+                expected.add(docs[d][i]);
+            }
+        }
+        testPercentiles(iw -> {
+            for (double[] doc : docs) {
+                iw.addDocument(singleton(logHistogramFieldDocValues("number", FIELD_TYPE.gamma(), doc)));
+            }
+        }, percentiles -> {
+            assertTrue(AggregationInspectionHelper.hasValue(percentiles));
+            for (double percent : new double[] { 1, 25, 50, 75, 99 }) {
+                double e = expected.quantile(percent / 100);
+                // the buckets are within 1% of the values, leave some room for the digest's own error
+                assertThat(percentiles.percentile(percent), closeTo(e, Math.max(1, Math.abs(e) * 0.1)));
+            }
+        });
+    }
+
+    public void testPercentileRanks() throws IOException {
+        PercentileRanksAggregationBuilder builder = new PercentileRanksAggregationBuilder("test", new double[] { 10, 100 }).field("number")
+            .method(PercentilesMethod.TDIGEST);
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                for (int i = 1; i <= 200; i++) {
+                    indexWriter.addDocument(singleton(logHistogramFieldDocValues("number", FIELD_TYPE.gamma(), new double[] { i })));
+                }
+            }
+            try (IndexReader indexReader = DirectoryReader.open(directory)) {
+                IndexSearcher indexSearcher = newSearcher(indexReader, true, true);
+                Aggregator aggregator = createAggregator(builder, indexSearcher, FIELD_TYPE);
+                aggregator.preCollection();
+                indexSearcher.search(new MatchAllDocsQuery(), aggregator);
+                aggregator.postCollection();
+                InternalTDigestPercentileRanks ranks = (InternalTDigestPercentileRanks) aggregator.buildTopLevel();
+                assertThat(ranks.percent(10), closeTo(5, 1));
+                assertThat(ranks.percent(100), closeTo(50, 2));
+            }
+        }
+    }
+
+    private void testPercentiles(CheckedConsumer<RandomIndexWriter, IOException> buildIndex, Consumer<InternalTDigestPercentiles> verify)
+        throws IOException {
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                buildIndex.accept(indexWriter);
+            }
+
+            try (IndexReader indexReader = DirectoryReader.open(directory)) {
+                IndexSearcher indexSearcher = newSearcher(indexReader, true, true);
+
+                PercentilesAggregationBuilder builder = new PercentilesAggregationBuilder("test").field("number")
+                    .method(PercentilesMethod.TDIGEST);
+
+                Aggregator aggregator = createAggregator(builder, indexSearcher, FIELD_TYPE);
+                aggregator.preCollection();
+                indexSearcher.search(new MatchAllDocsQuery(), aggregator);
+                aggregator.postCollection();
+                verify.accept((InternalTDigestPercentiles) aggregator.buildTopLevel());
+            }
+        }
+    }
+}
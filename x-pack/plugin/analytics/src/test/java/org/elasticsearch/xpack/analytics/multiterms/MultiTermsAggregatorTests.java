@@ -21,6 +21,7 @@ import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.core.CheckedConsumer;
@@ -37,8 +38,11 @@ import org.elasticsearch.script.ScriptModule;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.script.ScriptType;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorTestCase;
 import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.elasticsearch.search.aggregations.metrics.InternalMax;
 import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
 import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
@@ -54,6 +58,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -563,6 +568,184 @@ public class MultiTermsAggregatorTests extends AggregatorTestCase {
         );
     }
 
+    public void testPackedCollectionStrategy() throws IOException {
+        MultiTermsAggregationBuilder builder = new MultiTermsAggregationBuilder("my_terms").terms(
+            List.of(
+                new MultiValuesSourceFieldConfig.Builder().setFieldName(KEYWORD_FIELD).build(),
+                new MultiValuesSourceFieldConfig.Builder().setFieldName(INT_FIELD).build(),
+                new MultiValuesSourceFieldConfig.Builder().setFieldName(FLOAT_FIELD).build()
+            )
+        );
+        debugTestCase(
+            builder,
+            new MatchAllDocsQuery(),
+            MultiTermsAggregatorTests::multiValuedDocs,
+            (InternalMultiTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                assertMultiValuedBuckets(result);
+                assertThat(debug.get("my_terms"), equalTo(Map.of("collection_strategy", "packed")));
+            },
+            fieldTypes()
+        );
+    }
+
+    public void testBytesCollectionStrategy() throws IOException {
+        MultiTermsAggregationBuilder builder = new MultiTermsAggregationBuilder("my_terms").terms(
+            List.of(
+                new MultiValuesSourceFieldConfig.Builder().setFieldName(KEYWORD_FIELD).build(),
+                new MultiValuesSourceFieldConfig.Builder().setFieldName(INT_FIELD).build(),
+                new MultiValuesSourceFieldConfig.Builder().setFieldName(FLOAT_FIELD).build(),
+                new MultiValuesSourceFieldConfig.Builder().setScript(
+                    new Script(ScriptType.INLINE, MockScriptEngine.NAME, ADD_ONE_SCRIPT, Collections.singletonMap("fieldname", INT_FIELD))
+                ).setUserValueTypeHint(ValueType.LONG).build()
+            )
+        );
+        debugTestCase(
+            builder,
+            new MatchAllDocsQuery(),
+            MultiTermsAggregatorTests::multiValuedDocs,
+            (InternalMultiTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                assertThat(debug.get("my_terms"), equalTo(Map.of("collection_strategy", "bytes")));
+                assertThat(result.getBuckets(), hasSize(7));
+                assertThat(result.getBuckets().get(0).getKey(), contains(equalTo("b"), equalTo(2L), equalTo(2.0), equalTo(3L)));
+                assertThat(result.getBuckets().get(0).getDocCount(), equalTo(2L));
+            },
+            fieldTypes()
+        );
+    }
+
+    public void testPackedUnderManyOwningBuckets() throws IOException {
+        TermsAggregationBuilder builder = new TermsAggregationBuilder("parent").field(KEYWORD_FIELD)
+            .order(BucketOrder.key(true))
+            .subAggregation(
+                new MultiTermsAggregationBuilder("my_terms").terms(
+                    List.of(
+                        new MultiValuesSourceFieldConfig.Builder().setFieldName(INT_FIELD).build(),
+                        new MultiValuesSourceFieldConfig.Builder().setFieldName(FLOAT_FIELD).build()
+                    )
+                )
+            );
+        debugTestCase(
+            builder,
+            new MatchAllDocsQuery(),
+            MultiTermsAggregatorTests::multiValuedDocs,
+            (StringTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                assertThat(debug.get("parent.my_terms"), equalTo(Map.of("collection_strategy", "packed")));
+                assertThat(result.getBuckets(), hasSize(3));
+
+                InternalMultiTerms a = result.getBuckets().get(0).getAggregations().get("my_terms");
+                assertThat(a.getBuckets(), hasSize(2));
+                assertThat(a.getBuckets().get(0).getKey(), contains(equalTo(1L), equalTo(1.0)));
+                assertThat(a.getBuckets().get(0).getDocCount(), equalTo(1L));
+                assertThat(a.getBuckets().get(1).getKey(), contains(equalTo(2L), equalTo(1.0)));
+                assertThat(a.getBuckets().get(1).getDocCount(), equalTo(1L));
+
+                InternalMultiTerms b = result.getBuckets().get(1).getAggregations().get("my_terms");
+                assertThat(b.getBuckets(), hasSize(4));
+                assertThat(b.getBuckets().get(0).getKey(), contains(equalTo(2L), equalTo(2.0)));
+                assertThat(b.getBuckets().get(0).getDocCount(), equalTo(2L));
+
+                InternalMultiTerms c = result.getBuckets().get(2).getAggregations().get("my_terms");
+                assertThat(c.getBuckets(), hasSize(1));
+                assertThat(c.getBuckets().get(0).getKey(), contains(equalTo(2L), equalTo(2.0)));
+                assertThat(c.getBuckets().get(0).getDocCount(), equalTo(1L));
+            },
+            fieldTypes()
+        );
+    }
+
+    public void testPackedUnderManyInterleavedOwningBuckets() throws IOException {
+        int numOwners = between(50, 200);
+        int docsPerOwner = between(2, 10);
+        TermsAggregationBuilder builder = new TermsAggregationBuilder("parent").field(KEYWORD_FIELD)
+            .size(numOwners)
+            .order(BucketOrder.key(true))
+            .subAggregation(
+                new MultiTermsAggregationBuilder("my_terms").terms(
+                    List.of(
+                        new MultiValuesSourceFieldConfig.Builder().setFieldName(INT_FIELD).build(),
+                        new MultiValuesSourceFieldConfig.Builder().setFieldName(FLOAT_FIELD).build()
+                    )
+                )
+            );
+        // the documents of the owning buckets are interleaved so that their buckets are too
+        debugTestCase(builder, new MatchAllDocsQuery(), iw -> {
+            for (int d = 0; d < numOwners * docsPerOwner; d++) {
+                iw.addDocument(
+                    List.of(
+                        new SortedSetDocValuesField(KEYWORD_FIELD, new BytesRef(String.format(Locale.ROOT, "k%04d", d % numOwners))),
+                        new SortedNumericDocValuesField(INT_FIELD, d % 7),
+                        new SortedNumericDocValuesField(FLOAT_FIELD, NumericUtils.floatToSortableInt(1.0f))
+                    )
+                );
+            }
+        }, (StringTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+            assertThat(debug.get("parent.my_terms"), equalTo(Map.of("collection_strategy", "packed")));
+            assertThat(result.getBuckets(), hasSize(numOwners));
+            for (int owner = 0; owner < numOwners; owner++) {
+                Map<Long, Long> expected = new HashMap<>();
+                for (int d = owner; d < numOwners * docsPerOwner; d += numOwners) {
+                    expected.merge((long) (d % 7), 1L, Long::sum);
+                }
+                StringTerms.Bucket parent = result.getBuckets().get(owner);
+                assertThat(parent.getKeyAsString(), equalTo(String.format(Locale.ROOT, "k%04d", owner)));
+                InternalMultiTerms terms = parent.getAggregations().get("my_terms");
+                Map<Long, Long> actual = new HashMap<>();
+                for (InternalMultiTerms.Bucket bucket : terms.getBuckets()) {
+                    assertThat(bucket.getKey().get(1), equalTo(1.0));
+                    actual.put((Long) bucket.getKey().get(0), bucket.getDocCount());
+                }
+                assertThat(actual, equalTo(expected));
+            }
+        }, fieldTypes());
+    }
+
+    private static void multiValuedDocs(RandomIndexWriter iw) throws IOException {
+        iw.addDocument(
+            List.of(
+                new SortedSetDocValuesField(KEYWORD_FIELD, new BytesRef("a")),
+                new SortedSetDocValuesField(KEYWORD_FIELD, new BytesRef("b")),
+                new SortedNumericDocValuesField(INT_FIELD, 1),
+                new SortedNumericDocValuesField(INT_FIELD, 2),
+                new SortedNumericDocValuesField(FLOAT_FIELD, NumericUtils.floatToSortableInt(1.0f))
+            )
+        );
+        iw.addDocument(
+            List.of(
+                new SortedSetDocValuesField(KEYWORD_FIELD, new BytesRef("b")),
+                new SortedSetDocValuesField(KEYWORD_FIELD, new BytesRef("c")),
+                new SortedNumericDocValuesField(INT_FIELD, 2),
+                new SortedNumericDocValuesField(FLOAT_FIELD, NumericUtils.floatToSortableInt(2.0f))
+            )
+        );
+        iw.addDocument(
+            List.of(
+                new SortedSetDocValuesField(KEYWORD_FIELD, new BytesRef("b")),
+                new SortedNumericDocValuesField(INT_FIELD, 2),
+                new SortedNumericDocValuesField(INT_FIELD, 2),
+                new SortedNumericDocValuesField(INT_FIELD, 3),
+                new SortedNumericDocValuesField(FLOAT_FIELD, NumericUtils.floatToSortableInt(2.0f))
+            )
+        );
+    }
+
+    private static void assertMultiValuedBuckets(InternalMultiTerms result) {
+        assertThat(result.getBuckets(), hasSize(7));
+        assertThat(result.getBuckets().get(0).getKey(), contains(equalTo("b"), equalTo(2L), equalTo(2.0)));
+        assertThat(result.getBuckets().get(0).getDocCount(), equalTo(2L));
+        assertThat(result.getBuckets().get(1).getKey(), contains(equalTo("a"), equalTo(1L), equalTo(1.0)));
+        assertThat(result.getBuckets().get(1).getDocCount(), equalTo(1L));
+        assertThat(result.getBuckets().get(2).getKey(), contains(equalTo("a"), equalTo(2L), equalTo(1.0)));
+        assertThat(result.getBuckets().get(2).getDocCount(), equalTo(1L));
+        assertThat(result.getBuckets().get(3).getKey(), contains(equalTo("b"), equalTo(1L), equalTo(1.0)));
+        assertThat(result.getBuckets().get(3).getDocCount(), equalTo(1L));
+        assertThat(result.getBuckets().get(4).getKey(), contains(equalTo("b"), equalTo(2L), equalTo(1.0)));
+        assertThat(result.getBuckets().get(4).getDocCount(), equalTo(1L));
+        assertThat(result.getBuckets().get(5).getKey(), contains(equalTo("b"), equalTo(3L), equalTo(2.0)));
+        assertThat(result.getBuckets().get(5).getDocCount(), equalTo(1L));
+        assertThat(result.getBuckets().get(6).getKey(), contains(equalTo("c"), equalTo(2L), equalTo(2.0)));
+        assertThat(result.getBuckets().get(6).getDocCount(), equalTo(1L));
+    }
+
     public void testNoTerms() {
         for (List<MultiValuesSourceFieldConfig> terms : Arrays.<List<MultiValuesSourceFieldConfig>>asList(
             Collections.singletonList(randomTermConfig()),
@@ -614,10 +797,6 @@ public class MultiTermsAggregatorTests extends AggregatorTestCase {
         CheckedConsumer<RandomIndexWriter, IOException> buildIndex,
         Consumer<InternalMultiTerms> verify
     ) throws IOException {
-        MappedFieldType dateType = dateFieldType(DATE_FIELD);
-        MappedFieldType intType = new NumberFieldMapper.NumberFieldType(INT_FIELD, NumberFieldMapper.NumberType.INTEGER);
-        MappedFieldType floatType = new NumberFieldMapper.NumberFieldType(FLOAT_FIELD, NumberFieldMapper.NumberType.FLOAT);
-        MappedFieldType keywordType = new KeywordFieldMapper.KeywordFieldType(KEYWORD_FIELD);
         MultiTermsAggregationBuilder builder = new MultiTermsAggregationBuilder("my_terms");
         builder.terms(terms);
         if (builderSetup != null) {
@@ -634,7 +813,15 @@ public class MultiTermsAggregatorTests extends AggregatorTestCase {
                 builder.size(randomIntBetween(10, 200));
             }
         }
-        testCase(builder, query, buildIndex, verify, dateType, intType, floatType, keywordType);
+        testCase(builder, query, buildIndex, verify, fieldTypes());
+    }
+
+    private MappedFieldType[] fieldTypes() {
+        return new MappedFieldType[] {
+            dateFieldType(DATE_FIELD),
+            new NumberFieldMapper.NumberFieldType(INT_FIELD, NumberFieldMapper.NumberType.INTEGER),
+            new NumberFieldMapper.NumberFieldType(FLOAT_FIELD, NumberFieldMapper.NumberType.FLOAT),
+            new KeywordFieldMapper.KeywordFieldType(KEYWORD_FIELD) };
     }
 
     @Override
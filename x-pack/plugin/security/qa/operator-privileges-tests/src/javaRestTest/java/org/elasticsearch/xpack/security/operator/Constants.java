@@ -463,6 +463,7 @@ public class Constants {
         "internal:admin/xpack/searchable_snapshots/frozen_cache_info",
         "internal:admin/xpack/searchable_snapshots/frozen_cache_info[n]",
         "internal:cluster/nodes/indices/shard/store",
+        "internal:gateway/local/shard_inventory",
         "internal:gateway/local/started_shards"
     );
 }
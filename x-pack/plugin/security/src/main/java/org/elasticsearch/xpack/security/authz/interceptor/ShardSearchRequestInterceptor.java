@@ -11,6 +11,7 @@ import org.apache.logging.log4j.Logger;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.IndicesRequest;
+import org.elasticsearch.action.search.NodeQueryRequest;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.license.XPackLicenseState;
 import org.elasticsearch.search.internal.ShardSearchRequest;
@@ -19,6 +20,7 @@ import org.elasticsearch.xpack.core.security.authz.accesscontrol.IndicesAccessCo
 import org.elasticsearch.xpack.core.security.authz.permission.DocumentPermissions;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import static org.elasticsearch.xpack.security.authz.interceptor.SearchRequestInterceptor.VERSION_SHARD_SEARCH_INTERCEPTOR;
@@ -40,28 +42,43 @@ public class ShardSearchRequestInterceptor extends FieldAndDocumentLevelSecurity
         Map<String, IndicesAccessControl.IndexAccessControl> indexAccessControlByIndex,
         ActionListener<Void> listener
     ) {
-        final ShardSearchRequest request = (ShardSearchRequest) indicesRequest;
-        // The 7.11.2 version check is needed because request caching has a bug related to DLS/FLS
-        // versions before 7.11.2. It is fixed by #69505. See also ESA-2021-08.
-        // TODO: The version check can be removed in 8.0 because 7.last will have support for request caching with DLS/FLS
-        if (clusterService.state().nodes().getMinNodeVersion().before(VERSION_SHARD_SEARCH_INTERCEPTOR)) {
-            request.requestCache(false);
-        } else if (dlsUsesStoredScripts(request, indexAccessControlByIndex)) {
-            logger.debug("Disable shard search request cache because DLS queries use stored scripts");
-            request.requestCache(false);
+        for (ShardSearchRequest request : shardSearchRequests(indicesRequest)) {
+            if (indexAccessControlByIndex.containsKey(request.shardId().getIndexName()) == false) {
+                // a node-level request may also carry shards of indices without field or document level security
+                continue;
+            }
+            // The 7.11.2 version check is needed because request caching has a bug related to DLS/FLS
+            // versions before 7.11.2. It is fixed by #69505. See also ESA-2021-08.
+            // TODO: The version check can be removed in 8.0 because 7.last will have support for request caching with DLS/FLS
+            if (clusterService.state().nodes().getMinNodeVersion().before(VERSION_SHARD_SEARCH_INTERCEPTOR)) {
+                request.requestCache(false);
+            } else if (dlsUsesStoredScripts(request, indexAccessControlByIndex)) {
+                logger.debug("Disable shard search request cache because DLS queries use stored scripts");
+                request.requestCache(false);
+            }
         }
         listener.onResponse(null);
     }
 
     @Override
     String[] requestIndices(IndicesRequest indicesRequest) {
-        final ShardSearchRequest request = (ShardSearchRequest) indicesRequest;
-        return new String[] { request.shardId().getIndexName() };
+        return shardSearchRequests(indicesRequest).stream().map(r -> r.shardId().getIndexName()).distinct().toArray(String[]::new);
     }
 
     @Override
     public boolean supports(IndicesRequest request) {
-        return request instanceof ShardSearchRequest;
+        return request instanceof ShardSearchRequest || request instanceof NodeQueryRequest;
+    }
+
+    /**
+     * The query phase of several shards on the same node may be sent in a single {@link NodeQueryRequest}, whose shard-level requests
+     * need the same treatment as those that are sent on their own.
+     */
+    private static List<ShardSearchRequest> shardSearchRequests(IndicesRequest indicesRequest) {
+        if (indicesRequest instanceof NodeQueryRequest nodeQueryRequest) {
+            return nodeQueryRequest.getShardSearchRequests();
+        }
+        return List.of((ShardSearchRequest) indicesRequest);
     }
 
     boolean dlsUsesStoredScripts(
@@ -8,13 +8,18 @@
 package org.elasticsearch.xpack.security.authz.interceptor;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.search.NodeQueryRequest;
+import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.license.MockLicenseState;
+import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
@@ -25,10 +30,14 @@ import org.elasticsearch.xpack.core.security.authz.permission.FieldPermissions;
 import org.junit.After;
 import org.junit.Before;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.elasticsearch.xpack.core.security.SecurityField.DOCUMENT_LEVEL_SECURITY_FEATURE;
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -97,4 +106,41 @@ public class ShardSearchRequestInterceptorTests extends ESTestCase {
         verify(shardSearchRequest, never()).requestCache(false);
     }
 
+    public void testRequestCacheWillBeDisabledForShardsOfNodeQueryRequestWhenDlsUsesStoredScripts() {
+        configureMinMondeVersion(Version.CURRENT);
+        assertTrue(interceptor.supports(new NodeQueryRequest(List.of(shardSearchRequest("index", 0), shardSearchRequest("index", 1)))));
+
+        final DocumentPermissions documentPermissions = DocumentPermissions.filteredBy(Set.of(new BytesArray("""
+            {"template":{"id":"my-script"}}""")));
+        final ShardSearchRequest dlsShard = shardSearchRequest("dls-index", 0);
+        final ShardSearchRequest otherDlsShard = shardSearchRequest("dls-index", 1);
+        final ShardSearchRequest otherShard = shardSearchRequest("other-index", 0);
+        final NodeQueryRequest nodeQueryRequest = new NodeQueryRequest(List.of(dlsShard, otherShard, otherDlsShard));
+        assertThat(interceptor.requestIndices(nodeQueryRequest), arrayContainingInAnyOrder("dls-index", "other-index"));
+
+        final PlainActionFuture<Void> listener = new PlainActionFuture<>();
+        interceptor.disableFeatures(
+            nodeQueryRequest,
+            Map.of("dls-index", new IndicesAccessControl.IndexAccessControl(true, FieldPermissions.DEFAULT, documentPermissions)),
+            listener
+        );
+        listener.actionGet();
+        assertThat(dlsShard.requestCache(), equalTo(false));
+        assertThat(otherDlsShard.requestCache(), equalTo(false));
+        assertThat(otherShard.requestCache(), nullValue());
+    }
+
+    private static ShardSearchRequest shardSearchRequest(String index, int shardId) {
+        return new ShardSearchRequest(
+            new OriginalIndices(new String[] { index }, SearchRequest.DEFAULT_INDICES_OPTIONS),
+            new SearchRequest(index),
+            new ShardId(index, index + "-uuid", shardId),
+            shardId,
+            2,
+            new AliasFilter(null, Strings.EMPTY_ARRAY),
+            1.0f,
+            0L,
+            null
+        );
+    }
 }